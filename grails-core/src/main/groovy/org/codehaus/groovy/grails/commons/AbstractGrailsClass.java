@@ -45,6 +45,12 @@ import org.springframework.util.Assert;
  */
 public abstract class AbstractGrailsClass implements GrailsClass {
 
+    /**
+     * When this system property is set to true artefacts only evaluate their names when they are created, and
+     * introspect their class when their properties are first accessed.
+     */
+    public static final String LAZY_INITIALIZATION_PROPERTY = "grails.artefacts.lazy";
+
     private final Class<?> clazz;
     private BeanWrapper reference;
     private final String fullName;
@@ -54,7 +60,8 @@ public abstract class AbstractGrailsClass implements GrailsClass {
     private final String shortName;
     private final String propertyName;
     private final String logicalPropertyName;
-    private final ClassPropertyFetcher classPropertyFetcher;
+    private final boolean lazy;
+    private volatile ClassPropertyFetcher classPropertyFetcher;
 
     /**
      * Used by all child classes to create a new instance and get the name right.
@@ -78,7 +85,32 @@ public abstract class AbstractGrailsClass implements GrailsClass {
         else {
             logicalPropertyName = GrailsNameUtils.getPropertyNameRepresentation(name);
         }
-        classPropertyFetcher = ClassPropertyFetcher.forClass(clazz);
+        lazy = Boolean.getBoolean(LAZY_INITIALIZATION_PROPERTY);
+        if (!lazy) {
+            classPropertyFetcher = ClassPropertyFetcher.forClass(clazz);
+        }
+    }
+
+    /**
+     * @return true if this artefact is initialized on first use rather than when it is created
+     * @see #LAZY_INITIALIZATION_PROPERTY
+     */
+    public boolean isLazilyInitialized() {
+        return lazy;
+    }
+
+    private ClassPropertyFetcher getClassPropertyFetcher() {
+        ClassPropertyFetcher fetcher = classPropertyFetcher;
+        if (fetcher == null) {
+            synchronized (this) {
+                fetcher = classPropertyFetcher;
+                if (fetcher == null) {
+                    fetcher = ClassPropertyFetcher.forClass(clazz);
+                    classPropertyFetcher = fetcher;
+                }
+            }
+        }
+        return fetcher;
     }
 
     public String getShortName() {
@@ -135,7 +167,7 @@ public abstract class AbstractGrailsClass implements GrailsClass {
     }
 
     public Object getReferenceInstance() {
-        Object obj = classPropertyFetcher.getReference();
+        Object obj = getClassPropertyFetcher().getReference();
         if (obj instanceof GroovyObject) {
             ((GroovyObject)obj).setMetaClass(getMetaClass());
         }
@@ -143,15 +175,15 @@ public abstract class AbstractGrailsClass implements GrailsClass {
     }
 
     public PropertyDescriptor[] getPropertyDescriptors() {
-        return classPropertyFetcher.getPropertyDescriptors();
+        return getClassPropertyFetcher().getPropertyDescriptors();
     }
 
     public Class<?> getPropertyType(String typeName) {
-        return classPropertyFetcher.getPropertyType(typeName);
+        return getClassPropertyFetcher().getPropertyType(typeName);
     }
 
     public boolean isReadableProperty(String propName) {
-        return classPropertyFetcher.isReadableProperty(propName);
+        return getClassPropertyFetcher().isReadableProperty(propName);
     }
 
     public boolean hasMetaMethod(String methodName) {
@@ -195,7 +227,7 @@ public abstract class AbstractGrailsClass implements GrailsClass {
      * @return property value or null if no property or static field was found
      */
     protected Object getPropertyOrStaticPropertyOrFieldValue(@SuppressWarnings("hiding") String name, Class<?> type) {
-        Object value = classPropertyFetcher.getPropertyValue(name);
+        Object value = getClassPropertyFetcher().getPropertyValue(name);
         return returnOnlyIfInstanceOf(value, type);
     }
 
@@ -207,7 +239,7 @@ public abstract class AbstractGrailsClass implements GrailsClass {
      * @return The property value or null
      */
     public <T> T getStaticPropertyValue(String propName, Class<T> type) {
-        T value = classPropertyFetcher.getStaticPropertyValue(propName, type);
+        T value = getClassPropertyFetcher().getStaticPropertyValue(propName, type);
         if (value == null) {
             return getGroovyProperty(propName, type, true);
         }
@@ -222,7 +254,7 @@ public abstract class AbstractGrailsClass implements GrailsClass {
      * @return The property value or null
      */
     public <T> T getPropertyValue(String propName, Class<T> type) {
-        T value = classPropertyFetcher.getPropertyValue(propName, type);
+        T value = getClassPropertyFetcher().getPropertyValue(propName, type);
         if (value == null) {
             // Groovy workaround
             return getGroovyProperty(propName, type, false);
@@ -271,7 +303,7 @@ public abstract class AbstractGrailsClass implements GrailsClass {
      * @see org.codehaus.groovy.grails.commons.GrailsClass#hasProperty(java.lang.String)
      */
     public boolean hasProperty(String propName) {
-        return classPropertyFetcher.isReadableProperty(propName);
+        return getClassPropertyFetcher().isReadableProperty(propName);
     }
 
     /**
@@ -16,6 +16,7 @@
 package org.codehaus.groovy.grails.commons;
 
 import java.beans.PropertyDescriptor;
+import java.lang.ref.SoftReference;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
@@ -25,7 +26,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.WeakHashMap;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
@@ -39,7 +40,9 @@ import org.springframework.util.ReflectionUtils.MethodCallback;
  * Accesses class "properties": static fields, static getters, instance fields
  * or instance getters.
  *
- * Method and Field instances are cached for fast access.
+ * Method and Field instances are cached for fast access. The fetchers are cached per class with
+ * weak keys and soft values, so that reloaded classes and their class loaders can still be
+ * garbage collected.
 
  * @author Lari Hotari, Sagire Software Oy
  * @author Graeme Rocher
@@ -50,13 +53,18 @@ public class ClassPropertyFetcher {
     private final Class<?> clazz;
     final Map<String, PropertyFetcher> staticFetchers = new HashMap<String, PropertyFetcher>();
     final Map<String, PropertyFetcher> instanceFetchers = new HashMap<String, PropertyFetcher>();
+    // static and instance fetchers, static first, so that any property resolves with a single lookup
+    private final Map<String, PropertyFetcher> fetchers = new HashMap<String, PropertyFetcher>();
     private final ReferenceInstanceCallback callback;
     private PropertyDescriptor[] propertyDescriptors;
 
-    private static Map<Class<?>, ClassPropertyFetcher> cachedClassPropertyFetchers = new ConcurrentHashMap<Class<?>, ClassPropertyFetcher>();
+    private static final Map<Class<?>, SoftReference<ClassPropertyFetcher>> cachedClassPropertyFetchers =
+        new WeakHashMap<Class<?>, SoftReference<ClassPropertyFetcher>>();
 
     public static void clearClassPropertyFetcherCache() {
-        cachedClassPropertyFetchers.clear();
+        synchronized (cachedClassPropertyFetchers) {
+            cachedClassPropertyFetchers.clear();
+        }
     }
 
     public static ClassPropertyFetcher forClass(Class<?> c) {
@@ -65,7 +73,11 @@ public class ClassPropertyFetcher {
 
     public static ClassPropertyFetcher forClass(final Class<?> c, ReferenceInstanceCallback callback) {
 
-        ClassPropertyFetcher cpf = cachedClassPropertyFetchers.get(c);
+        ClassPropertyFetcher cpf;
+        synchronized (cachedClassPropertyFetchers) {
+            SoftReference<ClassPropertyFetcher> ref = cachedClassPropertyFetchers.get(c);
+            cpf = ref == null ? null : ref.get();
+        }
         if (cpf == null) {
             if (callback == null) {
                 callback = new ReferenceInstanceCallback() {
@@ -79,8 +91,11 @@ public class ClassPropertyFetcher {
                     }
                 };
             }
+            // introspected outside the lock, since instantiating the class may look up other fetchers
             cpf = new ClassPropertyFetcher(c, callback);
-            cachedClassPropertyFetchers.put(c, cpf);
+            synchronized (cachedClassPropertyFetchers) {
+                cachedClassPropertyFetchers.put(c, new SoftReference<ClassPropertyFetcher>(cpf));
+            }
         }
         return cpf;
     }
@@ -103,8 +118,7 @@ public class ClassPropertyFetcher {
     }
 
     public boolean isReadableProperty(String name) {
-        return staticFetchers.containsKey(name)
-                || instanceFetchers.containsKey(name);
+        return fetchers.containsKey(name);
     }
 
     private void init() {
@@ -204,6 +218,9 @@ public class ClassPropertyFetcher {
                 }
             }
         }
+
+        fetchers.putAll(instanceFetchers);
+        fetchers.putAll(staticFetchers);
     }
 
     private List<Class<?>> resolveAllClasses(Class<?> c) {
@@ -260,14 +277,7 @@ public class ClassPropertyFetcher {
     }
 
     private PropertyFetcher resolveFetcher(String name, boolean onlyInstanceProperties) {
-        PropertyFetcher fetcher = null;
-        if (!onlyInstanceProperties) {
-            fetcher = staticFetchers.get(name);
-        }
-        if (fetcher == null) {
-            fetcher = instanceFetchers.get(name);
-        }
-        return fetcher;
+        return onlyInstanceProperties ? instanceFetchers.get(name) : fetchers.get(name);
     }
 
     public Class<?> getPropertyType(String name) {
@@ -15,19 +15,27 @@
 */
 package org.codehaus.groovy.grails.commons;
 
-import grails.util.Environment;
+import java.util.HashMap;
+import java.util.Map;
 
-import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.util.StringUtils;
 
 /**
+ * Resolves controllers by URI using an index of the URIs of the controllers' actions, built when the
+ * artefacts are initialized. Controllers whose actions have not been evaluated yet, with lazy artefact
+ * initialization, are indexed by their base URI until a request for them arrives.
+ *
  * @author Marc Palmer (marc@anyware.co.uk)
 */
 public class ControllerArtefactHandler extends ArtefactHandlerAdapter {
 
     public static final String TYPE = "Controller";
     public static final String PLUGIN_NAME = "controllers";
-    private ConcurrentHashMap<String, GrailsClass> uriToControllerClassCache;
+    private static final String SLASH = "/";
+    private static final String WILDCARD = "**";
+
     private ArtefactInfo artefactInfo;
+    private volatile UriIndex uriIndex;
 
     public ControllerArtefactHandler() {
         super(TYPE, GrailsControllerClass.class, DefaultGrailsControllerClass.class,
@@ -36,8 +44,8 @@ public class ControllerArtefactHandler extends ArtefactHandlerAdapter {
 
     @Override
     public void initialize(ArtefactInfo artefacts) {
-        uriToControllerClassCache = new ConcurrentHashMap<String, GrailsClass>();
         artefactInfo = artefacts;
+        uriIndex = new UriIndex(artefacts.getGrailsClasses());
     }
 
     @Override
@@ -52,24 +60,150 @@ public class ControllerArtefactHandler extends ArtefactHandlerAdapter {
         }
 
         String uri = feature.toString();
-        GrailsClass controllerClass = uriToControllerClassCache.get(uri);
-        if (controllerClass == null) {
-            final GrailsClass[] controllerClasses = artefactInfo.getGrailsClasses();
-            // iterate in reverse in order to pick up application classes first
-            for (int i = (controllerClasses.length-1); i >= 0; i--) {
-                GrailsClass c = controllerClasses[i];
-                if (((GrailsControllerClass) c).mapsToURI(uri)) {
-                    controllerClass = c;
-                    break;
+        UriIndex index = getUriIndex();
+        GrailsClass controllerClass = index.find(uri);
+        while (controllerClass != null && isPending(controllerClass)) {
+            // evaluate the actions of the controller and look again with its real URIs
+            ((GrailsControllerClass)controllerClass).getURIs();
+            index = uriIndex = new UriIndex(artefactInfo.getGrailsClasses());
+            controllerClass = index.find(uri);
+        }
+        if (controllerClass != null) {
+            return controllerClass;
+        }
+
+        // actions registered after initialization (eg. by scaffolding) aren't indexed
+        GrailsClass[] controllerClasses = index.controllerClasses;
+        // iterate in reverse in order to pick up application classes first
+        for (int i = (controllerClasses.length-1); i >= 0; i--) {
+            GrailsClass c = controllerClasses[i];
+            if (isPending(c) && !uri.startsWith(((DefaultGrailsControllerClass)c).getBaseURI())) {
+                continue;
+            }
+            if (((GrailsControllerClass) c).mapsToURI(uri)) {
+                return c;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the index of the current controllers, rebuilding it if the controllers changed since it
+     * was built, for example when a controller is reloaded.
+     */
+    private UriIndex getUriIndex() {
+        UriIndex index = uriIndex;
+        GrailsClass[] controllerClasses = artefactInfo.getGrailsClasses();
+        if (index == null || index.controllerClasses != controllerClasses) {
+            index = uriIndex = new UriIndex(controllerClasses);
+        }
+        return index;
+    }
+
+    private static boolean isPending(GrailsClass controllerClass) {
+        return controllerClass instanceof DefaultGrailsControllerClass &&
+                !((DefaultGrailsControllerClass)controllerClass).isInitialized();
+    }
+
+    /**
+     * A tree with a node per URI path element, built together with the array of controllers its nodes
+     * refer to so that a lookup never mixes an index with the controllers of a later reload. The URIs of
+     * a controller's actions are plain paths, optionally ending with /** which matches the path and
+     * anything below it, so that a lookup only walks the elements of the URI. Where more than one
+     * controller maps a URI the one registered last wins, as application controllers are registered
+     * after plugin controllers.
+     */
+    private static class UriIndex {
+        final GrailsClass[] controllerClasses;
+        private final UriNode root = new UriNode();
+
+        UriIndex(GrailsClass[] controllerClasses) {
+            this.controllerClasses = controllerClasses;
+            for (int i = 0; i < controllerClasses.length; i++) {
+                if (isPending(controllerClasses[i])) {
+                    String base = ((DefaultGrailsControllerClass)controllerClasses[i]).getBaseURI();
+                    root.add(base, i);
+                    root.add(base + SLASH, i);
+                    root.add(base + SLASH + WILDCARD, i);
+                    continue;
+                }
+
+                String[] uris = ((GrailsControllerClass)controllerClasses[i]).getURIs();
+                if (uris == null) {
+                    continue;
+                }
+                for (String uri : uris) {
+                    root.add(uri, i);
                 }
             }
-            if (controllerClass != null) {
-                // don't cache for dev environment
-                if (Environment.getCurrent() != Environment.DEVELOPMENT) {
-                    uriToControllerClassCache.putIfAbsent(uri, controllerClass);
+        }
+
+        GrailsClass find(String uri) {
+            int index = root.find(uri);
+            return index > -1 ? controllerClasses[index] : null;
+        }
+    }
+
+    private static String[] tokenize(String uri) {
+        // the same rules as AntPathMatcher, which mapsToURI uses
+        return StringUtils.tokenizeToStringArray(uri, SLASH, true, true);
+    }
+
+    private static class UriNode {
+        private final Map<String, UriNode> children = new HashMap<String, UriNode>();
+        private int exact = -1;
+        private int exactWithSlash = -1;
+        private int wildcard = -1;
+
+        void add(String uri, int index) {
+            if (!uri.startsWith(SLASH)) {
+                return;
+            }
+
+            String[] tokens = tokenize(uri);
+            boolean isWildcard = tokens.length > 0 && WILDCARD.equals(tokens[tokens.length - 1]);
+            int length = isWildcard ? tokens.length - 1 : tokens.length;
+
+            UriNode node = this;
+            for (int i = 0; i < length; i++) {
+                UriNode child = node.children.get(tokens[i]);
+                if (child == null) {
+                    child = new UriNode();
+                    node.children.put(tokens[i], child);
+                }
+                node = child;
+            }
+
+            if (isWildcard) {
+                node.wildcard = Math.max(node.wildcard, index);
+            }
+            else if (uri.endsWith(SLASH)) {
+                node.exactWithSlash = Math.max(node.exactWithSlash, index);
+            }
+            else {
+                node.exact = Math.max(node.exact, index);
+            }
+        }
+
+        int find(String uri) {
+            if (!uri.startsWith(SLASH)) {
+                return -1;
+            }
+
+            String[] tokens = tokenize(uri);
+            int found = -1;
+            UriNode node = this;
+            for (int i = 0; i < tokens.length && node != null; i++) {
+                node = node.children.get(tokens[i]);
+                if (node != null) {
+                    found = Math.max(found, node.wildcard);
                 }
             }
+
+            if (node != null && tokens.length > 0) {
+                found = Math.max(found, uri.endsWith(SLASH) ? node.exactWithSlash : node.exact);
+            }
+            return found;
         }
-        return controllerClass;
     }
 }
@@ -22,21 +22,30 @@ import java.util.LinkedList;
 import java.util.Map;
 
 /**
- * Mutable holder of artefact info.
+ * Mutable holder of artefact info. Classes are added by {@link #addGrailsClass(GrailsClass)} and
+ * become visible once {@link #updateComplete()} publishes immutable copies of the arrays and maps,
+ * so that readers never lock or see a partially updated state.
  *
  * @author Marc Palmer (marc@anyware.co.uk)
  * @author Graeme Rocher
  */
 public class DefaultArtefactInfo implements ArtefactInfo {
 
+    // modified by the add methods, guarded by this
     private LinkedList<GrailsClass> grailsClasses = new LinkedList<GrailsClass>();
-    private Class<?>[] classes;
-    private Map<String, GrailsClass> grailsClassesByName = new LinkedHashMap<String, GrailsClass>();
-    private Map<String, Class<?>> classesByName = new LinkedHashMap<String, Class<?>>();
-    private Map<String, GrailsClass> logicalPropertyNameToClassMap = new HashMap<String, GrailsClass>();
+    private Map<String, GrailsClass> addedGrailsClassesByName = new LinkedHashMap<String, GrailsClass>();
+    private Map<String, Class<?>> addedClassesByName = new LinkedHashMap<String, Class<?>>();
+    private Map<String, GrailsClass> addedLogicalPropertyNames = new HashMap<String, GrailsClass>();
+
+    // published by updateComplete
+    private volatile Class<?>[] classes = new Class[0];
+    private volatile Map<String, GrailsClass> grailsClassesByName = Collections.emptyMap();
+    private volatile Map<String, Class<?>> classesByName = Collections.emptyMap();
+    private volatile Map<String, GrailsClass> logicalPropertyNameToClassMap = Collections.emptyMap();
+    private volatile GrailsClass[] grailsClassesArray = new GrailsClass[0];
+
     @SuppressWarnings("rawtypes")
     public Map handlerData = new HashMap();
-    private GrailsClass[] grailsClassesArray;
 
     /**
      * <p>Call to add a new class to this info object.</p>
@@ -48,20 +57,17 @@ public class DefaultArtefactInfo implements ArtefactInfo {
     }
 
     private void addGrailsClassInternal(GrailsClass artefactClass, boolean atStart) {
-        grailsClassesByName = new LinkedHashMap<String, GrailsClass>(grailsClassesByName);
-        classesByName = new LinkedHashMap<String, Class<?>>(classesByName);
-
         Class<?> actualClass = artefactClass.getClazz();
         boolean addToGrailsClasses = true;
         if (artefactClass instanceof InjectableGrailsClass) {
             addToGrailsClasses = ((InjectableGrailsClass)artefactClass).getAvailable();
         }
         if (addToGrailsClasses) {
-            GrailsClass oldVersion = grailsClassesByName.put( actualClass.getName(), artefactClass);
+            GrailsClass oldVersion = addedGrailsClassesByName.put( actualClass.getName(), artefactClass);
             grailsClasses.remove(oldVersion);
         }
-        classesByName.put( actualClass.getName(), actualClass);
-        logicalPropertyNameToClassMap.put( artefactClass.getLogicalPropertyName(), artefactClass);
+        addedClassesByName.put( actualClass.getName(), actualClass);
+        addedLogicalPropertyNames.put( artefactClass.getLogicalPropertyName(), artefactClass);
 
         if (!grailsClasses.contains(artefactClass)) {
             if (atStart) {
@@ -77,12 +83,14 @@ public class DefaultArtefactInfo implements ArtefactInfo {
      * Refresh the arrays generated from the maps.
      */
     public synchronized void updateComplete() {
-        grailsClassesByName = Collections.unmodifiableMap(grailsClassesByName);
-        classesByName = Collections.unmodifiableMap(classesByName);
+        // publishes the maps first, so that every class in the arrays can be looked up by name
+        grailsClassesByName = Collections.unmodifiableMap(new LinkedHashMap<String, GrailsClass>(addedGrailsClassesByName));
+        classesByName = Collections.unmodifiableMap(new LinkedHashMap<String, Class<?>>(addedClassesByName));
+        logicalPropertyNameToClassMap = Collections.unmodifiableMap(new HashMap<String, GrailsClass>(addedLogicalPropertyNames));
 
         grailsClassesArray = grailsClasses.toArray(new GrailsClass[grailsClasses.size()]);
         // Make classes array
-        classes = classesByName.values().toArray(new Class[classesByName.size()]);
+        classes = addedClassesByName.values().toArray(new Class[addedClassesByName.size()]);
     }
 
     public Class<?>[] getClasses() {
@@ -109,7 +117,7 @@ public class DefaultArtefactInfo implements ArtefactInfo {
         return logicalPropertyNameToClassMap.get(logicalName);
     }
 
-    public void addOverridableGrailsClass(GrailsClass artefactGrailsClass) {
+    public synchronized void addOverridableGrailsClass(GrailsClass artefactGrailsClass) {
         addGrailsClassInternal(artefactGrailsClass, true);
     }
 }
@@ -29,6 +29,7 @@ import java.security.AccessControlException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -94,11 +95,15 @@ public class DefaultGrailsApplication extends GroovyObjectSupport implements Gra
 
     protected List<Class<?>> loadedClasses = new ArrayList<Class<?>>();
     protected GrailsResourceLoader resourceLoader;
-    protected ArtefactHandler[] artefactHandlers;
-    protected Map<String, ArtefactHandler> artefactHandlersByName = new HashMap<String, ArtefactHandler>();
-    protected List<Class<?>> allArtefactClasses = new ArrayList<Class<?>>();
-    protected Map<String, ArtefactInfo> artefactInfo = new HashMap<String, ArtefactInfo>();
-    protected Class<?>[] allArtefactClassesArray;
+    // the artefact handlers and artefacts are read without locking from immutable copies, which are
+    // replaced under the artefactLock when handlers are registered and artefacts are added or reloaded
+    protected volatile ArtefactHandler[] artefactHandlers;
+    protected volatile Map<String, ArtefactHandler> artefactHandlersByName = Collections.emptyMap();
+    protected volatile List<Class<?>> allArtefactClasses = Collections.emptyList();
+    protected volatile Map<String, ArtefactInfo> artefactInfo = Collections.emptyMap();
+    protected volatile Class<?>[] allArtefactClassesArray;
+    private final Map<String, ArtefactHandler> registeredArtefactHandlers = new HashMap<String, ArtefactHandler>();
+    private final Object artefactLock = new Object();
     @SuppressWarnings("rawtypes")
     protected Map applicationMeta = Metadata.getCurrent();
     protected Resource[] resources;
@@ -252,8 +257,10 @@ public class DefaultGrailsApplication extends GroovyObjectSupport implements Gra
         }
 
         // Cache the list as an array
-        artefactHandlers = artefactHandlersByName.values().toArray(
-                new ArtefactHandler[artefactHandlersByName.size()]);
+        synchronized (artefactLock) {
+            artefactHandlers = registeredArtefactHandlers.values().toArray(
+                    new ArtefactHandler[registeredArtefactHandlers.size()]);
+        }
     }
 
     /**
@@ -312,7 +319,8 @@ public class DefaultGrailsApplication extends GroovyObjectSupport implements Gra
 
     /**
      * Configures the loaded classes within the GrailsApplication instance using the
-     * registered ArtefactHandler instances.
+     * registered ArtefactHandler instances. The artefacts are collected separately and then replace
+     * the previous artefacts at once, so that lookups during a reload see either the old or the new artefacts.
      *
      * @param classes The classes to configure
      */
@@ -320,10 +328,9 @@ public class DefaultGrailsApplication extends GroovyObjectSupport implements Gra
 
         initArtefactHandlers();
 
-        artefactInfo.clear();
-        allArtefactClasses.clear();
-        allArtefactClassesArray = null;
         allClasses = classes;
+        Map<String, ArtefactInfo> infos = new HashMap<String, ArtefactInfo>();
+        List<Class<?>> artefactClasses = new ArrayList<Class<?>>();
 
         // first load the domain classes
         log.debug("Going to inspect artefact classes.");
@@ -333,7 +340,7 @@ public class DefaultGrailsApplication extends GroovyObjectSupport implements Gra
                 log.debug("[" + theClass.getName() + "] is abstract.");
                 continue;
             }
-            if (allArtefactClasses.contains(theClass)) {
+            if (artefactClasses.contains(theClass)) {
                 continue;
             }
 
@@ -341,21 +348,37 @@ public class DefaultGrailsApplication extends GroovyObjectSupport implements Gra
             for (ArtefactHandler artefactHandler : artefactHandlers) {
                 if (artefactHandler.isArtefact(theClass)) {
                     log.debug("Adding artefact " + theClass + " of kind " + artefactHandler.getType());
-                    GrailsClass gclass = addArtefact(artefactHandler.getType(), theClass);
+                    GrailsClass gclass = artefactHandler.newArtefactClass(theClass);
+                    if (!loadedClasses.contains(theClass)) {
+                        loadedClasses.add(theClass);
+                    }
                     // Also maintain set of all artefacts (!= all classes loaded)
-                    allArtefactClasses.add(theClass);
+                    artefactClasses.add(theClass);
 
                     // Update per-artefact cache
-                    DefaultArtefactInfo info = getArtefactInfo(artefactHandler.getType(), true);
+                    DefaultArtefactInfo info = (DefaultArtefactInfo)infos.get(artefactHandler.getType());
+                    if (info == null) {
+                        info = new DefaultArtefactInfo();
+                        infos.put(artefactHandler.getType(), info);
+                    }
                     info.addGrailsClass(gclass);
                     break;
                 }
             }
         }
 
-        refreshArtefactGrailsClassCaches();
+        for (ArtefactInfo info : infos.values()) {
+            ((DefaultArtefactInfo)info).updateComplete();
+        }
+        if (!artefactClasses.isEmpty()) {
+            populateAllClasses();
+        }
 
-        allArtefactClassesArray = allArtefactClasses.toArray(new Class[allArtefactClasses.size()]);
+        synchronized (artefactLock) {
+            artefactInfo = Collections.unmodifiableMap(infos);
+            allArtefactClasses = Collections.unmodifiableList(artefactClasses);
+            allArtefactClassesArray = artefactClasses.toArray(new Class[artefactClasses.size()]);
+        }
 
         // Tell all artefact handlers to init now we've worked out which classes are which artefacts
         for (ArtefactHandler artefactHandler : artefactHandlers) {
@@ -529,7 +552,11 @@ public class DefaultGrailsApplication extends GroovyObjectSupport implements Gra
      */
     public boolean isArtefact(@SuppressWarnings("rawtypes") Class theClazz) {
         String className = theClazz.getName();
-        for (Class<?> artefactClass : allArtefactClasses) {
+        Class<?>[] artefactClasses = allArtefactClassesArray;
+        if (artefactClasses == null) {
+            return false;
+        }
+        for (Class<?> artefactClass : artefactClasses) {
             if (className.equals(artefactClass.getName())) {
                 return true;
             }
@@ -602,7 +629,11 @@ public class DefaultGrailsApplication extends GroovyObjectSupport implements Gra
      */
     public GrailsClass[] getArtefacts(String artefactType) {
         if (!isWarDeployed()) {
-            DocumentationContext.getInstance().setArtefactType(artefactType);
+            // only plugins generating documentation need to know the current artefact type
+            DocumentationContext context = DocumentationContext.getInstance();
+            if (context.isActive()) {
+                context.setArtefactType(artefactType);
+            }
         }
         return getArtefactInfo(artefactType, true).getGrailsClasses();
     }
@@ -664,7 +695,11 @@ public class DefaultGrailsApplication extends GroovyObjectSupport implements Gra
      */
     public void registerArtefactHandler(ArtefactHandler handler) {
         GrailsApplicationAwareBeanPostProcessor.processAwareInterfaces(this, handler);
-        artefactHandlersByName.put(handler.getType(), handler);
+        synchronized (artefactLock) {
+            registeredArtefactHandlers.put(handler.getType(), handler);
+            artefactHandlersByName = Collections.unmodifiableMap(
+                    new HashMap<String, ArtefactHandler>(registeredArtefactHandlers));
+        }
     }
 
     public boolean hasArtefactHandler(String type) {
@@ -716,9 +751,16 @@ public class DefaultGrailsApplication extends GroovyObjectSupport implements Gra
     protected DefaultArtefactInfo getArtefactInfo(String artefactType, boolean create) {
         DefaultArtefactInfo cache = (DefaultArtefactInfo) artefactInfo.get(artefactType);
         if (cache == null && create) {
-            cache = new DefaultArtefactInfo();
-            artefactInfo.put(artefactType, cache);
-            cache.updateComplete();
+            synchronized (artefactLock) {
+                cache = (DefaultArtefactInfo) artefactInfo.get(artefactType);
+                if (cache == null) {
+                    cache = new DefaultArtefactInfo();
+                    cache.updateComplete();
+                    Map<String, ArtefactInfo> infos = new HashMap<String, ArtefactInfo>(artefactInfo);
+                    infos.put(artefactType, cache);
+                    artefactInfo = Collections.unmodifiableMap(infos);
+                }
+            }
         }
         return cache;
     }
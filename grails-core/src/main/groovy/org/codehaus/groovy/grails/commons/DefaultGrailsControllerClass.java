@@ -38,6 +38,8 @@ import org.springframework.util.AntPathMatcher;
 
 /**
  * Evaluates the conventions contained within controllers to perform auto-configuration.
+ * With lazy artefact initialization the actions are only evaluated when the controller is
+ * first asked about its URIs, views or actions.
  *
  * @author Graeme Rocher
  * @author Steven Devijver
@@ -62,7 +64,8 @@ public class DefaultGrailsControllerClass extends AbstractInjectableGrailsClass
     private Map<String, String> uri2closureMap = new HashMap<String, String>();
     private Map<String, String> viewNames = new HashMap<String, String>();
     private String[] uris;
-    private String uri;
+    private final String uri;
+    private volatile boolean initialized;
 
     private AntPathMatcher pathMatcher = new AntPathMatcher();
 
@@ -71,25 +74,63 @@ public class DefaultGrailsControllerClass extends AbstractInjectableGrailsClass
     private Map<String, PropertyDescriptor> flows = new HashMap<String, PropertyDescriptor>();
 
     public void setDefaultActionName(String defaultActionName) {
-        this.defaultActionName = defaultActionName;
-        configureDefaultActionIfSet();
-        configureURIsForCurrentState();
+        initialize();
+        synchronized (this) {
+            this.defaultActionName = defaultActionName;
+            configureDefaultActionIfSet();
+            configureURIsForCurrentState();
+        }
     }
 
     private String defaultActionName;
-    private String controllerPath;
+    private final String controllerPath;
 
     public DefaultGrailsControllerClass(Class<?> clazz) {
         super(clazz, CONTROLLER);
         uri = SLASH + GrailsNameUtils.getPropertyNameRepresentation(getName());
+        controllerPath = uri + SLASH;
+        if (!isLazilyInitialized()) {
+            initialize();
+        }
+    }
+
+    /**
+     * @return The URI of the controller, which the URIs of its actions start with
+     */
+    public String getBaseURI() {
+        return uri;
+    }
+
+    /**
+     * @return true once the actions of the controller have been evaluated
+     */
+    public boolean isInitialized() {
+        return initialized;
+    }
+
+    /*
+     * Evaluates the actions and flows of the controller, when the controller is created or, when lazily
+     * initialized, when it is first asked about them.
+     */
+    private void initialize() {
+        if (initialized) {
+            return;
+        }
+        synchronized (this) {
+            if (!initialized) {
+                evaluateActions();
+                initialized = true;
+            }
+        }
+    }
+
+    private void evaluateActions() {
         defaultActionName = getStaticPropertyValue(DEFAULT_CLOSURE_PROPERTY, String.class);
         if (defaultActionName == null) {
             defaultActionName = INDEX_ACTION;
         }
         Collection<String> closureNames = new ArrayList<String>();
 
-        controllerPath = uri + SLASH;
-
         for (PropertyDescriptor propertyDescriptor : getPropertyDescriptors()) {
             Method readMethod = propertyDescriptor.getReadMethod();
             if (readMethod != null && !Modifier.isStatic(readMethod.getModifiers())) {
@@ -140,10 +181,12 @@ public class DefaultGrailsControllerClass extends AbstractInjectableGrailsClass
     }
 
     public String[] getURIs() {
+        initialize();
         return uris;
     }
 
     public boolean mapsToURI(@SuppressWarnings("hiding") String uri) {
+        initialize();
         for (int i = 0; i < uris.length; i++) {
             if (pathMatcher.match(uris[i], uri)) {
                 return true;
@@ -153,14 +196,17 @@ public class DefaultGrailsControllerClass extends AbstractInjectableGrailsClass
     }
 
     public String getViewByURI(@SuppressWarnings("hiding") String uri) {
+        initialize();
         return uri2viewMap.get(uri);
     }
 
     public String getClosurePropertyName(@SuppressWarnings("hiding") String uri) {
+        initialize();
         return uri2closureMap.get(uri);
     }
 
     public String getViewByName(String viewName) {
+        initialize();
         if (viewNames.containsKey(viewName)) {
             return viewNames.get(viewName);
         }
@@ -287,6 +333,7 @@ public class DefaultGrailsControllerClass extends AbstractInjectableGrailsClass
     }
 
     public Map<String, Closure> getFlows() {
+        initialize();
         Map<String, Closure> closureFlows = new HashMap<String, Closure>();
         for (String name : flows.keySet()) {
             Closure c = getPropertyValue(name + "Flow", Closure.class);
@@ -298,15 +345,20 @@ public class DefaultGrailsControllerClass extends AbstractInjectableGrailsClass
     }
 
     public boolean isFlowAction(String actionName) {
+        initialize();
         return flows.containsKey(actionName);
     }
 
     public String getDefaultAction() {
+        initialize();
         return defaultActionName;
     }
 
     public void registerMapping(String actionName) {
-        configureMappingForClosureProperty(actionName);
-        configureURIsForCurrentState();
+        initialize();
+        synchronized (this) {
+            configureMappingForClosureProperty(actionName);
+            configureURIsForCurrentState();
+        }
     }
 }
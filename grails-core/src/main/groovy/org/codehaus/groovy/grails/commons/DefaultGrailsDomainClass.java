@@ -721,16 +721,18 @@ public class DefaultGrailsDomainClass extends AbstractGrailsClass implements Gra
         if (constraints == null) {
             initializeConstraints();
         }
-        return Collections.unmodifiableMap(constraints);
+        return constraints;
     }
 
     private void initializeConstraints() {
         // process the constraints
         if (defaultConstraints != null) {
-            constraints = GrailsDomainConfigurationUtil.evaluateConstraints(getClazz(), persistentProperties, defaultConstraints);
+            constraints = Collections.unmodifiableMap(GrailsDomainConfigurationUtil.evaluateConstraints(
+                    getClazz(), persistentProperties, defaultConstraints));
         }
         else {
-            constraints = GrailsDomainConfigurationUtil.evaluateConstraints(getClazz(), persistentProperties);
+            constraints = Collections.unmodifiableMap(GrailsDomainConfigurationUtil.evaluateConstraints(
+                    getClazz(), persistentProperties));
         }
     }
 
@@ -766,10 +768,12 @@ public class DefaultGrailsDomainClass extends AbstractGrailsClass implements Gra
 
     public void refreshConstraints() {
         if (defaultConstraints!=null) {
-            constraints = new DefaultConstraintEvaluator(defaultConstraints).evaluate(getClazz(), persistentProperties);
+            constraints = Collections.unmodifiableMap(
+                    new DefaultConstraintEvaluator(defaultConstraints).evaluate(getClazz(), persistentProperties));
         }
         else {
-            constraints = new DefaultConstraintEvaluator(defaultConstraints).evaluate(getClazz(), persistentProperties);
+            constraints = Collections.unmodifiableMap(
+                    new DefaultConstraintEvaluator(defaultConstraints).evaluate(getClazz(), persistentProperties));
         }
 
         // Embedded components have their own ComponentDomainClass instance which
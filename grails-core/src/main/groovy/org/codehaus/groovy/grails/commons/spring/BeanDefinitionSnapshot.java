@@ -0,0 +1,645 @@
+/* Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.grails.commons.spring;
+
+import grails.util.GrailsUtil;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.servlet.ServletContext;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.codehaus.groovy.grails.commons.GrailsApplication;
+import org.codehaus.groovy.grails.plugins.GrailsPlugin;
+import org.codehaus.groovy.grails.plugins.GrailsPluginManager;
+import org.codehaus.groovy.grails.support.StartupCacheKey;
+import org.codehaus.groovy.grails.support.StartupProfiler;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinitionHolder;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConstructorArgumentValues;
+import org.springframework.beans.factory.config.RuntimeBeanNameReference;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.config.TypedStringValue;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.MethodOverrides;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.support.AbstractApplicationContext;
+import org.springframework.util.StringUtils;
+
+/**
+ * Caches the bean definitions contributed by the doWithSpring closures of the plugins in a file, so that
+ * the next start of an unchanged WAR deployment can register them without evaluating the closures.
+ *
+ * The snapshot is keyed by a hash of the Grails version, the ordered plugin list, the application metadata
+ * and configuration and the bytecode of the application and plugin classes. When the key differs, or the
+ * file cannot be read, the closures are evaluated as usual and a new snapshot is written.
+ *
+ * Enabled for WAR deployments with the grails.spring.snapshot system property. The file is
+ * grails-beans.snapshot in the private temporary directory the servlet container provides for the
+ * application, or the file given by the grails.spring.snapshot.file system property.
+ *
+ * The doWithSpring closures of plugins that have effects besides defining beans, such as the hibernate
+ * plugin configuring GrailsDomainBinder, are evaluated on every start and their beans are not part of
+ * the snapshot. Further plugins can be excluded with a comma separated list of plugin names in the
+ * grails.spring.snapshot.exclude system property. Changes they make to the beans of other plugins are
+ * part of the snapshot. As they are evaluated after the restored bean definitions have been registered
+ * with the context, no snapshot is written when a plugin that is not excluded redefines a bean of an
+ * excluded plugin.
+ *
+ * The bean factory post processors the core plugin registers, which configure beans from Config.groovy,
+ * are stored by class name and created again on restore. No snapshot is written when evaluating
+ * doWithSpring has other effects the snapshot cannot reproduce: other bean factory post processors
+ * registered with the context, method overrides or bean property values that cannot be serialized, such
+ * as closures. The application, plugin manager and parent context are stored as references to the
+ * current instances.
+ *
+ * @since 1.4
+ */
+public class BeanDefinitionSnapshot {
+
+    public static final String ENABLED_PROPERTY = "grails.spring.snapshot";
+    public static final String FILE_PROPERTY = "grails.spring.snapshot.file";
+    public static final String EXCLUDE_PROPERTY = "grails.spring.snapshot.exclude";
+
+    private static final Log LOG = LogFactory.getLog(BeanDefinitionSnapshot.class);
+    private static final int FORMAT_VERSION = 3;
+    private static final String FILE_NAME = "grails-beans.snapshot";
+    private static final String SERVLET_TEMP_DIR = "javax.servlet.context.tempdir";
+    private static final String[] DEFAULT_EXCLUDES = { "hibernate" };
+    private static final List<String> RESTORABLE_POST_PROCESSORS = Arrays.asList(
+            "org.codehaus.groovy.grails.commons.cfg.MapBasedSmartPropertyOverrideConfigurer",
+            "org.codehaus.groovy.grails.commons.cfg.GrailsPlaceholderConfigurer");
+
+    private final GrailsApplication application;
+    private final GrailsPluginManager pluginManager;
+    private final ApplicationContext parent;
+    private final File file;
+
+    private String key;
+    private Set<String> contextBeanNamesBefore;
+    private List<BeanFactoryPostProcessor> postProcessorsBefore;
+    private final List<BeanFactoryPostProcessor> excludedPostProcessors = new ArrayList<BeanFactoryPostProcessor>();
+    private Set<String> excludedPlugins;
+    private final Set<String> excludedBeanNames = new HashSet<String>();
+    private String excludedBeanRedefinedBy;
+
+    public BeanDefinitionSnapshot(GrailsApplication application, GrailsPluginManager pluginManager,
+            ApplicationContext parent, File file) {
+        this.application = application;
+        this.pluginManager = pluginManager;
+        this.parent = parent;
+        this.file = file;
+    }
+
+    /**
+     * @param application The application
+     * @return true if snapshots are enabled for the application
+     */
+    public static boolean isEnabled(GrailsApplication application) {
+        return Boolean.getBoolean(ENABLED_PROPERTY) && application.isWarDeployed();
+    }
+
+    /**
+     * @param servletContext The servlet context of the application, may be null
+     * @return The snapshot file for the application, or null if neither a file is configured nor the
+     * servlet container provides a temporary directory for the application
+     */
+    public static File getDefaultFile(ServletContext servletContext) {
+        String path = System.getProperty(FILE_PROPERTY);
+        if (path != null && path.length() > 0) {
+            return new File(path);
+        }
+
+        Object tempDir = servletContext == null ? null : servletContext.getAttribute(SERVLET_TEMP_DIR);
+        if (tempDir instanceof File && ((File)tempDir).isDirectory()) {
+            return new File((File)tempDir, FILE_NAME);
+        }
+        return null;
+    }
+
+    /**
+     * Evaluates the doWithSpring closures of the plugins, restoring the bean definitions of plugins that
+     * are not excluded from the snapshot if possible and writing a new snapshot otherwise.
+     *
+     * @param springConfig The configuration
+     */
+    public void doRuntimeConfiguration(RuntimeSpringConfiguration springConfig) {
+        boolean restored = restore(springConfig);
+        if (!restored) {
+            beforeRuntimeConfiguration(springConfig);
+        }
+
+        StartupProfiler profiler = StartupProfiler.getInstance();
+        for (GrailsPlugin plugin : pluginManager.getAllPlugins()) {
+            if (!plugin.supportsCurrentScopeAndEnvironment() || restored && !isExcluded(plugin)) {
+                continue;
+            }
+
+            Map<String, Object> definitionsBefore = restored ? null : getDefinitions(springConfig);
+            List<BeanFactoryPostProcessor> pluginPostProcessorsBefore = restored ? null :
+                    getPostProcessors(springConfig.getUnrefreshedApplicationContext());
+            StartupProfiler.Step step = profiler.start("doWithSpring", plugin.getName());
+            try {
+                plugin.doWithRuntimeConfiguration(springConfig);
+            }
+            finally {
+                step.stop();
+            }
+            if (!restored) {
+                recordDefinitions(plugin, definitionsBefore, springConfig);
+                if (isExcluded(plugin)) {
+                    excludedPostProcessors.addAll(getAddedPostProcessors(pluginPostProcessorsBefore,
+                            springConfig.getUnrefreshedApplicationContext()));
+                }
+            }
+        }
+
+        if (!restored) {
+            save(springConfig);
+        }
+    }
+
+    /**
+     * @param plugin The plugin
+     * @return true if the doWithSpring closure of the plugin is evaluated on every start
+     */
+    public boolean isExcluded(GrailsPlugin plugin) {
+        if (excludedPlugins == null) {
+            excludedPlugins = new LinkedHashSet<String>(Arrays.asList(DEFAULT_EXCLUDES));
+            String excludes = System.getProperty(EXCLUDE_PROPERTY);
+            if (excludes != null) {
+                excludedPlugins.addAll(Arrays.asList(StringUtils.commaDelimitedListToStringArray(
+                        StringUtils.trimAllWhitespace(excludes))));
+            }
+        }
+        return excludedPlugins.contains(plugin.getName());
+    }
+
+    /*
+     * The bean configurations and definitions by name, to find the beans a plugin defined or redefined.
+     */
+    private Map<String, Object> getDefinitions(RuntimeSpringConfiguration springConfig) {
+        Map<String, Object> definitions = new HashMap<String, Object>();
+        ApplicationContext context = springConfig.getUnrefreshedApplicationContext();
+        if (context instanceof BeanDefinitionRegistry) {
+            for (String name : context.getBeanDefinitionNames()) {
+                definitions.put(name, ((BeanDefinitionRegistry)context).getBeanDefinition(name));
+            }
+        }
+        for (String name : springConfig.getBeanNames()) {
+            Object definition = springConfig.getBeanConfig(name);
+            definitions.put(name, definition == null ? springConfig.getBeanDefinition(name) : definition);
+        }
+        return definitions;
+    }
+
+    private void recordDefinitions(GrailsPlugin plugin, Map<String, Object> definitionsBefore,
+            RuntimeSpringConfiguration springConfig) {
+        boolean excluded = isExcluded(plugin);
+        for (Map.Entry<String, Object> entry : getDefinitions(springConfig).entrySet()) {
+            if (entry.getValue() == definitionsBefore.get(entry.getKey())) {
+                continue;
+            }
+            if (excluded) {
+                excludedBeanNames.add(entry.getKey());
+            }
+            else if (excludedBeanNames.contains(entry.getKey()) && excludedBeanRedefinedBy == null) {
+                excludedBeanRedefinedBy = "plugin [" + plugin.getName() + "] redefines bean [" + entry.getKey() +
+                        "] of a plugin excluded from the snapshot";
+            }
+        }
+    }
+
+    /**
+     * Registers the bean definitions from the snapshot with the unrefreshed context of the given configuration,
+     * if the snapshot exists and was taken from the same application. Bean configurations added to the
+     * configuration later, such as those from resources.groovy, still override them.
+     *
+     * @param springConfig The configuration
+     * @return true if the bean definitions were restored, false if doWithSpring has to be evaluated
+     */
+    @SuppressWarnings("unchecked")
+    public boolean restore(RuntimeSpringConfiguration springConfig) {
+        ApplicationContext context = springConfig.getUnrefreshedApplicationContext();
+        if (!file.exists() || !(context instanceof BeanDefinitionRegistry)) {
+            return false;
+        }
+
+        Map<String, BeanDefinition> beans;
+        Map<String, String[]> aliases;
+        List<BeanFactoryPostProcessor> postProcessors = new ArrayList<BeanFactoryPostProcessor>();
+        try {
+            ObjectInputStream input = new SnapshotInputStream(new BufferedInputStream(new FileInputStream(file)));
+            try {
+                if (input.readInt() != FORMAT_VERSION || !getKey().equals(input.readUTF())) {
+                    LOG.info("Application changed since the bean definition snapshot [" + file + "] was taken, evaluating doWithSpring");
+                    return false;
+                }
+                beans = (Map<String, BeanDefinition>)input.readObject();
+                aliases = (Map<String, String[]>)input.readObject();
+                for (String className : (List<String>)input.readObject()) {
+                    postProcessors.add(createPostProcessor(className));
+                }
+            }
+            finally {
+                input.close();
+            }
+        }
+        catch (Exception e) {
+            LOG.warn("Cannot read bean definition snapshot [" + file + "], evaluating doWithSpring: " + e.getMessage(), e);
+            return false;
+        }
+
+        BeanDefinitionRegistry registry = (BeanDefinitionRegistry)context;
+        for (Map.Entry<String, BeanDefinition> entry : beans.entrySet()) {
+            registry.registerBeanDefinition(entry.getKey(), entry.getValue());
+        }
+        for (Map.Entry<String, String[]> entry : aliases.entrySet()) {
+            for (String alias : entry.getValue()) {
+                registry.registerAlias(entry.getKey(), alias);
+            }
+        }
+        for (BeanFactoryPostProcessor postProcessor : postProcessors) {
+            springConfig.registerPostProcessor(postProcessor);
+        }
+        LOG.info("Restored [" + beans.size() + "] bean definitions from snapshot [" + file + "]");
+        return true;
+    }
+
+    /**
+     * Records the state of the configuration before doWithSpring is evaluated.
+     *
+     * @param springConfig The configuration
+     */
+    public void beforeRuntimeConfiguration(RuntimeSpringConfiguration springConfig) {
+        ApplicationContext context = springConfig.getUnrefreshedApplicationContext();
+        contextBeanNamesBefore = new HashSet<String>(Arrays.asList(context.getBeanDefinitionNames()));
+        postProcessorsBefore = getPostProcessors(context);
+    }
+
+    /**
+     * Writes the bean definitions contributed by doWithSpring to the snapshot file.
+     *
+     * @param springConfig The configuration doWithSpring was evaluated against
+     */
+    public void save(RuntimeSpringConfiguration springConfig) {
+        ApplicationContext context = springConfig.getUnrefreshedApplicationContext();
+        if (contextBeanNamesBefore == null || !(context instanceof BeanDefinitionRegistry)) {
+            return;
+        }
+        List<String> postProcessors = new ArrayList<String>();
+        for (BeanFactoryPostProcessor postProcessor : getAddedPostProcessors(postProcessorsBefore, context)) {
+            if (containsIdentical(excludedPostProcessors, postProcessor)) {
+                continue;
+            }
+            String className = postProcessor.getClass().getName();
+            if (!RESTORABLE_POST_PROCESSORS.contains(className)) {
+                LOG.info("Not writing bean definition snapshot, plugins registered bean factory post processor [" +
+                        className + "] in doWithSpring");
+                return;
+            }
+            postProcessors.add(className);
+        }
+        if (excludedBeanRedefinedBy != null) {
+            LOG.info("Not writing bean definition snapshot, " + excludedBeanRedefinedBy);
+            return;
+        }
+
+        // definitions registered with the context directly are overridden by the configured ones, as on refresh
+        Map<String, BeanDefinition> beans = new LinkedHashMap<String, BeanDefinition>();
+        for (String name : context.getBeanDefinitionNames()) {
+            if (!contextBeanNamesBefore.contains(name)) {
+                beans.put(name, ((BeanDefinitionRegistry)context).getBeanDefinition(name));
+            }
+        }
+        for (String name : springConfig.getBeanNames()) {
+            beans.remove(name);
+            beans.put(name, springConfig.createBeanDefinition(name));
+        }
+        beans.keySet().removeAll(excludedBeanNames);
+
+        Map<String, String[]> aliases = new LinkedHashMap<String, String[]>();
+        for (String name : beans.keySet()) {
+            Set<String> beanAliases = new LinkedHashSet<String>(Arrays.asList(context.getAliases(name)));
+            beanAliases.addAll(springConfig.getAliases(name));
+            if (!beanAliases.isEmpty()) {
+                aliases.put(name, beanAliases.toArray(new String[beanAliases.size()]));
+            }
+        }
+
+        File tmp = new File(file.getPath() + ".tmp");
+        try {
+            ObjectOutputStream output = new SnapshotOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+            try {
+                output.writeInt(FORMAT_VERSION);
+                output.writeUTF(getKey());
+                output.writeObject(beans);
+                output.writeObject(aliases);
+                output.writeObject(postProcessors);
+            }
+            finally {
+                output.close();
+            }
+            if (file.exists() && !file.delete() || !tmp.renameTo(file)) {
+                throw new IOException("Cannot replace [" + file + "]");
+            }
+        }
+        catch (NotSerializableException e) {
+            tmp.delete();
+            LOG.info("Not writing bean definition snapshot, a bean definition contains an instance of [" + e.getMessage() +
+                    "] which cannot be serialized");
+        }
+        catch (IOException e) {
+            tmp.delete();
+            LOG.warn("Cannot write bean definition snapshot [" + file + "]: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return A hash of everything the bean definitions contributed by doWithSpring may depend on
+     */
+    public String getKey() {
+        if (key == null) {
+            key = computeKey();
+        }
+        return key;
+    }
+
+    private String computeKey() {
+        StartupCacheKey cacheKey = new StartupCacheKey();
+        cacheKey.add(GrailsUtil.getGrailsVersion());
+        cacheKey.add(application.getMetadata());
+        cacheKey.add(application.getFlatConfig());
+
+        ClassLoader classLoader = application.getClassLoader();
+        for (GrailsPlugin plugin : pluginManager.getAllPlugins()) {
+            cacheKey.add(plugin.getName() + ':' + plugin.getVersion() + (isExcluded(plugin) ? ":excluded" : ""));
+            cacheKey.add(classLoader, plugin.getPluginClass());
+        }
+        for (Class<?> type : application.getAllClasses()) {
+            cacheKey.add(classLoader, type);
+        }
+        return cacheKey.toString();
+    }
+
+    private List<BeanFactoryPostProcessor> getPostProcessors(ApplicationContext context) {
+        if (context instanceof AbstractApplicationContext) {
+            return new ArrayList<BeanFactoryPostProcessor>(((AbstractApplicationContext)context).getBeanFactoryPostProcessors());
+        }
+        return new ArrayList<BeanFactoryPostProcessor>();
+    }
+
+    private List<BeanFactoryPostProcessor> getAddedPostProcessors(List<BeanFactoryPostProcessor> before,
+            ApplicationContext context) {
+        List<BeanFactoryPostProcessor> added = new ArrayList<BeanFactoryPostProcessor>();
+        for (BeanFactoryPostProcessor postProcessor : getPostProcessors(context)) {
+            if (!containsIdentical(before, postProcessor)) {
+                added.add(postProcessor);
+            }
+        }
+        return added;
+    }
+
+    private boolean containsIdentical(List<BeanFactoryPostProcessor> postProcessors, BeanFactoryPostProcessor postProcessor) {
+        for (BeanFactoryPostProcessor candidate : postProcessors) {
+            if (candidate == postProcessor) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * Creates one of the restorable post processors, which take the application or nothing.
+     */
+    private BeanFactoryPostProcessor createPostProcessor(String className) throws Exception {
+        if (!RESTORABLE_POST_PROCESSORS.contains(className)) {
+            throw new IOException("Bean factory post processor [" + className + "] cannot be restored");
+        }
+        Class<?> type = Class.forName(className, true, application.getClassLoader());
+        for (Constructor<?> constructor : type.getConstructors()) {
+            Class<?>[] parameterTypes = constructor.getParameterTypes();
+            if (parameterTypes.length == 1 && parameterTypes[0].isAssignableFrom(GrailsApplication.class)) {
+                return (BeanFactoryPostProcessor)constructor.newInstance(application);
+            }
+        }
+        return (BeanFactoryPostProcessor)type.newInstance();
+    }
+
+    /**
+     * Replaces the parts of bean definitions that are not serializable with serializable equivalents.
+     */
+    private class SnapshotOutputStream extends ObjectOutputStream {
+
+        SnapshotOutputStream(OutputStream out) throws IOException {
+            super(out);
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(Object obj) throws IOException {
+            if (obj == null) {
+                return null;
+            }
+            if (obj == application) {
+                return LiveObject.APPLICATION;
+            }
+            if (obj == pluginManager) {
+                return LiveObject.PLUGIN_MANAGER;
+            }
+            if (obj == parent) {
+                return LiveObject.PARENT_CONTEXT;
+            }
+            if (obj instanceof RuntimeBeanReference) {
+                RuntimeBeanReference reference = (RuntimeBeanReference)obj;
+                return new BeanReference(reference.getBeanName(), reference.isToParent(), false);
+            }
+            if (obj instanceof RuntimeBeanNameReference) {
+                return new BeanReference(((RuntimeBeanNameReference)obj).getBeanName(), false, true);
+            }
+            if (obj instanceof TypedStringValue) {
+                TypedStringValue value = (TypedStringValue)obj;
+                return new StringValue(value.getValue(), value.getTargetTypeName());
+            }
+            if (obj instanceof BeanDefinitionHolder) {
+                BeanDefinitionHolder holder = (BeanDefinitionHolder)obj;
+                return new InnerBean(holder.getBeanName(), holder.getBeanDefinition(), holder.getAliases());
+            }
+            if (obj instanceof ConstructorArgumentValues) {
+                return new ConstructorArguments((ConstructorArgumentValues)obj);
+            }
+            if (obj instanceof MethodOverrides) {
+                if (!((MethodOverrides)obj).isEmpty()) {
+                    throw new NotSerializableException(MethodOverrides.class.getName());
+                }
+                return LiveObject.NO_METHOD_OVERRIDES;
+            }
+            return obj;
+        }
+    }
+
+    private class SnapshotInputStream extends ObjectInputStream {
+
+        SnapshotInputStream(InputStream in) throws IOException {
+            super(in);
+            enableResolveObject(true);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            try {
+                return Class.forName(desc.getName(), false, application.getClassLoader());
+            }
+            catch (ClassNotFoundException e) {
+                return super.resolveClass(desc);
+            }
+        }
+
+        @Override
+        protected Object resolveObject(Object obj) {
+            if (obj == LiveObject.APPLICATION) {
+                return application;
+            }
+            if (obj == LiveObject.PLUGIN_MANAGER) {
+                return pluginManager;
+            }
+            if (obj == LiveObject.PARENT_CONTEXT) {
+                return parent;
+            }
+            if (obj == LiveObject.NO_METHOD_OVERRIDES) {
+                return new MethodOverrides();
+            }
+            if (obj instanceof Replacement) {
+                return ((Replacement)obj).resolve();
+            }
+            return obj;
+        }
+    }
+
+    private static enum LiveObject {
+        APPLICATION, PLUGIN_MANAGER, PARENT_CONTEXT, NO_METHOD_OVERRIDES
+    }
+
+    private static interface Replacement extends Serializable {
+        Object resolve();
+    }
+
+    private static class BeanReference implements Replacement {
+        private static final long serialVersionUID = 1;
+        private final String beanName;
+        private final boolean toParent;
+        private final boolean nameOnly;
+
+        BeanReference(String beanName, boolean toParent, boolean nameOnly) {
+            this.beanName = beanName;
+            this.toParent = toParent;
+            this.nameOnly = nameOnly;
+        }
+
+        public Object resolve() {
+            return nameOnly ? new RuntimeBeanNameReference(beanName) : new RuntimeBeanReference(beanName, toParent);
+        }
+    }
+
+    private static class StringValue implements Replacement {
+        private static final long serialVersionUID = 1;
+        private final String value;
+        private final String targetTypeName;
+
+        StringValue(String value, String targetTypeName) {
+            this.value = value;
+            this.targetTypeName = targetTypeName;
+        }
+
+        public Object resolve() {
+            return targetTypeName == null ? new TypedStringValue(value) : new TypedStringValue(value, targetTypeName);
+        }
+    }
+
+    private static class InnerBean implements Replacement {
+        private static final long serialVersionUID = 1;
+        private final String beanName;
+        private final BeanDefinition beanDefinition;
+        private final String[] aliases;
+
+        InnerBean(String beanName, BeanDefinition beanDefinition, String[] aliases) {
+            this.beanName = beanName;
+            this.beanDefinition = beanDefinition;
+            this.aliases = aliases;
+        }
+
+        public Object resolve() {
+            return new BeanDefinitionHolder(beanDefinition, beanName, aliases);
+        }
+    }
+
+    private static class ConstructorArguments implements Replacement {
+        private static final long serialVersionUID = 1;
+        private final Map<Integer, Object[]> indexed = new LinkedHashMap<Integer, Object[]>();
+        private final List<Object[]> generic = new ArrayList<Object[]>();
+
+        ConstructorArguments(ConstructorArgumentValues values) {
+            for (Map.Entry<Integer, ConstructorArgumentValues.ValueHolder> entry : values.getIndexedArgumentValues().entrySet()) {
+                indexed.put(entry.getKey(), toArray(entry.getValue()));
+            }
+            for (ConstructorArgumentValues.ValueHolder holder : values.getGenericArgumentValues()) {
+                generic.add(toArray(holder));
+            }
+        }
+
+        private Object[] toArray(ConstructorArgumentValues.ValueHolder holder) {
+            return new Object[] { holder.getValue(), holder.getType(), holder.getName() };
+        }
+
+        private ConstructorArgumentValues.ValueHolder toHolder(Object[] value) {
+            return new ConstructorArgumentValues.ValueHolder(value[0], (String)value[1], (String)value[2]);
+        }
+
+        public Object resolve() {
+            ConstructorArgumentValues values = new ConstructorArgumentValues();
+            for (Map.Entry<Integer, Object[]> entry : indexed.entrySet()) {
+                values.addIndexedArgumentValue(entry.getKey(), toHolder(entry.getValue()));
+            }
+            for (Object[] value : generic) {
+                values.addGenericArgumentValue(toHolder(value));
+            }
+            return values;
+        }
+    }
+}
@@ -21,6 +21,7 @@ import groovy.lang.Closure;
 import groovy.lang.Script;
 import groovy.lang.Binding;
 
+import java.io.File;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
@@ -34,6 +35,7 @@ import org.codehaus.groovy.grails.commons.GrailsApplication;
 import org.codehaus.groovy.grails.plugins.DefaultGrailsPluginManager;
 import org.codehaus.groovy.grails.plugins.GrailsPluginManager;
 import org.codehaus.groovy.grails.plugins.PluginManagerHolder;
+import org.codehaus.groovy.grails.support.StartupProfiler;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
@@ -126,6 +128,8 @@ public class GrailsRuntimeConfigurator implements ApplicationContextAware {
 
         // TODO GRAILS-720 this causes plugin beans to be re-created - should get getApplicationContext always call refresh?
         WebApplicationContext ctx;
+        StartupProfiler profiler = StartupProfiler.getInstance();
+        StartupProfiler.Step configureStep = profiler.start("configure");
         try {
             WebRuntimeSpringConfiguration springConfig = createWebRuntimeSpringConfiguration(application, parent, application.getClassLoader());
             springConfig.setBeanFactory(new ReloadAwareAutowireCapableBeanFactory());
@@ -135,19 +139,37 @@ public class GrailsRuntimeConfigurator implements ApplicationContextAware {
                 pluginManager.setServletContext(context);
             }
             if (!pluginManager.isInitialised()) {
-                pluginManager.loadPlugins();
+                StartupProfiler.Step step = profiler.start("loadPlugins");
+                try {
+                    pluginManager.loadPlugins();
+                }
+                finally {
+                    step.stop();
+                }
             }
 
             if (!application.isInitialised()) {
-                pluginManager.doArtefactConfiguration();
-                application.initialise();
+                StartupProfiler.Step step = profiler.start("artefactConfiguration");
+                try {
+                    pluginManager.doArtefactConfiguration();
+                    application.initialise();
+                }
+                finally {
+                    step.stop();
+                }
             }
 
             pluginManager.registerProvidedArtefacts(application);
 
             registerParentBeanFactoryPostProcessors(springConfig);
 
-            pluginManager.doRuntimeConfiguration(springConfig);
+            StartupProfiler.Step doWithSpringStep = profiler.start("doWithSpring");
+            try {
+                doRuntimeConfiguration(springConfig, context);
+            }
+            finally {
+                doWithSpringStep.stop();
+            }
 
             // configure scaffolding
             LOG.debug("[RuntimeConfiguration] Processing additional external configurations");
@@ -158,25 +180,59 @@ public class GrailsRuntimeConfigurator implements ApplicationContextAware {
 
             reset();
 
-            ctx = (WebApplicationContext) springConfig.getApplicationContext();
+            StartupProfiler.Step refreshStep = profiler.start("refreshApplicationContext");
+            try {
+                ctx = (WebApplicationContext) springConfig.getApplicationContext();
+            }
+            finally {
+                refreshStep.stop();
+            }
 
             application.setMainContext(ctx);
             pluginManager.setApplicationContext(ctx);
-            pluginManager.doDynamicMethods();
+            StartupProfiler.Step dynamicMethodsStep = profiler.start("doWithDynamicMethods");
+            try {
+                pluginManager.doDynamicMethods();
+            }
+            finally {
+                dynamicMethodsStep.stop();
+            }
 
             ctx.publishEvent(new GrailsContextEvent(ctx, GrailsContextEvent.DYNAMIC_METHODS_REGISTERED));
 
-            performPostProcessing(ctx);
+            StartupProfiler.Step postProcessingStep = profiler.start("doWithApplicationContext");
+            try {
+                performPostProcessing(ctx);
+            }
+            finally {
+                postProcessingStep.stop();
+            }
 
             application.refreshConstraints();
         }
         finally {
             ClassPropertyFetcher.clearClassPropertyFetcherCache();
+            configureStep.stop();
         }
 
         return ctx;
     }
 
+    /**
+     * Evaluates the doWithSpring closures of the plugins, or when enabled restores the bean definitions
+     * they produced from a {@link BeanDefinitionSnapshot} of an earlier start.
+     */
+    private void doRuntimeConfiguration(RuntimeSpringConfiguration springConfig, ServletContext context) {
+        File snapshotFile = BeanDefinitionSnapshot.isEnabled(application) ?
+                BeanDefinitionSnapshot.getDefaultFile(context) : null;
+        if (snapshotFile == null) {
+            pluginManager.doRuntimeConfiguration(springConfig);
+            return;
+        }
+
+        new BeanDefinitionSnapshot(application, pluginManager, parent, snapshotFile).doRuntimeConfiguration(springConfig);
+    }
+
     protected WebRuntimeSpringConfiguration createWebRuntimeSpringConfiguration(
             @SuppressWarnings("unused") GrailsApplication app,
             ApplicationContext parentCtx, ClassLoader classLoader) {
@@ -0,0 +1,239 @@
+/* Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.grails.compiler.injection;
+
+import grails.util.GrailsNameUtils;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.codehaus.groovy.ast.ASTNode;
+import org.codehaus.groovy.ast.ClassHelper;
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.FieldNode;
+import org.codehaus.groovy.ast.MethodNode;
+import org.codehaus.groovy.ast.ModuleNode;
+import org.codehaus.groovy.ast.Parameter;
+import org.codehaus.groovy.ast.expr.ArgumentListExpression;
+import org.codehaus.groovy.ast.expr.BinaryExpression;
+import org.codehaus.groovy.ast.expr.BooleanExpression;
+import org.codehaus.groovy.ast.expr.ConstantExpression;
+import org.codehaus.groovy.ast.expr.ConstructorCallExpression;
+import org.codehaus.groovy.ast.expr.FieldExpression;
+import org.codehaus.groovy.ast.expr.MethodCallExpression;
+import org.codehaus.groovy.ast.expr.VariableExpression;
+import org.codehaus.groovy.ast.stmt.BlockStatement;
+import org.codehaus.groovy.ast.stmt.EmptyStatement;
+import org.codehaus.groovy.ast.stmt.ExpressionStatement;
+import org.codehaus.groovy.ast.stmt.IfStatement;
+import org.codehaus.groovy.ast.stmt.ReturnStatement;
+import org.codehaus.groovy.ast.stmt.ThrowStatement;
+import org.codehaus.groovy.classgen.GeneratorContext;
+import org.codehaus.groovy.control.SourceUnit;
+import org.codehaus.groovy.grails.commons.GrailsResourceUtils;
+import org.codehaus.groovy.syntax.Token;
+import org.codehaus.groovy.syntax.Types;
+import org.codehaus.groovy.transform.ASTTransformation;
+
+/**
+ * Weaves the methods of an API class, such as ControllersApi, into the artefacts of a grails-app directory
+ * at compile time. For each public instance method of the API that takes the artefact as its first
+ * argument the artefact gets a method of the same name taking the remaining arguments, which delegates to
+ * the API instance held in a private static field of the artefact. Methods the artefact declares itself
+ * are not woven.
+ *
+ * The plugin providing the API sets the field with {@link #setApiInstance(Class, Object)} when the
+ * application starts and only needs to register the API methods on the MetaClass of artefacts that
+ * were compiled without them, for example by a GroovyClassLoader in a test.
+ *
+ * @since 1.4
+ */
+public abstract class AbstractGrailsArtefactTransformer implements ClassInjector, ASTTransformation {
+
+    private static final String INSTANCE_PREFIX = "instance";
+    private static final List<String> EXCLUDED_METHODS = Arrays.asList(
+            "setMetaClass", "getMetaClass", "setProperty", "getProperty", "invokeMethod", "methodMissing", "propertyMissing");
+
+    private final Pattern artefactPathPattern = Pattern.compile(
+            ".+/" + GrailsResourceUtils.GRAILS_APP_DIR + "/" + getArtefactDirectory() + "/(.+)\\.groovy");
+
+    /**
+     * @return The class whose instance methods are woven into the artefacts
+     */
+    public abstract Class<?> getInstanceImplementation();
+
+    /**
+     * @return The directory below grails-app containing the artefacts, for example "controllers"
+     */
+    protected abstract String getArtefactDirectory();
+
+    /**
+     * @return The suffix of the names of the artefact classes, for example "Controller"
+     */
+    protected abstract String getArtefactSuffix();
+
+    /**
+     * Sets the API instance the compiled methods of an artefact class delegate to.
+     *
+     * @param artefactClass The artefact class
+     * @param apiInstance The API instance
+     * @return true if the class was compiled with the methods of the API, false if they have to be
+     * added to its MetaClass
+     */
+    public static boolean setApiInstance(Class<?> artefactClass, Object apiInstance) {
+        for (Class<?> apiClass = apiInstance.getClass(); apiClass != Object.class; apiClass = apiClass.getSuperclass()) {
+            Field field;
+            try {
+                field = artefactClass.getDeclaredField(getApiFieldName(apiClass));
+            }
+            catch (NoSuchFieldException e) {
+                continue;
+            }
+
+            if (!Modifier.isStatic(field.getModifiers()) || !field.getType().isInstance(apiInstance)) {
+                continue;
+            }
+            try {
+                field.setAccessible(true);
+                field.set(null, apiInstance);
+                return true;
+            }
+            catch (IllegalAccessException e) {
+                throw new IllegalStateException("Cannot set API instance of class [" + artefactClass.getName() +
+                        "]: " + e.getMessage(), e);
+            }
+        }
+        return false;
+    }
+
+    private static String getApiFieldName(Class<?> apiClass) {
+        return INSTANCE_PREFIX + apiClass.getSimpleName();
+    }
+
+    public void visit(ASTNode[] nodes, SourceUnit source) {
+        if (!(nodes[0] instanceof ModuleNode)) {
+            return;
+        }
+
+        for (ClassNode classNode : ((ModuleNode)nodes[0]).getClasses()) {
+            performInjection(source, classNode);
+        }
+    }
+
+    public void performInjection(SourceUnit source, GeneratorContext context, ClassNode classNode) {
+        if (isArtefactClass(classNode, source)) {
+            weaveInstanceApi(classNode);
+        }
+    }
+
+    public void performInjection(SourceUnit source, ClassNode classNode) {
+        performInjection(source, null, classNode);
+    }
+
+    public boolean shouldInject(URL url) {
+        return url != null && artefactPathPattern.matcher(url.getFile()).find();
+    }
+
+    protected boolean isArtefactClass(ClassNode classNode, SourceUnit source) {
+        if (classNode.isInterface() || classNode.getOuterClass() != null ||
+                !classNode.getName().endsWith(getArtefactSuffix())) {
+            return false;
+        }
+
+        String path = new File(source.getName()).getAbsolutePath().replace('\\', '/');
+        return artefactPathPattern.matcher(path).matches();
+    }
+
+    private void weaveInstanceApi(ClassNode classNode) {
+        Class<?> apiClass = getInstanceImplementation();
+        String fieldName = getApiFieldName(apiClass);
+        if (classNode.getDeclaredField(fieldName) != null) {
+            return;
+        }
+
+        ClassNode apiType = ClassHelper.make(apiClass);
+        FieldNode field = classNode.addField(fieldName, Modifier.PRIVATE | Modifier.STATIC, apiType, null);
+
+        for (Class<?> current = apiClass; current != Object.class; current = current.getSuperclass()) {
+            for (Method method : current.getDeclaredMethods()) {
+                if (isApiMethod(method)) {
+                    weaveMethod(classNode, field, method);
+                }
+            }
+        }
+    }
+
+    private boolean isApiMethod(Method method) {
+        int modifiers = method.getModifiers();
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        return Modifier.isPublic(modifiers) && !Modifier.isStatic(modifiers) && !Modifier.isAbstract(modifiers) &&
+                !method.isSynthetic() && !method.getName().contains("$") && !EXCLUDED_METHODS.contains(method.getName()) &&
+                parameterTypes.length > 0 && parameterTypes[0] == Object.class;
+    }
+
+    private void weaveMethod(ClassNode classNode, FieldNode field, Method method) {
+        String name = method.getName();
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        Parameter[] parameters = new Parameter[parameterTypes.length - 1];
+        ArgumentListExpression arguments = new ArgumentListExpression();
+        arguments.addExpression(VariableExpression.THIS_EXPRESSION);
+        for (int i = 0; i < parameters.length; i++) {
+            parameters[i] = new Parameter(ClassHelper.make(parameterTypes[i + 1]), "arg" + i);
+            arguments.addExpression(new VariableExpression(parameters[i]));
+        }
+
+        if (classNode.getDeclaredMethod(name, parameters) != null || isDeclaredProperty(classNode, name, parameters)) {
+            return;
+        }
+
+        BlockStatement body = new BlockStatement();
+        body.addStatement(new IfStatement(
+                new BooleanExpression(new BinaryExpression(new FieldExpression(field),
+                        Token.newSymbol(Types.COMPARE_EQUAL, 0, 0), ConstantExpression.NULL)),
+                new ThrowStatement(new ConstructorCallExpression(ClassHelper.make(IllegalStateException.class),
+                        new ArgumentListExpression(new ConstantExpression("Method on class [" + classNode.getName() +
+                                "] was used outside of a Grails application. If running in the context of a test " +
+                                "use the mocking API or bootstrap Grails correctly.")))),
+                EmptyStatement.INSTANCE));
+
+        MethodCallExpression call = new MethodCallExpression(new FieldExpression(field), name, arguments);
+        Class<?> returnType = method.getReturnType();
+        body.addStatement(returnType == void.class ? new ExpressionStatement(call) : new ReturnStatement(call));
+
+        classNode.addMethod(new MethodNode(name, Modifier.PUBLIC, ClassHelper.make(returnType), parameters,
+                ClassNode.EMPTY_ARRAY, body));
+    }
+
+    /*
+     * Accessors are not woven for properties the artefact declares, such as a grailsApplication property
+     * injected by Spring.
+     */
+    private boolean isDeclaredProperty(ClassNode classNode, String name, Parameter[] parameters) {
+        boolean getter = (name.startsWith("get") || name.startsWith("is")) && parameters.length == 0;
+        boolean setter = name.startsWith("set") && parameters.length == 1;
+        if (!getter && !setter) {
+            return false;
+        }
+
+        String suffix = name.substring(name.startsWith("is") ? 2 : 3);
+        return suffix.length() > 0 && classNode.getProperty(GrailsNameUtils.getPropertyNameRepresentation(suffix)) != null;
+    }
+}
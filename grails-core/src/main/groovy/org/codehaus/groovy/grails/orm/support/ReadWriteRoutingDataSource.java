@@ -0,0 +1,249 @@
+/* Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.grails.orm.support;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+/**
+ * A DataSource that hands out connections to read replicas for read-only work and to the
+ * primary DataSource for everything else.
+ *
+ * Work is read-only when the current transaction is read-only, for example a service method
+ * marked with <code>@Transactional(readOnly = true)</code>, or, outside of a transaction, when
+ * the current thread has been marked read-only with {@link #setCurrentReadOnly(boolean)}, which
+ * the persistence context interceptor does for read-only sessions. A read-write transaction always
+ * uses the primary, even on a thread marked read-only. Since transaction managers usually obtain the connection
+ * before the transaction is flagged read-only, this DataSource should be wrapped in a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}.
+ *
+ * Replicas are selected round-robin or by the least number of open connections. A replica that
+ * fails to provide a connection is ejected for retryInterval milliseconds; when no replica is
+ * available the primary is used.
+ *
+ * @since 1.4
+ */
+public class ReadWriteRoutingDataSource extends AbstractDataSource implements InitializingBean {
+
+    public static final String ROUND_ROBIN = "roundRobin";
+    public static final String LEAST_CONNECTIONS = "leastConnections";
+
+    private static final Log LOG = LogFactory.getLog(ReadWriteRoutingDataSource.class);
+    private static final ThreadLocal<Boolean> currentReadOnly = new ThreadLocal<Boolean>();
+
+    private DataSource primary;
+    private List<DataSource> replicas = new ArrayList<DataSource>();
+    private String routing = ROUND_ROBIN;
+    private long retryInterval = 30000;
+
+    private Replica[] replicaStates;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    /**
+     * Marks the work performed by the current thread as read-only or not.
+     *
+     * @param readOnly true if subsequent connections may be served by a replica
+     */
+    public static void setCurrentReadOnly(boolean readOnly) {
+        if (readOnly) {
+            currentReadOnly.set(Boolean.TRUE);
+        }
+        else {
+            currentReadOnly.remove();
+        }
+    }
+
+    /**
+     * @return true if connections obtained by the current thread may be served by a replica
+     */
+    public static boolean isCurrentReadOnly() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return true;
+        }
+        // the read-only flag of the thread must not override a read-write transaction
+        return currentReadOnly.get() != null && !TransactionSynchronizationManager.isActualTransactionActive();
+    }
+
+    public void afterPropertiesSet() {
+        Assert.notNull(primary, "Property [primary] must be set");
+        Assert.isTrue(ROUND_ROBIN.equals(routing) || LEAST_CONNECTIONS.equals(routing),
+                "Property [routing] must be one of [" + ROUND_ROBIN + ", " + LEAST_CONNECTIONS + "]");
+
+        replicaStates = new Replica[replicas.size()];
+        for (int i = 0; i < replicaStates.length; i++) {
+            replicaStates[i] = new Replica(replicas.get(i));
+        }
+    }
+
+    public Connection getConnection() throws SQLException {
+        return getConnection(null, null);
+    }
+
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (isCurrentReadOnly()) {
+            for (Replica replica : selectReplicas()) {
+                try {
+                    return replica.getConnection(username, password);
+                }
+                catch (SQLException e) {
+                    replica.eject(retryInterval);
+                    LOG.warn("Read replica [" + replica.index + "] failed to provide a connection and is ejected for " +
+                        retryInterval + "ms: " + e.getMessage());
+                }
+            }
+        }
+        return username == null ? primary.getConnection() : primary.getConnection(username, password);
+    }
+
+    /**
+     * Orders the available replicas by preference.
+     */
+    private List<Replica> selectReplicas() {
+        List<Replica> available = new ArrayList<Replica>(replicaStates.length);
+        long now = System.currentTimeMillis();
+        if (LEAST_CONNECTIONS.equals(routing)) {
+            for (Replica replica : replicaStates) {
+                if (replica.isAvailable(now)) {
+                    int i = 0;
+                    while (i < available.size() && available.get(i).activeConnections.get() <= replica.activeConnections.get()) {
+                        i++;
+                    }
+                    available.add(i, replica);
+                }
+            }
+        }
+        else if (replicaStates.length > 0) {
+            int start = (nextReplica.getAndIncrement() & Integer.MAX_VALUE) % replicaStates.length;
+            for (int i = 0; i < replicaStates.length; i++) {
+                Replica replica = replicaStates[(start + i) % replicaStates.length];
+                if (replica.isAvailable(now)) {
+                    available.add(replica);
+                }
+            }
+        }
+        return available;
+    }
+
+    /**
+     * @return The number of connections currently open on each replica
+     */
+    public int[] getActiveReplicaConnections() {
+        int[] counts = new int[replicaStates.length];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = replicaStates[i].activeConnections.get();
+        }
+        return counts;
+    }
+
+    /**
+     * @return The number of replicas that haven't been ejected
+     */
+    public int getAvailableReplicaCount() {
+        int count = 0;
+        long now = System.currentTimeMillis();
+        for (Replica replica : replicaStates) {
+            if (replica.isAvailable(now)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public void setPrimary(DataSource primary) {
+        this.primary = primary;
+    }
+
+    public void setReplicas(List<DataSource> replicas) {
+        this.replicas = replicas;
+    }
+
+    /**
+     * @param routing Either roundRobin (the default) or leastConnections
+     */
+    public void setRouting(String routing) {
+        this.routing = routing;
+    }
+
+    /**
+     * @param retryInterval The time in milliseconds a failing replica is ejected for
+     */
+    public void setRetryInterval(long retryInterval) {
+        this.retryInterval = retryInterval;
+    }
+
+    private class Replica {
+        final AtomicInteger activeConnections = new AtomicInteger();
+        final DataSource dataSource;
+        final int index;
+        volatile long ejectedUntil;
+
+        Replica(DataSource dataSource) {
+            this.dataSource = dataSource;
+            index = replicas.indexOf(dataSource);
+        }
+
+        boolean isAvailable(long now) {
+            return ejectedUntil <= now;
+        }
+
+        void eject(long interval) {
+            ejectedUntil = System.currentTimeMillis() + interval;
+        }
+
+        Connection getConnection(String username, String password) throws SQLException {
+            final Connection connection = username == null ? dataSource.getConnection() : dataSource.getConnection(username, password);
+            activeConnections.incrementAndGet();
+            return (Connection)Proxy.newProxyInstance(ReadWriteRoutingDataSource.class.getClassLoader(),
+                new Class[] { Connection.class }, new InvocationHandler() {
+                    private boolean closed;
+
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        if (method.getName().equals("close") && !closed) {
+                            closed = true;
+                            activeConnections.decrementAndGet();
+                        }
+                        else if (method.getName().equals("equals")) {
+                            return proxy == args[0];
+                        }
+                        else if (method.getName().equals("hashCode")) {
+                            return System.identityHashCode(proxy);
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        }
+                        catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                    }
+                });
+        }
+    }
+}
@@ -30,6 +30,7 @@ import org.codehaus.groovy.grails.commons.GrailsApplication;
 import org.codehaus.groovy.grails.commons.GrailsResourceUtils;
 import org.codehaus.groovy.grails.commons.spring.RuntimeSpringConfiguration;
 import org.codehaus.groovy.grails.plugins.exceptions.PluginException;
+import org.codehaus.groovy.grails.support.StartupProfiler;
 import org.springframework.beans.BeansException;
 import org.springframework.context.ApplicationContext;
 import org.springframework.core.io.Resource;
@@ -102,9 +103,16 @@ public abstract class AbstractGrailsPluginManager implements GrailsPluginManager
      */
     public void doRuntimeConfiguration(RuntimeSpringConfiguration springConfig) {
         checkInitialised();
+        StartupProfiler profiler = StartupProfiler.getInstance();
         for (GrailsPlugin plugin : pluginList) {
             if (plugin.supportsCurrentScopeAndEnvironment()) {
-                plugin.doWithRuntimeConfiguration(springConfig);
+                StartupProfiler.Step step = profiler.start("doWithSpring", plugin.getName());
+                try {
+                    plugin.doWithRuntimeConfiguration(springConfig);
+                }
+                finally {
+                    step.stop();
+                }
             }
         }
     }
@@ -155,9 +163,16 @@ public abstract class AbstractGrailsPluginManager implements GrailsPluginManager
      */
     public void doPostProcessing(ApplicationContext ctx) {
         checkInitialised();
+        StartupProfiler profiler = StartupProfiler.getInstance();
         for (GrailsPlugin plugin : pluginList) {
             if (plugin.supportsCurrentScopeAndEnvironment()) {
-                plugin.doWithApplicationContext(ctx);
+                StartupProfiler.Step step = profiler.start("doWithApplicationContext", plugin.getName());
+                try {
+                    plugin.doWithApplicationContext(ctx);
+                }
+                finally {
+                    step.stop();
+                }
             }
         }
     }
@@ -59,6 +59,7 @@ import org.codehaus.groovy.grails.compiler.support.GrailsResourceLoaderHolder;
 import org.codehaus.groovy.grails.documentation.DocumentationContext;
 import org.codehaus.groovy.grails.exceptions.GrailsConfigurationException;
 import org.codehaus.groovy.grails.plugins.exceptions.PluginException;
+import org.codehaus.groovy.grails.plugins.support.DirectoryWatcher;
 import org.codehaus.groovy.grails.support.ParentApplicationContextAware;
 import org.codehaus.groovy.runtime.DefaultGroovyMethods;
 import org.springframework.beans.BeanWrapper;
@@ -67,9 +68,11 @@ import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.core.type.filter.TypeFilter;
+import org.springframework.util.ResourceUtils;
 
 /**
  * Implementation of the GrailsPlugin interface that wraps a Groovy plugin class
@@ -708,38 +711,8 @@ public class DefaultGrailsPlugin extends AbstractGrailsPlugin implements ParentA
      */
     @Override
     public boolean checkForChanges() {
-        if (pluginUrl != null) {
-            long currentModified = -1;
-            URLConnection conn = null;
-            try {
-                conn = pluginUrl.openConnection();
-
-                currentModified = conn.getLastModified();
-                if (currentModified > pluginLastModified) {
-
-                    if (LOG.isInfoEnabled()) {
-                        LOG.info("Grails plug-in " + this + " changed, reloading changes..");
-                    }
-
-                    GroovyClassLoader gcl = new GroovyClassLoader(application.getClassLoader());
-                    initialisePlugin(gcl.parseClass(DefaultGroovyMethods.getText(conn.getInputStream())));
-                    pluginLastModified = currentModified;
-                    return true;
-                }
-            }
-            catch (IOException e) {
-                LOG.warn("Error reading plugin [" + pluginClass + "] last modified date, cannot reload following change: " + e.getMessage());
-            }
-            finally {
-                if (conn!=null) {
-                    try {
-                        conn.getInputStream().close();
-                    }
-                    catch (IOException e) {
-                        LOG.warn("Error closing URL connection to plugin resource [" + pluginUrl + "]: " + e.getMessage(), e);
-                    }
-                }
-            }
+        if (checkForDescriptorChanges()) {
+            return true;
         }
 
         if (onChangeListener != null) {
@@ -763,6 +736,167 @@ public class DefaultGrailsPlugin extends AbstractGrailsPlugin implements ParentA
         return false;
     }
 
+    /**
+     * Checks the given files, reported as added or modified by a {@link DirectoryWatcher} watching the
+     * {@link #getWatchedLocations() watched locations} of this plugin, and fires onChange events for those
+     * that match the watchedResources patterns. Unlike {@link #checkForChanges()} the watched resources are
+     * not checked individually.
+     *
+     * @param changedFiles The files that were added or modified
+     * @return Returns true when the plug-in descriptor changed
+     */
+    public boolean checkForChanges(Collection<File> changedFiles) {
+        File descriptorFile = getDescriptorFile();
+        if (descriptorFile != null && changedFiles.contains(descriptorFile) && checkForDescriptorChanges()) {
+            return true;
+        }
+
+        if (onChangeListener == null || resourcesReferences == null) {
+            return false;
+        }
+
+        for (File file : changedFiles) {
+            if (!isWatchedFile(file)) {
+                continue;
+            }
+
+            try {
+                int index = indexOfWatchedResource(file);
+                if (index > -1) {
+                    if (LOG.isInfoEnabled()) LOG.info("Grails plug-in resource [" + watchedResources[index] + "] changed, reloading changes..");
+
+                    modifiedTimes[index] = file.lastModified();
+                    fireModifiedEvent(watchedResources[index], this);
+                    refreshInfluencedPlugins();
+                }
+                else {
+                    addWatchedResource(new FileSystemResource(file), this);
+                }
+            }
+            catch (Exception e) {
+                LOG.debug("Plugin " + this + " was unable to reload changed resource [" + file + "]: " + e.getMessage());
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true if the watched resources and the descriptor of this plugin are files, whose changes can be
+     * detected by watching the {@link #getWatchedLocations() watched locations}
+     */
+    public boolean isWatchingFiles() {
+        if (pluginUrl != null && !ResourceUtils.isFileURL(pluginUrl)) {
+            return false;
+        }
+        if (onChangeListener != null && resourcesReferences != null) {
+            for (String resourcesReference : resourcesReferences) {
+                if (DirectoryWatcher.getBaseLocation(resourcesReference) == null) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The directories and files containing the watched resources and the descriptor of this plugin
+     */
+    public Collection<File> getWatchedLocations() {
+        List<File> locations = new ArrayList<File>();
+        File descriptorFile = getDescriptorFile();
+        if (descriptorFile != null) {
+            locations.add(descriptorFile);
+        }
+        if (onChangeListener != null && resourcesReferences != null) {
+            for (String resourcesReference : resourcesReferences) {
+                for (File location : DirectoryWatcher.getBaseLocations(resourcesReference)) {
+                    locations.add(location.getAbsoluteFile());
+                }
+            }
+        }
+        return locations;
+    }
+
+    private File getDescriptorFile() {
+        if (pluginUrl == null || !ResourceUtils.isFileURL(pluginUrl)) {
+            return null;
+        }
+        try {
+            return ResourceUtils.getFile(pluginUrl).getAbsoluteFile();
+        }
+        catch (IOException e) {
+            return null;
+        }
+    }
+
+    private boolean isWatchedFile(File file) {
+        for (String resourcesReference : resourcesReferences) {
+            if (DirectoryWatcher.matches(resourcesReference, file)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int indexOfWatchedResource(File file) throws IOException {
+        File canonicalFile = file.getCanonicalFile();
+        for (int i = 0; i < watchedResources.length; i++) {
+            try {
+                if (canonicalFile.equals(watchedResources[i].getFile().getCanonicalFile())) {
+                    return i;
+                }
+            }
+            catch (IOException e) {
+                // not a file resource
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Reloads the plugin class if the plugin descriptor was modified.
+     *
+     * @return true if the plugin descriptor changed
+     */
+    private boolean checkForDescriptorChanges() {
+        if (pluginUrl == null) {
+            return false;
+        }
+
+        long currentModified = -1;
+        URLConnection conn = null;
+        try {
+            conn = pluginUrl.openConnection();
+
+            currentModified = conn.getLastModified();
+            if (currentModified > pluginLastModified) {
+
+                if (LOG.isInfoEnabled()) {
+                    LOG.info("Grails plug-in " + this + " changed, reloading changes..");
+                }
+
+                GroovyClassLoader gcl = new GroovyClassLoader(application.getClassLoader());
+                initialisePlugin(gcl.parseClass(DefaultGroovyMethods.getText(conn.getInputStream())));
+                pluginLastModified = currentModified;
+                return true;
+            }
+        }
+        catch (IOException e) {
+            LOG.warn("Error reading plugin [" + pluginClass + "] last modified date, cannot reload following change: " + e.getMessage());
+        }
+        finally {
+            if (conn!=null) {
+                try {
+                    conn.getInputStream().close();
+                }
+                catch (IOException e) {
+                    LOG.warn("Error closing URL connection to plugin resource [" + pluginUrl + "]: " + e.getMessage(), e);
+                }
+            }
+        }
+        return false;
+    }
+
     /**
      * This method will retrieve all the influenced plugins from the manager and
      * call refresh() on each one.
@@ -848,43 +982,47 @@ public class DefaultGrailsPlugin extends AbstractGrailsPlugin implements ParentA
                     }
 
                     if (newResource != null) {
-                        watchedResources = (Resource[])ArrayUtils.add(watchedResources, newResource);
-
-                        if (LOG.isInfoEnabled()) {
-                            LOG.info("Found new Grails plug-in resource [" + newResource + "], adding to application..");
-                        }
+                        addWatchedResource(newResource, grailsPlugin);
+                    }
+                }
+            }
+            catch (Exception e) {
+                LOG.debug("Plugin " + this + "  was unable to check for new plugin resources: " + e.getMessage());
+            }
+        }
+    }
 
-                        if (newResource.getFilename().endsWith(".groovy")) {
-                            if (LOG.isDebugEnabled()) {
-                                LOG.debug("[GrailsPlugin] plugin resource ["+newResource+"] added, registering resource with class loader...");
-                            }
+    private void addWatchedResource(Resource newResource, GrailsPlugin grailsPlugin) throws IOException {
+        watchedResources = (Resource[])ArrayUtils.add(watchedResources, newResource);
 
-                            ClassLoader classLoader = application.getClassLoader();
+        if (LOG.isInfoEnabled()) {
+            LOG.info("Found new Grails plug-in resource [" + newResource + "], adding to application..");
+        }
 
-                            GrailsResourceLoader resourceLoader = GrailsResourceLoaderHolder.getResourceLoader();
+        if (newResource.getFilename().endsWith(".groovy")) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("[GrailsPlugin] plugin resource ["+newResource+"] added, registering resource with class loader...");
+            }
 
-                            Resource[] classLoaderResources = resourceLoader.getResources();
-                            classLoaderResources = (Resource[])ArrayUtils.add(classLoaderResources, newResource);
-                            resourceLoader.setResources(classLoaderResources);
+            ClassLoader classLoader = application.getClassLoader();
 
-                            if (classLoader instanceof GrailsClassLoader) {
-                                ((GrailsClassLoader)classLoader).setGrailsResourceLoader(resourceLoader);
-                            }
-                        }
+            GrailsResourceLoader resourceLoader = GrailsResourceLoaderHolder.getResourceLoader();
 
-                        initializeModifiedTimes();
+            Resource[] classLoaderResources = resourceLoader.getResources();
+            classLoaderResources = (Resource[])ArrayUtils.add(classLoaderResources, newResource);
+            resourceLoader.setResources(classLoaderResources);
 
-                        if (LOG.isDebugEnabled()) {
-                            LOG.debug("[GrailsPlugin] plugin resource [" + newResource + "] added, firing event if possible..");
-                        }
-                        fireModifiedEvent(newResource, grailsPlugin);
-                    }
-                }
-            }
-            catch (Exception e) {
-                LOG.debug("Plugin " + this + "  was unable to check for new plugin resources: " + e.getMessage());
+            if (classLoader instanceof GrailsClassLoader) {
+                ((GrailsClassLoader)classLoader).setGrailsResourceLoader(resourceLoader);
             }
         }
+
+        initializeModifiedTimes();
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("[GrailsPlugin] plugin resource [" + newResource + "] added, firing event if possible..");
+        }
+        fireModifiedEvent(newResource, grailsPlugin);
     }
 
     protected void fireModifiedEvent(final Resource resource,
@@ -48,12 +48,22 @@ import java.net.URLConnection;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import javax.servlet.ServletContext;
 import javax.xml.parsers.ParserConfigurationException;
@@ -68,7 +78,9 @@ import org.codehaus.groovy.grails.commons.GrailsResourceUtils;
 import org.codehaus.groovy.grails.commons.cfg.ConfigurationHelper;
 import org.codehaus.groovy.grails.commons.spring.WebRuntimeSpringConfiguration;
 import org.codehaus.groovy.grails.plugins.exceptions.PluginException;
+import org.codehaus.groovy.grails.plugins.support.DirectoryWatcher;
 import org.codehaus.groovy.grails.support.ParentApplicationContextAware;
+import org.codehaus.groovy.grails.support.StartupProfiler;
 import org.codehaus.groovy.runtime.DefaultGroovyMethods;
 import org.springframework.beans.BeansException;
 import org.springframework.context.ApplicationContext;
@@ -76,7 +88,9 @@ import org.springframework.context.ApplicationContextAware;
 import org.springframework.context.support.GenericApplicationContext;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.util.Assert;
+import org.springframework.util.ResourceUtils;
 import org.xml.sax.EntityResolver;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
@@ -122,8 +136,10 @@ public class DefaultGrailsPluginManager extends AbstractGrailsPluginManager impl
         Integer.class, Long.class, Number.class, Short.class, String.class, BigInteger.class,
         BigDecimal.class, URL.class, URI.class };
 
-    private GrailsPluginChangeChecker pluginChangeScanner;
+    private ScheduledExecutorService pluginChangeScanner;
+    private DirectoryWatcher directoryWatcher;
     private static final int SCAN_INTERVAL = Integer.getInteger("grails.scan.interval", 5000).intValue(); //in ms
+    private static final int SCAN_QUIET_PERIOD = Integer.getInteger("grails.scan.quiet.period", 200).intValue(); //in ms
 
     private List<GrailsPlugin> delayedLoadPlugins = new LinkedList<GrailsPlugin>();
     private ApplicationContext parentCtx;
@@ -135,6 +151,7 @@ public class DefaultGrailsPluginManager extends AbstractGrailsPluginManager impl
     private long configLastModified;
     private PluginFilter pluginFilter;
     private static final String GRAILS_PLUGIN_SUFFIX = "GrailsPlugin";
+    private static final boolean PARALLEL_PLUGIN_CREATION = Boolean.getBoolean("grails.plugins.parallel");
     private List<GrailsPlugin> userPlugins = new ArrayList<GrailsPlugin>();
 
     private BuildSettings buildSettings;
@@ -218,32 +235,44 @@ public class DefaultGrailsPluginManager extends AbstractGrailsPluginManager impl
         pluginFilter = new PluginFilterRetriever().getPluginFilter(application.getConfig());
     }
 
-    public void startPluginChangeScanner() {
-        if (pluginChangeScanner == null) {
-            pluginChangeScanner = new GrailsPluginChangeChecker(this);
-        }
-        if (pluginChangeScanner.isAlive()) {
+    /**
+     * Starts scanning for changes to the plugins, their watched resources and the configuration every
+     * grails.scan.interval milliseconds. The watched directories are walked once per scan by a single
+     * scanner thread, and each change is only passed to the plugins that watch it.
+     */
+    public synchronized void startPluginChangeScanner() {
+        if (pluginChangeScanner != null) {
             throw new IllegalStateException("Plugin change scanner is already running!");
         }
 
-        pluginChangeScanner.start();
+        // records the modified date of the configuration, later scans only check it when it changes
+        checkForConfigChanges();
+        directoryWatcher = new DirectoryWatcher();
+        watchLocations();
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("grails-change-scanner-");
+        threadFactory.setDaemon(true);
+        pluginChangeScanner = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        pluginChangeScanner.scheduleWithFixedDelay(new Runnable() {
+            public void run() {
+                scanForChanges();
+            }
+        }, SCAN_INTERVAL, SCAN_INTERVAL, TimeUnit.MILLISECONDS);
         LOG.info("Started to scan for plugin changes in every " + SCAN_INTERVAL + "ms.");
     }
 
-    public void stopPluginChangeScanner() {
+    public synchronized void stopPluginChangeScanner() {
         if (pluginChangeScanner != null) {
-            pluginChangeScanner.enabled = false;
+            pluginChangeScanner.shutdown();
             try {
-                try {
-                    // wait for thread to die
-                    pluginChangeScanner.join(5000);
-                }
-                catch (InterruptedException e) {
-                    // ignore
-                }
+                // wait for a running scan to finish
+                pluginChangeScanner.awaitTermination(5000, TimeUnit.MILLISECONDS);
+            }
+            catch (InterruptedException e) {
+                // ignore
             }
             finally {
-                pluginChangeScanner = new GrailsPluginChangeChecker(this);
+                pluginChangeScanner = null;
             }
         }
     }
@@ -315,32 +344,82 @@ public class DefaultGrailsPluginManager extends AbstractGrailsPluginManager impl
         initialised = true;
     }
 
+    /**
+     * Sorts the plugins topologically so that each plugin comes after the plugins it depends on or
+     * loads after, and before the plugins it loads before. Plugins without an ordering between them
+     * keep their current order. Plugins in a cycle keep their current order after the others.
+     */
     private List<GrailsPlugin> sortPlugins(List<GrailsPlugin> toSort) {
+        final Map<GrailsPlugin, Integer> positions = new HashMap<GrailsPlugin, Integer>();
+        for (GrailsPlugin plugin : toSort) {
+            positions.put(plugin, positions.size());
+        }
 
-        List<GrailsPlugin> newList = new ArrayList<GrailsPlugin>(toSort);
+        Map<GrailsPlugin, List<GrailsPlugin>> successors = new HashMap<GrailsPlugin, List<GrailsPlugin>>();
+        Map<GrailsPlugin, Integer> predecessorCounts = new HashMap<GrailsPlugin, Integer>();
+        for (GrailsPlugin plugin : toSort) {
+            successors.put(plugin, new ArrayList<GrailsPlugin>());
+            predecessorCounts.put(plugin, 0);
+        }
+        for (GrailsPlugin plugin : toSort) {
+            for (String name : plugin.getLoadBeforeNames()) {
+                addOrdering(plugin, getGrailsPlugin(name), successors, predecessorCounts);
+            }
+            for (String name : plugin.getLoadAfterNames()) {
+                addOrdering(getGrailsPlugin(name), plugin, successors, predecessorCounts);
+            }
+            for (String name : plugin.getDependencyNames()) {
+                addOrdering(getGrailsPlugin(name), plugin, successors, predecessorCounts);
+            }
+        }
 
+        PriorityQueue<GrailsPlugin> ready = new PriorityQueue<GrailsPlugin>(Math.max(1, toSort.size()), new Comparator<GrailsPlugin>() {
+            public int compare(GrailsPlugin p1, GrailsPlugin p2) {
+                return positions.get(p1) - positions.get(p2);
+            }
+        });
         for (GrailsPlugin plugin : toSort) {
-            int i = newList.indexOf(plugin);
-            for (String loadBefore : plugin.getLoadBeforeNames()) {
-                final GrailsPlugin loadBeforePlugin = getGrailsPlugin(loadBefore);
-                int j = newList.indexOf(loadBeforePlugin);
-                if (i > j) {
-                    newList.remove(plugin);
-                    newList.add(j,plugin);
+            if (predecessorCounts.get(plugin) == 0) {
+                ready.add(plugin);
+            }
+        }
+
+        List<GrailsPlugin> sorted = new ArrayList<GrailsPlugin>(toSort.size());
+        while (!ready.isEmpty()) {
+            GrailsPlugin plugin = ready.poll();
+            sorted.add(plugin);
+            for (GrailsPlugin successor : successors.get(plugin)) {
+                int count = predecessorCounts.get(successor) - 1;
+                predecessorCounts.put(successor, count);
+                if (count == 0) {
+                    ready.add(successor);
                 }
             }
+        }
 
-            i = newList.indexOf(plugin);
-            for (String loadAfter : plugin.getLoadAfterNames()) {
-                final GrailsPlugin loadAfterPlugin = getGrailsPlugin(loadAfter);
-                int j = newList.indexOf(loadAfterPlugin);
-                if (i < j) {
-                    newList.remove(plugin);
-                    newList.add(j,plugin);
+        if (sorted.size() < toSort.size()) {
+            List<GrailsPlugin> cyclic = new ArrayList<GrailsPlugin>();
+            for (GrailsPlugin plugin : toSort) {
+                if (predecessorCounts.get(plugin) > 0) {
+                    cyclic.add(plugin);
                 }
             }
+            LOG.warn("Plugins " + cyclic + " have a circular load order, loading them in the order they were registered");
+            sorted.addAll(cyclic);
         }
-        return newList;
+        return sorted;
+    }
+
+    private void addOrdering(GrailsPlugin first, GrailsPlugin second,
+            Map<GrailsPlugin, List<GrailsPlugin>> successors, Map<GrailsPlugin, Integer> predecessorCounts) {
+        if (first == null || second == null || first == second ||
+                !successors.containsKey(first) || !successors.containsKey(second) ||
+                successors.get(first).contains(second)) {
+            return;
+        }
+
+        successors.get(first).add(second);
+        predecessorCounts.put(second, predecessorCounts.get(second) + 1);
     }
 
     private void attemptLoadPlugins(ClassLoader gcl) {
@@ -380,15 +459,18 @@ public class DefaultGrailsPluginManager extends AbstractGrailsPluginManager impl
     private List<GrailsPlugin> findCorePlugins() {
         CorePluginFinder finder = new CorePluginFinder(application);
 
-        List<GrailsPlugin> grailsCorePlugins = new ArrayList<GrailsPlugin>();
-
+        List<Class<?>> pluginClassesToCreate = new ArrayList<Class<?>>();
         for (Class<?> pluginClass : finder.getPluginClasses()) {
             if (pluginClass != null && !Modifier.isAbstract(pluginClass.getModifiers()) && pluginClass != DefaultGrailsPlugin.class) {
-                GrailsPlugin plugin = createGrailsPlugin(pluginClass);
-                plugin.setApplicationContext(applicationContext);
-                grailsCorePlugins.add(plugin);
+                pluginClassesToCreate.add(pluginClass);
             }
         }
+
+        List<GrailsPlugin> grailsCorePlugins = createGrailsPlugins(pluginClassesToCreate,
+                Collections.<Resource>nCopies(pluginClassesToCreate.size(), null));
+        for (GrailsPlugin plugin : grailsCorePlugins) {
+            plugin.setApplicationContext(applicationContext);
+        }
         return grailsCorePlugins;
     }
 
@@ -402,7 +484,8 @@ public class DefaultGrailsPluginManager extends AbstractGrailsPluginManager impl
     }
 
     private List<GrailsPlugin>  findUserPlugins(ClassLoader gcl) {
-        List<GrailsPlugin>  grailsUserPlugins = new ArrayList<GrailsPlugin>();
+        List<Class<?>> pluginClassesToCreate = new ArrayList<Class<?>>();
+        List<Resource> pluginDescriptors = new ArrayList<Resource>();
 
         LOG.info("Attempting to load [" + pluginResources.length + "] user defined plugins");
         for (int i = 0; i < pluginResources.length; i++) {
@@ -411,9 +494,8 @@ public class DefaultGrailsPluginManager extends AbstractGrailsPluginManager impl
             Class<?> pluginClass = loadPluginClass(gcl, r);
 
             if (isGrailsPlugin(pluginClass)) {
-                GrailsPlugin plugin = createGrailsPlugin(pluginClass, r);
-                //attemptPluginLoad(plugin);
-                grailsUserPlugins.add(plugin);
+                pluginClassesToCreate.add(pluginClass);
+                pluginDescriptors.add(r);
             }
             else {
                 LOG.warn("Class [" + pluginClass + "] not loaded as plug-in. Grails plug-ins must end with the convention 'GrailsPlugin'!");
@@ -423,15 +505,80 @@ public class DefaultGrailsPluginManager extends AbstractGrailsPluginManager impl
         for (int i = 0; i < pluginClasses.length; i++) {
             Class<?> pluginClass = pluginClasses[i];
             if (isGrailsPlugin(pluginClass)) {
-                GrailsPlugin plugin = createGrailsPlugin(pluginClass);
-                //attemptPluginLoad(plugin);
-                grailsUserPlugins.add(plugin);
+                pluginClassesToCreate.add(pluginClass);
+                pluginDescriptors.add(null);
             }
             else {
                 LOG.warn("Class [" + pluginClass + "] not loaded as plug-in. Grails plug-ins must end with the convention 'GrailsPlugin'!");
             }
         }
-        return grailsUserPlugins;
+        return createGrailsPlugins(pluginClassesToCreate, pluginDescriptors);
+    }
+
+    /**
+     * Creates the plugins for the given classes, in the same order. Creating a plugin instantiates the plugin
+     * class and evaluates its properties, so with the grails.plugins.parallel system property set to true the
+     * plugins are created concurrently.
+     *
+     * @param pluginClasses The plugin classes
+     * @param descriptors The descriptor of each plugin, or null for plugins that have none
+     * @return The plugins
+     */
+    private List<GrailsPlugin> createGrailsPlugins(List<Class<?>> pluginClasses, List<Resource> descriptors) {
+        List<GrailsPlugin> created = new ArrayList<GrailsPlugin>(pluginClasses.size());
+        int threads = Math.min(pluginClasses.size(), Runtime.getRuntime().availableProcessors());
+        if (!PARALLEL_PLUGIN_CREATION || threads < 2) {
+            for (int i = 0; i < pluginClasses.size(); i++) {
+                created.add(createGrailsPluginWithDescriptor(pluginClasses.get(i), descriptors.get(i)));
+            }
+            return created;
+        }
+
+        final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("grails-plugin-loader-");
+        threadFactory.setDaemon(true);
+        ExecutorService executor = Executors.newFixedThreadPool(threads, threadFactory);
+        try {
+            List<Future<GrailsPlugin>> futures = new ArrayList<Future<GrailsPlugin>>(pluginClasses.size());
+            for (int i = 0; i < pluginClasses.size(); i++) {
+                final Class<?> pluginClass = pluginClasses.get(i);
+                final Resource descriptor = descriptors.get(i);
+                futures.add(executor.submit(new Callable<GrailsPlugin>() {
+                    public GrailsPlugin call() {
+                        Thread.currentThread().setContextClassLoader(contextClassLoader);
+                        return createGrailsPluginWithDescriptor(pluginClass, descriptor);
+                    }
+                }));
+            }
+
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    created.add(futures.get(i).get());
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new PluginException("Interrupted while loading plugin [" + pluginClasses.get(i).getName() + "]", e);
+                }
+                catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException)cause;
+                    }
+                    if (cause instanceof Error) {
+                        throw (Error)cause;
+                    }
+                    throw new PluginException("Error loading plugin [" + pluginClasses.get(i).getName() + "]: " + cause.getMessage(), cause);
+                }
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+        return created;
+    }
+
+    private GrailsPlugin createGrailsPluginWithDescriptor(Class<?> pluginClass, Resource descriptor) {
+        return descriptor == null ? createGrailsPlugin(pluginClass) : createGrailsPlugin(pluginClass, descriptor);
     }
 
 
@@ -681,6 +828,92 @@ public class DefaultGrailsPluginManager extends AbstractGrailsPluginManager impl
         }
     }
 
+    /**
+     * Walks the watched locations and reloads what changed. Editors and builds often write several files in
+     * a row, so the locations are walked again after the grails.scan.quiet.period until no more files change,
+     * for at most a scan interval, and the changes are then passed on together.
+     */
+    private void scanForChanges() {
+        try {
+            watchLocations();
+            Set<File> changedFiles = new LinkedHashSet<File>(directoryWatcher.scan());
+            long deadline = System.currentTimeMillis() + SCAN_INTERVAL;
+            while (!changedFiles.isEmpty() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(SCAN_QUIET_PERIOD);
+                List<File> moreChangedFiles = directoryWatcher.scan();
+                if (moreChangedFiles.isEmpty()) {
+                    break;
+                }
+                changedFiles.addAll(moreChangedFiles);
+            }
+            checkForChanges(changedFiles);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        catch (Throwable e) {
+            GrailsUtil.deepSanitize(e);
+            LOG.error("Error occured scanning for changes: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Checks for changes like {@link #checkForChanges()}, except that plugins watching files only check
+     * the given files.
+     *
+     * @param changedFiles The files added or modified since the previous check
+     */
+    private void checkForChanges(Collection<File> changedFiles) {
+        File configFile = getFile(application.getConfig().getConfigFile());
+        if (configFile == null || changedFiles.contains(configFile)) {
+            checkForConfigChanges();
+        }
+
+        for (GrailsPlugin plugin : pluginList) {
+            boolean changed;
+            if (plugin instanceof DefaultGrailsPlugin && ((DefaultGrailsPlugin)plugin).isWatchingFiles()) {
+                changed = !changedFiles.isEmpty() && ((DefaultGrailsPlugin)plugin).checkForChanges(changedFiles);
+            }
+            else {
+                changed = plugin.checkForChanges();
+            }
+
+            if (changed) {
+                LOG.info("Plugin " + plugin + " changed, re-registering beans...");
+                reloadPlugin(plugin);
+            }
+        }
+    }
+
+    /*
+     * Called before each scan, since reloaded plugins may watch other locations.
+     */
+    private void watchLocations() {
+        File configFile = getFile(application.getConfig().getConfigFile());
+        if (configFile != null) {
+            directoryWatcher.watch(configFile);
+        }
+        for (GrailsPlugin plugin : pluginList) {
+            if (plugin instanceof DefaultGrailsPlugin && ((DefaultGrailsPlugin)plugin).isWatchingFiles()) {
+                for (File location : ((DefaultGrailsPlugin)plugin).getWatchedLocations()) {
+                    directoryWatcher.watch(location);
+                }
+            }
+        }
+    }
+
+    private File getFile(URL url) {
+        if (url == null || !ResourceUtils.isFileURL(url)) {
+            return null;
+        }
+        try {
+            return ResourceUtils.getFile(url).getAbsoluteFile();
+        }
+        catch (FileNotFoundException e) {
+            return null;
+        }
+    }
+
     private void checkForConfigChanges() {
         ConfigObject config = application.getConfig();
         URL configURL = config.getConfigFile();
@@ -841,8 +1074,10 @@ public class DefaultGrailsPluginManager extends AbstractGrailsPluginManager impl
         for (int i = 0; i < COMMON_CLASSES.length; i++) {
             registry.removeMetaClass(COMMON_CLASSES[i]);
         }
+        StartupProfiler profiler = StartupProfiler.getInstance();
         for (GrailsPlugin plugin : pluginList) {
             if (plugin.supportsCurrentScopeAndEnvironment()) {
+                StartupProfiler.Step step = profiler.start("doWithDynamicMethods", plugin.getName());
                 try {
                     plugin.doWithDynamicMethods(applicationContext);
                 }
@@ -850,6 +1085,9 @@ public class DefaultGrailsPluginManager extends AbstractGrailsPluginManager impl
                     GrailsUtil.deepSanitize(t);
                     LOG.error("Error configuring dynamic methods for plugin " + plugin + ": " + t.getMessage(), t);
                 }
+                finally {
+                    step.stop();
+                }
             }
         }
     }
@@ -1901,53 +2139,4 @@ public class DefaultGrailsPluginManager extends AbstractGrailsPluginManager impl
             "<!ATTLIST welcome-file id ID #IMPLIED>\n" +
             "<!ATTLIST welcome-file-list id ID #IMPLIED>";
     }
-
-    private class GrailsPluginChangeChecker extends Thread {
-        final DefaultGrailsPluginManager pluginManager;
-        Thread scanner;
-        boolean enabled = true;
-
-        GrailsPluginChangeChecker(DefaultGrailsPluginManager pluginManager) {
-            this.pluginManager = pluginManager;
-            setDaemon(true);
-        }
-
-        @Override
-        public void run() {
-            while (enabled) {
-                int sleepTime = DefaultGrailsPluginManager.SCAN_INTERVAL;
-                if (scanner != null && scanner.isAlive()) {
-                    LOG.warn("plugin change scanner is still running after the scanning interval. You should set " +
-                            "the grails.scan.interval system property to a higher value. The current value is " +
-                            DefaultGrailsPluginManager.SCAN_INTERVAL + " ms");
-                    scanner.interrupt();
-                }
-                else {
-                    try {
-                        scanner = new Thread() {
-                            @Override
-                            public void run() {
-                                pluginManager.checkForChanges();
-                            }
-                        };
-                        scanner.start();
-                    }
-                    catch(Throwable e) {
-                        GrailsUtil.deepSanitize(e);
-                        LOG.error("Error occured scanning for changes: " + e.getMessage(), e);
-
-                        // sleep for a bit longer if an error occurs
-                        sleepTime = DefaultGrailsPluginManager.SCAN_INTERVAL*5;
-                    }
-                }
-
-                try {
-                    sleep(sleepTime);
-                }
-                catch (InterruptedException ie) {
-                    // We just want to continue looping, so ignore this exception.
-                }
-            }
-        }
-    }
 }
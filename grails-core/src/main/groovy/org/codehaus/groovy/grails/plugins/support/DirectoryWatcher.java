@@ -0,0 +1,233 @@
+/* Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.grails.plugins.support;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+
+/**
+ * Watches directories and files for changes by comparing the modified dates of the files they contain
+ * with those of the previous scan. Each directory is walked once per scan however many plugins watch
+ * resources in it, and directories nested in a watched directory are not walked again.
+ *
+ * @since 1.4
+ */
+public class DirectoryWatcher {
+
+    private static final String FILE_PREFIX = "file:";
+    private static final String WILDCARDS = "*?{[";
+    private static final String ANY_DIRECTORIES = "**";
+    private static final PathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    private final Set<File> roots = new LinkedHashSet<File>();
+    private final Map<File, Long> lastModified = new HashMap<File, Long>();
+
+    /**
+     * Returns the directory to watch for a resource pattern such as file:/app/grails-app/controllers/**&#47;*Controller.groovy,
+     * which is the path up to the last separator before the first wildcard.
+     *
+     * @param pattern The pattern
+     * @return The directory or file to watch, or null if the pattern does not refer to the file system
+     */
+    public static File getBaseLocation(String pattern) {
+        if (pattern == null || !pattern.startsWith(FILE_PREFIX)) {
+            return null;
+        }
+
+        String path = getPath(pattern);
+        path = path.substring(0, getBaseLength(path));
+        return path.length() == 0 ? null : new File(path);
+    }
+
+    /**
+     * Returns the directories to watch for a resource pattern. Unlike {@link #getBaseLocation(String)},
+     * wildcards in directory names before the first ** are expanded to the existing directories they
+     * match, so that file:./plugins/*&#47;grails-app/taglib/**&#47;*TagLib.groovy watches the taglib
+     * directory of each plugin rather than all of ./plugins. Directories created later that match such a
+     * wildcard are not watched.
+     *
+     * @param pattern The pattern
+     * @return The directories or files to watch, empty if the pattern does not refer to the file system
+     */
+    public static List<File> getBaseLocations(String pattern) {
+        File base = getBaseLocation(pattern);
+        if (base == null) {
+            return Collections.emptyList();
+        }
+
+        String path = getPath(pattern);
+        String[] segments = path.substring(getBaseLength(path)).split("/");
+        List<File> locations = new ArrayList<File>();
+        locations.add(base);
+        // the last segment names the files
+        for (int i = 0; i < segments.length - 1 && !ANY_DIRECTORIES.equals(segments[i]); i++) {
+            if (segments[i].length() == 0) {
+                continue;
+            }
+
+            List<File> expanded = new ArrayList<File>();
+            for (File location : locations) {
+                if (getBaseLength(segments[i]) == segments[i].length()) {
+                    expanded.add(new File(location, segments[i]));
+                    continue;
+                }
+
+                File[] children = location.listFiles();
+                if (children == null) {
+                    continue;
+                }
+                for (File child : children) {
+                    if (child.isDirectory() && PATH_MATCHER.match(segments[i], child.getName())) {
+                        expanded.add(child);
+                    }
+                }
+            }
+            locations = expanded;
+        }
+        return locations;
+    }
+
+    /**
+     * Checks whether a file matches a resource pattern, such as one of the watchedResources of a plugin.
+     *
+     * @param pattern The pattern
+     * @param file The file
+     * @return true if the pattern refers to the file system and matches the file
+     */
+    public static boolean matches(String pattern, File file) {
+        File base = getBaseLocation(pattern);
+        if (base == null) {
+            return false;
+        }
+
+        String path = getPath(pattern);
+        String remainder = path.substring(getBaseLength(path));
+        String basePath = base.getAbsoluteFile().getPath().replace('\\', '/');
+        String filePath = file.getAbsoluteFile().getPath().replace('\\', '/');
+        if (remainder.length() == 0) {
+            return filePath.equals(basePath);
+        }
+        return filePath.startsWith(basePath + '/') && PATH_MATCHER.match(remainder, filePath.substring(basePath.length() + 1));
+    }
+
+    private static String getPath(String pattern) {
+        return pattern.substring(FILE_PREFIX.length()).replace('\\', '/');
+    }
+
+    private static int getBaseLength(String path) {
+        int wildcard = path.length();
+        for (int i = 0; i < WILDCARDS.length(); i++) {
+            int index = path.indexOf(WILDCARDS.charAt(i));
+            if (index > -1 && index < wildcard) {
+                wildcard = index;
+            }
+        }
+        return wildcard < path.length() ? path.lastIndexOf('/', wildcard) + 1 : path.length();
+    }
+
+    /**
+     * Watches a directory or file. The files it currently contains are not reported as changed by the next scan.
+     *
+     * @param root The directory or file
+     * @return true if the root was not already watched
+     */
+    public synchronized boolean watch(File root) {
+        File file = root.getAbsoluteFile();
+        for (File existing : roots) {
+            if (contains(existing, file)) {
+                return false;
+            }
+        }
+
+        for (Iterator<File> i = roots.iterator(); i.hasNext();) {
+            if (contains(file, i.next())) {
+                i.remove();
+            }
+        }
+        roots.add(file);
+        collect(file, null, new HashSet<File>());
+        return true;
+    }
+
+    /**
+     * @return The watched directories and files
+     */
+    public synchronized Set<File> getRoots() {
+        return new LinkedHashSet<File>(roots);
+    }
+
+    /**
+     * Walks the watched directories.
+     *
+     * @return The files that were added or modified since the previous scan
+     */
+    public synchronized List<File> scan() {
+        List<File> changed = new ArrayList<File>();
+        Set<File> seen = new HashSet<File>(lastModified.size());
+        for (File root : roots) {
+            collect(root, changed, seen);
+        }
+        lastModified.keySet().retainAll(seen);
+        return changed;
+    }
+
+    /*
+     * Records the modified dates of the files under the given file. Changes are only reported when
+     * called from a scan, the files of a newly watched root are recorded silently.
+     */
+    private void collect(File file, List<File> changed, Set<File> seen) {
+        if (file.isDirectory()) {
+            File[] files = file.listFiles();
+            if (files == null) {
+                return;
+            }
+            for (File child : files) {
+                // skips version control metadata such as .svn and .git
+                if (!child.isDirectory() || !child.getName().startsWith(".")) {
+                    collect(child, changed, seen);
+                }
+            }
+            return;
+        }
+
+        long modified = file.lastModified();
+        if (modified == 0L) {
+            return;
+        }
+
+        seen.add(file);
+        Long previous = lastModified.put(file, modified);
+        if (changed != null && (previous == null || previous.longValue() != modified)) {
+            changed.add(file);
+        }
+    }
+
+    private boolean contains(File directory, File file) {
+        String directoryPath = directory.getPath();
+        String path = file.getPath();
+        return path.equals(directoryPath) || path.startsWith(directoryPath.endsWith(File.separator) ? directoryPath : directoryPath + File.separator);
+    }
+}
@@ -0,0 +1,204 @@
+/* Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.grails.support;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Builds the key of a cache of state computed at startup, as a SHA-1 hash of everything the state depends on,
+ * such as configuration values and the bytecode of classes.
+ *
+ * @since 1.4
+ */
+public class StartupCacheKey {
+
+    private final MessageDigest digest;
+    private final byte[] buffer = new byte[4096];
+
+    public StartupCacheKey() {
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 digests are not supported", e);
+        }
+    }
+
+    /**
+     * Adds a value to the key.
+     *
+     * @param value The value
+     * @return This key
+     */
+    public StartupCacheKey add(String value) {
+        try {
+            digest.update(String.valueOf(value).getBytes("UTF-8"));
+        }
+        catch (UnsupportedEncodingException e) {
+            // UTF-8 is always supported
+        }
+        digest.update((byte)0);
+        return this;
+    }
+
+    /**
+     * Adds the entries of a map, such as a flattened configuration, to the key regardless of their order.
+     * Values without a stable string form, such as closures, only contribute their type.
+     *
+     * @param values The map
+     * @return This key
+     */
+    public StartupCacheKey add(Map<?, ?> values) {
+        Map<String, String> sorted = new TreeMap<String, String>();
+        if (values != null) {
+            for (Map.Entry<?, ?> entry : values.entrySet()) {
+                sorted.put(String.valueOf(entry.getKey()), describe(entry.getValue()));
+            }
+        }
+        return add(sorted.toString());
+    }
+
+    /**
+     * Adds the name and bytecode of a class to the key, together with the bytecode of the nested classes it
+     * references. Closure bodies are compiled to nested classes, so a change to a closure such as a mapping
+     * block changes the key.
+     *
+     * @param classLoader The class loader to read the bytecode from
+     * @param type The class
+     * @return This key
+     */
+    public StartupCacheKey add(ClassLoader classLoader, Class<?> type) {
+        String internalName = type.getName().replace('.', '/');
+        int nested = internalName.indexOf('$');
+        String outerName = nested > -1 ? internalName.substring(0, nested) : internalName;
+        addClass(classLoader, internalName, outerName + '$', new HashSet<String>());
+        return this;
+    }
+
+    /**
+     * Adds the contents of a class path resource, if it exists, to the key.
+     *
+     * @param classLoader The class loader to read the resource from
+     * @param path The path of the resource
+     * @return This key
+     */
+    public StartupCacheKey addResource(ClassLoader classLoader, String path) {
+        add(path);
+        byte[] bytes = read(classLoader, path);
+        if (bytes != null) {
+            digest.update(bytes);
+        }
+        return this;
+    }
+
+    private void addClass(ClassLoader classLoader, String internalName, String nestedPrefix, Set<String> added) {
+        if (!added.add(internalName)) {
+            return;
+        }
+
+        add(internalName);
+        byte[] bytes = read(classLoader, internalName + ".class");
+        if (bytes == null) {
+            return;
+        }
+
+        digest.update(bytes);
+        for (String nestedName : findNestedClassNames(nestedPrefix, bytes)) {
+            addClass(classLoader, nestedName, nestedPrefix, added);
+        }
+    }
+
+    /*
+     * Nested class names appear in the constant pool of the class that refers to them, in internal form.
+     * Nested closures are named after the outermost class, as in Book$_closure1_closure2. Candidates that
+     * are not classes only contribute their name.
+     */
+    private Set<String> findNestedClassNames(String prefix, byte[] bytes) {
+        Set<String> names = new TreeSet<String>();
+        String text;
+        try {
+            text = new String(bytes, "ISO-8859-1");
+        }
+        catch (UnsupportedEncodingException e) {
+            return names;
+        }
+
+        for (int i = text.indexOf(prefix); i > -1; i = text.indexOf(prefix, i + 1)) {
+            int end = i + prefix.length();
+            while (end < text.length() && Character.isJavaIdentifierPart(text.charAt(end))) {
+                end++;
+            }
+            if (end > i + prefix.length()) {
+                names.add(text.substring(i, end));
+            }
+        }
+        return names;
+    }
+
+    private byte[] read(ClassLoader classLoader, String path) {
+        InputStream input = classLoader.getResourceAsStream(path);
+        if (input == null) {
+            return null;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            try {
+                for (int read = input.read(buffer); read > -1; read = input.read(buffer)) {
+                    bytes.write(buffer, 0, read);
+                }
+            }
+            finally {
+                input.close();
+            }
+        }
+        catch (IOException e) {
+            // an unreadable resource only contributes its path
+            return null;
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @return The key as a hexadecimal string. The key cannot be added to afterwards
+     */
+    @Override
+    public String toString() {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(Integer.toHexString((b & 0xff) | 0x100).substring(1));
+        }
+        return hex.toString();
+    }
+
+    private String describe(Object value) {
+        if (value == null || value instanceof CharSequence || value instanceof Number ||
+                value instanceof Boolean || value instanceof Class || value instanceof Collection || value instanceof Map) {
+            return String.valueOf(value);
+        }
+        return value.getClass().getName();
+    }
+}
@@ -0,0 +1,394 @@
+/* Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.grails.support;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Records the wall time and the bytes allocated by each phase of application startup, and by each plugin
+ * within the plugin phases. Enabled with the grails.startup.profile system property. At the end of startup
+ * a JSON report is written to the file given by the grails.startup.profile.file system property (by default
+ * grails-startup-profile.json in the temporary directory) and a summary is logged.
+ *
+ * Usage:
+ *
+ * <pre>
+ * StartupProfiler.Step step = StartupProfiler.getInstance().start("doWithSpring", plugin.getName());
+ * try {
+ *     ...
+ * }
+ * finally {
+ *     step.stop();
+ * }
+ * </pre>
+ *
+ * Allocated bytes are only reported on JVMs that support per thread allocation counting, and -1 otherwise.
+ *
+ * @since 1.4
+ */
+public class StartupProfiler {
+
+    public static final String ENABLED_PROPERTY = "grails.startup.profile";
+    public static final String REPORT_FILE_PROPERTY = "grails.startup.profile.file";
+
+    private static final Log LOG = LogFactory.getLog(StartupProfiler.class);
+    private static final String DEFAULT_REPORT_FILE = "grails-startup-profile.json";
+    private static final int SUMMARY_SIZE = 10;
+
+    private static final StartupProfiler INSTANCE = new StartupProfiler(Boolean.getBoolean(ENABLED_PROPERTY));
+
+    private static final Step NO_OP_STEP = new Step(null, null, null, 0) {
+        @Override
+        public void stop() {
+            // not recording
+        }
+    };
+
+    private final boolean enabled;
+    private final long startTime = System.currentTimeMillis();
+    private final List<Step> steps = new ArrayList<Step>();
+    private final ThreadLocal<Integer> depth = new ThreadLocal<Integer>() {
+        @Override
+        protected Integer initialValue() {
+            return 0;
+        }
+    };
+    private boolean finished;
+
+    private Object threadMXBean;
+    private Method allocatedBytesMethod;
+
+    public StartupProfiler(boolean enabled) {
+        this.enabled = enabled;
+        if (enabled) {
+            initAllocationCounting();
+        }
+    }
+
+    /**
+     * @return The profiler for application startup, which only records when the grails.startup.profile system property is set
+     */
+    public static StartupProfiler getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return true if steps are being recorded
+     */
+    public boolean isRecording() {
+        return enabled && !finished;
+    }
+
+    /**
+     * Starts timing a phase.
+     *
+     * @param phase The phase name, for example doWithSpring
+     * @return The step to stop once the phase is complete
+     */
+    public Step start(String phase) {
+        return start(phase, null);
+    }
+
+    /**
+     * Starts timing a phase for a single plugin or class.
+     *
+     * @param phase The phase name, for example doWithSpring
+     * @param name The name of the plugin or class the phase runs for, may be null
+     * @return The step to stop once the phase is complete
+     */
+    public Step start(String phase, String name) {
+        if (!isRecording()) {
+            return NO_OP_STEP;
+        }
+
+        int level = depth.get();
+        depth.set(level + 1);
+        return new Step(this, phase, name, level);
+    }
+
+    /**
+     * Marks the end of startup, writing the report and logging the summary. Subsequent steps are not recorded.
+     */
+    public void finish() {
+        List<Step> recorded;
+        synchronized (steps) {
+            if (!isRecording()) {
+                return;
+            }
+            finished = true;
+            recorded = new ArrayList<Step>(steps);
+        }
+
+        long totalTime = System.currentTimeMillis() - startTime;
+        File reportFile = getReportFile();
+        try {
+            Writer writer = new OutputStreamWriter(new FileOutputStream(reportFile), "UTF-8");
+            try {
+                writeReport(recorded, totalTime, writer);
+            }
+            finally {
+                writer.close();
+            }
+        }
+        catch (IOException e) {
+            LOG.warn("Cannot write startup profile to [" + reportFile + "]: " + e.getMessage(), e);
+        }
+
+        LOG.info(getSummary(recorded, totalTime) + "Startup profile written to [" + reportFile + "]");
+    }
+
+    /**
+     * @return The steps recorded so far, in the order they were started
+     */
+    public List<Step> getSteps() {
+        synchronized (steps) {
+            List<Step> recorded = new ArrayList<Step>(steps);
+            Collections.sort(recorded, new Comparator<Step>() {
+                public int compare(Step s1, Step s2) {
+                    return s1.sequence - s2.sequence;
+                }
+            });
+            return recorded;
+        }
+    }
+
+    /**
+     * Writes the recorded steps as JSON.
+     *
+     * @param writer The writer
+     * @throws IOException When an error occurs writing
+     */
+    public void writeReport(Writer writer) throws IOException {
+        writeReport(getSteps(), System.currentTimeMillis() - startTime, writer);
+    }
+
+    /**
+     * @return A human readable summary of the recorded steps
+     */
+    public String getSummary() {
+        return getSummary(getSteps(), System.currentTimeMillis() - startTime);
+    }
+
+    private void writeReport(List<Step> recorded, long totalTime, Writer writer) throws IOException {
+        writer.write("{\"totalTime\":" + totalTime + ",\"steps\":[");
+        for (int i = 0; i < recorded.size(); i++) {
+            Step step = recorded.get(i);
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write("{\"phase\":");
+            writeString(step.phase, writer);
+            writer.write(",\"name\":");
+            writeString(step.name, writer);
+            writer.write(",\"depth\":" + step.depth +
+                    ",\"start\":" + (step.startTime - startTime) +
+                    ",\"time\":" + step.time +
+                    ",\"allocated\":" + step.allocated + "}");
+        }
+        writer.write("]}");
+    }
+
+    private void writeString(String value, Writer writer) throws IOException {
+        if (value == null) {
+            writer.write("null");
+            return;
+        }
+
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                writer.write('\\');
+                writer.write(c);
+            }
+            else if (c < ' ') {
+                String hex = Integer.toHexString(c);
+                writer.write("\\u0000".substring(0, 6 - hex.length()));
+                writer.write(hex);
+            }
+            else {
+                writer.write(c);
+            }
+        }
+        writer.write('"');
+    }
+
+    private String getSummary(List<Step> recorded, long totalTime) {
+        Map<String, long[]> phases = new LinkedHashMap<String, long[]>();
+        List<Step> named = new ArrayList<Step>();
+        for (Step step : recorded) {
+            if (step.name == null) {
+                long[] totals = phases.get(step.phase);
+                if (totals == null) {
+                    totals = new long[2];
+                    phases.put(step.phase, totals);
+                }
+                totals[0] += step.time;
+                totals[1] = step.allocated < 0 || totals[1] < 0 ? -1 : totals[1] + step.allocated;
+            }
+            else {
+                named.add(step);
+            }
+        }
+
+        StringBuilder summary = new StringBuilder("Startup took " + totalTime + "ms\n");
+        for (Map.Entry<String, long[]> entry : phases.entrySet()) {
+            appendLine(summary, entry.getKey(), entry.getValue()[0], entry.getValue()[1]);
+        }
+
+        Collections.sort(named, new Comparator<Step>() {
+            public int compare(Step s1, Step s2) {
+                return s1.time < s2.time ? 1 : (s1.time == s2.time ? 0 : -1);
+            }
+        });
+        if (!named.isEmpty()) {
+            summary.append("Slowest plugins and classes:\n");
+        }
+        for (Step step : named.subList(0, Math.min(SUMMARY_SIZE, named.size()))) {
+            appendLine(summary, step.phase + " [" + step.name + "]", step.time, step.allocated);
+        }
+        return summary.toString();
+    }
+
+    private void appendLine(StringBuilder summary, String label, long time, long allocated) {
+        summary.append("  ").append(label).append(": ").append(time).append("ms");
+        if (allocated > -1) {
+            summary.append(", ").append(allocated / 1024).append("KB allocated");
+        }
+        summary.append('\n');
+    }
+
+    private File getReportFile() {
+        String path = System.getProperty(REPORT_FILE_PROPERTY);
+        if (path != null && path.length() > 0) {
+            return new File(path);
+        }
+        return new File(System.getProperty("java.io.tmpdir"), DEFAULT_REPORT_FILE);
+    }
+
+    private void initAllocationCounting() {
+        // com.sun.management.ThreadMXBean isn't available on every JVM, so it is looked up reflectively
+        try {
+            Object bean = ManagementFactory.getThreadMXBean();
+            Class<?> sunThreadMXBean = Class.forName("com.sun.management.ThreadMXBean");
+            if (sunThreadMXBean.isInstance(bean)) {
+                Method method = sunThreadMXBean.getMethod("getThreadAllocatedBytes", long.class);
+                method.invoke(bean, Thread.currentThread().getId());
+                threadMXBean = bean;
+                allocatedBytesMethod = method;
+            }
+        }
+        catch (Throwable e) {
+            LOG.debug("Allocation counting is not supported by this JVM, allocated bytes will not be reported", e);
+        }
+    }
+
+    private long getAllocatedBytes() {
+        if (allocatedBytesMethod == null) {
+            return -1;
+        }
+
+        try {
+            return ((Number)allocatedBytesMethod.invoke(threadMXBean, Thread.currentThread().getId())).longValue();
+        }
+        catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private void record(Step step) {
+        depth.set(step.depth);
+        synchronized (steps) {
+            if (!finished) {
+                steps.add(step);
+            }
+        }
+    }
+
+    /**
+     * A single timed phase.
+     */
+    public static class Step {
+
+        private static int counter;
+
+        private final StartupProfiler profiler;
+        private final String phase;
+        private final String name;
+        private final int depth;
+        private final int sequence;
+        private final long startTime;
+        private final long startAllocated;
+        private long time = -1;
+        private long allocated = -1;
+
+        Step(StartupProfiler profiler, String phase, String name, int depth) {
+            this.profiler = profiler;
+            this.phase = phase;
+            this.name = name;
+            this.depth = depth;
+            synchronized (Step.class) {
+                sequence = counter++;
+            }
+            startTime = System.currentTimeMillis();
+            startAllocated = profiler == null ? -1 : profiler.getAllocatedBytes();
+        }
+
+        /**
+         * Stops timing this phase.
+         */
+        public void stop() {
+            time = System.currentTimeMillis() - startTime;
+            long endAllocated = profiler.getAllocatedBytes();
+            allocated = startAllocated < 0 || endAllocated < 0 ? -1 : endAllocated - startAllocated;
+            profiler.record(this);
+        }
+
+        public String getPhase() {
+            return phase;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        public long getTime() {
+            return time;
+        }
+
+        public long getAllocated() {
+            return allocated;
+        }
+    }
+}
@@ -0,0 +1,340 @@
+/* Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.grails.validation;
+
+import groovy.lang.MissingPropertyException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.codehaus.groovy.grails.exceptions.GrailsRuntimeException;
+import org.codehaus.groovy.runtime.InvokerHelper;
+import org.springframework.context.MessageSource;
+import org.springframework.context.i18n.LocaleContext;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+
+/**
+ * Validates many instances against their constraints at once, for example command objects or
+ * domain instances created by an import, optionally spreading the work across a thread pool.
+ *
+ * <p>Only constraints that depend on nothing but the property value, such as blank, size or
+ * matches, are evaluated on worker threads. All other constraints, including custom validators,
+ * unique and any constraint class not known to be free of side effects, are evaluated afterwards on
+ * the calling thread, in the order of the instances. The Errors are returned in the order of the
+ * instances too.</p>
+ *
+ * eg. new BulkValidator(parallel: true).validate(commandObjects)
+ *
+ * @since 1.4
+ */
+public class BulkValidator {
+
+    private static final String CONSTRAINTS_PROPERTY = "constraints";
+    private static final String ERRORS_PROPERTY = "errors";
+
+    /**
+     * Constraints that only read the property value and the constraint parameter.
+     */
+    private static final Set<Class<?>> WORKER_THREAD_CONSTRAINTS = new HashSet<Class<?>>(Arrays.<Class<?>>asList(
+            BlankConstraint.class, CreditCardConstraint.class, EmailConstraint.class, InListConstraint.class,
+            MatchesConstraint.class, MaxConstraint.class, MaxSizeConstraint.class, MinConstraint.class,
+            MinSizeConstraint.class, NotEqualConstraint.class, NullableConstraint.class, RangeConstraint.class,
+            SizeConstraint.class, UrlConstraint.class));
+
+    private ExecutorService executor;
+    private boolean parallel;
+    private MessageSource messageSource;
+
+    /**
+     * Validates the given instances, storing the Errors of each instance in its errors property if it has one.
+     *
+     * @param targets The instances to validate
+     * @return The Errors of each instance in the order of the instances
+     */
+    public List<Errors> validate(List<?> targets) {
+        List<Errors> errors = new ArrayList<Errors>(targets.size());
+        for (Object target : targets) {
+            errors.add(new BeanPropertyBindingResult(target, target.getClass().getName()));
+        }
+
+        validate(targets, errors);
+
+        for (int i = 0; i < targets.size(); i++) {
+            try {
+                InvokerHelper.setProperty(targets.get(i), ERRORS_PROPERTY, errors.get(i));
+            }
+            catch (MissingPropertyException e) {
+                // no errors property
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * Validates the given instances, reporting to the given Errors instances.
+     *
+     * @param targets The instances to validate
+     * @param errors The Errors for each instance, in the same order
+     */
+    public void validate(final List<?> targets, final List<? extends Errors> errors) {
+        final List<Iterable<ConstrainedProperty>> constrainedProperties = prepareConstrainedProperties(targets);
+        final List<List<DeferredConstraint>> deferred = new ArrayList<List<DeferredConstraint>>(targets.size());
+        for (int i = 0; i < targets.size(); i++) {
+            deferred.add(null);
+        }
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        if (!parallel || threads < 2 || targets.size() < 2) {
+            validateRange(targets, constrainedProperties, errors, deferred, 0, targets.size());
+        }
+        else {
+            ExecutorService pool = executor != null ? executor : createExecutor(threads);
+            try {
+                // default messages are resolved in the locale of the caller
+                final LocaleContext localeContext = LocaleContextHolder.getLocaleContext();
+                // a few chunks per thread so that uneven chunks don't leave threads idle
+                int chunkSize = Math.max(1, targets.size() / (threads * 4));
+                List<Future<?>> futures = new ArrayList<Future<?>>();
+                for (int start = 0; start < targets.size(); start += chunkSize) {
+                    final int from = start;
+                    final int to = Math.min(start + chunkSize, targets.size());
+                    futures.add(pool.submit(new Callable<Object>() {
+                        public Object call() {
+                            LocaleContextHolder.setLocaleContext(localeContext);
+                            try {
+                                validateRange(targets, constrainedProperties, errors, deferred, from, to);
+                            }
+                            finally {
+                                LocaleContextHolder.resetLocaleContext();
+                            }
+                            return null;
+                        }
+                    }));
+                }
+                waitFor(futures);
+            }
+            finally {
+                if (pool != executor) {
+                    pool.shutdown();
+                }
+            }
+        }
+
+        for (int i = 0; i < targets.size(); i++) {
+            List<DeferredConstraint> constraints = deferred.get(i);
+            if (constraints == null) {
+                continue;
+            }
+
+            Errors targetErrors = errors.get(i);
+            Set<String> vetoedProperties = new HashSet<String>();
+            for (DeferredConstraint constraint : constraints) {
+                if (vetoedProperties.contains(constraint.propertyName) ||
+                        targetErrors.getFieldError(constraint.propertyName) != null) {
+                    continue;
+                }
+
+                if (constraint.constraint instanceof VetoingConstraint) {
+                    if (((VetoingConstraint)constraint.constraint).validateWithVetoing(
+                            targets.get(i), constraint.propertyValue, targetErrors)) {
+                        vetoedProperties.add(constraint.propertyName);
+                    }
+                }
+                else {
+                    constraint.constraint.validate(targets.get(i), constraint.propertyValue, targetErrors);
+                }
+            }
+        }
+    }
+
+    /**
+     * Resolves the constrained properties of each instance and sets their message sources on the calling
+     * thread, so that the worker threads only read the shared constraints.
+     */
+    private List<Iterable<ConstrainedProperty>> prepareConstrainedProperties(List<?> targets) {
+        List<Iterable<ConstrainedProperty>> constrainedProperties = new ArrayList<Iterable<ConstrainedProperty>>(targets.size());
+        Map<ConstrainedProperty, Boolean> prepared = new IdentityHashMap<ConstrainedProperty, Boolean>();
+        for (Object target : targets) {
+            Iterable<ConstrainedProperty> targetProperties = getConstrainedProperties(target);
+            for (ConstrainedProperty constrainedProperty : targetProperties) {
+                if (prepared.put(constrainedProperty, Boolean.TRUE) == null) {
+                    MessageSource source = messageSource != null ? messageSource : constrainedProperty.messageSource;
+                    for (Constraint c : constrainedProperty.getValidationOrder()) {
+                        c.setMessageSource(source);
+                    }
+                }
+            }
+            constrainedProperties.add(targetProperties);
+        }
+        return constrainedProperties;
+    }
+
+    private void validateRange(List<?> targets, List<Iterable<ConstrainedProperty>> constrainedProperties,
+            List<? extends Errors> errors, List<List<DeferredConstraint>> deferred, int from, int to) {
+        for (int i = from; i < to; i++) {
+            Object target = targets.get(i);
+            Errors targetErrors = errors.get(i);
+            List<DeferredConstraint> targetDeferred = null;
+
+            for (ConstrainedProperty constrainedProperty : constrainedProperties.get(i)) {
+                String propertyName = constrainedProperty.getPropertyName();
+                if (targetErrors.getFieldError(propertyName) != null) {
+                    continue;
+                }
+
+                Object propertyValue = InvokerHelper.getProperty(target, propertyName);
+                List<DeferredConstraint> propertyDeferred = null;
+                boolean vetoed = false;
+                for (Constraint c : constrainedProperty.getValidationOrder()) {
+                    // once a constraint is deferred, a veto may depend on it, so the rest is deferred too
+                    boolean deferVetoing = propertyDeferred != null && c instanceof VetoingConstraint;
+                    if (deferVetoing || isCallerThreadConstraint(c)) {
+                        if (propertyDeferred == null) {
+                            propertyDeferred = new ArrayList<DeferredConstraint>();
+                        }
+                        propertyDeferred.add(new DeferredConstraint(propertyName, propertyValue, c));
+                    }
+                    else if (c instanceof VetoingConstraint) {
+                        if (((VetoingConstraint)c).validateWithVetoing(target, propertyValue, targetErrors)) {
+                            vetoed = true;
+                            break;
+                        }
+                    }
+                    else {
+                        c.validate(target, propertyValue, targetErrors);
+                    }
+                }
+
+                if (propertyDeferred != null && !vetoed) {
+                    if (targetDeferred == null) {
+                        targetDeferred = new ArrayList<DeferredConstraint>();
+                    }
+                    targetDeferred.addAll(propertyDeferred);
+                }
+            }
+            deferred.set(i, targetDeferred);
+        }
+    }
+
+    private void waitFor(List<Future<?>> futures) {
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GrailsRuntimeException("Interrupted while validating", e);
+        }
+        catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw new GrailsRuntimeException("Error validating: " + cause.getMessage(), cause);
+        }
+        finally {
+            for (Future<?> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Returns the constraints of the given instance, by default its constraints property.
+     *
+     * @param target The instance
+     * @return The constrained properties
+     */
+    @SuppressWarnings("unchecked")
+    protected Iterable<ConstrainedProperty> getConstrainedProperties(Object target) {
+        Object constraints = InvokerHelper.getProperty(target, CONSTRAINTS_PROPERTY);
+        if (constraints instanceof Map) {
+            return ((Map<String, ConstrainedProperty>)constraints).values();
+        }
+        return new ArrayList<ConstrainedProperty>();
+    }
+
+    /**
+     * Determines whether a constraint is evaluated on the calling thread after the constraints evaluated
+     * by the worker threads. By default only the built-in constraints that depend on nothing but the
+     * property value are evaluated by the worker threads. Subclasses can override to move constraints
+     * that are known to be thread safe, or that depend on the calling thread, for example on the current
+     * Hibernate session.
+     *
+     * @param constraint The constraint
+     * @return true if the constraint must be evaluated on the calling thread
+     */
+    protected boolean isCallerThreadConstraint(Constraint constraint) {
+        return !WORKER_THREAD_CONSTRAINTS.contains(constraint.getClass());
+    }
+
+    private ExecutorService createExecutor(int threads) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("grails-validation-");
+        threadFactory.setDaemon(true);
+        return Executors.newFixedThreadPool(threads, threadFactory);
+    }
+
+    /**
+     * @param parallel Whether to validate on multiple threads, false by default
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * @param executor The executor to validate with when parallel. By default a pool with a thread per
+     * processor is created for each call and shut down when the call completes
+     */
+    public void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * @param messageSource The MessageSource to resolve default messages with, by default the
+     * one of each ConstrainedProperty
+     */
+    public void setMessageSource(MessageSource messageSource) {
+        this.messageSource = messageSource;
+    }
+
+    private static class DeferredConstraint {
+        final String propertyName;
+        final Object propertyValue;
+        final Constraint constraint;
+
+        DeferredConstraint(String propertyName, Object propertyValue, Constraint constraint) {
+            this.propertyName = propertyName;
+            this.propertyValue = propertyValue;
+            this.constraint = constraint;
+        }
+    }
+}
@@ -167,6 +167,8 @@ public class ConstrainedProperty   {
     protected Class<?> propertyType;
 
     protected Map<String, Constraint> appliedConstraints = new LinkedHashMap<String, Constraint>();
+    // the applied constraints with the vetoing constraints first, reset by every method that changes them
+    private volatile Constraint[] validationOrder;
     protected Class<?> owningClass;
     private BeanWrapper bean;
 
@@ -283,6 +285,7 @@ public class ConstrainedProperty   {
     public void setMax(Comparable max) {
         if (max == null) {
             appliedConstraints.remove(MAX_CONSTRAINT);
+            validationOrder = null;
             return;
         }
 
@@ -306,6 +309,7 @@ public class ConstrainedProperty   {
             c.setPropertyName(propertyName);
             c.setParameter(max);
             appliedConstraints.put(MAX_CONSTRAINT, c);
+            validationOrder = null;
         }
     }
 
@@ -344,6 +348,7 @@ public class ConstrainedProperty   {
     public void setMin(Comparable min) {
         if (min == null) {
             appliedConstraints.remove(MIN_CONSTRAINT);
+            validationOrder = null;
             return;
         }
 
@@ -367,6 +372,7 @@ public class ConstrainedProperty   {
             c.setPropertyName(propertyName);
             c.setParameter(min);
             appliedConstraints.put(MIN_CONSTRAINT, c);
+            validationOrder = null;
         }
     }
 
@@ -387,6 +393,7 @@ public class ConstrainedProperty   {
         Constraint c = appliedConstraints.get(IN_LIST_CONSTRAINT);
         if (inList == null) {
             appliedConstraints.remove(IN_LIST_CONSTRAINT);
+            validationOrder = null;
         }
         else {
             if (c != null) {
@@ -398,6 +405,7 @@ public class ConstrainedProperty   {
                 c.setPropertyName(propertyName);
                 c.setParameter(inList);
                 appliedConstraints.put(IN_LIST_CONSTRAINT, c);
+                validationOrder = null;
             }
         }
     }
@@ -419,13 +427,16 @@ public class ConstrainedProperty   {
         if (appliedConstraints.containsKey(MAX_CONSTRAINT)) {
             LOG.warn("Setting range constraint on property ["+propertyName+"] of class ["+owningClass+"] forced removal of max constraint");
             appliedConstraints.remove(MAX_CONSTRAINT);
+            validationOrder = null;
         }
         if (appliedConstraints.containsKey(MIN_CONSTRAINT)) {
             LOG.warn("Setting range constraint on property ["+propertyName+"] of class ["+owningClass+"] forced removal of min constraint");
             appliedConstraints.remove(MIN_CONSTRAINT);
+            validationOrder = null;
         }
         if (range == null) {
             appliedConstraints.remove(RANGE_CONSTRAINT);
+            validationOrder = null;
         }
         else {
             Constraint c = appliedConstraints.get(RANGE_CONSTRAINT);
@@ -439,6 +450,7 @@ public class ConstrainedProperty   {
                 c.setParameter(range);
 
                 appliedConstraints.put(RANGE_CONSTRAINT,c);
+                validationOrder = null;
             }
         }
     }
@@ -472,6 +484,7 @@ public class ConstrainedProperty   {
         Constraint c = appliedConstraints.get(SIZE_CONSTRAINT);
         if (size == null) {
             appliedConstraints.remove(SIZE_CONSTRAINT);
+            validationOrder = null;
         }
         else {
             if (c != null) {
@@ -483,6 +496,7 @@ public class ConstrainedProperty   {
                 c.setPropertyName(propertyName);
                 c.setParameter(size);
                 appliedConstraints.put(SIZE_CONSTRAINT, c);
+                validationOrder = null;
             }
         }
     }
@@ -506,6 +520,7 @@ public class ConstrainedProperty   {
 
         if (!blank) {
             appliedConstraints.remove(BLANK_CONSTRAINT);
+            validationOrder = null;
         }
         else {
             Constraint c = appliedConstraints.get(BLANK_CONSTRAINT);
@@ -518,6 +533,7 @@ public class ConstrainedProperty   {
                 c.setPropertyName(propertyName);
                 c.setParameter(Boolean.valueOf(blank));
                 appliedConstraints.put(BLANK_CONSTRAINT,c);
+                validationOrder = null;
             }
         }
     }
@@ -554,11 +570,13 @@ public class ConstrainedProperty   {
                 c.setPropertyName(propertyName);
                 c.setParameter(Boolean.valueOf(email));
                 appliedConstraints.put(EMAIL_CONSTRAINT,c);
+                validationOrder = null;
             }
         }
         else {
             if (c != null) {
                 appliedConstraints.remove(EMAIL_CONSTRAINT);
+                validationOrder = null;
             }
         }
     }
@@ -599,11 +617,13 @@ public class ConstrainedProperty   {
                 c.setPropertyName(propertyName);
                 c.setParameter(Boolean.valueOf(creditCard));
                 appliedConstraints.put(CREDIT_CARD_CONSTRAINT,c);
+                validationOrder = null;
             }
         }
         else {
             if (c != null) {
                 appliedConstraints.remove(CREDIT_CARD_CONSTRAINT);
+                validationOrder = null;
             }
         }
     }
@@ -632,6 +652,7 @@ public class ConstrainedProperty   {
         Constraint c = appliedConstraints.get(MATCHES_CONSTRAINT);
         if (regex == null) {
             appliedConstraints.remove(MATCHES_CONSTRAINT);
+            validationOrder = null;
         }
         else {
             if (c != null) {
@@ -643,6 +664,7 @@ public class ConstrainedProperty   {
                 c.setPropertyName(propertyName);
                 c.setParameter(regex);
                 appliedConstraints.put(MATCHES_CONSTRAINT,c);
+                validationOrder = null;
             }
         }
     }
@@ -687,6 +709,7 @@ public class ConstrainedProperty   {
             c.setPropertyName(propertyName);
             c.setParameter(maxSize);
             appliedConstraints.put(MAX_SIZE_CONSTRAINT,c);
+            validationOrder = null;
         }
     }
 
@@ -723,6 +746,7 @@ public class ConstrainedProperty   {
             c.setPropertyName(propertyName);
             c.setParameter(minSize);
             appliedConstraints.put(MIN_SIZE_CONSTRAINT,c);
+            validationOrder = null;
         }
     }
 
@@ -732,6 +756,7 @@ public class ConstrainedProperty   {
     public void setNotEqual(Object notEqual) {
         if (notEqual == null) {
             appliedConstraints.remove(NOT_EQUAL_CONSTRAINT);
+            validationOrder = null;
         }
         else {
             Constraint c = new NotEqualConstraint();
@@ -739,6 +764,7 @@ public class ConstrainedProperty   {
             c.setPropertyName(propertyName);
             c.setParameter(notEqual);
             appliedConstraints.put(NOT_EQUAL_CONSTRAINT, c);
+            validationOrder = null;
         }
     }
 
@@ -764,6 +790,7 @@ public class ConstrainedProperty   {
             nc.setOwningClass(owningClass);
             nc.setPropertyName(propertyName);
             appliedConstraints.put(NULLABLE_CONSTRAINT, nc);
+            validationOrder = null;
         }
 
         nc.setParameter(Boolean.valueOf(nullable));
@@ -813,11 +840,13 @@ public class ConstrainedProperty   {
                 c.setPropertyName(propertyName);
                 c.setParameter(Boolean.valueOf(url));
                 appliedConstraints.put(URL_CONSTRAINT, c);
+                validationOrder = null;
             }
         }
         else {
             if (c != null) {
                 appliedConstraints.remove(URL_CONSTRAINT);
+                validationOrder = null;
             }
         }
     }
@@ -913,27 +942,40 @@ public class ConstrainedProperty   {
      * @param errors The Errors instances to report errors to
      */
     public void validate(Object target, Object propertyValue, Errors errors) {
-        List<Constraint> delayedConstraints = new ArrayList<Constraint>();
-
-        // validate only vetoing constraints first, putting non-vetoing into delayedConstraints
-        for (Constraint c : appliedConstraints.values()) {
+        // validate vetoing constraints first, stopping the validation process when a constraint vetoes
+        for (Constraint c : getValidationOrder()) {
+            c.setMessageSource(messageSource);
             if (c instanceof VetoingConstraint) {
-                c.setMessageSource(messageSource);
-                // stop validation process when constraint vetoes
                 if (((VetoingConstraint)c).validateWithVetoing(target, propertyValue, errors)) {
                     return;
                 }
             }
             else {
-                delayedConstraints.add(c);
+                c.validate(target, propertyValue, errors);
             }
         }
+    }
 
-        // process non-vetoing constraints
-        for (Constraint c : delayedConstraints) {
-            c.setMessageSource(messageSource);
-            c.validate(target, propertyValue, errors);
+    /**
+     * @return The applied constraints in the order they are validated, vetoing constraints first
+     */
+    Constraint[] getValidationOrder() {
+        Constraint[] order = validationOrder;
+        if (order == null) {
+            List<Constraint> vetoing = new ArrayList<Constraint>();
+            List<Constraint> delayed = new ArrayList<Constraint>();
+            for (Constraint c : appliedConstraints.values()) {
+                if (c instanceof VetoingConstraint) {
+                    vetoing.add(c);
+                }
+                else {
+                    delayed.add(c);
+                }
+            }
+            vetoing.addAll(delayed);
+            validationOrder = order = vetoing.toArray(new Constraint[vetoing.size()]);
         }
+        return order;
     }
 
     /**
@@ -973,6 +1015,7 @@ public class ConstrainedProperty   {
         if (constraints.containsKey(constraintName)) {
             if (constrainingValue == null) {
                 appliedConstraints.remove(constraintName);
+                validationOrder = null;
             }
             else {
                 try {
@@ -982,6 +1025,7 @@ public class ConstrainedProperty   {
                     c.setPropertyName(propertyName);
                     c.setParameter(constrainingValue);
                     appliedConstraints.put(constraintName, c);
+                    validationOrder = null;
                 }
                 catch (Exception e) {
                     LOG.error("Exception thrown applying constraint [" + constraintName +
@@ -16,6 +16,9 @@ package org.codehaus.groovy.grails.validation;
 
 import groovy.lang.GroovyObject;
 
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
@@ -29,9 +32,11 @@ import org.codehaus.groovy.grails.commons.GrailsDomainClass;
 import org.codehaus.groovy.grails.commons.GrailsDomainClassProperty;
 import org.codehaus.groovy.grails.plugins.support.aware.GrailsApplicationAware;
 import org.codehaus.groovy.runtime.InvokerHelper;
+import org.springframework.beans.BeanUtils;
 import org.springframework.beans.BeanWrapper;
 import org.springframework.beans.BeanWrapperImpl;
 import org.springframework.context.MessageSource;
+import org.springframework.util.ReflectionUtils;
 import org.springframework.validation.Errors;
 import org.springframework.validation.FieldError;
 import org.springframework.validation.Validator;
@@ -56,6 +61,8 @@ public class GrailsDomainClassValidator implements Validator, CascadingValidator
     protected GrailsApplication grailsApplication;
     private static final String ERRORS_PROPERTY = "errors";
 
+    private volatile ValidationPlan validationPlan;
+
     @SuppressWarnings("rawtypes")
     public boolean supports(Class clazz) {
         return targetClass.equals( clazz );
@@ -64,38 +71,50 @@ public class GrailsDomainClassValidator implements Validator, CascadingValidator
     /**
      * @see org.codehaus.groovy.grails.validation.CascadingValidator#validate(Object, org.springframework.validation.Errors, boolean)
      */
-    @SuppressWarnings({ "unchecked", "rawtypes" })
     public void validate(Object obj, Errors errors, boolean cascade) {
+        validate(obj, errors, cascade, true);
+    }
+
+    /**
+     * Validates the given instance, optionally skipping its own constraints when they have already been
+     * evaluated into the given Errors, for example by a {@link BulkValidator}. Validation still cascades
+     * to the associations of the instance and the errors are post-processed as usual.
+     *
+     * @param obj The instance to validate
+     * @param errors The Errors instance
+     * @param cascade Whether to cascade validation to associations
+     * @param validateConstraints false to skip the constraints of the instance itself
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public void validate(Object obj, Errors errors, boolean cascade, boolean validateConstraints) {
         if (!domainClass.getClazz().isInstance(obj)) {
             throw new IllegalArgumentException("Argument [" + obj + "] is not an instance of [" +
                     domainClass.getClazz() + "] which this validator is configured for");
         }
 
-        BeanWrapper bean = new BeanWrapperImpl(obj);
-
-        Map constrainedProperties = domainClass.getConstrainedProperties();
-        Set<String> constrainedPropertyNames = new HashSet(constrainedProperties.keySet());
-
-        GrailsDomainClassProperty[] persistentProperties = domainClass.getPersistentProperties();
-
-        for (GrailsDomainClassProperty persistentProperty : persistentProperties) {
-            String propertyName = persistentProperty.getName();
-            if (constrainedProperties.containsKey(propertyName)) {
-                validatePropertyWithConstraint(propertyName, obj, errors, bean, constrainedProperties);
+        BeanWrapper bean = null;
+        for (PropertyValidation property : getValidationPlan().properties) {
+            if (validateConstraints && property.constrainedProperty != null && errors.getFieldError(property.name) == null) {
+                Object value;
+                if (property.readMethod == null) {
+                    if (bean == null) {
+                        bean = new BeanWrapperImpl(obj);
+                    }
+                    value = bean.getPropertyValue(property.name);
+                }
+                else {
+                    value = ReflectionUtils.invokeMethod(property.readMethod, obj);
+                }
+                property.constrainedProperty.setMessageSource(messageSource);
+                property.constrainedProperty.validate(obj, value, errors);
             }
 
-            if ((persistentProperty.isAssociation() || persistentProperty.isEmbedded()) && cascade) {
-                cascadeToAssociativeProperty(errors, bean, persistentProperty);
+            if (property.cascades && cascade) {
+                if (bean == null) {
+                    bean = new BeanWrapperImpl(obj);
+                }
+                cascadeToAssociativeProperty(errors, bean, property.persistentProperty);
             }
-
-            // Remove this property from the set of constrained property
-            // names because we have already processed it.
-            constrainedPropertyNames.remove(propertyName);
-        }
-
-        // Now process the remaining constrained properties, for example any transients.
-        for (String name : constrainedPropertyNames) {
-            validatePropertyWithConstraint(name, obj, errors, bean, constrainedProperties);
         }
 
         if (obj instanceof GroovyObject) {
@@ -108,6 +127,21 @@ public class GrailsDomainClassValidator implements Validator, CascadingValidator
         postValidate(obj,errors);
     }
 
+    /**
+     * Returns the properties to validate in order: the persistent properties followed by the remaining
+     * constrained properties, for example any transients. The plan is rebuilt when the constraints of the
+     * domain class are re-evaluated.
+     */
+    @SuppressWarnings("rawtypes")
+    private ValidationPlan getValidationPlan() {
+        Map constrainedProperties = domainClass.getConstrainedProperties();
+        ValidationPlan plan = validationPlan;
+        if (plan == null || plan.constrainedProperties != constrainedProperties) {
+            validationPlan = plan = new ValidationPlan(constrainedProperties, domainClass.getPersistentProperties());
+        }
+        return plan;
+    }
+
     /**
      * Subclasses can overrite to provide custom handling of the errors object post validation.
      *
@@ -221,11 +255,13 @@ public class GrailsDomainClassValidator implements Validator, CascadingValidator
         }
 
         Map associatedConstraintedProperties = associatedDomainClass.getConstrainedProperties();
+        boolean validateConstraints = isConstraintValidationRequired(associatedObject);
 
         GrailsDomainClassProperty[] associatedPersistentProperties = associatedDomainClass.getPersistentProperties();
         String nestedPath = errors.getNestedPath();
         try {
             errors.setNestedPath(nestedPath+propertyName);
+            BeanWrapper associatedBean = new BeanWrapperImpl(associatedObject);
 
             for (GrailsDomainClassProperty associatedPersistentProperty : associatedPersistentProperties) {
                 if (associatedPersistentProperty.equals(otherSide)) continue;
@@ -234,15 +270,13 @@ public class GrailsDomainClassValidator implements Validator, CascadingValidator
                 }
 
                 String associatedPropertyName = associatedPersistentProperty.getName();
-                if (associatedConstraintedProperties.containsKey(associatedPropertyName)) {
+                if (validateConstraints && associatedConstraintedProperties.containsKey(associatedPropertyName)) {
                     validatePropertyWithConstraint(errors.getNestedPath() + associatedPropertyName,
-                            associatedObject, errors, new BeanWrapperImpl(associatedObject),
-                            associatedConstraintedProperties);
+                            associatedObject, errors, associatedBean, associatedConstraintedProperties);
                 }
 
                 if (associatedPersistentProperty.isAssociation()) {
-                    cascadeToAssociativeProperty(errors, new BeanWrapperImpl(associatedObject),
-                            associatedPersistentProperty);
+                    cascadeToAssociativeProperty(errors, associatedBean, associatedPersistentProperty);
                 }
             }
         }
@@ -263,6 +297,18 @@ public class GrailsDomainClassValidator implements Validator, CascadingValidator
         return persistentProperty.getReferencedDomainClass();
     }
 
+    /**
+     * Subclasses can override to skip the constraints of an associated instance that is known to be valid.
+     * Validation still cascades to the associations of the instance.
+     *
+     * @param associatedObject The associated instance
+     * @return true if the constraints of the instance should be validated
+     */
+    @SuppressWarnings("unused")
+    protected boolean isConstraintValidationRequired(Object associatedObject) {
+        return true;
+    }
+
     protected GrailsDomainClass getAssociatedDomainClassFromApplication(Object associatedObject) {
         String associatedObjectType = associatedObject.getClass().getName();
         return (GrailsDomainClass) grailsApplication.getArtefact(DomainClassArtefactHandler.TYPE, associatedObjectType);
@@ -302,4 +348,61 @@ public class GrailsDomainClassValidator implements Validator, CascadingValidator
     public void setGrailsApplication(GrailsApplication grailsApplication) {
         this.grailsApplication = grailsApplication;
     }
+
+    /**
+     * The properties of the domain class to validate, with their constraints and read methods resolved up front.
+     */
+    @SuppressWarnings("rawtypes")
+    private class ValidationPlan {
+        final Map constrainedProperties;
+        final PropertyValidation[] properties;
+
+        ValidationPlan(Map constrainedProperties, GrailsDomainClassProperty[] persistentProperties) {
+            this.constrainedProperties = constrainedProperties;
+
+            List<PropertyValidation> plan = new ArrayList<PropertyValidation>();
+            Set<String> persistentPropertyNames = new HashSet<String>();
+            for (GrailsDomainClassProperty persistentProperty : persistentProperties) {
+                String name = persistentProperty.getName();
+                persistentPropertyNames.add(name);
+                ConstrainedProperty constrainedProperty = (ConstrainedProperty)constrainedProperties.get(name);
+                plan.add(new PropertyValidation(name, constrainedProperty, persistentProperty,
+                        constrainedProperty == null ? null : findReadMethod(name)));
+            }
+
+            for (Object name : constrainedProperties.keySet()) {
+                if (!persistentPropertyNames.contains(name)) {
+                    plan.add(new PropertyValidation((String)name, (ConstrainedProperty)constrainedProperties.get(name),
+                            null, findReadMethod((String)name)));
+                }
+            }
+            properties = plan.toArray(new PropertyValidation[plan.size()]);
+        }
+
+        private Method findReadMethod(String name) {
+            PropertyDescriptor descriptor = BeanUtils.getPropertyDescriptor(targetClass, name);
+            Method readMethod = descriptor == null ? null : descriptor.getReadMethod();
+            if (readMethod != null) {
+                ReflectionUtils.makeAccessible(readMethod);
+            }
+            return readMethod;
+        }
+    }
+
+    private static class PropertyValidation {
+        final String name;
+        final ConstrainedProperty constrainedProperty;
+        final GrailsDomainClassProperty persistentProperty;
+        final Method readMethod;
+        final boolean cascades;
+
+        PropertyValidation(String name, ConstrainedProperty constrainedProperty,
+                GrailsDomainClassProperty persistentProperty, Method readMethod) {
+            this.name = name;
+            this.constrainedProperty = constrainedProperty;
+            this.persistentProperty = persistentProperty;
+            this.readMethod = readMethod;
+            cascades = persistentProperty != null && (persistentProperty.isAssociation() || persistentProperty.isEmbedded());
+        }
+    }
 }
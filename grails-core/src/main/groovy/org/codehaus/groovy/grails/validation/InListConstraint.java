@@ -14,7 +14,9 @@
  */
 package org.codehaus.groovy.grails.validation;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.springframework.validation.Errors;
 
@@ -27,6 +29,8 @@ import org.springframework.validation.Errors;
 public class InListConstraint extends AbstractConstraint {
 
     List<?> list;
+    // hashed copy of the list so lookups don't scan the list
+    private Set<?> set;
 
     /**
      * @return Returns the list.
@@ -56,6 +60,7 @@ public class InListConstraint extends AbstractConstraint {
         }
 
         list = (List<?>)constraintParameter;
+        set = new HashSet<Object>(list);
         super.setParameter(constraintParameter);
     }
 
@@ -66,7 +71,7 @@ public class InListConstraint extends AbstractConstraint {
     @Override
     protected void processValidate(Object target, Object propertyValue, Errors errors) {
         // Check that the list contains the given value. If not, add an error.
-        if (!list.contains(propertyValue)) {
+        if (!set.contains(propertyValue)) {
             Object[] args = new Object[] { constraintPropertyName, constraintOwningClass, propertyValue, list };
             rejectValue(target, errors, ConstrainedProperty.DEFAULT_NOT_INLIST_MESSAGE_CODE,
                     ConstrainedProperty.NOT_PREFIX + ConstrainedProperty.IN_LIST_CONSTRAINT, args);
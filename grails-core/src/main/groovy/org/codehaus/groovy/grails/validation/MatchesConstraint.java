@@ -14,6 +14,8 @@
  */
 package org.codehaus.groovy.grails.validation;
 
+import java.util.regex.Pattern;
+
 import org.springframework.validation.Errors;
 
 /**
@@ -25,6 +27,7 @@ import org.springframework.validation.Errors;
 public class MatchesConstraint extends AbstractConstraint {
 
     private String regex;
+    private Pattern pattern;
 
     /**
      * @return Returns the regex.
@@ -51,6 +54,7 @@ public class MatchesConstraint extends AbstractConstraint {
         }
 
         regex = (String)constraintParameter;
+        pattern = Pattern.compile(regex);
         super.setParameter(constraintParameter);
     }
 
@@ -60,7 +64,7 @@ public class MatchesConstraint extends AbstractConstraint {
 
     @Override
     protected void processValidate(Object target, Object propertyValue, Errors errors) {
-        if (!propertyValue.toString().matches( regex )) {
+        if (!pattern.matcher(propertyValue.toString()).matches()) {
             Object[] args = new Object[] { constraintPropertyName, constraintOwningClass, propertyValue, regex };
             rejectValue(target, errors, ConstrainedProperty.DEFAULT_DOESNT_MATCH_MESSAGE_CODE,
                     ConstrainedProperty.MATCHES_CONSTRAINT + ConstrainedProperty.INVALID_SUFFIX, args);
@@ -24,6 +24,7 @@ import org.codehaus.groovy.grails.commons.DomainClassArtefactHandler;
 import org.codehaus.groovy.grails.commons.GrailsApplication;
 import org.codehaus.groovy.grails.commons.GrailsClass;
 import org.codehaus.groovy.grails.commons.GrailsDomainClass;
+import org.codehaus.groovy.grails.support.StartupProfiler;
 import org.hibernate.MappingException;
 import org.hibernate.cfg.Configuration;
 import org.hibernate.cfg.Mappings;
@@ -69,7 +70,8 @@ public class DefaultGrailsDomainConfiguration extends Configuration implements G
     }
 
     /**
-     * Overrides the default behaviour to including binding of Grails domain classes.
+     * Overrides the default behaviour to including binding of Grails domain classes. When the
+     * {@link HibernateMappingCache} is enabled and up to date the mapping metadata is restored from it instead.
      */
     @Override
     protected void secondPassCompile() throws MappingException {
@@ -84,14 +86,45 @@ public class DefaultGrailsDomainConfiguration extends Configuration implements G
 
         configureDomainBinder(grailsApplication,domainClasses);
 
-        for (GrailsDomainClass domainClass : domainClasses) {
-            final Mappings mappings = super.createMappings();
-            Mapping m = GrailsDomainBinder.getMapping(domainClass);
-            mappings.setAutoImport(m == null || m.getAutoImport());
-            GrailsDomainBinder.bindClass(domainClass, mappings);
+        HibernateMappingCache mappingCache = null;
+        if (HibernateMappingCache.isEnabled(grailsApplication)) {
+            mappingCache = new HibernateMappingCache(this, grailsApplication, HibernateMappingCache.getFile());
+            if (mappingCache.restore()) {
+                configLocked = true;
+                return;
+            }
         }
 
-        super.secondPassCompile();
+        StartupProfiler profiler = StartupProfiler.getInstance();
+        StartupProfiler.Step bindingStep = profiler.start("domainBinding");
+        try {
+            for (GrailsDomainClass domainClass : domainClasses) {
+                final Mappings mappings = super.createMappings();
+                Mapping m = GrailsDomainBinder.getMapping(domainClass);
+                mappings.setAutoImport(m == null || m.getAutoImport());
+                StartupProfiler.Step classStep = profiler.start("domainBinding", domainClass.getFullName());
+                try {
+                    GrailsDomainBinder.bindClass(domainClass, mappings);
+                }
+                finally {
+                    classStep.stop();
+                }
+            }
+        }
+        finally {
+            bindingStep.stop();
+        }
+
+        StartupProfiler.Step secondPassStep = profiler.start("hibernateSecondPass");
+        try {
+            super.secondPassCompile();
+        }
+        finally {
+            secondPassStep.stop();
+        }
+        if (mappingCache != null) {
+            mappingCache.save();
+        }
         configLocked = true;
     }
 
@@ -26,6 +26,7 @@ import org.codehaus.groovy.grails.commons.DomainClassArtefactHandler;
 import org.codehaus.groovy.grails.commons.GrailsApplication;
 import org.codehaus.groovy.grails.commons.GrailsClass;
 import org.codehaus.groovy.grails.commons.GrailsDomainClass;
+import org.codehaus.groovy.grails.support.StartupProfiler;
 import org.hibernate.HibernateException;
 import org.hibernate.MappingException;
 import org.hibernate.SessionFactory;
@@ -50,6 +51,7 @@ public class GrailsAnnotationConfiguration extends AnnotationConfiguration imple
     private GrailsApplication grailsApplication;
     private Set<GrailsDomainClass> domainClasses = new HashSet<GrailsDomainClass>();
     private boolean configLocked;
+    private boolean mappingsRestored;
 
     /* (non-Javadoc)
      * @see org.codehaus.groovy.grails.orm.hibernate.cfg.GrailsDomainConfiguration#addDomainClass(org.codehaus.groovy.grails.commons.GrailsDomainClass)
@@ -128,10 +130,16 @@ public class GrailsAnnotationConfiguration extends AnnotationConfiguration imple
     }
 
     /**
-     * Overrides the default behaviour to including binding of Grails domain classes.
+     * Overrides the default behaviour to including binding of Grails domain classes. When the
+     * {@link HibernateMappingCache} is enabled and up to date the mapping metadata is restored from it instead.
      */
     @Override
     protected void secondPassCompile() throws MappingException {
+        if (mappingsRestored) {
+            return;
+        }
+
+        HibernateMappingCache mappingCache = null;
         if (!configLocked) {
             if (LOG.isDebugEnabled()) {
                 LOG.debug("[GrailsAnnotationConfiguration] [" + domainClasses.size() + "] Grails domain classes to bind to persistence runtime");
@@ -140,26 +148,57 @@ public class GrailsAnnotationConfiguration extends AnnotationConfiguration imple
             // do Grails class configuration
             DefaultGrailsDomainConfiguration.configureDomainBinder(grailsApplication,domainClasses);
 
-            // do Grails class configuration
-            for (GrailsDomainClass domainClass : domainClasses) {
-                final String fullClassName = domainClass.getFullName();
-
-                String hibernateConfig = fullClassName.replace('.', '/') + ".hbm.xml";
-                final ClassLoader loader = Thread.currentThread().getContextClassLoader();
-                // don't configure Hibernate mapped classes
-                if (loader.getResource(hibernateConfig) != null) continue;
+            if (HibernateMappingCache.isEnabled(grailsApplication)) {
+                mappingCache = new HibernateMappingCache(this, grailsApplication, HibernateMappingCache.getFile());
+                if (mappingCache.restore()) {
+                    mappingsRestored = true;
+                    configLocked = true;
+                    return;
+                }
+            }
 
-                if (LOG.isDebugEnabled()) {
-                    LOG.debug("[GrailsAnnotationConfiguration] Binding persistent class [" + fullClassName + "]");
+            // do Grails class configuration
+            StartupProfiler profiler = StartupProfiler.getInstance();
+            StartupProfiler.Step bindingStep = profiler.start("domainBinding");
+            try {
+                for (GrailsDomainClass domainClass : domainClasses) {
+                    final String fullClassName = domainClass.getFullName();
+
+                    String hibernateConfig = fullClassName.replace('.', '/') + ".hbm.xml";
+                    final ClassLoader loader = Thread.currentThread().getContextClassLoader();
+                    // don't configure Hibernate mapped classes
+                    if (loader.getResource(hibernateConfig) != null) continue;
+
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("[GrailsAnnotationConfiguration] Binding persistent class [" + fullClassName + "]");
+                    }
+                    final Mappings mappings = super.createMappings();
+                    Mapping m = GrailsDomainBinder.getMapping(domainClass);
+                    mappings.setAutoImport(m== null || m.getAutoImport());
+                    StartupProfiler.Step classStep = profiler.start("domainBinding", fullClassName);
+                    try {
+                        GrailsDomainBinder.bindClass(domainClass, mappings);
+                    }
+                    finally {
+                        classStep.stop();
+                    }
                 }
-                final Mappings mappings = super.createMappings();
-                Mapping m = GrailsDomainBinder.getMapping(domainClass);
-                mappings.setAutoImport(m== null || m.getAutoImport());
-                GrailsDomainBinder.bindClass(domainClass, mappings);
+            }
+            finally {
+                bindingStep.stop();
             }
         }
 
-        super.secondPassCompile();
+        StartupProfiler.Step secondPassStep = StartupProfiler.getInstance().start("hibernateSecondPass");
+        try {
+            super.secondPassCompile();
+        }
+        finally {
+            secondPassStep.stop();
+        }
+        if (mappingCache != null) {
+            mappingCache.save();
+        }
         configLocked = true;
     }
 
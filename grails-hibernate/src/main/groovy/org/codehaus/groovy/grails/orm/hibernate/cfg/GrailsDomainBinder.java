@@ -94,6 +94,14 @@ public final class GrailsDomainBinder {
      */
     public static NamingStrategy namingStrategy = ImprovedNamingStrategy.INSTANCE;
 
+    public static final int DEFAULT_ADAPTIVE_BATCH_SIZE = 16;
+
+    /**
+     * The batch size assigned to lazy associations that don't declare one, or 0 if disabled.
+     * Can be configured in DataSource.groovy via <code>hibernate.batchFetching.adaptive = true</code>.
+     */
+    public static int adaptiveBatchSize = 0;
+
     /**
      * A Collection type, for the moment only Set is supported
      *
@@ -273,6 +281,29 @@ public final class GrailsDomainBinder {
         namingStrategy = (NamingStrategy)namingStrategyClass.newInstance();
     }
 
+    /**
+     * Enables batch fetching of lazy associations that don't declare a batch size.
+     *
+     * When a proxy or lazy collection is initialized Hibernate then also initializes the other
+     * uninitialized proxies or collections of the same association pending in the session, up to
+     * the batch size, with a single query. Initializing a lone proxy or collection still loads
+     * only that one. The batch size itself is the same fixed value for every entity and
+     * collection; a batchSize in the mapping of a class or association overrides it.
+     *
+     * @param setting true for the default batch size, a number for a specific batch size, or false to disable
+     */
+    public static void configureAdaptiveBatchFetching(final Object setting) {
+        if (setting instanceof Number) {
+            adaptiveBatchSize = Math.max(((Number)setting).intValue(), 0);
+        }
+        else if (Boolean.TRUE.equals(setting) || "true".equals(setting)) {
+            adaptiveBatchSize = DEFAULT_ADAPTIVE_BATCH_SIZE;
+        }
+        else {
+            adaptiveBatchSize = 0;
+        }
+    }
+
     private static void bindMapSecondPass(GrailsDomainClassProperty property, Mappings mappings,
               Map<?, ?> persistentClasses, org.hibernate.mapping.Map map) {
         bindCollectionSecondPass(property, mappings, persistentClasses, map);
@@ -934,6 +965,9 @@ public final class GrailsDomainBinder {
         if (pc != null && pc.getBatchSize() != null) {
             collection.setBatchSize(pc.getBatchSize().intValue());
         }
+        else if (adaptiveBatchSize > 0 && collection.getFetchMode() != FetchMode.JOIN) {
+            collection.setBatchSize(adaptiveBatchSize);
+        }
 
         // set up second pass
         if (collection instanceof org.hibernate.mapping.Set) {
@@ -1415,6 +1449,10 @@ public final class GrailsDomainBinder {
             }
         }
 
+        if (adaptiveBatchSize > 0 && (m == null || m.getBatchSize() == null)) {
+            root.setBatchSize(adaptiveBatchSize);
+        }
+
         final boolean hasTableDefinition = m != null && m.getTable() != null;
         if (hasTableDefinition && m.getTable().getSchema() != null)  {
              schema =  m.getTable().getSchema();
@@ -1917,7 +1955,6 @@ public final class GrailsDomainBinder {
      * @param path
      * @param mappings
      */
-    @SuppressWarnings("unchecked")
     private static void bindManyToOne(GrailsDomainClassProperty property, ManyToOne manyToOne,
              String path, Mappings mappings) {
         bindManyToOneValues(property, manyToOne);
@@ -1929,24 +1966,7 @@ public final class GrailsDomainBinder {
         }
         else {
             if (property.isCircular() && property.isManyToMany()) {
-                PropertyConfig pc = getPropertyConfig(property);
-
-                if (pc == null) {
-                    if (mapping == null) {
-                        mapping = new Mapping();
-                        MAPPING_CACHE.put(refDomainClass.getClazz(), mapping);
-                    }
-                    pc = new PropertyConfig();
-                    mapping.getColumns().put(property.getName(), pc);
-                }
-                if (!hasJoinKeyMapping(pc)) {
-                    JoinTable jt = new JoinTable();
-                    final ColumnConfig columnConfig = new ColumnConfig();
-                    columnConfig.setName(namingStrategy.propertyToColumnName(property.getName()) +
-                            UNDERSCORE + FOREIGN_KEY_SUFFIX);
-                    jt.setKey(columnConfig);
-                    pc.setJoinTable(jt);
-                }
+                PropertyConfig pc = bindCircularManyToManyPropertyConfig(property);
                 bindSimpleValue(property, manyToOne, path, pc);
             }
             else {
@@ -1968,6 +1988,52 @@ public final class GrailsDomainBinder {
         }
     }
 
+    /**
+     * Adds the join table key column of the circular many-to-many associations of a domain class to its
+     * mapping, as binding the associations does. Used when the mapping metadata is restored from the
+     * {@link HibernateMappingCache} instead of binding the domain classes, since GORM reads the join
+     * table from the mapping at runtime.
+     *
+     * @param domainClass The domain class
+     */
+    public static void bindCircularManyToManyMappings(GrailsDomainClass domainClass) {
+        for (GrailsDomainClassProperty property : domainClass.getPersistentProperties()) {
+            if (!property.isManyToMany() || !property.isBidirectional()) {
+                continue;
+            }
+
+            // the join table of an association is bound from the other side
+            GrailsDomainClassProperty otherSide = property.getOtherSide();
+            if (otherSide.isCircular() && otherSide.isManyToMany() &&
+                    !hasCompositeIdentifier(getMapping(otherSide.getDomainClass()))) {
+                bindCircularManyToManyPropertyConfig(otherSide);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static PropertyConfig bindCircularManyToManyPropertyConfig(GrailsDomainClassProperty property) {
+        PropertyConfig pc = getPropertyConfig(property);
+        if (pc == null) {
+            Mapping mapping = getMapping(property.getDomainClass());
+            if (mapping == null) {
+                mapping = new Mapping();
+                MAPPING_CACHE.put(property.getDomainClass().getClazz(), mapping);
+            }
+            pc = new PropertyConfig();
+            mapping.getColumns().put(property.getName(), pc);
+        }
+        if (!hasJoinKeyMapping(pc)) {
+            JoinTable jt = new JoinTable();
+            final ColumnConfig columnConfig = new ColumnConfig();
+            columnConfig.setName(namingStrategy.propertyToColumnName(property.getName()) +
+                    UNDERSCORE + FOREIGN_KEY_SUFFIX);
+            jt.setKey(columnConfig);
+            pc.setJoinTable(jt);
+        }
+        return pc;
+    }
+
     private static void bindCompositeIdentifierToManyToOne(GrailsDomainClassProperty property,
             SimpleValue value, CompositeIdentity compositeId, GrailsDomainClass refDomainClass,
             String path) {
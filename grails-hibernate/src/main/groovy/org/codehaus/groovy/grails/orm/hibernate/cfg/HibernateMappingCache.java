@@ -0,0 +1,381 @@
+/* Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.grails.orm.hibernate.cfg;
+
+import grails.util.GrailsUtil;
+import groovy.lang.Closure;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.codehaus.groovy.grails.commons.DomainClassArtefactHandler;
+import org.codehaus.groovy.grails.commons.GrailsApplication;
+import org.codehaus.groovy.grails.commons.GrailsClass;
+import org.codehaus.groovy.grails.commons.GrailsDomainClass;
+import org.codehaus.groovy.grails.commons.GrailsDomainClassProperty;
+import org.codehaus.groovy.grails.support.StartupCacheKey;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.cfg.Environment;
+import org.springframework.core.ConfigurableObjectInputStream;
+
+/**
+ * Caches the Hibernate mapping metadata built from the GORM domain classes in a file, so that the next start
+ * of an unchanged application can reuse it instead of binding the domain classes with {@link GrailsDomainBinder}
+ * and running the Hibernate second passes again.
+ *
+ * The cache is keyed by a hash of the Grails and Hibernate versions, the configuration, the Hibernate
+ * properties and naming strategy, hibernate.cfg.xml, the hbm.xml mappings of the domain classes and the
+ * bytecode of every application class the mapping can depend on: the domain classes, including the classes
+ * compiled from their mapping and constraints closures, their superclasses, the types of their persistent
+ * properties such as embedded components and enums, transitively, and the user types of their mappings.
+ * When the key differs, or the file cannot be read, the domain classes are bound as usual and the cache is
+ * written again.
+ *
+ * Enabled with the grails.hibernate.mapping.cache system property together with the
+ * grails.hibernate.mapping.cache.file system property, which names the file. The file is read with Java
+ * serialization, so it has to be in a directory only the application can write to. The mapping closures
+ * are still evaluated on every start, since GORM reads the resulting {@link Mapping} instances at runtime.
+ *
+ * @since 1.4
+ */
+public class HibernateMappingCache {
+
+    public static final String ENABLED_PROPERTY = "grails.hibernate.mapping.cache";
+    public static final String FILE_PROPERTY = "grails.hibernate.mapping.cache.file";
+
+    private static final Log LOG = LogFactory.getLog(HibernateMappingCache.class);
+    private static final int FORMAT_VERSION = 1;
+    private static final String DEFAULT_MAPPING = "grails.gorm.default.mapping";
+    private static final String[] FRAMEWORK_PACKAGES = { "java.", "javax.", "groovy.", "org.codehaus.groovy.", "org.hibernate." };
+
+    /**
+     * The fields of {@link Configuration} that hold the mapping metadata once the second passes have run.
+     */
+    private static final String[] MAPPING_FIELDS = {
+        "classes", "collections", "tables", "imports", "namedQueries", "namedSqlQueries",
+        "sqlResultSetMappings", "typeDefs", "filterDefinitions", "auxiliaryDatabaseObjects",
+        "propertyReferences", "tableNameBinding", "columnNameBindingPerTable"
+    };
+
+    private static Map<String, Field> mappingFields;
+
+    private final Configuration configuration;
+    private final GrailsApplication grailsApplication;
+    private final File file;
+    private String key;
+
+    public HibernateMappingCache(Configuration configuration, GrailsApplication grailsApplication, File file) {
+        this.configuration = configuration;
+        this.grailsApplication = grailsApplication;
+        this.file = file;
+    }
+
+    /**
+     * @param grailsApplication The application, may be null
+     * @return true if the mapping cache is enabled, has a file and the mapping metadata of this Hibernate
+     * version can be cached
+     */
+    public static boolean isEnabled(GrailsApplication grailsApplication) {
+        if (grailsApplication == null || !Boolean.getBoolean(ENABLED_PROPERTY)) {
+            return false;
+        }
+        if (getFile() == null) {
+            LOG.warn("The Hibernate mapping cache is disabled, the " + FILE_PROPERTY + " system property does not name its file");
+            return false;
+        }
+        return getMappingFields() != null;
+    }
+
+    /**
+     * @return The cache file, or null if none is configured
+     */
+    public static File getFile() {
+        String path = System.getProperty(FILE_PROPERTY);
+        if (path != null && path.length() > 0) {
+            return new File(path);
+        }
+        return null;
+    }
+
+    /**
+     * Replaces the mapping metadata of the configuration with the cached metadata, if the cache exists and was
+     * written for the same domain classes and configuration.
+     *
+     * @return true if the metadata was restored, false if the domain classes have to be bound
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public boolean restore() {
+        if (!file.exists()) {
+            return false;
+        }
+
+        Map<String, Object> metadata;
+        try {
+            ObjectInputStream input = new ConfigurableObjectInputStream(
+                    new BufferedInputStream(new FileInputStream(file)), grailsApplication.getClassLoader());
+            try {
+                if (input.readInt() != FORMAT_VERSION || !getKey().equals(input.readUTF())) {
+                    LOG.info("Domain classes changed since the Hibernate mapping cache [" + file + "] was written, binding them");
+                    return false;
+                }
+                metadata = (Map<String, Object>)input.readObject();
+            }
+            finally {
+                input.close();
+            }
+        }
+        catch (Exception e) {
+            LOG.warn("Cannot read Hibernate mapping cache [" + file + "], binding domain classes: " + e.getMessage(), e);
+            return false;
+        }
+
+        try {
+            for (Map.Entry<String, Field> entry : getMappingFields().entrySet()) {
+                Object current = entry.getValue().get(configuration);
+                Object cached = metadata.get(entry.getKey());
+                if (current == null) {
+                    entry.getValue().set(configuration, cached);
+                }
+                else if (current instanceof Map) {
+                    ((Map)current).clear();
+                    ((Map)current).putAll((Map)cached);
+                }
+                else {
+                    ((Collection)current).clear();
+                    ((Collection)current).addAll((Collection)cached);
+                }
+            }
+        }
+        catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot restore Hibernate mapping metadata: " + e.getMessage(), e);
+        }
+
+        for (GrailsDomainClass domainClass : getDomainClasses()) {
+            if (!isMappedWithXml(domainClass)) {
+                GrailsDomainBinder.bindCircularManyToManyMappings(domainClass);
+            }
+        }
+
+        LOG.info("Restored the mapping of [" + ((Map)metadata.get("classes")).size() + "] classes from Hibernate mapping cache [" + file + "]");
+        return true;
+    }
+
+    /**
+     * Writes the mapping metadata of the configuration to the cache. Called once the second passes have run.
+     */
+    public void save() {
+        // written as a single object graph so that the tables stay shared between classes and collections
+        Map<String, Object> metadata = new LinkedHashMap<String, Object>();
+        try {
+            for (Map.Entry<String, Field> entry : getMappingFields().entrySet()) {
+                metadata.put(entry.getKey(), entry.getValue().get(configuration));
+            }
+        }
+        catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot read Hibernate mapping metadata: " + e.getMessage(), e);
+        }
+
+        File tmp = new File(file.getPath() + ".tmp");
+        try {
+            ObjectOutputStream output = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+            try {
+                output.writeInt(FORMAT_VERSION);
+                output.writeUTF(getKey());
+                output.writeObject(metadata);
+            }
+            finally {
+                output.close();
+            }
+            if (file.exists() && !file.delete() || !tmp.renameTo(file)) {
+                throw new IOException("Cannot replace [" + file + "]");
+            }
+        }
+        catch (NotSerializableException e) {
+            tmp.delete();
+            LOG.info("Not writing Hibernate mapping cache, the mapping contains an instance of [" + e.getMessage() +
+                    "] which cannot be serialized");
+        }
+        catch (IOException e) {
+            tmp.delete();
+            LOG.warn("Cannot write Hibernate mapping cache [" + file + "]: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return A hash of everything the mapping metadata depends on
+     */
+    public String getKey() {
+        if (key == null) {
+            key = computeKey();
+        }
+        return key;
+    }
+
+    private String computeKey() {
+        ClassLoader classLoader = grailsApplication.getClassLoader();
+        StartupCacheKey cacheKey = new StartupCacheKey();
+        cacheKey.add(GrailsUtil.getGrailsVersion());
+        cacheKey.add(Environment.VERSION);
+        cacheKey.add(grailsApplication.getFlatConfig());
+        cacheKey.add(configuration.getProperties());
+        cacheKey.add(configuration.getNamingStrategy().getClass().getName());
+        cacheKey.addResource(classLoader, "hibernate.cfg.xml");
+
+        Object defaultMapping = grailsApplication.getFlatConfig().get(DEFAULT_MAPPING);
+        if (defaultMapping instanceof Closure) {
+            cacheKey.add(classLoader, defaultMapping.getClass());
+        }
+
+        Map<String, Class<?>> classes = new TreeMap<String, Class<?>>();
+        for (GrailsDomainClass domainClass : getDomainClasses()) {
+            cacheKey.addResource(classLoader, getXmlMappingPath(domainClass));
+            addReachableClasses(domainClass.getClazz(), classes);
+            for (GrailsDomainClassProperty property : domainClass.getPersistentProperties()) {
+                addReachableClasses(property.getType(), classes);
+                if (property.getReferencedPropertyType() != null) {
+                    addReachableClasses(property.getReferencedPropertyType(), classes);
+                }
+            }
+            addUserTypes(GrailsDomainBinder.getMapping(domainClass), classes);
+        }
+        for (Class<?> type : classes.values()) {
+            cacheKey.add(classLoader, type);
+        }
+        return cacheKey.toString();
+    }
+
+    private GrailsDomainClass[] getDomainClasses() {
+        GrailsClass[] artefacts = grailsApplication.getArtefacts(DomainClassArtefactHandler.TYPE);
+        GrailsDomainClass[] domainClasses = new GrailsDomainClass[artefacts.length];
+        System.arraycopy(artefacts, 0, domainClasses, 0, artefacts.length);
+        Arrays.sort(domainClasses, new Comparator<GrailsClass>() {
+            public int compare(GrailsClass c1, GrailsClass c2) {
+                return c1.getFullName().compareTo(c2.getFullName());
+            }
+        });
+        return domainClasses;
+    }
+
+    private String getXmlMappingPath(GrailsDomainClass domainClass) {
+        return domainClass.getFullName().replace('.', '/') + ".hbm.xml";
+    }
+
+    private boolean isMappedWithXml(GrailsDomainClass domainClass) {
+        return grailsApplication.getClassLoader().getResource(getXmlMappingPath(domainClass)) != null;
+    }
+
+    /*
+     * Adds a class, its superclasses and the types of its persistent fields, transitively, skipping the
+     * classes of the JDK, Groovy, Grails and Hibernate, whose versions are part of the key.
+     */
+    private void addReachableClasses(Class<?> type, Map<String, Class<?>> classes) {
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+        if (type.isPrimitive() || type.getClassLoader() == null || isFrameworkClass(type) ||
+                classes.put(type.getName(), type) != null) {
+            return;
+        }
+
+        if (type.getSuperclass() != null) {
+            addReachableClasses(type.getSuperclass(), classes);
+        }
+        for (Field field : type.getDeclaredFields()) {
+            int modifiers = field.getModifiers();
+            if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) {
+                continue;
+            }
+
+            addReachableClasses(field.getType(), classes);
+            Type genericType = field.getGenericType();
+            if (genericType instanceof ParameterizedType) {
+                for (Type argument : ((ParameterizedType)genericType).getActualTypeArguments()) {
+                    if (argument instanceof Class) {
+                        addReachableClasses((Class<?>)argument, classes);
+                    }
+                }
+            }
+        }
+    }
+
+    private void addUserTypes(Mapping mapping, Map<String, Class<?>> classes) {
+        if (mapping == null) {
+            return;
+        }
+
+        for (Object userType : mapping.getUserTypes().values()) {
+            if (userType instanceof Class) {
+                addReachableClasses((Class<?>)userType, classes);
+            }
+        }
+        for (Object config : mapping.getColumns().values()) {
+            if (config instanceof PropertyConfig && ((PropertyConfig)config).getType() instanceof Class) {
+                addReachableClasses((Class<?>)((PropertyConfig)config).getType(), classes);
+            }
+        }
+    }
+
+    private static boolean isFrameworkClass(Class<?> type) {
+        for (String prefix : FRAMEWORK_PACKAGES) {
+            if (type.getName().startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static synchronized Map<String, Field> getMappingFields() {
+        if (mappingFields == null) {
+            Map<String, Field> fields = new LinkedHashMap<String, Field>();
+            try {
+                for (String name : MAPPING_FIELDS) {
+                    Field field = Configuration.class.getDeclaredField(name);
+                    if (!Map.class.isAssignableFrom(field.getType()) && !List.class.isAssignableFrom(field.getType())) {
+                        throw new NoSuchFieldException(name);
+                    }
+                    field.setAccessible(true);
+                    fields.put(name, field);
+                }
+            }
+            catch (Exception e) {
+                LOG.warn("The Hibernate mapping cache does not support Hibernate " + Environment.VERSION + ": " + e.getMessage());
+                fields = null;
+            }
+            mappingFields = fields == null ? Collections.<String, Field>emptyMap() : fields;
+        }
+        return mappingFields.isEmpty() ? null : mappingFields;
+    }
+}
@@ -15,8 +15,10 @@
  */
 package org.codehaus.groovy.grails.orm.hibernate.cfg
 
-import java.lang.reflect.Modifier
+import java.util.concurrent.ConcurrentHashMap
+
 import org.codehaus.groovy.grails.orm.hibernate.metaclass.*
+import org.codehaus.groovy.runtime.GStringImpl
 import org.codehaus.groovy.grails.plugins.orm.hibernate.HibernatePluginSupport
 import org.hibernate.criterion.CriteriaSpecification
 import grails.util.GrailsNameUtils
@@ -24,12 +26,31 @@ import grails.util.GrailsNameUtils
 /**
  * A builder that implements the ORM named queries DSL.
  *
+ * Each named query is compiled once into an immutable {@link NamedCriteriaDefinition} that is
+ * shared by every invocation, so invoking or chaining named queries doesn't need to resolve
+ * them through the MetaClass again.
+ *
+ * When the grails.gorm.namedQueries.templates system property is set to true the criteria of
+ * each named query are also recorded once into a {@link NamedCriteriaTemplate} with slots for
+ * its parameters, and an invocation binds the parameters and replays the recorded criteria
+ * instead of running the closure again. This requires named queries to pass their parameters
+ * to the criteria unchanged and to compute no other values, such as new Date(), since those
+ * would be frozen at startup. Named queries that use the result of a method call, test their
+ * parameters or cannot be recorded otherwise keep running their closure.
+ *
  * @author Jeff Brown
  */
 class HibernateNamedQueriesBuilder {
 
+    static final String TEMPLATES_PROPERTY = "grails.gorm.namedQueries.templates"
+
+    // keyed by class name, so that the definitions of a reloaded class replace those of the old class
+    private static final Map<String, NamedCriteriaDefinitions> DEFINITIONS = new ConcurrentHashMap<String, NamedCriteriaDefinitions>()
+    private static final Object NO_DYNAMIC_METHOD = new Object()
+
     private final domainClass
     private final dynamicMethods
+    private final Map dynamicMethodsByName = new ConcurrentHashMap()
     private boolean initialized = false
 
     /**
@@ -61,6 +82,34 @@ class HibernateNamedQueriesBuilder {
         initialized = true
     }
 
+    /**
+     * Looks up a named query defined for the given class.
+     *
+     * @param clazz The domain class
+     * @param name The name of the named query
+     * @return The definition or null if there is no such named query
+     */
+    static NamedCriteriaDefinition getNamedCriteriaDefinition(Class clazz, String name) {
+        if (clazz == null) {
+            return null
+        }
+        def definitions = DEFINITIONS.get(clazz.name)
+        definitions?.clazz.is(clazz) ? definitions.byName.get(name) : null
+    }
+
+    /**
+     * Resolves the dynamic finder that handles the given method name, caching the match so
+     * the method patterns are only evaluated once per method name.
+     */
+    def getDynamicMethod(String methodName) {
+        def method = dynamicMethodsByName.get(methodName)
+        if (method == null) {
+            method = dynamicMethods.find {it.isMethodMatch(methodName)} ?: NO_DYNAMIC_METHOD
+            dynamicMethodsByName.put(methodName, method)
+        }
+        method.is(NO_DYNAMIC_METHOD) ? null : method
+    }
+
     private handleMethodMissing = {String name, args ->
         def classesToAugment = [domainClass]
 
@@ -69,12 +118,21 @@ class HibernateNamedQueriesBuilder {
             classesToAugment += subClasses
         }
 
+        def definition = new NamedCriteriaDefinition(name, args[0], Boolean.getBoolean(TEMPLATES_PROPERTY))
         def getterName = GrailsNameUtils.getGetterName(name)
+        def builder = this
         classesToAugment.each { clz ->
+            def definitions = DEFINITIONS.get(clz.clazz.name)
+            if (!definitions?.clazz.is(clz.clazz)) {
+                definitions = new NamedCriteriaDefinitions(clz.clazz)
+                DEFINITIONS.put(clz.clazz.name, definitions)
+            }
+            definitions.byName.put(name, definition)
+
             clz.metaClass.static."${getterName}" = {->
                 // creating a new proxy each time because the proxy class has
                 // some state that cannot be shared across requests (namedCriteriaParams)
-                new NamedCriteriaProxy(criteriaClosure: args[0], domainClass: clz, dynamicMethods: dynamicMethods)
+                new NamedCriteriaProxy(definition: definition, domainClass: clz, namedQueriesBuilder: builder)
             }
         }
     }
@@ -87,18 +145,379 @@ class HibernateNamedQueriesBuilder {
     }
 }
 
+/**
+ * The named queries defined for a domain class.
+ */
+class NamedCriteriaDefinitions {
+
+    final Class clazz
+    final Map<String, NamedCriteriaDefinition> byName = new ConcurrentHashMap<String, NamedCriteriaDefinition>()
+
+    NamedCriteriaDefinitions(Class clazz) {
+        this.clazz = clazz
+    }
+}
+
+/**
+ * An immutable, compiled named query. Each invocation only binds its parameters and the builder
+ * the criteria are applied to, either by replaying the recorded template or by running a copy
+ * of the criteria closure.
+ */
+class NamedCriteriaDefinition {
+
+    final String name
+    final NamedCriteriaTemplate template
+    private final Closure criteriaClosure
+
+    NamedCriteriaDefinition(String name, Closure criteriaClosure, boolean useTemplate = false) {
+        this.name = name
+        this.criteriaClosure = criteriaClosure
+        this.template = useTemplate ? NamedCriteriaTemplate.record(criteriaClosure) : null
+    }
+
+    /**
+     * Applies the criteria of this named query when it is invoked or chained.
+     *
+     * @param delegate The object the criteria methods are dispatched to
+     * @param params The parameters of the named query, if any
+     */
+    def apply(delegate, Object[] params) {
+        if (template != null) {
+            return template.replay(delegate, params)
+        }
+        invokeClosure(delegate, params, Closure.DELEGATE_FIRST)
+    }
+
+    /**
+     * Applies the criteria of this named query when it is called from within another named query,
+     * resolving names owner first like any other closure.
+     *
+     * @param delegate The object the criteria methods are dispatched to
+     * @param params The parameters of the named query, if any
+     */
+    def applyNested(delegate, Object[] params) {
+        invokeClosure(delegate, params, criteriaClosure.resolveStrategy)
+    }
+
+    private invokeClosure(delegate, Object[] params, int resolveStrategy) {
+        Closure criteria = criteriaClosure.clone()
+        criteria.resolveStrategy = resolveStrategy
+        criteria.delegate = delegate
+        params ? criteria.call(params) : criteria.call()
+    }
+}
+
+/**
+ * The criteria of a named query recorded as the sequence of criteria methods it calls, with
+ * slots for the parameters of the named query. Replaying it dispatches the same calls to a
+ * builder without running the closure.
+ */
+class NamedCriteriaTemplate {
+
+    private final List<NamedCriteriaStep> steps
+    private final owner
+
+    private NamedCriteriaTemplate(List<NamedCriteriaStep> steps, owner) {
+        this.steps = steps
+        this.owner = owner
+    }
+
+    /**
+     * Records the criteria of a named query.
+     *
+     * @param criteriaClosure The closure of the named query
+     * @return The template or null if the closure does more than calling criteria methods with its parameters
+     */
+    static NamedCriteriaTemplate record(Closure criteriaClosure) {
+        int parameterCount = criteriaClosure.maximumNumberOfParameters
+        Object[] parameters = (0..<parameterCount).collect { new NamedCriteriaParameter(it) } as Object[]
+        try {
+            NamedCriteriaTemplate template = recordClosure(criteriaClosure, parameters)
+            // comparing a parameter with null doesn't reach the parameter, so the criteria are recorded
+            // again with null parameters and have to be the same
+            if (parameterCount > 0 && !stepsMatch(template.steps, recordClosure(criteriaClosure, new Object[parameterCount]).steps)) {
+                return null
+            }
+            return template
+        }
+        catch (Exception e) {
+            return null
+        }
+    }
+
+    private static NamedCriteriaTemplate recordClosure(Closure closure, Object[] parameters) {
+        def recorder = new NamedCriteriaRecorder()
+        Closure recording = closure.clone()
+        recording.resolveStrategy = Closure.DELEGATE_FIRST
+        recording.delegate = recorder
+        parameters ? recording.call(parameters) : recording.call()
+        new NamedCriteriaTemplate(recorder.steps, closure.owner)
+    }
+
+    private static boolean stepsMatch(List<NamedCriteriaStep> steps, List<NamedCriteriaStep> nullSteps) {
+        if (steps.size() != nullSteps.size()) {
+            return false
+        }
+        for (int i = 0; i < steps.size(); i++) {
+            NamedCriteriaStep step = steps[i]
+            NamedCriteriaStep nullStep = nullSteps[i]
+            if (step.name != nullStep.name || step.assignment != nullStep.assignment || !valuesMatch(step.args, nullStep.args)) {
+                return false
+            }
+        }
+        true
+    }
+
+    /*
+     * Whether a value recorded with parameters is the value recorded with null parameters.
+     */
+    private static boolean valuesMatch(value, nullValue) {
+        if (value instanceof NamedCriteriaParameter) {
+            return nullValue == null
+        }
+        if (value instanceof NamedCriteriaTemplate) {
+            return nullValue instanceof NamedCriteriaTemplate && stepsMatch(value.steps, nullValue.steps)
+        }
+        if (value instanceof GString) {
+            return nullValue instanceof GString && Arrays.equals(value.strings, nullValue.strings) &&
+                valuesMatch(value.values as List, nullValue.values as List)
+        }
+        if (value instanceof Object[]) {
+            return nullValue instanceof Object[] && valuesMatch(value as List, nullValue as List)
+        }
+        if (value instanceof List) {
+            if (!(nullValue instanceof List) || value.size() != nullValue.size()) {
+                return false
+            }
+            for (int i = 0; i < value.size(); i++) {
+                if (!valuesMatch(value[i], nullValue[i])) {
+                    return false
+                }
+            }
+            return true
+        }
+        if (value instanceof Map) {
+            return nullValue instanceof Map && value.keySet() == nullValue.keySet() &&
+                value.every { k, v -> valuesMatch(v, nullValue[k]) }
+        }
+        value == nullValue
+    }
+
+    /**
+     * Dispatches the recorded criteria to a builder.
+     *
+     * @param delegate The object the criteria methods are dispatched to
+     * @param params The parameters of the named query, if any
+     */
+    def replay(delegate, Object[] params) {
+        replaySteps([delegate, owner], params)
+    }
+
+    /*
+     * Like the closures they were recorded from, calls the delegate does not understand are
+     * dispatched to the enclosing delegates and finally to the owner of the named query.
+     */
+    private replaySteps(List targets, Object[] params) {
+        def result = null
+        for (NamedCriteriaStep step in steps) {
+            Object[] args = step.args.collect { bind(it, targets, params) } as Object[]
+            result = step.invoke(targets, args)
+        }
+        result
+    }
+
+    private static bind(value, List targets, Object[] params) {
+        if (value instanceof NamedCriteriaParameter) {
+            return params != null && value.index < params.length ? params[value.index] : null
+        }
+        if (value instanceof NamedCriteriaTemplate) {
+            NamedCriteriaTemplate nested = value
+            return { -> nested.replaySteps([delegate] + targets, params) }
+        }
+        if (value instanceof GString) {
+            return new GStringImpl(value.values.collect { bind(it, targets, params) } as Object[], value.strings)
+        }
+        if (value instanceof List) {
+            return value.collect { bind(it, targets, params) }
+        }
+        if (value instanceof Map) {
+            def bound = [:]
+            value.each { k, v -> bound[k] = bind(v, targets, params) }
+            return bound
+        }
+        if (value instanceof Object[]) {
+            return value.collect { bind(it, targets, params) } as Object[]
+        }
+        value
+    }
+}
+
+/**
+ * A criteria method call or property assignment recorded from a named query.
+ */
+class NamedCriteriaStep {
+
+    final String name
+    final List args
+    final boolean assignment
+
+    NamedCriteriaStep(String name, List args, boolean assignment) {
+        this.name = name
+        this.args = args
+        this.assignment = assignment
+    }
+
+    def invoke(List targets, Object[] args) {
+        if (assignment) {
+            targets[0]."${name}" = args[0]
+            return null
+        }
+
+        for (int i = 0; i < targets.size(); i++) {
+            try {
+                return targets[i].invokeMethod(name, args)
+            }
+            catch (MissingMethodException e) {
+                if (e.method != name || i == targets.size() - 1) {
+                    throw e
+                }
+            }
+        }
+    }
+}
+
+/**
+ * The delegate of a named query while its criteria are recorded.
+ */
+class NamedCriteriaRecorder {
+
+    final List<NamedCriteriaStep> steps = []
+
+    def methodMissing(String name, args) {
+        steps << new NamedCriteriaStep(name, (args as List).collect { record(it) }, false)
+        new NamedCriteriaResult(name)
+    }
+
+    void propertyMissing(String name, value) {
+        steps << new NamedCriteriaStep(name, [record(value)], true)
+    }
+
+    def propertyMissing(String name) {
+        throw new UnsupportedOperationException("Named query reads property [$name], its criteria cannot be recorded")
+    }
+
+    private record(value) {
+        if (value instanceof Closure) {
+            return NamedCriteriaTemplate.recordClosure(value, new Object[0])
+        }
+        checkNoResults(value)
+        value
+    }
+
+    private static void checkNoResults(value) {
+        if (value instanceof NamedCriteriaResult) {
+            throw new UnsupportedOperationException("Named query uses the result of [$value.method], its criteria cannot be recorded")
+        }
+        if (value instanceof GString) {
+            value.values.each { checkNoResults(it) }
+        }
+        else if (value instanceof Collection || value instanceof Object[]) {
+            value.each { checkNoResults(it) }
+        }
+        else if (value instanceof Map) {
+            value.each { k, v ->
+                checkNoResults(k)
+                checkNoResults(v)
+            }
+        }
+    }
+}
+
+/**
+ * Stands for the result of a method called by a named query while its criteria are recorded.
+ * The result is only known when the criteria are applied, so using it fails the recording.
+ */
+class NamedCriteriaResult {
+
+    final String method
+
+    NamedCriteriaResult(String method) {
+        this.method = method
+    }
+
+    boolean asBoolean() {
+        throw new UnsupportedOperationException("Named query tests the result of [$method]")
+    }
+
+    boolean equals(Object other) {
+        throw new UnsupportedOperationException("Named query compares the result of [$method]")
+    }
+
+    int hashCode() {
+        System.identityHashCode(this)
+    }
+
+    String toString() {
+        throw new UnsupportedOperationException("Named query converts the result of [$method] to a String")
+    }
+
+    def methodMissing(String name, args) {
+        throw new UnsupportedOperationException("Named query calls [$name] on the result of [$method]")
+    }
+
+    def propertyMissing(String name) {
+        throw new UnsupportedOperationException("Named query reads [$name] of the result of [$method]")
+    }
+}
+
+/**
+ * Stands for a parameter of a named query while its criteria are recorded. Using the value other
+ * than by passing it to a criteria method fails the recording.
+ */
+class NamedCriteriaParameter {
+
+    final int index
+
+    NamedCriteriaParameter(int index) {
+        this.index = index
+    }
+
+    boolean asBoolean() {
+        throw new UnsupportedOperationException("Named query tests parameter [$index]")
+    }
+
+    boolean equals(Object other) {
+        throw new UnsupportedOperationException("Named query compares parameter [$index]")
+    }
+
+    int hashCode() {
+        System.identityHashCode(this)
+    }
+
+    String toString() {
+        throw new UnsupportedOperationException("Named query converts parameter [$index] to a String")
+    }
+
+    def methodMissing(String name, args) {
+        throw new UnsupportedOperationException("Named query calls [$name] on parameter [$index]")
+    }
+
+    def propertyMissing(String name) {
+        throw new UnsupportedOperationException("Named query reads [$name] of parameter [$index]")
+    }
+}
+
 class NamedCriteriaProxy {
 
-    private criteriaClosure
+    private NamedCriteriaDefinition definition
     private domainClass
-    private dynamicMethods
+    private namedQueriesBuilder
     private namedCriteriaParams
     private previousInChain
     private queryBuilder
 
     private invokeCriteriaClosure(additionalCriteriaClosure = null) {
-        def crit = getPreparedCriteriaClosure(additionalCriteriaClosure)
-        crit()
+        applyCriteria(this, additionalCriteriaClosure)
     }
 
     void propertyMissing(String propName, val) {
@@ -195,9 +614,8 @@ class NamedCriteriaProxy {
     }
 
     def propertyMissing(String propertyName) {
-        if (domainClass.metaClass.getMetaProperty(propertyName)) {
-            def nextInChain = domainClass.metaClass.getMetaProperty(propertyName).getProperty(domainClass)
-            nextInChain.previousInChain = this
+        def nextInChain = createNextInChain(propertyName)
+        if (nextInChain) {
             return nextInChain
         }
         throw new MissingPropertyException(propertyName, NamedCriteriaProxy)
@@ -205,76 +623,62 @@ class NamedCriteriaProxy {
 
     def methodMissing(String methodName, args) {
 
-        def method = dynamicMethods.find {it.isMethodMatch(methodName)}
+        def method = namedQueriesBuilder.getDynamicMethod(methodName)
 
         if (method) {
-            def preparedClosure = getPreparedCriteriaClosure()
+            def proxy = this
             def c = {
                 queryBuilder = delegate
-                preparedClosure()
+                proxy.applyCriteria(proxy)
             }
             return method.invoke(domainClass.clazz, methodName, c, args)
         }
 
-        if (!queryBuilder && domainClass.metaClass.getMetaProperty(methodName)) {
-            def nextInChain = domainClass.metaClass.getMetaProperty(methodName).getProperty(domainClass)
-            nextInChain.previousInChain = this
-            return nextInChain(args)
+        if (!queryBuilder) {
+            def nextInChain = createNextInChain(methodName)
+            if (nextInChain) {
+                return nextInChain(args)
+            }
         }
 
-        def proxy = getNamedCriteriaProxy(domainClass, methodName)
-        if (proxy) {
-            def nestedCriteria = proxy.criteriaClosure.clone()
-            nestedCriteria.delegate = this
-            return nestedCriteria(*args)
+        def nestedDefinition = HibernateNamedQueriesBuilder.getNamedCriteriaDefinition(domainClass.clazz, methodName)
+        if (nestedDefinition) {
+            return nestedDefinition.applyNested(this, args)
         }
         try {
             def returnValue = queryBuilder."${methodName}"(*args)
             return returnValue
         } catch (MissingMethodException mme) {
             def targetType = queryBuilder?.targetClass
-            proxy = getNamedCriteriaProxy(targetType, methodName)
-            if (proxy) {
-                def nestedCriteria = proxy.criteriaClosure.clone()
-                nestedCriteria.delegate = this
-                return nestedCriteria(*args)
+            nestedDefinition = HibernateNamedQueriesBuilder.getNamedCriteriaDefinition(targetType, methodName)
+            if (nestedDefinition) {
+                return nestedDefinition.applyNested(this, args)
             }
             throw mme
         }
     }
 
-    private getNamedCriteriaProxy(targetClass, name) {
-        def proxy = null
-        def metaProperty = targetClass.metaClass.getMetaProperty(name)
-        if (metaProperty && Modifier.isStatic(metaProperty.modifiers)) {
-            def prop = metaProperty.getProperty(targetClass)
-            if (prop instanceof NamedCriteriaProxy) {
-                proxy = prop
-            }
+    private createNextInChain(String name) {
+        def nextDefinition = HibernateNamedQueriesBuilder.getNamedCriteriaDefinition(domainClass.clazz, name)
+        if (!nextDefinition) {
+            return null
         }
-        proxy
+        def nextInChain = new NamedCriteriaProxy(definition: nextDefinition, domainClass: domainClass,
+            namedQueriesBuilder: namedQueriesBuilder)
+        nextInChain.previousInChain = this
+        nextInChain
     }
 
-    private getPreparedCriteriaClosure(additionalCriteriaClosure = null) {
-        def closureClone = criteriaClosure.clone()
-        closureClone.resolveStrategy = Closure.DELEGATE_FIRST
-        if (namedCriteriaParams) {
-            closureClone = closureClone.curry(namedCriteriaParams)
-        }
-        def c = {
-            closureClone.delegate = delegate
-            if (previousInChain) {
-                def previousClosure = previousInChain.getPreparedCriteriaClosure()
-                previousClosure.delegate = delegate
-                previousClosure()
-            }
-            closureClone()
-            if (additionalCriteriaClosure) {
-                additionalCriteriaClosure = additionalCriteriaClosure.clone()
-                additionalCriteriaClosure.delegate = delegate
-                additionalCriteriaClosure()
-            }
+    /**
+     * Applies the criteria of the whole chain, oldest first, dispatching them to the given target.
+     */
+    private applyCriteria(target, additionalCriteriaClosure = null) {
+        previousInChain?.applyCriteria(target)
+        definition.apply(target, namedCriteriaParams as Object[])
+        if (additionalCriteriaClosure) {
+            additionalCriteriaClosure = additionalCriteriaClosure.clone()
+            additionalCriteriaClosure.delegate = target
+            additionalCriteriaClosure()
         }
-        c
     }
 }
@@ -0,0 +1,66 @@
+/* Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.grails.orm.hibernate.events;
+
+import org.codehaus.groovy.grails.orm.hibernate.support.RequestStatistics;
+import org.hibernate.HibernateException;
+import org.hibernate.event.FlushEvent;
+import org.hibernate.event.FlushEventListener;
+import org.hibernate.event.InitializeCollectionEvent;
+import org.hibernate.event.InitializeCollectionEventListener;
+import org.hibernate.event.LoadEvent;
+import org.hibernate.event.LoadEventListener;
+import org.hibernate.event.def.DefaultInitializeCollectionEventListener;
+import org.hibernate.event.def.DefaultLoadEventListener;
+
+/**
+ * Records lazy collection initializations, proxy initializations and flushes in the
+ * {@link RequestStatistics} of the current request before delegating to the default listeners.
+ *
+ * @since 1.4
+ */
+public class RequestStatisticsEventListener implements InitializeCollectionEventListener, LoadEventListener, FlushEventListener {
+
+    private static final long serialVersionUID = 4374325931207403219L;
+
+    private final InitializeCollectionEventListener initializeCollectionListener = new DefaultInitializeCollectionEventListener();
+    private final LoadEventListener loadListener = new DefaultLoadEventListener();
+    private final FlushEventListener flushListener = new PatchedDefaultFlushEventListener();
+
+    public void onInitializeCollection(InitializeCollectionEvent event) throws HibernateException {
+        if (!event.getCollection().wasInitialized()) {
+            RequestStatistics.collectionInitialized(event.getCollection().getRole());
+        }
+        initializeCollectionListener.onInitializeCollection(event);
+    }
+
+    public void onLoad(LoadEvent event, LoadType loadType) throws HibernateException {
+        // proxies are initialized with an immediate load
+        if (loadType == IMMEDIATE_LOAD) {
+            RequestStatistics.proxyInitialized(event.getEntityClassName());
+        }
+        loadListener.onLoad(event, loadType);
+    }
+
+    public void onFlush(FlushEvent event) throws HibernateException {
+        long start = System.nanoTime();
+        try {
+            flushListener.onFlush(event);
+        }
+        finally {
+            RequestStatistics.flushed(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/* Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.grails.orm.hibernate.metaclass;
+
+import groovy.lang.Closure;
+import groovy.lang.MissingMethodException;
+
+import java.io.Serializable;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.hibernate.EntityMode;
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.CacheKey;
+import org.hibernate.criterion.Restrictions;
+import org.hibernate.engine.EntityEntry;
+import org.hibernate.engine.EntityKey;
+import org.hibernate.engine.PersistenceContext;
+import org.hibernate.engine.SessionImplementor;
+import org.hibernate.engine.Status;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.orm.hibernate3.HibernateCallback;
+
+/**
+ * Retrieves the instances for a list of identifiers in the order of the list, with null in
+ * place of identifiers that don't exist.
+ *
+ * Instances already associated with the session or held in the second-level cache are resolved
+ * without a query. The remaining identifiers are fetched in chunks with IN lists whose length is
+ * padded to a power of two, so that only a handful of distinct statements are prepared. All
+ * chunks are queried with the current session, so they take part in the current transaction.
+ * There is deliberately no option to fetch the chunks in parallel: that needs a session per
+ * thread, outside the current transaction, and reattaching the instances to the current session
+ * fails for identifiers it already holds.
+ *
+ * eg. Book.getAll([1, 2, 3])
+ *
+ * @since 1.4
+ */
+public class GetAllPersistentMethod extends AbstractStaticPersistentMethod {
+
+    public static final String METHOD_SIGNATURE = "getAll";
+    public static final Pattern METHOD_PATTERN = Pattern.compile('^'+METHOD_SIGNATURE+'$');
+    /** The maximum length of an IN list, a power of two so that full chunks need no padding */
+    public static final int CHUNK_SIZE = 128;
+
+    public GetAllPersistentMethod(SessionFactory sessionFactory, ClassLoader classLoader) {
+        super(sessionFactory, classLoader, METHOD_PATTERN);
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    protected Object doInvokeInternal(final Class clazz, String methodName, Closure additionalCriteria, Object[] arguments) {
+        if (arguments.length == 0 || !(arguments[0] instanceof Collection)) {
+            throw new MissingMethodException(methodName, clazz, arguments);
+        }
+
+        final List<?> ids = new ArrayList<Object>((Collection)arguments[0]);
+
+        return getHibernateTemplate().execute(new HibernateCallback<List<Object>>() {
+            public List<Object> doInHibernate(Session session) throws HibernateException, SQLException {
+                EntityPersister persister = ((SessionImplementor)session).getFactory().getEntityPersister(clazz.getName());
+
+                Map<Object, Object> instancesById = new HashMap<Object, Object>();
+                Set<Serializable> idsToFetch = new LinkedHashSet<Serializable>();
+                for (Object id : ids) {
+                    if (id == null || instancesById.containsKey(id) || idsToFetch.contains(id)) {
+                        continue;
+                    }
+
+                    Object instance = findCachedInstance(session, persister, clazz, (Serializable)id);
+                    if (instance == null) {
+                        idsToFetch.add((Serializable)id);
+                    }
+                    else {
+                        instancesById.put(id, instance);
+                    }
+                }
+
+                for (List<Serializable> chunk : createChunks(idsToFetch)) {
+                    for (Object instance : fetchChunk(session, clazz, persister.getIdentifierPropertyName(), chunk)) {
+                        instancesById.put(persister.getIdentifier(instance, EntityMode.POJO), instance);
+                    }
+                }
+
+                List<Object> results = new ArrayList<Object>(ids.size());
+                for (Object id : ids) {
+                    results.add(id == null ? null : instancesById.get(id));
+                }
+                return results;
+            }
+        });
+    }
+
+    /**
+     * Resolves an instance from the session or the second-level cache without querying the database.
+     */
+    private Object findCachedInstance(Session session, EntityPersister persister, Class<?> clazz, Serializable id) {
+        SessionImplementor sessionImpl = (SessionImplementor) session;
+        PersistenceContext persistenceContext = sessionImpl.getPersistenceContext();
+        Object instance = persistenceContext.getEntity(new EntityKey(id, persister, EntityMode.POJO));
+        if (instance != null) {
+            EntityEntry entry = persistenceContext.getEntry(instance);
+            if (!clazz.isInstance(instance) || entry == null ||
+                    entry.getStatus() == Status.DELETED || entry.getStatus() == Status.GONE) {
+                return null;
+            }
+            return instance;
+        }
+
+        if (persister.hasCache() && session.getCacheMode().isGetEnabled()) {
+            CacheKey cacheKey = new CacheKey(id, persister.getIdentifierType(), persister.getRootEntityName(),
+                    EntityMode.POJO, sessionImpl.getFactory());
+            if (persister.getCacheAccessStrategy().get(cacheKey, sessionImpl.getTimestamp()) != null) {
+                // assembled from the cache entry, no query is issued
+                instance = session.get(clazz, id);
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Splits the identifiers into chunks of at most {@link #CHUNK_SIZE}, each padded to the next
+     * power of two by repeating its last identifier.
+     */
+    private List<List<Serializable>> createChunks(Set<Serializable> ids) {
+        List<List<Serializable>> chunks = new ArrayList<List<Serializable>>();
+        List<Serializable> chunk = new ArrayList<Serializable>(CHUNK_SIZE);
+        for (Serializable id : ids) {
+            chunk.add(id);
+            if (chunk.size() == CHUNK_SIZE) {
+                chunks.add(pad(chunk));
+                chunk = new ArrayList<Serializable>(CHUNK_SIZE);
+            }
+        }
+
+        if (!chunk.isEmpty()) {
+            chunks.add(pad(chunk));
+        }
+        return chunks;
+    }
+
+    private List<Serializable> pad(List<Serializable> chunk) {
+        int paddedSize = 1;
+        while (paddedSize < chunk.size()) {
+            paddedSize <<= 1;
+        }
+        Serializable last = chunk.get(chunk.size() - 1);
+        while (chunk.size() < paddedSize) {
+            chunk.add(last);
+        }
+        return chunk;
+    }
+
+    private List<?> fetchChunk(Session session, Class<?> clazz, String identifierName, List<Serializable> chunk) {
+        return session.createCriteria(clazz)
+            .add(Restrictions.in(identifierName, chunk))
+            .list();
+    }
+}
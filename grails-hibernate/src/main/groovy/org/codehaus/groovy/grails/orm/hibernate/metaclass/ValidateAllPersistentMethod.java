@@ -0,0 +1,249 @@
+/* Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.grails.orm.hibernate.metaclass;
+
+import groovy.lang.Closure;
+import groovy.lang.MissingMethodException;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.codehaus.groovy.grails.commons.DomainClassArtefactHandler;
+import org.codehaus.groovy.grails.commons.GrailsApplication;
+import org.codehaus.groovy.grails.commons.GrailsClassUtils;
+import org.codehaus.groovy.grails.commons.GrailsDomainClass;
+import org.codehaus.groovy.grails.orm.hibernate.validation.UniqueConstraint;
+import org.codehaus.groovy.grails.orm.hibernate.validation.UniqueConstraintBatch;
+import org.codehaus.groovy.grails.validation.BulkValidator;
+import org.codehaus.groovy.grails.validation.ConstrainedProperty;
+import org.codehaus.groovy.grails.validation.Constraint;
+import org.codehaus.groovy.grails.validation.GrailsDomainClassValidator;
+import org.codehaus.groovy.runtime.InvokerHelper;
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.proxy.HibernateProxy;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.MessageSource;
+import org.springframework.orm.hibernate3.HibernateCallback;
+import org.springframework.util.Assert;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+import org.springframework.validation.FieldError;
+
+/**
+ * Validates a collection of domain instances in one go. Unique constraints are checked for
+ * the whole batch with chunked IN queries rather than one query per instance and property.
+ *
+ * eg. Book.validateAll(books) or Book.validateAll(books, [batchSize: 1000, deepValidate: false])
+ *
+ * With [parallel: true] the constraints of instances that aren't attached to the current session
+ * that depend on nothing but the property value, such as blank or size, are evaluated on a thread
+ * pool. Custom validators, unique and other constraints are then evaluated on the calling thread,
+ * followed by the cascade to owned associations and the post-processing of the domain class
+ * validator. Instances that are attached to the session are validated on the calling thread as usual.
+ *
+ * Returns the Errors of each instance in the order of the given collection.
+ *
+ * @since 1.4
+ */
+public class ValidateAllPersistentMethod extends AbstractStaticPersistentMethod {
+
+    public static final String METHOD_SIGNATURE = "validateAll";
+    public static final Pattern METHOD_PATTERN = Pattern.compile('^'+METHOD_SIGNATURE+'$');
+    public static final String ARGUMENT_BATCH_SIZE = "batchSize";
+    public static final String ARGUMENT_PARALLEL = "parallel";
+
+    private static final String ERRORS_PROPERTY = "errors";
+    private static final String VALIDATE_METHOD = "validate";
+
+    private GrailsApplication application;
+    private BeforeValidateHelper beforeValidateHelper = new BeforeValidateHelper();
+
+    public ValidateAllPersistentMethod(SessionFactory sessionFactory, ClassLoader classLoader, GrailsApplication application) {
+        super(sessionFactory, classLoader, METHOD_PATTERN);
+        Assert.notNull(application, "Constructor argument 'application' cannot be null");
+        this.application = application;
+    }
+
+    @Override
+    @SuppressWarnings({"unchecked","rawtypes"})
+    protected Object doInvokeInternal(Class clazz, String methodName, Closure additionalCriteria, Object[] arguments) {
+        if (arguments.length == 0 || !(arguments[0] instanceof Collection)) {
+            throw new MissingMethodException(methodName, clazz, arguments);
+        }
+
+        final List<Object> targets = new ArrayList<Object>((Collection)arguments[0]);
+        Map validateArgs = new HashMap();
+        if (arguments.length > 1 && arguments[1] instanceof Map) {
+            validateArgs.putAll((Map)arguments[1]);
+        }
+
+        int batchSize = UniqueConstraintBatch.DEFAULT_CHUNK_SIZE;
+        Object batchSizeArg = validateArgs.remove(ARGUMENT_BATCH_SIZE);
+        if (batchSizeArg instanceof Number) {
+            batchSize = ((Number)batchSizeArg).intValue();
+        }
+
+        boolean parallel = GrailsClassUtils.getBooleanFromMap(ARGUMENT_PARALLEL, validateArgs);
+        validateArgs.remove(ARGUMENT_PARALLEL);
+        boolean deepValidate = !validateArgs.containsKey(ValidatePersistentMethod.ARGUMENT_DEEP_VALIDATE) ||
+            GrailsClassUtils.getBooleanFromMap(ValidatePersistentMethod.ARGUMENT_DEEP_VALIDATE, validateArgs);
+
+        final UniqueConstraintBatch batch = new UniqueConstraintBatch(batchSize);
+        final Map<Class<?>, List<Object>> targetsByClass = groupByClass(targets);
+        getHibernateTemplate().execute(new HibernateCallback<Object>() {
+            public Object doInHibernate(Session session) throws HibernateException, SQLException {
+                for (Map.Entry<Class<?>, List<Object>> entry : targetsByClass.entrySet()) {
+                    for (UniqueConstraint constraint : getUniqueConstraints(entry.getKey())) {
+                        batch.prepare(session, constraint, entry.getValue());
+                    }
+                }
+                return null;
+            }
+        });
+
+        Object[] validateArguments = validateArgs.isEmpty() ? new Object[0] : new Object[] { validateArgs };
+        Errors[] results = new Errors[targets.size()];
+        UniqueConstraintBatch previousBatch = UniqueConstraintBatch.getCurrentBatch();
+        UniqueConstraintBatch.setCurrentBatch(batch);
+        try {
+            List<Object> bulkTargets = new ArrayList<Object>();
+            List<Errors> bulkErrors = new ArrayList<Errors>();
+            List<Integer> bulkIndexes = new ArrayList<Integer>();
+            for (int i = 0; i < targets.size(); i++) {
+                Object target = targets.get(i);
+                if (parallel && canValidateInBulk(target)) {
+                    beforeValidateHelper.invokeBeforeValidate(target, null);
+                    bulkTargets.add(target);
+                    bulkErrors.add(createErrors(target));
+                    bulkIndexes.add(i);
+                }
+                else {
+                    InvokerHelper.invokeMethod(target, VALIDATE_METHOD, validateArguments);
+                    results[i] = (Errors)InvokerHelper.getProperty(target, ERRORS_PROPERTY);
+                }
+            }
+
+            if (!bulkTargets.isEmpty()) {
+                createBulkValidator().validate(bulkTargets, bulkErrors);
+                for (int i = 0; i < bulkTargets.size(); i++) {
+                    Object target = bulkTargets.get(i);
+                    // the constraints were evaluated in bulk, cascade and post-process as validate() does
+                    getDomainClassValidator(target).validate(target, bulkErrors.get(i), deepValidate, false);
+                    results[bulkIndexes.get(i)] = bulkErrors.get(i);
+                }
+            }
+        }
+        finally {
+            UniqueConstraintBatch.setCurrentBatch(previousBatch);
+        }
+        return new ArrayList<Errors>(Arrays.asList(results));
+    }
+
+    /**
+     * Instances can be validated off the calling thread if they aren't attached to the session, where
+     * reading their properties could initialize lazy associations, and if their domain class uses the
+     * default validator, which can cascade without evaluating the constraints again.
+     */
+    private boolean canValidateInBulk(Object target) {
+        if (target instanceof HibernateProxy || getHibernateTemplate().contains(target)) {
+            return false;
+        }
+        return getDomainClassValidator(target) != null;
+    }
+
+    private GrailsDomainClassValidator getDomainClassValidator(Object target) {
+        GrailsDomainClass domainClass = (GrailsDomainClass) application.getArtefact(
+                DomainClassArtefactHandler.TYPE, target.getClass().getName());
+        if (domainClass == null || !(domainClass.getValidator() instanceof GrailsDomainClassValidator)) {
+            return null;
+        }
+        return (GrailsDomainClassValidator)domainClass.getValidator();
+    }
+
+    private Errors createErrors(Object target) {
+        Errors errors = new BeanPropertyBindingResult(target, target.getClass().getName());
+        // keep the binding errors, as validate() does
+        Object originalErrors = InvokerHelper.getProperty(target, ERRORS_PROPERTY);
+        if (originalErrors instanceof Errors) {
+            for (Object o : ((Errors)originalErrors).getFieldErrors()) {
+                FieldError fe = (FieldError)o;
+                if (fe.isBindingFailure()) {
+                    errors.rejectValue(fe.getField(), fe.getCode(), fe.getArguments(), fe.getDefaultMessage());
+                }
+            }
+        }
+        return errors;
+    }
+
+    private BulkValidator createBulkValidator() {
+        BulkValidator validator = new BulkValidator() {
+            @Override
+            @SuppressWarnings("unchecked")
+            protected Iterable<ConstrainedProperty> getConstrainedProperties(Object target) {
+                GrailsDomainClass domainClass = (GrailsDomainClass) application.getArtefact(
+                        DomainClassArtefactHandler.TYPE, target.getClass().getName());
+                return ((Map<String, ConstrainedProperty>)domainClass.getConstrainedProperties()).values();
+            }
+        };
+        validator.setParallel(true);
+
+        ApplicationContext ctx = application.getMainContext();
+        if (ctx != null && ctx.containsBean("messageSource")) {
+            validator.setMessageSource(ctx.getBean("messageSource", MessageSource.class));
+        }
+        return validator;
+    }
+
+    private Map<Class<?>, List<Object>> groupByClass(List<Object> targets) {
+        Map<Class<?>, List<Object>> targetsByClass = new LinkedHashMap<Class<?>, List<Object>>();
+        for (Object target : targets) {
+            List<Object> classTargets = targetsByClass.get(target.getClass());
+            if (classTargets == null) {
+                classTargets = new ArrayList<Object>();
+                targetsByClass.put(target.getClass(), classTargets);
+            }
+            classTargets.add(target);
+        }
+        return targetsByClass;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<UniqueConstraint> getUniqueConstraints(Class<?> targetClass) {
+        List<UniqueConstraint> uniqueConstraints = new ArrayList<UniqueConstraint>();
+        GrailsDomainClass domainClass = (GrailsDomainClass) application.getArtefact(
+                DomainClassArtefactHandler.TYPE, targetClass.getName());
+        if (domainClass == null) {
+            return uniqueConstraints;
+        }
+
+        Map<String, ConstrainedProperty> constrainedProperties = domainClass.getConstrainedProperties();
+        for (ConstrainedProperty constrainedProperty : constrainedProperties.values()) {
+            Constraint constraint = constrainedProperty.getAppliedConstraint(UniqueConstraint.UNIQUE_CONSTRAINT);
+            if (constraint instanceof UniqueConstraint) {
+                uniqueConstraints.add((UniqueConstraint)constraint);
+            }
+        }
+        return uniqueConstraints;
+    }
+}
@@ -43,6 +43,8 @@ import org.springframework.web.context.request.WebRequest;
 public class GrailsOpenSessionInViewInterceptor extends OpenSessionInViewInterceptor {
     private static final String IS_FLOW_REQUEST_ATTRIBUTE = "org.codehaus.groovy.grails.webflow.flow_request";
 
+    private RequestStatisticsAggregator requestStatisticsAggregator;
+
     @Override
     public void preHandle(WebRequest request) throws DataAccessException {
         GrailsWebRequest webRequest = (GrailsWebRequest)request.getAttribute(
@@ -57,6 +59,9 @@ public class GrailsOpenSessionInViewInterceptor extends OpenSessionInViewInterce
             SessionHolder sessionHolder = (SessionHolder)TransactionSynchronizationManager.getResource(sessionFactory);
             Session session = sessionHolder.getSession();
             GrailsHibernateUtil.enableDynamicFilterEnablerIfPresent(sessionFactory, session);
+            if (requestStatisticsAggregator != null) {
+                requestStatisticsAggregator.requestStarted();
+            }
         }
     }
 
@@ -86,6 +91,7 @@ public class GrailsOpenSessionInViewInterceptor extends OpenSessionInViewInterce
 
         request = (WebRequest) RequestContextHolder.currentRequestAttributes();
         if (!(request instanceof GrailsWebRequest)) {
+            completeRequestStatistics();
             super.afterCompletion(request, ex);
             return;
         }
@@ -93,6 +99,7 @@ public class GrailsOpenSessionInViewInterceptor extends OpenSessionInViewInterce
         GrailsWebRequest webRequest = (GrailsWebRequest) request;
         HttpServletResponse response = webRequest.getCurrentResponse();
         if (!(response instanceof GrailsContentBufferingResponse)) {
+            completeRequestStatistics();
             super.afterCompletion(request, ex);
             return;
         }
@@ -100,6 +107,7 @@ public class GrailsOpenSessionInViewInterceptor extends OpenSessionInViewInterce
         GrailsContentBufferingResponse bufferingResponse = (GrailsContentBufferingResponse) response;
         // if Sitemesh is still active disconnect the session, but don't close the session
         if (!bufferingResponse.isActive()) {
+            completeRequestStatistics();
             super.afterCompletion(request, ex);
             return;
         }
@@ -115,6 +123,19 @@ public class GrailsOpenSessionInViewInterceptor extends OpenSessionInViewInterce
         }
     }
 
+    private void completeRequestStatistics() {
+        if (requestStatisticsAggregator != null) {
+            requestStatisticsAggregator.requestCompleted();
+        }
+    }
+
+    /**
+     * @param requestStatisticsAggregator collects the Hibernate statistics of each request if set
+     */
+    public void setRequestStatisticsAggregator(RequestStatisticsAggregator requestStatisticsAggregator) {
+        this.requestStatisticsAggregator = requestStatisticsAggregator;
+    }
+
     @Override
     protected void flushIfNecessary(Session session, boolean existingTransaction) throws HibernateException {
         if (session != null && session.getFlushMode() != FlushMode.MANUAL) {
@@ -18,6 +18,7 @@ package org.codehaus.groovy.grails.orm.hibernate.support;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.codehaus.groovy.grails.orm.hibernate.cfg.GrailsHibernateUtil;
+import org.codehaus.groovy.grails.orm.support.ReadWriteRoutingDataSource;
 import org.codehaus.groovy.grails.support.PersistenceContextInterceptor;
 import org.hibernate.FlushMode;
 import org.hibernate.Session;
@@ -34,6 +35,7 @@ public class HibernatePersistenceContextInterceptor implements PersistenceContex
 
     private static final Log LOG = LogFactory.getLog(HibernatePersistenceContextInterceptor.class);
     private SessionFactory sessionFactory;
+    private RequestStatisticsAggregator requestStatisticsAggregator;
 
     private ThreadLocal<Boolean> participate = new ThreadLocal<Boolean>() {
         @Override
@@ -57,6 +59,13 @@ public class HibernatePersistenceContextInterceptor implements PersistenceContex
             return;
         }
 
+        ReadWriteRoutingDataSource.setCurrentReadOnly(false);
+
+        // completes the statistics of a session kept open for the Sitemesh layout
+        if (requestStatisticsAggregator != null && RequestStatistics.getCurrent() != null) {
+            requestStatisticsAggregator.requestCompleted();
+        }
+
         // single session mode
         SessionHolder holder = (SessionHolder)TransactionSynchronizationManager.unbindResource(sessionFactory);
         LOG.debug("Closing single Hibernate session in GrailsDispatcherServlet");
@@ -93,10 +102,12 @@ public class HibernatePersistenceContextInterceptor implements PersistenceContex
 
     public void setReadOnly() {
         getSession().setFlushMode(FlushMode.MANUAL);
+        ReadWriteRoutingDataSource.setCurrentReadOnly(true);
     }
 
     public void setReadWrite() {
         getSession().setFlushMode(FlushMode.AUTO);
+        ReadWriteRoutingDataSource.setCurrentReadOnly(false);
     }
 
     public boolean isOpen() {
@@ -151,6 +162,13 @@ public class HibernatePersistenceContextInterceptor implements PersistenceContex
         this.sessionFactory = sessionFactory;
     }
 
+    /**
+     * @param requestStatisticsAggregator collects the Hibernate statistics of each request if set
+     */
+    public void setRequestStatisticsAggregator(RequestStatisticsAggregator requestStatisticsAggregator) {
+        this.requestStatisticsAggregator = requestStatisticsAggregator;
+    }
+
     private int incNestingCount() {
         int value = nestingCount.get().intValue() + 1;
         nestingCount.set(Integer.valueOf(value));
@@ -0,0 +1,199 @@
+/* Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.grails.orm.hibernate.support;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Counts the statements, entity loads, lazy loads and flushes performed by Hibernate on behalf
+ * of a single request. Instances are bound to the request thread by the
+ * {@link RequestStatisticsAggregator}; the static record methods do nothing when no instance
+ * is bound.
+ *
+ * @since 1.4
+ */
+public class RequestStatistics {
+
+    private static final ThreadLocal<RequestStatistics> currentStatistics = new ThreadLocal<RequestStatistics>();
+
+    private final long startTime = System.currentTimeMillis();
+    private int statementCount;
+    private int entityLoadCount;
+    private int collectionInitializationCount;
+    private int proxyInitializationCount;
+    private int flushCount;
+    private long flushTime;
+    private Map<String, Integer> lazyLoadCounts = new LinkedHashMap<String, Integer>();
+
+    /**
+     * @return The statistics bound to the current thread or null
+     */
+    public static RequestStatistics getCurrent() {
+        return currentStatistics.get();
+    }
+
+    /**
+     * Binds new statistics to the current thread, replacing any previous ones.
+     *
+     * @return The new statistics
+     */
+    public static RequestStatistics bind() {
+        RequestStatistics statistics = new RequestStatistics();
+        currentStatistics.set(statistics);
+        return statistics;
+    }
+
+    /**
+     * Removes the statistics bound to the current thread.
+     *
+     * @return The statistics that were bound or null
+     */
+    public static RequestStatistics unbind() {
+        RequestStatistics statistics = currentStatistics.get();
+        currentStatistics.remove();
+        return statistics;
+    }
+
+    public static void statementPrepared() {
+        RequestStatistics statistics = currentStatistics.get();
+        if (statistics != null) {
+            statistics.statementCount++;
+        }
+    }
+
+    public static void entityLoaded() {
+        RequestStatistics statistics = currentStatistics.get();
+        if (statistics != null) {
+            statistics.entityLoadCount++;
+        }
+    }
+
+    /**
+     * Records the lazy initialization of a collection.
+     *
+     * @param role The collection role, for example Author.books
+     */
+    public static void collectionInitialized(String role) {
+        RequestStatistics statistics = currentStatistics.get();
+        if (statistics != null) {
+            statistics.collectionInitializationCount++;
+            statistics.lazyLoaded(role);
+        }
+    }
+
+    /**
+     * Records the initialization of an uninitialized proxy.
+     *
+     * @param entityName The name of the proxied entity
+     */
+    public static void proxyInitialized(String entityName) {
+        RequestStatistics statistics = currentStatistics.get();
+        if (statistics != null) {
+            statistics.proxyInitializationCount++;
+            statistics.lazyLoaded(entityName);
+        }
+    }
+
+    /**
+     * Records a flush.
+     *
+     * @param nanos The time the flush took in nanoseconds
+     */
+    public static void flushed(long nanos) {
+        RequestStatistics statistics = currentStatistics.get();
+        if (statistics != null) {
+            statistics.flushCount++;
+            statistics.flushTime += nanos;
+        }
+    }
+
+    private void lazyLoaded(String shape) {
+        Integer count = lazyLoadCounts.get(shape);
+        lazyLoadCounts.put(shape, count == null ? 1 : count + 1);
+    }
+
+    /**
+     * Returns the lazy loads of the same shape (collection role or proxied entity) repeated at
+     * least the given number of times, which usually means an association is loaded one
+     * instance at a time inside a loop.
+     *
+     * @param threshold The minimum number of repetitions
+     * @return The number of lazy loads keyed by shape
+     */
+    public Map<String, Integer> getSuspectedNPlusOneLoads(int threshold) {
+        Map<String, Integer> suspects = new LinkedHashMap<String, Integer>();
+        for (Map.Entry<String, Integer> entry : lazyLoadCounts.entrySet()) {
+            if (entry.getValue() >= threshold) {
+                suspects.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return suspects;
+    }
+
+    public Map<String, Integer> getLazyLoadCounts() {
+        return Collections.unmodifiableMap(lazyLoadCounts);
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public int getStatementCount() {
+        return statementCount;
+    }
+
+    public int getEntityLoadCount() {
+        return entityLoadCount;
+    }
+
+    public int getCollectionInitializationCount() {
+        return collectionInitializationCount;
+    }
+
+    public int getProxyInitializationCount() {
+        return proxyInitializationCount;
+    }
+
+    public int getFlushCount() {
+        return flushCount;
+    }
+
+    /**
+     * @return The total time spent flushing in milliseconds
+     */
+    public long getFlushTime() {
+        return flushTime / 1000000L;
+    }
+
+    /**
+     * @return The total time spent flushing in nanoseconds
+     */
+    public long getFlushTimeNanos() {
+        return flushTime;
+    }
+
+    @Override
+    public String toString() {
+        return "statements=" + statementCount +
+            ", entityLoads=" + entityLoadCount +
+            ", collectionInitializations=" + collectionInitializationCount +
+            ", proxyInitializations=" + proxyInitializationCount +
+            ", flushes=" + flushCount +
+            ", flushTime=" + getFlushTime() + "ms" +
+            ", time=" + (System.currentTimeMillis() - startTime) + "ms";
+    }
+}
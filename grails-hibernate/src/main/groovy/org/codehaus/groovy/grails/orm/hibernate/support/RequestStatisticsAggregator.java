@@ -0,0 +1,218 @@
+/* Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.grails.orm.hibernate.support;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.codehaus.groovy.grails.web.servlet.mvc.GrailsWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Binds {@link RequestStatistics} to each request and aggregates them per controller action
+ * when the request completes. Requests in which the same association is lazily loaded at least
+ * lazyLoadThreshold times are logged as suspected N+1 selects.
+ *
+ * @since 1.4
+ */
+public class RequestStatisticsAggregator implements RequestStatisticsAggregatorMBean {
+
+    private static final Log LOG = LogFactory.getLog(RequestStatisticsAggregator.class);
+    private static final String UNKNOWN_ACTION = "<none>";
+
+    private int lazyLoadThreshold = 10;
+    private boolean logSummary;
+
+    private final ActionStatistics totals = new ActionStatistics();
+    private final AtomicLong suspectedNPlusOneCount = new AtomicLong();
+    private final ConcurrentMap<String, ActionStatistics> actionStatistics = new ConcurrentHashMap<String, ActionStatistics>();
+
+    /**
+     * Binds new statistics to the current thread, discarding those of a previous request that
+     * didn't complete.
+     */
+    public void requestStarted() {
+        RequestStatistics.bind();
+    }
+
+    /**
+     * Completes the statistics of the current request, keyed by the controller and action
+     * of the current web request if there is one.
+     *
+     * @return The completed statistics or null if none were bound
+     */
+    public RequestStatistics requestCompleted() {
+        String key = UNKNOWN_ACTION;
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof GrailsWebRequest) {
+            GrailsWebRequest webRequest = (GrailsWebRequest)attributes;
+            if (webRequest.getControllerName() != null) {
+                key = webRequest.getControllerName() + "/" + webRequest.getActionName();
+            }
+        }
+        return requestCompleted(key);
+    }
+
+    /**
+     * Completes the statistics of the current request under the given key.
+     *
+     * @param key The key to aggregate the statistics under, usually controller/action
+     * @return The completed statistics or null if none were bound
+     */
+    public RequestStatistics requestCompleted(String key) {
+        RequestStatistics statistics = RequestStatistics.unbind();
+        if (statistics == null) {
+            return null;
+        }
+
+        ActionStatistics action = actionStatistics.get(key);
+        if (action == null) {
+            ActionStatistics existing = actionStatistics.putIfAbsent(key, action = new ActionStatistics());
+            if (existing != null) {
+                action = existing;
+            }
+        }
+        totals.add(statistics);
+        action.add(statistics);
+
+        Map<String, Integer> suspects = statistics.getSuspectedNPlusOneLoads(lazyLoadThreshold);
+        if (!suspects.isEmpty()) {
+            suspectedNPlusOneCount.incrementAndGet();
+            action.suspectedNPlusOneCount.incrementAndGet();
+            LOG.warn("Suspected N+1 select in [" + key + "], repeated lazy loads: " + suspects);
+        }
+        if (logSummary && LOG.isInfoEnabled()) {
+            LOG.info("Hibernate statistics for [" + key + "]: " + statistics);
+        }
+        return statistics;
+    }
+
+    public long getRequestCount() {
+        return totals.requestCount.get();
+    }
+
+    public long getStatementCount() {
+        return totals.statementCount.get();
+    }
+
+    public long getEntityLoadCount() {
+        return totals.entityLoadCount.get();
+    }
+
+    public long getCollectionInitializationCount() {
+        return totals.collectionInitializationCount.get();
+    }
+
+    public long getProxyInitializationCount() {
+        return totals.proxyInitializationCount.get();
+    }
+
+    public long getFlushCount() {
+        return totals.flushCount.get();
+    }
+
+    public long getFlushTime() {
+        return totals.getFlushTime();
+    }
+
+    public long getSuspectedNPlusOneCount() {
+        return suspectedNPlusOneCount.get();
+    }
+
+    public int getLazyLoadThreshold() {
+        return lazyLoadThreshold;
+    }
+
+    public void setLazyLoadThreshold(int threshold) {
+        lazyLoadThreshold = threshold;
+    }
+
+    public boolean isLogSummary() {
+        return logSummary;
+    }
+
+    public void setLogSummary(boolean logSummary) {
+        this.logSummary = logSummary;
+    }
+
+    public String[] getActionSummaries() {
+        List<String> summaries = new ArrayList<String>();
+        for (Map.Entry<String, ActionStatistics> entry : actionStatistics.entrySet()) {
+            summaries.add(entry.getKey() + ": " + entry.getValue());
+        }
+        return summaries.toArray(new String[summaries.size()]);
+    }
+
+    public void reset() {
+        totals.reset();
+        suspectedNPlusOneCount.set(0);
+        actionStatistics.clear();
+    }
+
+    private static class ActionStatistics {
+        final AtomicLong requestCount = new AtomicLong();
+        final AtomicLong statementCount = new AtomicLong();
+        final AtomicLong entityLoadCount = new AtomicLong();
+        final AtomicLong collectionInitializationCount = new AtomicLong();
+        final AtomicLong proxyInitializationCount = new AtomicLong();
+        final AtomicLong flushCount = new AtomicLong();
+        final AtomicLong flushTimeNanos = new AtomicLong();
+        final AtomicLong suspectedNPlusOneCount = new AtomicLong();
+
+        void add(RequestStatistics statistics) {
+            requestCount.incrementAndGet();
+            statementCount.addAndGet(statistics.getStatementCount());
+            entityLoadCount.addAndGet(statistics.getEntityLoadCount());
+            collectionInitializationCount.addAndGet(statistics.getCollectionInitializationCount());
+            proxyInitializationCount.addAndGet(statistics.getProxyInitializationCount());
+            flushCount.addAndGet(statistics.getFlushCount());
+            flushTimeNanos.addAndGet(statistics.getFlushTimeNanos());
+        }
+
+        long getFlushTime() {
+            return flushTimeNanos.get() / 1000000L;
+        }
+
+        void reset() {
+            requestCount.set(0);
+            statementCount.set(0);
+            entityLoadCount.set(0);
+            collectionInitializationCount.set(0);
+            proxyInitializationCount.set(0);
+            flushCount.set(0);
+            flushTimeNanos.set(0);
+            suspectedNPlusOneCount.set(0);
+        }
+
+        @Override
+        public String toString() {
+            return "requests=" + requestCount +
+                ", statements=" + statementCount +
+                ", entityLoads=" + entityLoadCount +
+                ", collectionInitializations=" + collectionInitializationCount +
+                ", proxyInitializations=" + proxyInitializationCount +
+                ", flushes=" + flushCount +
+                ", flushTime=" + getFlushTime() + "ms" +
+                ", suspectedNPlusOne=" + suspectedNPlusOneCount;
+        }
+    }
+}
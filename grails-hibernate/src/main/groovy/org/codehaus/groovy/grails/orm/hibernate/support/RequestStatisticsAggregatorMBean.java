@@ -0,0 +1,63 @@
+/* Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.grails.orm.hibernate.support;
+
+/**
+ * JMX management interface of the {@link RequestStatisticsAggregator}.
+ *
+ * @since 1.4
+ */
+public interface RequestStatisticsAggregatorMBean {
+
+    long getRequestCount();
+
+    long getStatementCount();
+
+    long getEntityLoadCount();
+
+    long getCollectionInitializationCount();
+
+    long getProxyInitializationCount();
+
+    long getFlushCount();
+
+    /**
+     * @return The total flush time in milliseconds
+     */
+    long getFlushTime();
+
+    /**
+     * @return The number of requests in which a suspected N+1 lazy load was detected
+     */
+    long getSuspectedNPlusOneCount();
+
+    int getLazyLoadThreshold();
+
+    void setLazyLoadThreshold(int threshold);
+
+    boolean isLogSummary();
+
+    void setLogSummary(boolean logSummary);
+
+    /**
+     * @return One line of aggregated statistics per controller and action
+     */
+    String[] getActionSummaries();
+
+    /**
+     * Clears the aggregated statistics.
+     */
+    void reset();
+}
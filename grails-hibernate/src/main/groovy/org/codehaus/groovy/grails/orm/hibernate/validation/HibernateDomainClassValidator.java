@@ -15,17 +15,25 @@
 package org.codehaus.groovy.grails.orm.hibernate.validation;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import org.codehaus.groovy.grails.commons.DomainClassArtefactHandler;
 import org.codehaus.groovy.grails.commons.GrailsDomainClass;
 import org.codehaus.groovy.grails.commons.GrailsDomainClassProperty;
 import org.codehaus.groovy.grails.orm.hibernate.cfg.GrailsHibernateUtil;
 import org.codehaus.groovy.grails.validation.GrailsDomainClassValidator;
+import org.hibernate.EntityMode;
 import org.hibernate.FlushMode;
+import org.hibernate.HibernateException;
 import org.hibernate.SessionFactory;
 import org.hibernate.classic.Session;
 import org.hibernate.collection.PersistentCollection;
+import org.hibernate.engine.EntityEntry;
+import org.hibernate.engine.SessionImplementor;
+import org.hibernate.engine.Status;
+import org.hibernate.persister.entity.EntityPersister;
 import org.hibernate.proxy.HibernateProxy;
 import org.springframework.beans.BeanWrapper;
 import org.springframework.beans.BeansException;
@@ -35,7 +43,9 @@ import org.springframework.validation.Errors;
 
 /**
  * First checks if the Hibernate PersistentCollection instance has been initialised before bothering
- * to cascade.
+ * to cascade. Unless validateUnmodifiedAssociations is set, uninitialized proxies are skipped as well
+ * and the constraints of associated instances that are unmodified since they were loaded into the
+ * current session aren't validated, but validation still cascades to their associations.
  *
  * @author Graeme Rocher
  * @since 0.5
@@ -51,6 +61,7 @@ public class HibernateDomainClassValidator extends GrailsDomainClassValidator im
 
     private ApplicationContext applicationContext;
     private SessionFactory sessionFactory;
+    private boolean validateUnmodifiedAssociations;
 
     @Override
     protected GrailsDomainClass getAssociatedDomainClassFromApplication(Object associatedObject) {
@@ -62,7 +73,7 @@ public class HibernateDomainClassValidator extends GrailsDomainClassValidator im
     }
 
     @Override
-    public void validate(Object obj, Errors errors, boolean cascade) {
+    public void validate(Object obj, Errors errors, boolean cascade, boolean validateConstraints) {
         final Session session = sessionFactory.getCurrentSession();
         FlushMode previousMode = null;
         try {
@@ -71,7 +82,7 @@ public class HibernateDomainClassValidator extends GrailsDomainClassValidator im
                 session.setFlushMode(FlushMode.MANUAL);
             }
 
-            super.validate(obj, errors, cascade);
+            super.validate(obj, errors, cascade, validateConstraints);
         }
         finally {
             if (session != null && previousMode != null) {
@@ -111,11 +122,79 @@ public class HibernateDomainClassValidator extends GrailsDomainClassValidator im
 
     @Override
     protected void cascadeValidationToOne(Errors errors, BeanWrapper bean, Object associatedObject, GrailsDomainClassProperty persistentProperty, String propertyName) {
+        if (!validateUnmodifiedAssociations && associatedObject instanceof HibernateProxy &&
+                ((HibernateProxy)associatedObject).getHibernateLazyInitializer().isUninitialized()) {
+            // nothing reachable from it can have been modified
+            return;
+        }
+
         List<Object> validatedInstancesList = validatedInstances.get();
         validatedInstancesList.add(associatedObject);
         super.cascadeValidationToOne(errors, bean, associatedObject, persistentProperty, propertyName);
     }
 
+    @Override
+    protected boolean isConstraintValidationRequired(Object associatedObject) {
+        return validateUnmodifiedAssociations || !isUnmodified(associatedObject);
+    }
+
+    /**
+     * Checks whether the given associated instance is an uninitialized proxy or an instance managed by
+     * the current session whose properties and collections haven't changed since it was loaded. Such
+     * instances were valid when they were saved, so their own constraints don't need to be validated.
+     *
+     * @param associatedObject The associated instance
+     * @return true if the instance can be skipped
+     */
+    @SuppressWarnings("rawtypes")
+    protected boolean isUnmodified(Object associatedObject) {
+        Object instance = associatedObject;
+        if (instance instanceof HibernateProxy) {
+            if (((HibernateProxy)instance).getHibernateLazyInitializer().isUninitialized()) {
+                return true;
+            }
+            instance = ((HibernateProxy)instance).getHibernateLazyInitializer().getImplementation();
+        }
+
+        if (sessionFactory == null || instance == null) {
+            return false;
+        }
+
+        SessionImplementor session;
+        try {
+            session = (SessionImplementor)sessionFactory.getCurrentSession();
+        }
+        catch (HibernateException e) {
+            // no session bound, nothing is known about the instance
+            return false;
+        }
+
+        EntityEntry entry = session.getPersistenceContext().getEntry(instance);
+        if (entry == null || entry.getStatus() != Status.MANAGED || entry.getLoadedState() == null) {
+            return false;
+        }
+
+        EntityPersister persister = entry.getPersister();
+        Object[] values = persister.getPropertyValues(instance, EntityMode.POJO);
+        if (persister.findDirty(values, entry.getLoadedState(), instance, session) != null) {
+            return false;
+        }
+
+        // collections aren't dirty checked with the properties
+        for (Object value : values) {
+            if (value instanceof PersistentCollection) {
+                if (((PersistentCollection)value).isDirty()) {
+                    return false;
+                }
+            }
+            else if (value instanceof Collection || value instanceof Map) {
+                // a collection that replaced the loaded one
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Override
     protected void postValidate(Object obj, Errors errors) {
         if (applicationContext == null || !applicationContext.containsBean("sessionFactory")) {
@@ -143,6 +222,14 @@ public class HibernateDomainClassValidator extends GrailsDomainClassValidator im
         }
     }
 
+    /**
+     * @param validateUnmodifiedAssociations Whether to cascade validation to associated instances that
+     * are unmodified since they were loaded, false by default
+     */
+    public void setValidateUnmodifiedAssociations(boolean validateUnmodifiedAssociations) {
+        this.validateUnmodifiedAssociations = validateUnmodifiedAssociations;
+    }
+
     public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
         this.applicationContext = applicationContext;
         if (applicationContext == null) {
@@ -118,6 +118,17 @@ public class UniqueConstraint extends AbstractPersistentConstraint {
             return;
         }
 
+        UniqueConstraintBatch batch = UniqueConstraintBatch.getCurrentBatch();
+        if (batch != null) {
+            Boolean rejected = batch.isRejected(this, target);
+            if (rejected != null) {
+                if (rejected) {
+                    rejectNotUnique(target, propertyValue, errors);
+                }
+                return;
+            }
+        }
+
         final Object id;
         try {
             id = InvokerHelper.invokeMethod(target, "ident",null);
@@ -133,24 +144,11 @@ public class UniqueConstraint extends AbstractPersistentConstraint {
                 session.setFlushMode(FlushMode.MANUAL);
                 try {
                     boolean shouldValidate = true;
-                    Class<?> constraintClass = constraintOwningClass;
                     if (propertyValue != null && DomainClassArtefactHandler.isDomainClass(propertyValue.getClass())) {
                         shouldValidate = session.contains(propertyValue);
                     }
                     if (shouldValidate) {
-                        GrailsApplication application  = (GrailsApplication) applicationContext.getBean(GrailsApplication.APPLICATION_ID);
-                        GrailsDomainClass domainClass = (GrailsDomainClass) application.getArtefact(DomainClassArtefactHandler.TYPE,constraintClass.getName());
-                        if (domainClass != null && !domainClass.isRoot()) {
-                            GrailsDomainClassProperty property = domainClass.getPropertyByName(constraintPropertyName);
-                            while (property.isInherited() && domainClass != null) {
-                                domainClass = (GrailsDomainClass) application.getArtefact(
-                                        DomainClassArtefactHandler.TYPE,domainClass.getClazz().getSuperclass().getName());
-                                if (domainClass != null) {
-                                    property = domainClass.getPropertyByName(constraintPropertyName);
-                                }
-                            }
-                            constraintClass = domainClass != null ? domainClass.getClazz() : constraintClass;
-                        }
+                        Class<?> constraintClass = getQueriedClass();
                         Criteria criteria = session.createCriteria(constraintClass)
                             .add(Restrictions.eq(constraintPropertyName, propertyValue));
                         if (uniquenessGroup != null) {
@@ -211,9 +209,37 @@ public class UniqueConstraint extends AbstractPersistentConstraint {
             reject = true;
         }
         if (reject) {
-            Object[] args = new Object[] { constraintPropertyName, constraintOwningClass, propertyValue };
-            rejectValue(target, errors, UNIQUE_CONSTRAINT, args, getDefaultMessage(DEFAULT_NOT_UNIQUE_MESSAGE_CODE));
+            rejectNotUnique(target, propertyValue, errors);
+        }
+    }
+
+    private void rejectNotUnique(Object target, Object propertyValue, Errors errors) {
+        Object[] args = new Object[] { constraintPropertyName, constraintOwningClass, propertyValue };
+        rejectValue(target, errors, UNIQUE_CONSTRAINT, args, getDefaultMessage(DEFAULT_NOT_UNIQUE_MESSAGE_CODE));
+    }
+
+    /**
+     * Resolves the class that should be queried for existing values, which is the class in the
+     * hierarchy that declares the constrained property.
+     *
+     * @return The class to query
+     */
+    Class<?> getQueriedClass() {
+        Class<?> constraintClass = constraintOwningClass;
+        GrailsApplication application  = (GrailsApplication) applicationContext.getBean(GrailsApplication.APPLICATION_ID);
+        GrailsDomainClass domainClass = (GrailsDomainClass) application.getArtefact(DomainClassArtefactHandler.TYPE,constraintClass.getName());
+        if (domainClass != null && !domainClass.isRoot()) {
+            GrailsDomainClassProperty property = domainClass.getPropertyByName(constraintPropertyName);
+            while (property.isInherited() && domainClass != null) {
+                domainClass = (GrailsDomainClass) application.getArtefact(
+                        DomainClassArtefactHandler.TYPE,domainClass.getClazz().getSuperclass().getName());
+                if (domainClass != null) {
+                    property = domainClass.getPropertyByName(constraintPropertyName);
+                }
+            }
+            constraintClass = domainClass != null ? domainClass.getClazz() : constraintClass;
         }
+        return constraintClass;
     }
 
     public List<String> getUniquenessGroup() {
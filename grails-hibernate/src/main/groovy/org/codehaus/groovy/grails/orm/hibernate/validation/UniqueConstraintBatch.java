@@ -0,0 +1,296 @@
+/* Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.grails.orm.hibernate.validation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.lang.StringUtils;
+import org.codehaus.groovy.grails.commons.DomainClassArtefactHandler;
+import org.codehaus.groovy.grails.commons.GrailsClassUtils;
+import org.codehaus.groovy.grails.exceptions.GrailsRuntimeException;
+import org.codehaus.groovy.runtime.InvokerHelper;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.criterion.Restrictions;
+import org.hibernate.proxy.HibernateProxy;
+
+/**
+ * Pre-computes the outcome of {@link UniqueConstraint} for a batch of instances using chunked
+ * IN queries instead of one query per instance and property. Values that are duplicated
+ * within the batch itself are rejected for every occurrence after the first one.
+ *
+ * <p>While a batch is bound to the current thread the unique constraint consults it first and
+ * only falls back to querying for instances the batch could not cover (for example those whose
+ * values reference transient instances).</p>
+ *
+ * <p>Strings are compared in memory with equals, while the database compares them according
+ * to the collation of the column, which may ignore case or trailing spaces. An instance is
+ * only decided by the batch when the rows the IN query returned show that the collation makes
+ * no difference for it, otherwise the per-instance query decides.</p>
+ *
+ * @since 1.4
+ */
+public class UniqueConstraintBatch {
+
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+
+    private static final ThreadLocal<UniqueConstraintBatch> currentBatch = new ThreadLocal<UniqueConstraintBatch>();
+
+    private final int chunkSize;
+    private final Map<UniqueConstraint, Map<Object, Boolean>> outcomes = new IdentityHashMap<UniqueConstraint, Map<Object, Boolean>>();
+
+    public UniqueConstraintBatch() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    public UniqueConstraintBatch(int chunkSize) {
+        this.chunkSize = chunkSize > 0 ? chunkSize : DEFAULT_CHUNK_SIZE;
+    }
+
+    /**
+     * @return The batch bound to the current thread or null if there is none
+     */
+    public static UniqueConstraintBatch getCurrentBatch() {
+        return currentBatch.get();
+    }
+
+    /**
+     * Binds a batch to the current thread.
+     *
+     * @param batch The batch, or null to remove the current one
+     */
+    public static void setCurrentBatch(UniqueConstraintBatch batch) {
+        if (batch == null) {
+            currentBatch.remove();
+        }
+        else {
+            currentBatch.set(batch);
+        }
+    }
+
+    /**
+     * Checks the given instances against the given constraint, recording the outcome for
+     * each instance that can be answered without a per-instance query.
+     *
+     * @param session The current Hibernate session
+     * @param constraint The unique constraint
+     * @param targets The instances about to be validated, in validation order
+     */
+    public void prepare(Session session, UniqueConstraint constraint, List<?> targets) {
+        if (!constraint.isUnique() || targets.isEmpty()) {
+            return;
+        }
+
+        String propertyName = constraint.getPropertyName();
+        List<String> uniquenessGroup = constraint.getUniquenessGroup();
+
+        List<Object> coveredTargets = new ArrayList<Object>();
+        List<List<Object>> coveredKeys = new ArrayList<List<Object>>();
+        Set<Object> values = new LinkedHashSet<Object>();
+
+        for (Object target : targets) {
+            Object value = GrailsClassUtils.getPropertyOrStaticPropertyOrFieldValue(target, propertyName);
+            // null and blank values are never checked by the constraint
+            if (value == null || (value instanceof String && StringUtils.isBlank((String) value))) {
+                continue;
+            }
+
+            List<Object> key = createKey(session, target, value, uniquenessGroup);
+            if (key != null) {
+                coveredTargets.add(target);
+                coveredKeys.add(key);
+                values.add(value instanceof CharSequence ? value.toString() : value);
+            }
+        }
+
+        if (coveredTargets.isEmpty()) {
+            return;
+        }
+
+        Set<Object> looselyMatchedValues = new HashSet<Object>();
+        Map<List<Object>, List<Object>> existingIds = findExistingIdentifiers(session, constraint,
+                new ArrayList<Object>(values), looselyMatchedValues);
+        Map<Object, List<List<Object>>> existingKeysByValue = new HashMap<Object, List<List<Object>>>();
+        for (List<Object> existingKey : existingIds.keySet()) {
+            List<List<Object>> keys = existingKeysByValue.get(existingKey.get(0));
+            if (keys == null) {
+                keys = new ArrayList<List<Object>>();
+                existingKeysByValue.put(existingKey.get(0), keys);
+            }
+            keys.add(existingKey);
+        }
+
+        Map<Object, Boolean> outcome = new IdentityHashMap<Object, Boolean>();
+        Map<List<Object>, Object> firstOccurrences = new HashMap<List<Object>, Object>();
+        for (int i = 0; i < coveredTargets.size(); i++) {
+            Object target = coveredTargets.get(i);
+            List<Object> key = coveredKeys.get(i);
+            Object id = getIdentifier(target);
+
+            boolean reject = false;
+            List<Object> ids = existingIds.get(key);
+            if (ids != null) {
+                reject = id == null || !ids.contains(id);
+            }
+            else if (isUndecided(key, existingKeysByValue.get(key.get(0)), looselyMatchedValues)) {
+                // left to the per-instance query, which compares with the collation of the database
+                continue;
+            }
+
+            Object first = firstOccurrences.get(key);
+            if (first == null) {
+                firstOccurrences.put(key, target);
+            }
+            else if (first != target && !reject) {
+                reject = id == null || !id.equals(getIdentifier(first));
+            }
+            outcome.put(target, reject);
+        }
+        outcomes.put(constraint, outcome);
+    }
+
+    /**
+     * Returns the pre-computed outcome for the given constraint and instance.
+     *
+     * @param constraint The unique constraint
+     * @param target The instance being validated
+     * @return true if the value should be rejected, false if it is unique or null if the batch does not cover the instance
+     */
+    public Boolean isRejected(UniqueConstraint constraint, Object target) {
+        Map<Object, Boolean> outcome = outcomes.get(constraint);
+        return outcome == null ? null : outcome.get(target);
+    }
+
+    /*
+     * Without an exact match a String value is only known to be unique if the database returned no row
+     * whose value differs from the requested ones, and a key is only known to be unique if no row with
+     * the same value differs from it in String properties of the uniqueness group alone.
+     */
+    private boolean isUndecided(List<Object> key, List<List<Object>> existingKeys, Set<Object> looselyMatchedValues) {
+        if (key.get(0) instanceof String && !looselyMatchedValues.isEmpty()) {
+            return true;
+        }
+        if (existingKeys == null) {
+            return false;
+        }
+
+        for (List<Object> existingKey : existingKeys) {
+            boolean differsInStringsOnly = true;
+            for (int i = 1; i < key.size() && differsInStringsOnly; i++) {
+                differsInStringsOnly = existingKey.get(i).equals(key.get(i)) ||
+                        (existingKey.get(i) instanceof String && key.get(i) instanceof String);
+            }
+            if (differsInStringsOnly) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Map<List<Object>, List<Object>> findExistingIdentifiers(Session session, UniqueConstraint constraint,
+            List<Object> values, Set<Object> looselyMatchedValues) {
+        Map<List<Object>, List<Object>> existingIds = new HashMap<List<Object>, List<Object>>();
+        Class<?> queriedClass = constraint.getQueriedClass();
+        String propertyName = constraint.getPropertyName();
+        List<String> uniquenessGroup = constraint.getUniquenessGroup();
+
+        FlushMode previousMode = session.getFlushMode();
+        session.setFlushMode(FlushMode.MANUAL);
+        try {
+            for (int i = 0; i < values.size(); i += chunkSize) {
+                List<Object> chunk = values.subList(i, Math.min(i + chunkSize, values.size()));
+                Set<Object> requested = new HashSet<Object>(chunk);
+                List<?> results = session.createCriteria(queriedClass)
+                    .add(Restrictions.in(propertyName, chunk))
+                    .list();
+
+                for (Object existing : results) {
+                    Object value = GrailsClassUtils.getPropertyOrStaticPropertyOrFieldValue(existing, propertyName);
+                    if (value instanceof CharSequence && !requested.contains(value.toString())) {
+                        // matched by the collation of the column rather than by equals
+                        looselyMatchedValues.add(value.toString());
+                    }
+
+                    List<Object> key = createKey(session, existing, value, uniquenessGroup);
+                    if (key == null) {
+                        continue;
+                    }
+
+                    List<Object> ids = existingIds.get(key);
+                    if (ids == null) {
+                        ids = new ArrayList<Object>();
+                        existingIds.put(key, ids);
+                    }
+                    ids.add(session.getIdentifier(existing));
+                }
+            }
+        }
+        finally {
+            session.setFlushMode(previousMode);
+        }
+        return existingIds;
+    }
+
+    private List<Object> createKey(Session session, Object instance, Object value, List<String> uniquenessGroup) {
+        List<Object> key = new ArrayList<Object>(uniquenessGroup.size() + 1);
+        Object keyPart = toKeyPart(session, value);
+        if (keyPart == null) {
+            return null;
+        }
+        key.add(keyPart);
+
+        for (String groupPropertyName : uniquenessGroup) {
+            keyPart = toKeyPart(session, GrailsClassUtils.getPropertyOrStaticPropertyOrFieldValue(instance, groupPropertyName));
+            if (keyPart == null) {
+                return null;
+            }
+            key.add(keyPart);
+        }
+        return key;
+    }
+
+    /**
+     * Converts a value to a form that can be compared in memory. Returns null for values the
+     * batch cannot reason about, leaving those instances to the per-instance query.
+     */
+    private Object toKeyPart(Session session, Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof CharSequence) {
+            return value.toString();
+        }
+        if (value instanceof HibernateProxy || DomainClassArtefactHandler.isDomainClass(value.getClass())) {
+            return session.contains(value) ? session.getIdentifier(value) : null;
+        }
+        return value;
+    }
+
+    private Object getIdentifier(Object target) {
+        try {
+            return InvokerHelper.invokeMethod(target, "ident", null);
+        }
+        catch (Exception e) {
+            throw new GrailsRuntimeException("Target of [unique] constraints ["+ target +"] is not a domain instance. Unique constraint can only be applied to to domain classes and not custom user types or embedded instances");
+        }
+    }
+}
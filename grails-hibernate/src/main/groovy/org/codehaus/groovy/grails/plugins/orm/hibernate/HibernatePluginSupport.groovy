@@ -17,6 +17,7 @@ package org.codehaus.groovy.grails.plugins.orm.hibernate
 
 import grails.orm.HibernateCriteriaBuilder
 import grails.util.GrailsUtil
+import grails.util.Metadata
 
 import java.util.concurrent.ConcurrentHashMap
 
@@ -41,6 +42,7 @@ import org.codehaus.groovy.grails.orm.hibernate.cfg.GrailsDomainBinder
 import org.codehaus.groovy.grails.orm.hibernate.cfg.GrailsHibernateUtil
 import org.codehaus.groovy.grails.orm.hibernate.cfg.HibernateNamedQueriesBuilder
 import org.codehaus.groovy.grails.orm.hibernate.events.PatchedDefaultFlushEventListener
+import org.codehaus.groovy.grails.orm.hibernate.events.RequestStatisticsEventListener
 import org.codehaus.groovy.grails.orm.hibernate.metaclass.*
 import org.codehaus.groovy.grails.orm.hibernate.support.*
 import org.codehaus.groovy.grails.orm.hibernate.proxy.HibernateProxyHandler
@@ -69,6 +71,7 @@ import org.springframework.beans.factory.xml.XmlBeanFactory
 import org.springframework.context.ApplicationContext
 import org.springframework.dao.DataAccessException
 import org.springframework.jdbc.support.nativejdbc.CommonsDbcpNativeJdbcExtractor
+import org.springframework.jmx.export.MBeanExporter
 import org.springframework.orm.hibernate3.*
 import org.springframework.transaction.support.TransactionCallback
 import org.springframework.transaction.support.TransactionSynchronizationManager
@@ -94,11 +97,13 @@ class HibernatePluginSupport {
         def factory = new PersistentConstraintFactory(getSpringConfig().getUnrefreshedApplicationContext(), UniqueConstraint)
         ConstrainedProperty.registerNewConstraint(UniqueConstraint.UNIQUE_CONSTRAINT, factory)
 
+        def validateUnmodified = application.config.grails.gorm.validateUnmodifiedAssociations == true
         for (GrailsDomainClass dc in application.domainClasses) {
             "${dc.fullName}Validator"(HibernateDomainClassValidator) {
                 messageSource = ref("messageSource")
                 domainClass = ref("${dc.fullName}DomainClass")
                 grailsApplication = ref("grailsApplication", true)
+                validateUnmodifiedAssociations = validateUnmodified
             }
         }
         def vendorToDialect = new Properties()
@@ -148,6 +153,8 @@ class HibernatePluginSupport {
             }
             LOG.info "Set db generation strategy to '${hibProps.'hibernate.hbm2ddl.auto'}'"
 
+            GrailsDomainBinder.configureAdaptiveBatchFetching hibConfig.batchFetching.adaptive
+
             if (hibConfig) {
                 def cacheProvider = hibConfig.cache.provider_class ?: 'net.sf.ehcache.hibernate.EhCacheProvider'
                 if (cacheProvider.contains('OSCacheProvider')) {
@@ -187,7 +194,27 @@ Using Grails' default naming strategy: '${GrailsDomainBinder.namingStrategy.getC
             proxyHandler(HibernateProxyHandler)
             eventTriggeringInterceptor(ClosureEventTriggeringInterceptor)
             hibernateEventListeners(HibernateEventListeners)
-            entityInterceptor(EmptyInterceptor)
+
+            boolean instrumentationEnabled = hibConfig.instrumentation.enabled == true
+            if (instrumentationEnabled) {
+                hibernateRequestStatistics(RequestStatisticsAggregator) {
+                    logSummary = hibConfig.instrumentation.logSummary == true
+                    if (hibConfig.instrumentation.lazyLoadThreshold instanceof Number) {
+                        lazyLoadThreshold = hibConfig.instrumentation.lazyLoadThreshold
+                    }
+                }
+                requestStatisticsEventListener(RequestStatisticsEventListener)
+                entityInterceptor(RequestStatisticsInterceptor)
+
+                def appName = application.metadata[Metadata.APPLICATION_NAME] ?: 'grailsApplication'
+                hibernateRequestStatisticsExporter(MBeanExporter) {
+                    registrationBehaviorName = "REGISTRATION_REPLACE_EXISTING"
+                    beans = ["grails:type=HibernateRequestStatistics,name=${appName}".toString(): ref("hibernateRequestStatistics")]
+                }
+            }
+            else {
+                entityInterceptor(EmptyInterceptor)
+            }
             sessionFactory(ConfigurableLocalSessionFactoryBean) {
                 dataSource = dataSource
                 List hibConfigLocations = []
@@ -221,6 +248,11 @@ Using Grails' default naming strategy: '${GrailsDomainBinder.namingStrategy.getC
                                   'post-update':eventTriggeringInterceptor,
                                   'pre-delete':eventTriggeringInterceptor,
                                   'post-delete':eventTriggeringInterceptor]
+                if (instrumentationEnabled) {
+                    eventListeners.flush = requestStatisticsEventListener
+                    eventListeners.load = requestStatisticsEventListener
+                    eventListeners.'init-collection' = requestStatisticsEventListener
+                }
                 hibernateEventListeners = hibernateEventListeners
             }
 
@@ -229,6 +261,9 @@ Using Grails' default naming strategy: '${GrailsDomainBinder.namingStrategy.getC
             }
             persistenceInterceptor(HibernatePersistenceContextInterceptor) {
                 sessionFactory = sessionFactory
+                if (instrumentationEnabled) {
+                    requestStatisticsAggregator = hibernateRequestStatistics
+                }
             }
 
             if (manager?.hasGrailsPlugin("controllers")) {
@@ -251,6 +286,9 @@ Using Grails' default naming strategy: '${GrailsDomainBinder.namingStrategy.getC
                         flushMode = HibernateAccessor.FLUSH_AUTO
                     }
                     sessionFactory = sessionFactory
+                    if (instrumentationEnabled) {
+                        requestStatisticsAggregator = hibernateRequestStatistics
+                    }
                 }
                 if (getSpringConfig().containsBean("controllerHandlerMappings")) {
                     controllerHandlerMappings.interceptors << openSessionInViewInterceptor
@@ -489,6 +527,14 @@ Using Grails' default naming strategy: '${GrailsDomainBinder.namingStrategy.getC
         metaClass.validate = {List args ->
             validateMethod.invoke(delegate, "validate", [args] as Object[])
         }
+
+        def validateAllMethod = new ValidateAllPersistentMethod(sessionFactory, application.classLoader, application)
+        metaClass.static.validateAll = {Collection instances ->
+            validateAllMethod.invoke(dc.clazz, "validateAll", [instances] as Object[])
+        }
+        metaClass.static.validateAll = {Collection instances, Map args ->
+            validateAllMethod.invoke(dc.clazz, "validateAll", [instances, args] as Object[])
+        }
     }
 
     private static addTransactionalMethods(GrailsDomainClass dc, GrailsApplication application, ApplicationContext ctx) {
@@ -651,24 +697,10 @@ Using Grails' default naming strategy: '${GrailsDomainBinder.namingStrategy.getC
                 session.createCriteria(domainClassType).list()
             } as HibernateCallback)
         }
+        def getAllMethod = new GetAllPersistentMethod(sessionFactory, classLoader)
         metaClass.static.getAll = {List ids ->
-            template.execute({Session session ->
-                def identityType = dc.identifier.type
-                ids = ids.collect {convertToType(it, identityType)}
-                def criteria = session.createCriteria(domainClassType)
-                criteria.add(Restrictions.'in'(dc.identifier.name, ids))
-                def results = criteria.list()
-                def idsMap = [:]
-                for (object in results) {
-                    idsMap[object[dc.identifier.name]] = object
-                }
-                results.clear()
-                for (id in ids) {
-                    results << idsMap[id]
-                }
-                results
-            } as HibernateCallback)
-
+            def identityType = dc.identifier.type
+            getAllMethod.invoke(domainClassType, "getAll", [ids.collect {convertToType(it, identityType)}] as Object[])
         }
         metaClass.static.exists = {id ->
             def identityType = dc.identifier.type
@@ -0,0 +1,45 @@
+/* Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.grails.compiler.web;
+
+import org.codehaus.groovy.control.CompilePhase;
+import org.codehaus.groovy.grails.compiler.injection.AbstractGrailsArtefactTransformer;
+import org.codehaus.groovy.grails.plugins.web.api.ControllersApi;
+import org.codehaus.groovy.transform.GroovyASTTransformation;
+
+/**
+ * A global AST transformation that weaves the methods of {@link ControllersApi}, such as render and
+ * redirect, into the classes in the grails-app/controllers directory.
+ *
+ * @since 1.4
+ */
+@GroovyASTTransformation(phase = CompilePhase.CANONICALIZATION)
+public class ControllerTransformer extends AbstractGrailsArtefactTransformer {
+
+    @Override
+    public Class<?> getInstanceImplementation() {
+        return ControllersApi.class;
+    }
+
+    @Override
+    protected String getArtefactDirectory() {
+        return "controllers";
+    }
+
+    @Override
+    protected String getArtefactSuffix() {
+        return "Controller";
+    }
+}
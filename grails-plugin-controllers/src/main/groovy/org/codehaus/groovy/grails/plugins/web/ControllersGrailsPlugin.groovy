@@ -22,6 +22,7 @@ import java.lang.reflect.Modifier
 
 import org.codehaus.groovy.grails.commons.*
 import org.codehaus.groovy.grails.commons.metaclass.MetaClassEnhancer;
+import org.codehaus.groovy.grails.compiler.injection.AbstractGrailsArtefactTransformer
 import org.codehaus.groovy.grails.plugins.GrailsPluginManager
 import org.codehaus.groovy.grails.plugins.web.api.ControllersApi;
 import org.codehaus.groovy.grails.web.binding.DataBindingLazyMetaPropertyMap
@@ -223,10 +224,14 @@ class ControllersGrailsPlugin {
 
             Class controllerClass = controller.clazz
             Class superClass = controller.clazz.superclass
-            enhancer.enhance mc
+            // controllers compiled by the ControllerTransformer call the API directly
+            if (!AbstractGrailsArtefactTransformer.setApiInstance(controllerClass, controllerApi)) {
+                enhancer.enhance mc
+            }
             // deal with abstract super classes
             while (superClass != Object) {
-                if (Modifier.isAbstract(superClass.getModifiers())) {
+                if (!AbstractGrailsArtefactTransformer.setApiInstance(superClass, controllerApi) &&
+                        Modifier.isAbstract(superClass.getModifiers())) {
                     enhancer.enhance superClass.metaClass
                 }
                 superClass = superClass.superclass
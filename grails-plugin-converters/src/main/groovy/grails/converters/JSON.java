@@ -33,6 +33,7 @@ import javax.servlet.http.HttpServletResponse;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.codehaus.groovy.grails.web.binding.JSONPropertyValues;
 import org.codehaus.groovy.grails.web.converters.AbstractConverter;
 import org.codehaus.groovy.grails.web.converters.Converter;
 import org.codehaus.groovy.grails.web.converters.ConverterUtil;
@@ -60,7 +61,7 @@ import org.codehaus.groovy.grails.web.json.PrettyPrintJSONWriter;
 public class JSON extends AbstractConverter<JSONWriter> implements Converter<JSONWriter> {
 
     private final static Log log = LogFactory.getLog(JSON.class);
-    private static final String CACHED_JSON = "org.codehaus.groovy.grails.CACHED_JSON_REQUEST_CONTENT";
+    private static final String CACHED_JSON = JSONPropertyValues.CACHED_JSON_REQUEST_CONTENT;
 
     private Object target;
     private final String encoding;
@@ -326,6 +327,14 @@ public class JSON extends AbstractConverter<JSONWriter> implements Converter<JSO
         Object json = request.getAttribute(CACHED_JSON);
         if (json != null) return json;
 
+        // the body has already been read for data binding
+        Object body = request.getAttribute(JSONPropertyValues.JSON_REQUEST_BODY);
+        if (body != null) {
+            json = parse(body.toString());
+            request.setAttribute(CACHED_JSON, json);
+            return json;
+        }
+
         String encoding = request.getCharacterEncoding();
         if (encoding == null) {
             encoding = Converter.DEFAULT_REQUEST_ENCODING;
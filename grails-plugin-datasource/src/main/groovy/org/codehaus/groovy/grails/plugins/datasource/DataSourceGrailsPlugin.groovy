@@ -26,10 +26,13 @@ import javax.sql.DataSource
 
 import org.apache.commons.dbcp.BasicDataSource
 import org.codehaus.groovy.grails.exceptions.GrailsConfigurationException
+import org.codehaus.groovy.grails.orm.support.ReadWriteRoutingDataSource
 import org.codehaus.groovy.grails.orm.support.TransactionManagerPostProcessor
 import org.springframework.context.ApplicationContext
 import org.springframework.jdbc.datasource.DriverManagerDataSource
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy
 import org.springframework.jdbc.datasource.TransactionAwareDataSourceProxy
+import org.springframework.jmx.export.MBeanExporter
 import org.springframework.jndi.JndiObjectFactoryBean
 
 /**
@@ -58,13 +61,78 @@ class DataSourceGrailsPlugin {
             return
         }
 
+        def replicaConfigs = ds?.replicas instanceof Collection ? ds.replicas : null
+        // with read replicas dataSourceUnproxied routes between the primary and the replicas
+        def primaryBeanName = replicaConfigs ? "dataSourcePrimary" : "dataSourceUnproxied"
+
         if (ds.jndiName) {
-            dataSourceUnproxied(JndiObjectFactoryBean) {
+            "$primaryBeanName"(JndiObjectFactoryBean) {
                 jndiName = ds.jndiName
                 expectedType = DataSource
             }
-            dataSource(TransactionAwareDataSourceProxy, dataSourceUnproxied)
-            return
+            if (!replicaConfigs) {
+                dataSource(TransactionAwareDataSourceProxy, dataSourceUnproxied)
+                return
+            }
+        }
+
+        // with metrics the primary DataSource wraps the pool
+        def metricsConfig = application.config.grails.dataSource.metrics
+        boolean metricsEnabled = metricsConfig.enabled == true
+        def poolBeanName = metricsEnabled ? "dataSourcePool" : primaryBeanName
+
+        def decodePassword = { thePassword ->
+            def encryptionCodec = ds?.passwordEncryptionCodec
+            if (!encryptionCodec) {
+                return thePassword
+            }
+
+            if (encryptionCodec instanceof Class) {
+                try {
+                    return encryptionCodec.decode(thePassword)
+                }
+                catch (Exception e) {
+                    throw new GrailsConfigurationException(
+                        "Error decoding dataSource password with codec [$encryptionCodec]: ${e.message}", e)
+                }
+            }
+
+            encryptionCodec = encryptionCodec.toString()
+            def codecClass = application.codecClasses.find { it.name?.equalsIgnoreCase(encryptionCodec) || it.fullName == encryptionCodec}?.clazz
+            try {
+                if (!codecClass) {
+                    codecClass = Class.forName(encryptionCodec, true, application.classLoader)
+                }
+                if (codecClass) {
+                   return codecClass.decode(thePassword)
+                }
+                throw new GrailsConfigurationException(
+                      "Error decoding dataSource password. Codec class not found for name [$encryptionCodec]")
+            }
+            catch (ClassNotFoundException e) {
+                throw new GrailsConfigurationException(
+                      "Error decoding dataSource password. Codec class not found for name [$encryptionCodec]: ${e.message}", e)
+            }
+            catch(Exception e) {
+                throw new GrailsConfigurationException(
+                      "Error decoding dataSource password with codec [$encryptionCodec]: ${e.message}", e)
+            }
+        }
+
+        // support for setting custom properties (for example maxActive) on a dataSource bean
+        def applyProperties = { bean, dataSourceProperties, String description ->
+            if (dataSourceProperties == null) {
+                return
+            }
+            if (dataSourceProperties instanceof Map) {
+                dataSourceProperties.each { entry ->
+                    log.debug("Setting property on $description bean ${entry.key} -> ${entry.value}")
+                    bean.setPropertyValue(entry.key.toString(), entry.value)
+                }
+            }
+            else {
+                log.warn("${description}.properties is not an instanceof java.util.Map, ignoring")
+            }
         }
 
         def properties = {
@@ -77,46 +145,7 @@ class DataSourceGrailsPlugin {
                 username = theUsername
             }
             if (ds?.password)  {
-                def thePassword = ds.password
-                if (ds?.passwordEncryptionCodec) {
-                    def encryptionCodec = ds?.passwordEncryptionCodec
-                    if (encryptionCodec instanceof Class) {
-                        try {
-                            password = encryptionCodec.decode(thePassword)
-                        }
-                        catch (Exception e) {
-                            throw new GrailsConfigurationException(
-                                "Error decoding dataSource password with codec [$encryptionCodec]: ${e.message}", e)
-                        }
-                    }
-                    else {
-                        encryptionCodec = encryptionCodec.toString()
-                        def codecClass = application.codecClasses.find { it.name?.equalsIgnoreCase(encryptionCodec) || it.fullName == encryptionCodec}?.clazz
-                        try {
-                            if (!codecClass) {
-                                codecClass = Class.forName(encryptionCodec, true, application.classLoader)
-                            }
-                            if (codecClass) {
-                               password = codecClass.decode(thePassword)
-                            }
-                            else {
-                                throw new GrailsConfigurationException(
-                                      "Error decoding dataSource password. Codec class not found for name [$encryptionCodec]")
-                            }
-                        }
-                        catch (ClassNotFoundException e) {
-                            throw new GrailsConfigurationException(
-                                  "Error decoding dataSource password. Codec class not found for name [$encryptionCodec]: ${e.message}", e)
-                        }
-                        catch(Exception e) {
-                            throw new GrailsConfigurationException(
-                                  "Error decoding dataSource password with codec [$encryptionCodec]: ${e.message}", e)
-                        }
-                    }
-                }
-                else {
-                    password = ds.password
-                }
+                password = decodePassword(ds.password)
             }
             else {
                 String thePassword = defaultDriver ? "" : null
@@ -126,33 +155,91 @@ class DataSourceGrailsPlugin {
             }
         }
 
-        if (ds) {
+        if (ds && !ds.jndiName) {
             log.info("[RuntimeConfiguration] Configuring data source for environment: ${Environment.current}")
             def bean
             if (ds.pooled) {
-                bean = dataSourceUnproxied(BasicDataSource, properties)
+                bean = "$poolBeanName"(BasicDataSource, properties)
                 bean.destroyMethod = "close"
             }
             else {
-                bean = dataSourceUnproxied(DriverManagerDataSource, properties)
-            }
-            // support for setting custom properties (for example maxActive) on the dataSource bean
-            def dataSourceProperties = ds.properties
-            if (dataSourceProperties != null) {
-                if (dataSourceProperties instanceof Map) {
-                    dataSourceProperties.each { entry ->
-                        log.debug("Setting property on dataSource bean ${entry.key} -> ${entry.value}")
-                        bean.setPropertyValue(entry.key.toString(), entry.value)
+                bean = "$poolBeanName"(DriverManagerDataSource, properties)
+            }
+            applyProperties(bean, ds.properties, "dataSource")
+        }
+        else if (!ds) {
+            def bean = "$poolBeanName"(BasicDataSource, properties)
+            bean.destroyMethod = "close"
+        }
+
+        if (metricsEnabled && !ds.jndiName) {
+            "$primaryBeanName"(InstrumentedDataSource) {
+                targetDataSource = ref("dataSourcePool")
+                if (metricsConfig.leakThreshold instanceof Number) {
+                    leakThreshold = metricsConfig.leakThreshold
+                }
+            }
+            def appName = application.metadata?.get(Metadata.APPLICATION_NAME) ?: 'grailsApplication'
+            dataSourceMetricsExporter(MBeanExporter) {
+                registrationBehaviorName = "REGISTRATION_REPLACE_EXISTING"
+                beans = ["grails:type=DataSourceMetrics,name=${appName}".toString(): ref(primaryBeanName)]
+            }
+        }
+
+        if (replicaConfigs) {
+            def replicaBeans = []
+            replicaConfigs.eachWithIndex { replica, i ->
+                if (!(replica instanceof Map) || !(replica.url || replica.jndiName)) {
+                    throw new GrailsConfigurationException(
+                        "Invalid dataSource.replicas entry [$replica], each replica must be a Map with at least a url or a jndiName")
+                }
+
+                def beanName = "dataSourceReplica${i}"
+                replicaBeans << ref(beanName)
+                if (replica.jndiName) {
+                    "$beanName"(JndiObjectFactoryBean) {
+                        jndiName = replica.jndiName
+                        expectedType = DataSource
                     }
+                    return
                 }
-                else {
-                    log.warn("dataSource.properties is not an instanceof java.util.Map, ignoring")
+
+                def bean = "$beanName"(ds.pooled ? BasicDataSource : DriverManagerDataSource) {
+                    driverClassName = replica.driverClassName ?: (ds.driverClassName ?: "org.h2.Driver")
+                    url = replica.url
+                    def theUsername = replica.containsKey('username') ? replica.username : ds.username
+                    if (theUsername) {
+                        username = theUsername
+                    }
+                    def thePassword = replica.containsKey('password') ? replica.password : ds.password
+                    if (thePassword) {
+                        password = decodePassword(thePassword)
+                    }
+                }
+                if (ds.pooled) {
+                    bean.destroyMethod = "close"
                 }
+                // a replica inherits the custom properties of the primary and may override them
+                applyProperties(bean, ds.properties, "dataSource")
+                applyProperties(bean, replica.properties, "dataSource.replicas[$i]")
             }
-        }
-        else {
-            def bean = dataSourceUnproxied(BasicDataSource, properties)
-            bean.destroyMethod = "close"
+
+            // routes read-only work to the replicas, the lazy proxy defers the routing decision
+            // until the transaction has been flagged read-only
+            dataSourceRouting(ReadWriteRoutingDataSource) {
+                primary = ref("dataSourcePrimary")
+                replicas = replicaBeans
+                if (ds.replicaRouting) {
+                    routing = ds.replicaRouting.toString()
+                }
+                if (ds.replicaRetryInterval instanceof Number) {
+                    retryInterval = ds.replicaRetryInterval
+                }
+            }
+            dataSourceUnproxied(LazyConnectionDataSourceProxy) {
+                targetDataSource = ref("dataSourceRouting")
+            }
+            log.info "Routing read-only transactions to ${replicaConfigs.size()} read replica(s)"
         }
 
         dataSource(TransactionAwareDataSourceProxy, dataSourceUnproxied)
@@ -0,0 +1,336 @@
+/* Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.grails.plugins.datasource;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.dbcp.BasicDataSource;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Wraps the connection pool to record how long borrowers wait for connections, how long
+ * connections are held per controller action and which connections are held longer than the
+ * leak threshold, along with the stack trace of the code that borrowed them.
+ *
+ * Configured in Config.groovy via <code>grails.dataSource.metrics.enabled = true</code>.
+ *
+ * @since 1.4
+ */
+public class InstrumentedDataSource extends DelegatingDataSource implements InstrumentedDataSourceMBean {
+
+    /**
+     * The upper bounds in milliseconds of the borrow wait histogram buckets, the last bucket is unbounded.
+     */
+    public static final long[] WAIT_BUCKETS = {1, 5, 10, 50, 100, 500, 1000, 5000};
+
+    private static final Log LOG = LogFactory.getLog(InstrumentedDataSource.class);
+    // mirror GrailsApplicationAttributes, which isn't visible to this plugin
+    private static final String CONTROLLER_NAME_ATTRIBUTE = "org.codehaus.groovy.grails.CONTROLLER_NAME_ATTRIBUTE";
+    private static final String ACTION_NAME_ATTRIBUTE = "org.codehaus.groovy.grails.ACTION_NAME_ATTRIBUTE";
+    private static final String UNKNOWN_ACTION = "<none>";
+
+    private long leakThreshold;
+
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong maxBorrowWaitTime = new AtomicLong();
+    private final AtomicLongArray borrowWaitHistogram = new AtomicLongArray(WAIT_BUCKETS.length + 1);
+    private final ConcurrentMap<String, HoldTime> holdTimes = new ConcurrentHashMap<String, HoldTime>();
+    private final ConcurrentMap<Connection, Borrow> openConnections = new ConcurrentHashMap<Connection, Borrow>();
+    private final AtomicLong lastLeakCheck = new AtomicLong(System.currentTimeMillis());
+    private final AtomicLong leakCount = new AtomicLong();
+
+    public InstrumentedDataSource() {
+        // default constructor for bean creation
+    }
+
+    public InstrumentedDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        // before borrowing, so that leaks are reported when they exhaust the pool and borrowing blocks or fails
+        checkForLeaks();
+        long start = System.nanoTime();
+        Connection connection = getTargetDataSource().getConnection();
+        return borrowed(connection, start);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        checkForLeaks();
+        long start = System.nanoTime();
+        Connection connection = getTargetDataSource().getConnection(username, password);
+        return borrowed(connection, start);
+    }
+
+    private Connection borrowed(final Connection connection, long start) {
+        long now = System.currentTimeMillis();
+        long wait = (System.nanoTime() - start) / 1000000L;
+        recordWait(wait);
+
+        final Borrow borrow = new Borrow(now, resolveAction(), leakThreshold > 0 ? new Throwable("Connection borrowed here") : null);
+        Connection proxy = (Connection)Proxy.newProxyInstance(InstrumentedDataSource.class.getClassLoader(),
+            new Class[] { Connection.class }, new InvocationHandler() {
+                public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                    String name = method.getName();
+                    if (name.equals("close")) {
+                        returned((Connection)proxy, borrow);
+                    }
+                    else if (name.equals("equals")) {
+                        return proxy == args[0];
+                    }
+                    else if (name.equals("hashCode")) {
+                        return System.identityHashCode(proxy);
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    }
+                    catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                }
+            });
+        openConnections.put(proxy, borrow);
+        return proxy;
+    }
+
+    private void recordWait(long wait) {
+        borrowCount.incrementAndGet();
+        int bucket = 0;
+        while (bucket < WAIT_BUCKETS.length && wait > WAIT_BUCKETS[bucket]) {
+            bucket++;
+        }
+        borrowWaitHistogram.incrementAndGet(bucket);
+
+        long max = maxBorrowWaitTime.get();
+        while (wait > max && !maxBorrowWaitTime.compareAndSet(max, wait)) {
+            max = maxBorrowWaitTime.get();
+        }
+    }
+
+    private void returned(Connection proxy, Borrow borrow) {
+        if (openConnections.remove(proxy) == null) {
+            // already closed
+            return;
+        }
+
+        long held = System.currentTimeMillis() - borrow.time;
+        HoldTime holdTime = holdTimes.get(borrow.action);
+        if (holdTime == null) {
+            HoldTime existing = holdTimes.putIfAbsent(borrow.action, holdTime = new HoldTime());
+            if (existing != null) {
+                holdTime = existing;
+            }
+        }
+        holdTime.add(held);
+
+        if (leakThreshold > 0 && held > leakThreshold && !borrow.reported) {
+            LOG.warn("Connection held for " + held + "ms in [" + borrow.action + "]", borrow.stackTrace);
+        }
+    }
+
+    /**
+     * Logs the connections held longer than the leak threshold, at most once per second or per leak
+     * threshold if that is shorter.
+     */
+    private void checkForLeaks() {
+        if (leakThreshold <= 0) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        long last = lastLeakCheck.get();
+        if (now - last < Math.min(1000, leakThreshold) || !lastLeakCheck.compareAndSet(last, now)) {
+            return;
+        }
+
+        for (Borrow borrow : openConnections.values()) {
+            if (!borrow.reported && now - borrow.time > leakThreshold) {
+                borrow.reported = true;
+                leakCount.incrementAndGet();
+                LOG.warn("Connection held for " + (now - borrow.time) + "ms and still open in [" +
+                    borrow.action + "], possible connection leak", borrow.stackTrace);
+            }
+        }
+    }
+
+    private String resolveAction() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            Object controllerName = attributes.getAttribute(CONTROLLER_NAME_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            if (controllerName != null) {
+                return controllerName + "/" + attributes.getAttribute(ACTION_NAME_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            }
+        }
+        return UNKNOWN_ACTION;
+    }
+
+    public int getNumActive() {
+        DataSource target = getTargetDataSource();
+        return target instanceof BasicDataSource ? ((BasicDataSource)target).getNumActive() : -1;
+    }
+
+    public int getNumIdle() {
+        DataSource target = getTargetDataSource();
+        return target instanceof BasicDataSource ? ((BasicDataSource)target).getNumIdle() : -1;
+    }
+
+    public int getMaxActive() {
+        DataSource target = getTargetDataSource();
+        return target instanceof BasicDataSource ? ((BasicDataSource)target).getMaxActive() : -1;
+    }
+
+    public long getBorrowCount() {
+        return borrowCount.get();
+    }
+
+    public int getOpenConnectionCount() {
+        return openConnections.size();
+    }
+
+    public long getMaxBorrowWaitTime() {
+        return maxBorrowWaitTime.get();
+    }
+
+    public String[] getBorrowWaitHistogram() {
+        String[] lines = new String[WAIT_BUCKETS.length + 1];
+        for (int i = 0; i < WAIT_BUCKETS.length; i++) {
+            lines[i] = "<= " + WAIT_BUCKETS[i] + "ms: " + borrowWaitHistogram.get(i);
+        }
+        lines[WAIT_BUCKETS.length] = "> " + WAIT_BUCKETS[WAIT_BUCKETS.length - 1] + "ms: " +
+            borrowWaitHistogram.get(WAIT_BUCKETS.length);
+        return lines;
+    }
+
+    /**
+     * @return The number of borrows per wait time bucket, see {@link #WAIT_BUCKETS}
+     */
+    public long[] getBorrowWaitCounts() {
+        long[] counts = new long[borrowWaitHistogram.length()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = borrowWaitHistogram.get(i);
+        }
+        return counts;
+    }
+
+    public String[] getHoldTimeSummaries() {
+        List<String> summaries = new ArrayList<String>();
+        for (Map.Entry<String, HoldTime> entry : holdTimes.entrySet()) {
+            summaries.add(entry.getKey() + ": " + entry.getValue());
+        }
+        return summaries.toArray(new String[summaries.size()]);
+    }
+
+    public String[] getLongHeldConnections() {
+        List<String> connections = new ArrayList<String>();
+        long now = System.currentTimeMillis();
+        for (Borrow borrow : openConnections.values()) {
+            long held = now - borrow.time;
+            if (held > leakThreshold) {
+                StringWriter trace = new StringWriter();
+                trace.write("held " + held + "ms in [" + borrow.action + "]");
+                if (borrow.stackTrace != null) {
+                    trace.write(": ");
+                    borrow.stackTrace.printStackTrace(new PrintWriter(trace));
+                }
+                connections.add(trace.toString());
+            }
+        }
+        return connections.toArray(new String[connections.size()]);
+    }
+
+    public long getLeakCount() {
+        return leakCount.get();
+    }
+
+    public long getLeakThreshold() {
+        return leakThreshold;
+    }
+
+    /**
+     * @param leakThreshold The time in milliseconds after which a held connection is reported, 0 to
+     * disable reporting and the capture of stack traces
+     */
+    public void setLeakThreshold(long leakThreshold) {
+        this.leakThreshold = leakThreshold;
+    }
+
+    public void reset() {
+        borrowCount.set(0);
+        maxBorrowWaitTime.set(0);
+        for (int i = 0; i < borrowWaitHistogram.length(); i++) {
+            borrowWaitHistogram.set(i, 0);
+        }
+        holdTimes.clear();
+        leakCount.set(0);
+    }
+
+    private static class Borrow {
+        final long time;
+        final String action;
+        final Throwable stackTrace;
+        volatile boolean reported;
+
+        Borrow(long time, String action, Throwable stackTrace) {
+            this.time = time;
+            this.action = action;
+            this.stackTrace = stackTrace;
+        }
+    }
+
+    private static class HoldTime {
+        final AtomicInteger count = new AtomicInteger();
+        final AtomicLong total = new AtomicLong();
+        final AtomicLong max = new AtomicLong();
+
+        void add(long held) {
+            count.incrementAndGet();
+            total.addAndGet(held);
+            long current = max.get();
+            while (held > current && !max.compareAndSet(current, held)) {
+                current = max.get();
+            }
+        }
+
+        @Override
+        public String toString() {
+            int n = count.get();
+            return "connections=" + n + ", averageHoldTime=" + (n == 0 ? 0 : total.get() / n) + "ms" +
+                ", maxHoldTime=" + max.get() + "ms";
+        }
+    }
+}
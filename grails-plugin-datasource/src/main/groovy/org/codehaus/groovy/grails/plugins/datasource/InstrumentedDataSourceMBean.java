@@ -0,0 +1,79 @@
+/* Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.grails.plugins.datasource;
+
+/**
+ * JMX management interface of the {@link InstrumentedDataSource}.
+ *
+ * @since 1.4
+ */
+public interface InstrumentedDataSourceMBean {
+
+    /**
+     * @return The number of connections borrowed from the pool, or -1 if the pool doesn't tell
+     */
+    int getNumActive();
+
+    /**
+     * @return The number of idle connections in the pool, or -1 if the pool doesn't tell
+     */
+    int getNumIdle();
+
+    /**
+     * @return The maximum number of active connections of the pool, or -1 if the pool doesn't tell
+     */
+    int getMaxActive();
+
+    long getBorrowCount();
+
+    /**
+     * @return The number of connections borrowed and not yet returned
+     */
+    int getOpenConnectionCount();
+
+    /**
+     * @return The longest time in milliseconds spent waiting for a connection
+     */
+    long getMaxBorrowWaitTime();
+
+    /**
+     * @return The number of borrows per wait time bucket, one line per bucket
+     */
+    String[] getBorrowWaitHistogram();
+
+    /**
+     * @return The connection hold times per controller and action, one line per action
+     */
+    String[] getHoldTimeSummaries();
+
+    /**
+     * @return The open connections held longer than the leak threshold, with the stack trace of the borrower
+     */
+    String[] getLongHeldConnections();
+
+    /**
+     * @return The number of connections reported as possible leaks while still open
+     */
+    long getLeakCount();
+
+    long getLeakThreshold();
+
+    void setLeakThreshold(long leakThreshold);
+
+    /**
+     * Clears the recorded metrics.
+     */
+    void reset();
+}
@@ -24,6 +24,7 @@ import org.springframework.core.annotation.AnnotationUtils
 import org.springframework.transaction.annotation.Transactional
 import org.codehaus.groovy.grails.commons.spring.TypeSpecifyableTransactionProxyFactoryBean
 
+import org.codehaus.groovy.grails.commons.GrailsClassUtils
 import org.codehaus.groovy.grails.commons.GrailsServiceClass
 import org.codehaus.groovy.grails.commons.ServiceArtefactHandler
 import org.codehaus.groovy.grails.orm.support.GroovyAwareNamedTransactionAttributeSource
@@ -60,8 +61,7 @@ class ServicesGrailsPlugin {
 
             def hasDataSource = (application.config?.dataSource || application.domainClasses)
             if (hasDataSource && shouldCreateTransactionalProxy(serviceClass)) {
-                def props = new Properties()
-                props."*" = "PROPAGATION_REQUIRED"
+                def props = createTransactionAttributes(serviceClass)
                 "${serviceClass.propertyName}"(TypeSpecifyableTransactionProxyFactoryBean, serviceClass.clazz) { bean ->
                     if (scope) bean.scope = scope
                     bean.lazyInit = true
@@ -102,6 +102,23 @@ class ServicesGrailsPlugin {
         }
     }
 
+    /**
+     * Every method is transactional. Methods are also read-only if the service declares
+     * <code>static readOnly = true</code>, or if their name matches one of the patterns
+     * of <code>static readOnly = ['find*', 'list']</code>.
+     */
+    Properties createTransactionAttributes(GrailsServiceClass serviceClass) {
+        def props = new Properties()
+        def readOnly = GrailsClassUtils.getStaticPropertyValue(serviceClass.clazz, "readOnly")
+        if (readOnly instanceof Collection) {
+            for (methodName in readOnly) {
+                props[methodName.toString()] = "PROPAGATION_REQUIRED,readOnly"
+            }
+        }
+        props."*" = readOnly == true ? "PROPAGATION_REQUIRED,readOnly" : "PROPAGATION_REQUIRED"
+        props
+    }
+
     def onChange = { event ->
         if (!event.source || !event.ctx) {
             return
@@ -118,8 +135,7 @@ class ServicesGrailsPlugin {
                     targetMethod = "getArtefact"
                     arguments = [ServiceArtefactHandler.TYPE, serviceClass.fullName]
                 }
-                def props = new Properties()
-                props."*"="PROPAGATION_REQUIRED"
+                def props = createTransactionAttributes(serviceClass)
                 "${serviceName}"(TypeSpecifyableTransactionProxyFactoryBean, serviceClass.clazz) { bean ->
                     if (scope) bean.scope = scope
                     target = { innerBean ->
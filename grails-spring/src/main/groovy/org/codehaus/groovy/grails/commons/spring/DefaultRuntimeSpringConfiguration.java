@@ -20,6 +20,7 @@ import groovy.lang.MetaClass;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -356,6 +357,14 @@ public class DefaultRuntimeSpringConfiguration implements RuntimeSpringConfigura
         beanAliases.add(alias);
     }
 
+    public List<String> getAliases(String beanName) {
+        List<String> beanAliases = aliases.get(beanName);
+        if (beanAliases == null) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(beanAliases);
+    }
+
     public BeanDefinition getBeanDefinition(String beanName) {
         return beanDefinitions.get(beanName);
     }
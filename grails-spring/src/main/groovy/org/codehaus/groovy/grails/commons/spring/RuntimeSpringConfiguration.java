@@ -219,6 +219,14 @@ public interface RuntimeSpringConfiguration {
      */
     void addAlias(String alias, String beanName);
 
+    /**
+     * Obtains the aliases added for a given bean name.
+     *
+     * @param beanName The bean
+     * @return The aliases, an empty list if there are none
+     */
+    List<String> getAliases(String beanName);
+
     /**
      * Obtains a BeanDefinition instance for the given beanName.
      *
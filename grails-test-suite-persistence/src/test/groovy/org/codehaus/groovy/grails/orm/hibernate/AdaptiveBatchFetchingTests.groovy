@@ -0,0 +1,91 @@
+package org.codehaus.groovy.grails.orm.hibernate
+
+import org.codehaus.groovy.grails.orm.hibernate.cfg.GrailsDomainBinder
+
+/**
+ * @since 1.4
+ */
+class AdaptiveBatchFetchingTests extends AbstractGrailsHibernateTests {
+
+    protected void onSetUp() {
+        gcl.parseClass '''
+class AdaptiveBatchAuthor {
+    Long id
+    Long version
+    String name
+    static hasMany = [books: AdaptiveBatchBook]
+}
+class AdaptiveBatchBook {
+    Long id
+    Long version
+    String title
+    static belongsTo = [author: AdaptiveBatchAuthor]
+}
+class AdaptiveBatchPublisher {
+    Long id
+    Long version
+    String name
+    static mapping = {
+        batchSize 4
+    }
+}
+class AdaptiveBatchTag {
+    Long id
+    Long version
+    String name
+    static mapping = {
+        table 'adaptive_tag'
+    }
+}
+'''
+    }
+
+    protected void afterPluginInitialization() {
+        ga.config.hibernate.batchFetching.adaptive = true
+    }
+
+    protected void onTearDown() {
+        GrailsDomainBinder.adaptiveBatchSize = 0
+    }
+
+    void testBatchSizesAssigned() {
+        def configuration = appCtx.getBean("&sessionFactory").configuration
+
+        // no mapping at all, or a mapping without a batch size
+        assertEquals GrailsDomainBinder.DEFAULT_ADAPTIVE_BATCH_SIZE, configuration.getClassMapping("AdaptiveBatchAuthor").batchSize
+        assertEquals GrailsDomainBinder.DEFAULT_ADAPTIVE_BATCH_SIZE, configuration.getClassMapping("AdaptiveBatchTag").batchSize
+        assertEquals GrailsDomainBinder.DEFAULT_ADAPTIVE_BATCH_SIZE, configuration.getCollectionMapping("AdaptiveBatchAuthor.books").batchSize
+        assertTrue sessionFactory.getEntityPersister("AdaptiveBatchAuthor").batchLoadable
+        assertTrue sessionFactory.getCollectionPersister("AdaptiveBatchAuthor.books").batchLoadable
+
+        // an explicit batch size is left alone
+        assertEquals 4, configuration.getClassMapping("AdaptiveBatchPublisher").batchSize
+    }
+
+    void testProxiesAndCollectionsLoadedInBatches() {
+        def authorClass = ga.getDomainClass("AdaptiveBatchAuthor").clazz
+        def bookClass = ga.getDomainClass("AdaptiveBatchBook").clazz
+
+        20.times { i ->
+            def author = authorClass.newInstance(name: "Author $i")
+            author.addToBooks(bookClass.newInstance(title: "Book $i"))
+            author.save()
+        }
+        session.flush()
+        session.clear()
+
+        def statistics = sessionFactory.statistics
+        statistics.statisticsEnabled = true
+        statistics.clear()
+
+        def books = bookClass.list()
+        assertEquals((0..19).collect { "Author $it".toString() } as Set, books.collect { it.author.name } as Set)
+        // one query for the books and two batches of authors
+        assertEquals 3, statistics.prepareStatementCount
+
+        statistics.clear()
+        authorClass.list().each { assertEquals 1, it.books.size() }
+        // the authors are already in the session, two batches of books
+        assertEquals 3, statistics.prepareStatementCount
+    }
+}
@@ -0,0 +1,155 @@
+package org.codehaus.groovy.grails.orm.hibernate
+
+import org.hibernate.Hibernate
+
+/**
+ * @since 1.4
+ */
+class DirtyAwareCascadeValidationTests extends AbstractGrailsHibernateTests {
+
+    protected void onSetUp() {
+        gcl.parseClass '''
+import grails.persistence.*
+
+@Entity
+class DirtyValidationAlbum {
+    String title
+    DirtyValidationLabel label
+    static hasMany = [songs:DirtyValidationSong]
+    static constraints = {
+        label nullable:true
+    }
+}
+
+@Entity
+class DirtyValidationLabel {
+    String name
+    static belongsTo = DirtyValidationAlbum
+    static constraints = {
+        name blank:false
+    }
+}
+
+@Entity
+class DirtyValidationSong {
+    String title
+    Integer duration
+    static belongsTo = [album:DirtyValidationAlbum]
+    static hasMany = [notes:DirtyValidationNote]
+    static constraints = {
+        title blank:false
+        duration(min:1)
+    }
+}
+
+@Entity
+class DirtyValidationNote {
+    String text
+    static belongsTo = [song:DirtyValidationSong]
+    static constraints = {
+        text blank:false
+    }
+}
+'''
+    }
+
+    void testUnmodifiedAssociationsSkipped() {
+        def album = createAlbumWithInvalidSongInDatabase()
+
+        album.songs.size()
+        assertTrue "unmodified songs should not be validated", album.validate()
+
+        album.songs.find { it.title == "Song 1" }.title = ""
+        assertFalse "modified songs should be validated", album.validate()
+        assertNotNull album.errors.getFieldError("songs.title")
+    }
+
+    void testModifiedInstanceReachedThroughUnmodifiedAssociation() {
+        def album = createAlbumWithInvalidSongInDatabase()
+        def song = album.songs.find { it.title == "Song 1" }
+        def note = song.notes.iterator().next()
+
+        assertTrue album.validate()
+
+        note.text = ""
+        assertFalse "a modified note of an unmodified song should be validated", album.validate()
+        assertNotNull album.errors.getFieldError("songs.notes.text")
+    }
+
+    void testNewAssociationsValidated() {
+        def album = createAlbumWithInvalidSongInDatabase()
+        def songClass = ga.getDomainClass("DirtyValidationSong").clazz
+
+        album.addToSongs(songClass.newInstance(title: "Song 3", duration: -5))
+        assertFalse album.validate()
+    }
+
+    void testValidateAllInParallelCascades() {
+        def albumClass = ga.getDomainClass("DirtyValidationAlbum").clazz
+        def songClass = ga.getDomainClass("DirtyValidationSong").clazz
+
+        def albums = (0..9).collect { i ->
+            albumClass.newInstance(title: "Album $i")
+                .addToSongs(songClass.newInstance(title: "Song $i", duration: i == 7 ? -1 : 10))
+        }
+
+        def errors = albumClass.validateAll(albums, [parallel: true])
+        assertEquals([7], (0..9).findAll { errors[it].hasErrors() })
+        assertNotNull errors[7].getFieldError("songs.duration")
+        assertSame errors[7], albums[7].errors
+    }
+
+    void testValidateUnmodifiedAssociations() {
+        def album = createAlbumWithInvalidSongInDatabase()
+        def validator = appCtx.getBean("DirtyValidationAlbumValidator")
+        validator.validateUnmodifiedAssociations = true
+        try {
+            album.songs.size()
+            assertFalse album.validate()
+        }
+        finally {
+            validator.validateUnmodifiedAssociations = false
+        }
+    }
+
+    void testValidateUnmodifiedAssociationsInitializesProxies() {
+        def albumClass = ga.getDomainClass("DirtyValidationAlbum").clazz
+        def labelClass = ga.getDomainClass("DirtyValidationLabel").clazz
+
+        def album = albumClass.newInstance(title: "Album", label: labelClass.newInstance(name: "Label"))
+        assertNotNull album.save(flush: true)
+        labelClass.executeUpdate("update DirtyValidationLabel set name = ''")
+        session.clear()
+
+        album = albumClass.get(album.id)
+        assertFalse Hibernate.isInitialized(album.label)
+        assertTrue "uninitialized proxies should be skipped", album.validate()
+
+        def validator = appCtx.getBean("DirtyValidationAlbumValidator")
+        validator.validateUnmodifiedAssociations = true
+        try {
+            assertFalse "proxies should be validated when unmodified associations are", album.validate()
+            assertNotNull album.errors.getFieldError("label.name")
+        }
+        finally {
+            validator.validateUnmodifiedAssociations = false
+        }
+    }
+
+    private createAlbumWithInvalidSongInDatabase() {
+        def albumClass = ga.getDomainClass("DirtyValidationAlbum").clazz
+        def songClass = ga.getDomainClass("DirtyValidationSong").clazz
+
+        def album = albumClass.newInstance(title: "Album")
+        def noteClass = ga.getDomainClass("DirtyValidationNote").clazz
+        album.addToSongs(songClass.newInstance(title: "Song 1", duration: 10).addToNotes(noteClass.newInstance(text: "Note")))
+        album.addToSongs(songClass.newInstance(title: "Song 2", duration: 10))
+        assertNotNull album.save(flush: true)
+
+        // data that no longer satisfies the constraints
+        songClass.executeUpdate("update DirtyValidationSong set duration = -1 where title = 'Song 2'")
+        session.clear()
+
+        albumClass.get(album.id)
+    }
+}
@@ -0,0 +1,86 @@
+package org.codehaus.groovy.grails.orm.hibernate
+
+import org.codehaus.groovy.grails.orm.hibernate.metaclass.GetAllPersistentMethod
+
+/**
+ * @since 1.4
+ */
+class GetAllMethodTests extends AbstractGrailsHibernateTests {
+
+    protected void onSetUp() {
+        gcl.parseClass '''
+class GetAllMethodTest {
+    Long id
+    Long version
+    String name
+}
+'''
+    }
+
+    void testGetAllPreservesOrder() {
+        def testClass = ga.getDomainClass("GetAllMethodTest").clazz
+
+        def ids = (1..5).collect { testClass.newInstance(name: "Item $it").save(flush: true).id }
+        session.clear()
+
+        def results = testClass.getAll([ids[3], ids[0], 42L, null, ids[3].toString()])
+        assertEquals ArrayList, results.getClass()
+        assertEquals(['Item 4', 'Item 1', null, null, 'Item 4'], results.collect { it?.name })
+        assertSame results[0], results[4]
+    }
+
+    void testGetAllUsesSessionInstances() {
+        def testClass = ga.getDomainClass("GetAllMethodTest").clazz
+
+        def item = testClass.newInstance(name: "Item").save(flush: true)
+        def other = testClass.newInstance(name: "Other").save(flush: true)
+
+        def statistics = sessionFactory.statistics
+        statistics.statisticsEnabled = true
+        statistics.clear()
+
+        def results = testClass.getAll([other.id, item.id])
+        assertSame other, results[0]
+        assertSame item, results[1]
+        assertEquals 0, statistics.prepareStatementCount
+    }
+
+    void testGetAllWithManyIdentifiers() {
+        def testClass = ga.getDomainClass("GetAllMethodTest").clazz
+
+        int count = GetAllPersistentMethod.CHUNK_SIZE * 2 + 3
+        def ids = (1..count).collect { testClass.newInstance(name: "Item $it").save().id }
+        session.flush()
+        session.clear()
+
+        def statistics = sessionFactory.statistics
+        statistics.statisticsEnabled = true
+        statistics.clear()
+
+        def results = testClass.getAll(ids.reverse())
+        assertEquals count, results.size()
+        assertEquals "Item $count".toString(), results[0].name
+        assertEquals "Item 1", results[-1].name
+        assertEquals 3, statistics.prepareStatementCount
+    }
+
+    void testGetAllWithModifiedSessionInstances() {
+        def testClass = ga.getDomainClass("GetAllMethodTest").clazz
+
+        int count = GetAllPersistentMethod.CHUNK_SIZE + 5
+        def ids = (1..count).collect { testClass.newInstance(name: "Item $it").save().id }
+        session.flush()
+        session.clear()
+
+        def modified = testClass.get(ids[GetAllPersistentMethod.CHUNK_SIZE])
+        modified.name = "Modified"
+
+        def results = testClass.getAll(ids)
+        assertEquals count, results.size()
+        assertSame modified, results[GetAllPersistentMethod.CHUNK_SIZE]
+        assertEquals "Modified", results[GetAllPersistentMethod.CHUNK_SIZE].name
+        assertEquals "Item 1", results[0].name
+        assertEquals "Item $count".toString(), results[-1].name
+        assertTrue results.every { session.contains(it) }
+    }
+}
@@ -0,0 +1,131 @@
+package org.codehaus.groovy.grails.orm.hibernate
+
+import org.codehaus.groovy.grails.orm.hibernate.cfg.HibernateNamedQueriesBuilder
+
+class NamedCriteriaTemplateTests extends AbstractGrailsHibernateTests {
+
+    protected void onSetUp() {
+        System.setProperty(HibernateNamedQueriesBuilder.TEMPLATES_PROPERTY, "true")
+
+        gcl.parseClass('''
+class TemplateAuthor {
+    Long id
+    Long version
+    String name
+    Set books
+
+    static hasMany = [books: TemplateBook]
+
+    static namedQueries = {
+        withPaperbacks {
+            books {
+                paperbacks()
+            }
+        }
+        named { name ->
+            eq 'name', name
+        }
+    }
+}
+
+class TemplateBook {
+    Long id
+    Long version
+    String title
+    Boolean paperback = true
+
+    static String minimumTitle = "A"
+
+    static String minimumTitle() {
+        minimumTitle
+    }
+
+    static namedQueries = {
+        paperbacks {
+            eq 'paperback', true
+        }
+        titleContains { text ->
+            like 'title', "%${text}%"
+            order 'title', 'asc'
+        }
+        paperbacksTitled { title ->
+            paperbacks()
+            eq 'title', title
+        }
+        titledOrAll { title ->
+            if (title) {
+                eq 'title', title
+            }
+        }
+        titledUnlessNull { title ->
+            if (title != null) {
+                eq 'title', title
+            }
+        }
+        titledUnlessIt { title ->
+            if (title == 'It') {
+                eq 'paperback', true
+            }
+        }
+        titledAfterMinimum {
+            gt 'title', minimumTitle()
+        }
+    }
+}
+''')
+    }
+
+    protected void onTearDown() {
+        System.clearProperty(HibernateNamedQueriesBuilder.TEMPLATES_PROPERTY)
+    }
+
+    void testNamedQueriesAreRecorded() {
+        def bookClass = ga.getDomainClass("TemplateBook").clazz
+
+        assertNotNull HibernateNamedQueriesBuilder.getNamedCriteriaDefinition(bookClass, 'paperbacks').template
+        assertNotNull HibernateNamedQueriesBuilder.getNamedCriteriaDefinition(bookClass, 'titleContains').template
+        // tests its parameter, so the closure has to run on each call
+        assertNull HibernateNamedQueriesBuilder.getNamedCriteriaDefinition(bookClass, 'titledOrAll').template
+        assertNull HibernateNamedQueriesBuilder.getNamedCriteriaDefinition(bookClass, 'titledUnlessNull').template
+        assertNull HibernateNamedQueriesBuilder.getNamedCriteriaDefinition(bookClass, 'titledUnlessIt').template
+        // uses the result of a method, which is only known when the query runs
+        assertNull HibernateNamedQueriesBuilder.getNamedCriteriaDefinition(bookClass, 'titledAfterMinimum').template
+    }
+
+    void testNamedQueriesThatCannotBeRecordedRunTheirClosure() {
+        def bookClass = ga.getDomainClass("TemplateBook").clazz
+        ["The Stand", "It"].each { assertNotNull bookClass.newInstance(title: it).save(flush: true) }
+        session.clear()
+
+        assertEquals 1, bookClass.titledUnlessNull("It").count()
+        assertEquals 2, bookClass.titledUnlessNull(null).count()
+        assertEquals 2, bookClass.titledAfterMinimum.count()
+
+        bookClass.minimumTitle = "J"
+        assertEquals(["The Stand"], bookClass.titledAfterMinimum.list()*.title)
+    }
+
+    void testReplayedTemplatesBindParameters() {
+        def authorClass = ga.getDomainClass("TemplateAuthor").clazz
+        def bookClass = ga.getDomainClass("TemplateBook").clazz
+
+        def author = authorClass.newInstance(name: "Stephen King")
+        author.addToBooks(bookClass.newInstance(title: "The Stand", paperback: true))
+        author.addToBooks(bookClass.newInstance(title: "The Shining", paperback: false))
+        assertNotNull author.save(flush: true)
+        assertNotNull authorClass.newInstance(name: "Hardback Only")
+                .addToBooks(bookClass.newInstance(title: "It", paperback: false)).save(flush: true)
+        session.clear()
+
+        assertEquals(["The Shining", "The Stand"], bookClass.titleContains("The").list()*.title)
+        assertEquals(["The Stand"], bookClass.titleContains("Stand").list()*.title)
+        assertEquals(["The Stand"], bookClass.paperbacksTitled("The Stand").list()*.title)
+        assertEquals 0, bookClass.paperbacksTitled("The Shining").count()
+        assertEquals 1, bookClass.paperbacks().titleContains("S").count()
+        assertEquals 1, bookClass.titledOrAll("It").count()
+        assertEquals 3, bookClass.titledOrAll(null).count()
+
+        assertEquals(["Stephen King"], authorClass.withPaperbacks.listDistinct()*.name)
+        assertEquals(["Hardback Only"], authorClass.named("Hardback Only").list()*.name)
+    }
+}
@@ -1,5 +1,6 @@
 package org.codehaus.groovy.grails.orm.hibernate
 
+import org.codehaus.groovy.grails.orm.hibernate.cfg.HibernateNamedQueriesBuilder
 import org.hibernate.FetchMode;
 import org.hibernate.NonUniqueResultException
 
@@ -168,6 +169,18 @@ class Publication {
 
     }
 
+    void testNamedQueriesAreCompiledOnce() {
+        def publicationClass = ga.getDomainClass("Publication").clazz
+        def subclass = ga.getDomainClass("PublicationSubclassWithNamedQueries").clazz
+
+        def definition = HibernateNamedQueriesBuilder.getNamedCriteriaDefinition(publicationClass, 'recentPublications')
+        assertNotNull definition
+        assertSame definition, publicationClass.recentPublications.definition
+        assertSame definition, publicationClass.paperbacks.recentPublications.definition
+        assertSame definition, HibernateNamedQueriesBuilder.getNamedCriteriaDefinition(subclass, 'recentPublications')
+        assertNull HibernateNamedQueriesBuilder.getNamedCriteriaDefinition(publicationClass, 'oldPaperbacks')
+    }
+
     void testUniqueResult() {
         def publicationClass = ga.getDomainClass("Publication").clazz
 
@@ -0,0 +1,108 @@
+package org.codehaus.groovy.grails.orm.hibernate
+
+import org.codehaus.groovy.grails.orm.hibernate.support.RequestStatistics
+
+/**
+ * @since 1.4
+ */
+class RequestStatisticsTests extends AbstractGrailsHibernateTests {
+
+    protected void onSetUp() {
+        gcl.parseClass '''
+class RequestStatisticsAuthor {
+    Long id
+    Long version
+    String name
+    static hasMany = [books: RequestStatisticsBook]
+}
+class RequestStatisticsBook {
+    Long id
+    Long version
+    String title
+    static belongsTo = [author: RequestStatisticsAuthor]
+}
+'''
+    }
+
+    protected void afterPluginInitialization() {
+        ga.config.hibernate.instrumentation.enabled = true
+        ga.config.hibernate.instrumentation.lazyLoadThreshold = 5
+    }
+
+    protected void onTearDown() {
+        RequestStatistics.unbind()
+    }
+
+    void testCountsStatementsAndLazyLoads() {
+        def authorClass = ga.getDomainClass("RequestStatisticsAuthor").clazz
+        def bookClass = ga.getDomainClass("RequestStatisticsBook").clazz
+
+        6.times { i ->
+            def author = authorClass.newInstance(name: "Author $i")
+            author.addToBooks(bookClass.newInstance(title: "Book $i"))
+            author.save(flush: true)
+        }
+        session.clear()
+
+        def aggregator = appCtx.getBean("hibernateRequestStatistics")
+        aggregator.requestStarted()
+
+        def books = bookClass.list()
+        books.each { it.author.name }
+        def authors = authorClass.list()
+        authors.each { it.books.size() }
+        authorClass.get(authors[0].id).name = "Changed"
+        session.flush()
+
+        RequestStatistics statistics = aggregator.requestCompleted("book/list")
+
+        assertNull RequestStatistics.current
+        assertEquals 6, statistics.proxyInitializationCount
+        assertEquals 6, statistics.collectionInitializationCount
+        assertEquals 12, statistics.entityLoadCount
+        assertTrue statistics.statementCount >= 14
+        assertEquals 1, statistics.flushCount
+        assertEquals 2, statistics.getSuspectedNPlusOneLoads(5).size()
+        assertTrue statistics.getSuspectedNPlusOneLoads(7).isEmpty()
+
+        assertEquals 1, aggregator.requestCount
+        assertEquals 1, aggregator.suspectedNPlusOneCount
+        assertEquals statistics.statementCount, aggregator.statementCount
+        assertEquals 1, aggregator.actionSummaries.size()
+        assertTrue aggregator.actionSummaries[0].startsWith("book/list: requests=1")
+
+        aggregator.reset()
+        assertEquals 0, aggregator.requestCount
+        assertEquals 0, aggregator.actionSummaries.size()
+    }
+
+    void testNothingRecordedWithoutRequest() {
+        def authorClass = ga.getDomainClass("RequestStatisticsAuthor").clazz
+        authorClass.newInstance(name: "Author").save(flush: true)
+        assertEquals 1, authorClass.count()
+
+        def aggregator = appCtx.getBean("hibernateRequestStatistics")
+        assertNull aggregator.requestCompleted("book/list")
+        assertEquals 0, aggregator.requestCount
+    }
+
+    void testFlushTimeAggregatedInNanoseconds() {
+        def aggregator = appCtx.getBean("hibernateRequestStatistics")
+        4.times {
+            aggregator.requestStarted()
+            RequestStatistics.flushed(600000L)
+            assertEquals 0, aggregator.requestCompleted("book/save").flushTime
+        }
+
+        assertEquals 4, aggregator.flushCount
+        assertEquals 2, aggregator.flushTime
+        assertTrue aggregator.actionSummaries[0].contains("flushTime=2ms")
+    }
+
+    void testStatisticsExportedOverJmx() {
+        def exporter = appCtx.getBean("hibernateRequestStatisticsExporter")
+        def objectName = new javax.management.ObjectName("grails:type=HibernateRequestStatistics,name=grailsApplication")
+        assertTrue exporter.server.isRegistered(objectName)
+        assertEquals 0L, exporter.server.getAttribute(objectName, "RequestCount")
+    }
+}
@@ -71,6 +71,25 @@ class AssociationBindingAuthor {
         assertEquals "The Shining", book.title
     }
 
+    void testOneToManyBindingFromIdsLoadsInstancesWithSingleQuery() {
+        def Author = ga.getDomainClass("AssociationBindingAuthor").clazz
+        def Book2 = ga.getDomainClass("AssociationBindingBook2").clazz
+
+        def ids = (1..5).collect { Book2.newInstance(title: "Book $it").save(flush: true, failOnError: true).id.toString() }
+        session.clear()
+
+        def statistics = sessionFactory.statistics
+        statistics.statisticsEnabled = true
+        statistics.clear()
+
+        def author = Author.newInstance(name: "Stephen King", moreBooks: [] as Set)
+        author.properties = [moreBooks: ids as String[]]
+
+        assertEquals 5, author.moreBooks.size()
+        assertEquals((1..5).collect { "Book $it" } as Set, author.moreBooks*.title as Set)
+        assertEquals 1, statistics.prepareStatementCount
+    }
+
     void testManyToOneUnBinding() {
         def Book = ga.getDomainClass("AssociationBindingBook").clazz
         def Author = ga.getDomainClass("AssociationBindingAuthor").clazz
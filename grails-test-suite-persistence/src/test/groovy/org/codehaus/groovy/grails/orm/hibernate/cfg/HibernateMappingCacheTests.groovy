@@ -0,0 +1,128 @@
+package org.codehaus.groovy.grails.orm.hibernate.cfg
+
+import org.codehaus.groovy.grails.commons.ConfigurationHolder
+import org.codehaus.groovy.grails.commons.DefaultGrailsApplication
+import org.codehaus.groovy.grails.plugins.GrailsPlugin
+import org.codehaus.groovy.grails.plugins.MockGrailsPluginManager
+import org.codehaus.groovy.grails.plugins.PluginManagerHolder
+
+/**
+ * @since 1.4
+ */
+class HibernateMappingCacheTests extends GroovyTestCase {
+
+    def application
+    File file
+
+    protected void setUp() {
+        ExpandoMetaClass.enableGlobally()
+
+        PluginManagerHolder.pluginManager = new MockGrailsPluginManager()
+        PluginManagerHolder.pluginManager.registerMockPlugin([getName: { -> 'hibernate' }] as GrailsPlugin)
+        ConfigurationHolder.config = new ConfigSlurper().parse("mapping.changed = false")
+
+        def gcl = new GroovyClassLoader()
+        gcl.parseClass '''
+class MappingCacheAuthor {
+    Long id
+    Long version
+    String name
+    static hasMany = [books:MappingCacheBook]
+}
+
+class MappingCacheBook {
+    Long id
+    Long version
+    String title
+    MappingCacheAuthor author
+    static belongsTo = [author:MappingCacheAuthor]
+    static mapping = {
+        table 'mc_book'
+    }
+}
+
+class MappingCacheOrganization {
+    Long id
+    Long version
+    String name
+    Set relatedOrganizations
+    static hasMany = [relatedOrganizations:MappingCacheOrganization]
+    static mappedBy = [relatedOrganizations:"relatedOrganizations"]
+}
+'''
+        application = new DefaultGrailsApplication(gcl.loadedClasses, gcl)
+        application.initialise()
+
+        file = File.createTempFile("hibernate", ".mapping")
+        file.delete()
+        System.setProperty(HibernateMappingCache.ENABLED_PROPERTY, "true")
+        System.setProperty(HibernateMappingCache.FILE_PROPERTY, file.absolutePath)
+    }
+
+    protected void tearDown() {
+        System.clearProperty(HibernateMappingCache.ENABLED_PROPERTY)
+        System.clearProperty(HibernateMappingCache.FILE_PROPERTY)
+        ConfigurationHolder.config = null
+        PluginManagerHolder.pluginManager = null
+        file.delete()
+    }
+
+    void testRestoresMappingOfUnchangedDomainClasses() {
+        def config = buildMappings()
+        assertTrue file.exists()
+
+        def cache = new HibernateMappingCache(new DefaultGrailsDomainConfiguration(grailsApplication: application),
+                application, file)
+        assertEquals new HibernateMappingCache(config, application, file).key, cache.key
+
+        def restored = buildMappings()
+        def book = restored.getClassMapping("MappingCacheBook")
+        assertNotNull book
+        assertEquals "mc_book", book.table.name
+        assertNotNull restored.getCollectionMapping("MappingCacheAuthor.books")
+    }
+
+    void testRestoresJoinTableOfCircularManyToMany() {
+        buildMappings()
+        def organizationClass = application.getDomainClass("MappingCacheOrganization").clazz
+        def joinKey = GrailsDomainBinder.getMapping(organizationClass).getPropertyConfig("relatedOrganizations").joinTable.key.name
+        // the binder creates the mapping of the class, which a new JVM does not have
+        GrailsDomainBinder.MAPPING_CACHE.remove(organizationClass)
+
+        def restored = buildMappings()
+
+        assertNotNull restored.getCollectionMapping("MappingCacheOrganization.relatedOrganizations")
+        assertEquals joinKey, GrailsDomainBinder.getMapping(organizationClass).getPropertyConfig("relatedOrganizations").joinTable.key.name
+    }
+
+    void testDisabledWithoutFile() {
+        System.clearProperty(HibernateMappingCache.FILE_PROPERTY)
+
+        assertFalse HibernateMappingCache.isEnabled(application)
+    }
+
+    void testNotRestoredWhenConfigChanges() {
+        buildMappings()
+
+        ConfigurationHolder.config = new ConfigSlurper().parse("mapping.changed = true")
+
+        def cache = new HibernateMappingCache(new DefaultGrailsDomainConfiguration(grailsApplication: application),
+                application, file)
+        assertFalse cache.restore()
+    }
+
+    void testDisabledWithoutSystemProperty() {
+        System.clearProperty(HibernateMappingCache.ENABLED_PROPERTY)
+
+        buildMappings()
+
+        assertFalse file.exists()
+    }
+
+    private buildMappings() {
+        def config = new DefaultGrailsDomainConfiguration()
+        config.grailsApplication = application
+        config.buildMappings()
+        config
+    }
+}
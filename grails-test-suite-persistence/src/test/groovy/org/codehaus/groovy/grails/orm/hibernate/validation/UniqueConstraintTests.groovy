@@ -261,6 +261,86 @@ class UniqueConstraintTests extends AbstractGrailsHibernateTests {
         assertTrue link.hasErrors()
     }
 
+    void testValidateAll() {
+        def userClass = ga.getDomainClass("User").clazz
+
+        def existing = userClass.newInstance(code: "1", login: "login1", grp: "group1",
+                                             department: "department1", organization: "organization1")
+        assertNotNull existing.save(flush: true)
+
+        def users = [
+            userClass.newInstance(code: "2", login: "login2", grp: "group1",
+                                  department: "department2", organization: "organization1"),
+            // 'code' clashes with the persisted instance
+            userClass.newInstance(code: "1", login: "login3", grp: "group1",
+                                  department: "department3", organization: "organization1"),
+            // 'code' clashes with the first instance of the batch
+            userClass.newInstance(code: "2", login: "login4", grp: "group1",
+                                  department: "department4", organization: "organization1"),
+            // 'login' clashes with the persisted instance within the same grp and department
+            userClass.newInstance(code: "5", login: "login1", grp: "group1",
+                                  department: "department1", organization: "organization2")
+        ]
+
+        def errors = userClass.validateAll(users, [batchSize: 1])
+
+        assertEquals 4, errors.size()
+        assertFalse errors[0].hasErrors()
+        assertEquals "unique", errors[1].getFieldError("code").code
+        assertEquals "unique", errors[2].getFieldError("code").code
+        assertEquals "unique", errors[3].getFieldError("login").code
+        assertNull errors[3].getFieldError("department")
+        users.eachWithIndex { user, i -> assertSame errors[i], user.errors }
+
+        // the persisted instance itself doesn't fire the constraint
+        errors = userClass.validateAll([existing])
+        assertFalse errors[0].hasErrors()
+    }
+
+    void testValidateAllInParallel() {
+        def userClass = ga.getDomainClass("User").clazz
+
+        def existing = userClass.newInstance(code: "1", login: "login1", grp: "group1",
+                                             department: "department1", organization: "organization1")
+        assertNotNull existing.save(flush: true)
+
+        def users = (2..101).collect {
+            userClass.newInstance(code: "$it", login: "login$it", grp: "group1",
+                                  department: "department$it", organization: "organization1")
+        }
+        // 'code' clashes with the persisted instance
+        users[10].code = "1"
+        // fails a constraint evaluated on a worker thread
+        users[20].login = null
+
+        def errors = userClass.validateAll([existing] + users, [parallel: true])
+
+        assertEquals 101, errors.size()
+        assertEquals([11, 21], (0..100).findAll { errors[it].hasErrors() })
+        assertEquals "unique", errors[11].getFieldError("code").code
+        assertEquals "nullable", errors[21].getFieldError("login").code
+        ([existing] + users).eachWithIndex { user, i -> assertSame errors[i], user.errors }
+    }
+
+    void testValidateAllWithAssociations() {
+        def userClass = ga.getDomainClass("User").clazz
+        def linkClass = ga.getDomainClass("LinkedUser").clazz
+
+        def users = (1..3).collect {
+            userClass.newInstance(code: "$it", login: "login$it", grp: "group$it",
+                                  department: "department$it", organization: "organization$it").save(flush: true)
+        }
+        assertNotNull linkClass.newInstance(user1: users[0], user2: users[1]).save(flush: true)
+
+        def links = [linkClass.newInstance(user1: users[0], user2: users[2]),
+                     linkClass.newInstance(user1: users[0], user2: users[1]),
+                     linkClass.newInstance(user1: users[1], user2: users[2]),
+                     linkClass.newInstance(user1: users[1], user2: users[2])]
+
+        def errors = linkClass.validateAll(links)
+        assertEquals([false, true, false, true], errors*.hasErrors())
+    }
+
 
     void onSetUp() {
         gcl.parseClass '''
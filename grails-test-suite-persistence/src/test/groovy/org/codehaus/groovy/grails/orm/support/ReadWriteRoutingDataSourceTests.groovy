@@ -0,0 +1,114 @@
+package org.codehaus.groovy.grails.orm.support
+
+import groovy.sql.Sql
+
+import org.springframework.jdbc.core.JdbcTemplate
+import org.springframework.jdbc.datasource.DataSourceTransactionManager
+import org.springframework.jdbc.datasource.DriverManagerDataSource
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy
+import org.springframework.transaction.support.TransactionCallback
+import org.springframework.transaction.support.TransactionTemplate
+
+/**
+ * @since 1.4
+ */
+class ReadWriteRoutingDataSourceTests extends GroovyTestCase {
+
+    def primary = createDatabase("rwPrimary")
+    def replicas = [createDatabase("rwReplica0"), createDatabase("rwReplica1")]
+
+    protected void tearDown() {
+        ReadWriteRoutingDataSource.setCurrentReadOnly(false)
+        ([primary] + replicas).each { new Sql(it).execute("SHUTDOWN") }
+    }
+
+    void testReadOnlyTransactionsRoundRobin() {
+        def routing = createRoutingDataSource(ReadWriteRoutingDataSource.ROUND_ROBIN)
+        def dataSource = new LazyConnectionDataSourceProxy(routing)
+
+        assertEquals(["rwReplica0", "rwReplica1", "rwReplica0"], (1..3).collect { queryName(dataSource, true) })
+        assertEquals "rwPrimary", queryName(dataSource, false)
+    }
+
+    void testReadOnlyThread() {
+        def routing = createRoutingDataSource(ReadWriteRoutingDataSource.ROUND_ROBIN)
+        def template = new JdbcTemplate(routing)
+
+        assertEquals "rwPrimary", template.queryForObject("select name from db_name", String)
+        ReadWriteRoutingDataSource.setCurrentReadOnly(true)
+        assertEquals "rwReplica0", template.queryForObject("select name from db_name", String)
+        ReadWriteRoutingDataSource.setCurrentReadOnly(false)
+        assertEquals "rwPrimary", template.queryForObject("select name from db_name", String)
+    }
+
+    void testReadWriteTransactionOnReadOnlyThread() {
+        def routing = createRoutingDataSource(ReadWriteRoutingDataSource.ROUND_ROBIN)
+        def dataSource = new LazyConnectionDataSourceProxy(routing)
+        ReadWriteRoutingDataSource.setCurrentReadOnly(true)
+
+        def template = new TransactionTemplate(new DataSourceTransactionManager(dataSource))
+        template.execute({
+            new JdbcTemplate(dataSource).update("insert into db_name values ('written')")
+        } as TransactionCallback)
+
+        assertEquals 2, new Sql(primary).firstRow("select count(*) as total from db_name").total
+        replicas.each { assertEquals 1, new Sql(it).firstRow("select count(*) as total from db_name").total }
+        assertEquals "rwReplica0", queryName(dataSource, true)
+    }
+
+    void testLeastConnections() {
+        def routing = createRoutingDataSource(ReadWriteRoutingDataSource.LEAST_CONNECTIONS)
+        ReadWriteRoutingDataSource.setCurrentReadOnly(true)
+
+        def first = routing.connection
+        def second = routing.connection
+        assertEquals([1, 1], routing.activeReplicaConnections as List)
+        first.close()
+        first.close()
+        assertEquals([0, 1], routing.activeReplicaConnections as List)
+
+        def third = routing.connection
+        assertEquals "rwReplica0", new Sql(third).firstRow("select name from db_name").name
+        [second, third]*.close()
+        assertEquals([0, 0], routing.activeReplicaConnections as List)
+    }
+
+    void testFailingReplicaEjected() {
+        def broken = new DriverManagerDataSource(url: "jdbc:h2:tcp://localhost:1/rwBroken",
+            driverClassName: "org.h2.Driver", username: "sa", password: "")
+        def routing = new ReadWriteRoutingDataSource(primary: primary, replicas: [broken, replicas[1]],
+            retryInterval: 60000)
+        routing.afterPropertiesSet()
+        def dataSource = new LazyConnectionDataSourceProxy(routing)
+
+        assertEquals(["rwReplica1", "rwReplica1"], (1..2).collect { queryName(dataSource, true) })
+        assertEquals 1, routing.availableReplicaCount
+
+        routing = new ReadWriteRoutingDataSource(primary: primary, replicas: [broken])
+        routing.afterPropertiesSet()
+        assertEquals "rwPrimary", queryName(new LazyConnectionDataSourceProxy(routing), true)
+    }
+
+    private queryName(dataSource, boolean readOnly) {
+        def template = new TransactionTemplate(new DataSourceTransactionManager(dataSource))
+        template.readOnly = readOnly
+        template.execute({
+            new JdbcTemplate(dataSource).queryForObject("select name from db_name", String)
+        } as TransactionCallback)
+    }
+
+    private createRoutingDataSource(String routingStrategy) {
+        def routing = new ReadWriteRoutingDataSource(primary: primary, replicas: replicas, routing: routingStrategy)
+        routing.afterPropertiesSet()
+        routing
+    }
+
+    private createDatabase(String name) {
+        def dataSource = new DriverManagerDataSource(url: "jdbc:h2:mem:$name;DB_CLOSE_DELAY=-1",
+            driverClassName: "org.h2.Driver", username: "sa", password: "")
+        def sql = new Sql(dataSource)
+        sql.execute "create table db_name (name varchar(20))"
+        sql.execute "insert into db_name values (?)", [name]
+        dataSource
+    }
+}
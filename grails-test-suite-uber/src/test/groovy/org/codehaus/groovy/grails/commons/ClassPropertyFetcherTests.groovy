@@ -0,0 +1,51 @@
+package org.codehaus.groovy.grails.commons
+
+/**
+ * @since 1.4
+ */
+class ClassPropertyFetcherTests extends GroovyTestCase {
+
+    protected void tearDown() {
+        ClassPropertyFetcher.clearClassPropertyFetcherCache()
+    }
+
+    void testStaticAndInstanceProperties() {
+        def cpf = ClassPropertyFetcher.forClass(FetcherTestService)
+
+        assertTrue cpf.isReadableProperty("transactional")
+        assertEquals false, cpf.getPropertyValue("transactional")
+        assertEquals "singleton", cpf.getStaticPropertyValue("scope", String)
+        assertNull cpf.getPropertyValue("scope", true)
+        assertEquals "instance", cpf.getPropertyValue("name")
+        assertEquals "instance", cpf.getPropertyValue("name", true)
+        assertEquals String, cpf.getPropertyType("name")
+    }
+
+    void testMissingProperties() {
+        def cpf = ClassPropertyFetcher.forClass(FetcherTestService)
+
+        assertFalse cpf.isReadableProperty("mapping")
+        assertNull cpf.getPropertyValue("mapping")
+        assertNull cpf.getPropertyValue("mapping", true)
+        assertNull cpf.getPropertyType("mapping")
+        assertNull cpf.getStaticPropertyValue("scope", Closure)
+    }
+
+    void testFetchersAreCachedPerClass() {
+        def cpf = ClassPropertyFetcher.forClass(FetcherTestService)
+        assertSame cpf, ClassPropertyFetcher.forClass(FetcherTestService)
+
+        def reloaded = new GroovyClassLoader().parseClass("class FetcherTestService { static scope = 'request' }")
+        assertNotSame cpf, ClassPropertyFetcher.forClass(reloaded)
+        assertEquals "request", ClassPropertyFetcher.forClass(reloaded).getPropertyValue("scope")
+
+        ClassPropertyFetcher.clearClassPropertyFetcherCache()
+        assertNotSame cpf, ClassPropertyFetcher.forClass(FetcherTestService)
+    }
+}
+
+class FetcherTestService {
+    static transactional = false
+    static scope = "singleton"
+    String name = "instance"
+}
@@ -29,4 +29,36 @@ public class ControllerArtefactHandlerTests extends TestCase {
         ArtefactHandler handler = new ControllerArtefactHandler();
         assertTrue(handler.isArtefact(c));
     }
+
+    public void testGetArtefactForFeature() {
+        GrailsControllerClass pluginController = new DefaultGrailsControllerClass(new GroovyClassLoader().parseClass(
+                "package plugin\nclass BookController { def list = {}\n def show = {} }\n"));
+        GrailsControllerClass appController = new DefaultGrailsControllerClass(new GroovyClassLoader().parseClass(
+                "class BookController { def list = {}\n def edit = {} }\n"));
+
+        DefaultArtefactInfo info = new DefaultArtefactInfo();
+        info.addGrailsClass(pluginController);
+        info.addGrailsClass(appController);
+        info.updateComplete();
+
+        ArtefactHandler handler = new ControllerArtefactHandler();
+        handler.initialize(info);
+
+        assertSame(appController, handler.getArtefactForFeature("/book/list"));
+        assertSame(appController, handler.getArtefactForFeature("/book/list/"));
+        assertSame(appController, handler.getArtefactForFeature("/book/list/1"));
+        assertSame(appController, handler.getArtefactForFeature("/book/edit/1/2"));
+        assertSame(appController, handler.getArtefactForFeature("/book"));
+        assertSame(appController, handler.getArtefactForFeature("/book/"));
+        assertSame(pluginController, handler.getArtefactForFeature("/book/show/1"));
+        assertSame(pluginController, handler.getArtefactForFeature("/book//show"));
+
+        assertNull(handler.getArtefactForFeature("/book/listing"));
+        assertNull(handler.getArtefactForFeature("/author/list"));
+        assertNull(handler.getArtefactForFeature("book/list"));
+        assertNull(handler.getArtefactForFeature("/"));
+
+        pluginController.registerMapping("create");
+        assertSame(pluginController, handler.getArtefactForFeature("/book/create"));
+    }
 }
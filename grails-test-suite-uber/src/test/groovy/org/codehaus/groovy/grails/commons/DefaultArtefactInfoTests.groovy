@@ -64,4 +64,27 @@ class FooController {}
         assertEquals 2, info.grailsClassesByName.size()
         assertEquals 2, info.grailsClassesArray.size()
     }
+
+    void testAddedClassesAreVisibleAfterUpdateComplete() {
+        def info = new DefaultArtefactInfo()
+        def gcl = new GroovyClassLoader()
+        def controllerClass = new DefaultGrailsControllerClass(gcl.parseClass("class BookController {}"))
+
+        info.addGrailsClass(controllerClass)
+
+        assertEquals 0, info.grailsClasses.size()
+        assertNull info.getGrailsClass("BookController")
+        assertNull info.getGrailsClassByLogicalPropertyName("book")
+
+        def published = info.grailsClassesByName
+        info.updateComplete()
+
+        assertEquals 0, published.size()
+        assertEquals([controllerClass], info.grailsClasses as List)
+        assertSame controllerClass, info.getGrailsClass("BookController")
+        assertSame controllerClass, info.getGrailsClassByLogicalPropertyName("book")
+        shouldFail(UnsupportedOperationException) {
+            info.grailsClassesByName.clear()
+        }
+    }
 }
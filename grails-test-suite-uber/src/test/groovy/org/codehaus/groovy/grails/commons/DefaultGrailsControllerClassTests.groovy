@@ -61,4 +61,43 @@ class  ChildController extends ParentController {
         assertEquals "foo", child.getBeforeInterceptor(obj).call()
         assertEquals "bar", child.getAfterInterceptor(obj).call()
     }
+
+    void testLazyInitialization() {
+        gcl.parseClass """
+class LazyBookController {
+    static defaultAction = "list"
+    def list = { }
+    def show = { }
+}
+class LazyAuthorController {
+    def index = { }
+}"""
+
+        System.setProperty(AbstractGrailsClass.LAZY_INITIALIZATION_PROPERTY, "true")
+        try {
+            def ga = new DefaultGrailsApplication(gcl.loadedClasses, gcl)
+            ga.initialise()
+
+            def book = ga.getControllerClass("LazyBookController")
+            def author = ga.getControllerClass("LazyAuthorController")
+            assertTrue book.lazilyInitialized
+            assertFalse book.initialized
+            assertFalse author.initialized
+            assertEquals "/lazyBook", book.baseURI
+
+            assertEquals book, ga.getArtefactForFeature(ControllerArtefactHandler.TYPE, "/lazyBook/show")
+            assertTrue book.initialized
+            assertFalse author.initialized
+            assertEquals "list", book.defaultAction
+            assertEquals book, ga.getArtefactForFeature(ControllerArtefactHandler.TYPE, "/lazyBook")
+            assertNull ga.getArtefactForFeature(ControllerArtefactHandler.TYPE, "/lazyBook/missing")
+            assertFalse author.initialized
+
+            assertEquals author, ga.getArtefactForFeature(ControllerArtefactHandler.TYPE, "/lazyAuthor/index")
+            assertTrue author.initialized
+        }
+        finally {
+            System.clearProperty(AbstractGrailsClass.LAZY_INITIALIZATION_PROPERTY)
+        }
+    }
 }
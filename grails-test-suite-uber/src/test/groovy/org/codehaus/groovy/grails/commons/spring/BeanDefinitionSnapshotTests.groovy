@@ -0,0 +1,214 @@
+package org.codehaus.groovy.grails.commons.spring
+
+import grails.spring.BeanBuilder
+
+import org.codehaus.groovy.grails.commons.ConfigurationHolder
+import org.codehaus.groovy.grails.commons.DefaultGrailsApplication
+import org.codehaus.groovy.grails.commons.cfg.GrailsPlaceholderConfigurer
+import org.codehaus.groovy.grails.commons.cfg.MapBasedSmartPropertyOverrideConfigurer
+import org.codehaus.groovy.grails.plugins.CoreGrailsPlugin
+import org.codehaus.groovy.grails.plugins.DefaultGrailsPluginManager
+
+/**
+ * @since 1.4
+ */
+class BeanDefinitionSnapshotTests extends GroovyTestCase {
+
+    def application
+    def pluginManager
+    File file
+
+    protected void setUp() {
+        ConfigurationHolder.config = new ConfigSlurper().parse("snapshot.changed = false")
+        application = new DefaultGrailsApplication()
+        pluginManager = new DefaultGrailsPluginManager([] as Class[], application)
+        pluginManager.loadCorePlugins = false
+        pluginManager.loadPlugins()
+        file = File.createTempFile("beans", ".snapshot")
+        file.delete()
+    }
+
+    protected void tearDown() {
+        ConfigurationHolder.config = null
+        System.clearProperty(BeanDefinitionSnapshot.EXCLUDE_PROPERTY)
+        SnapshotBeansGrailsPlugin.evaluated = 0
+        SnapshotServiceGrailsPlugin.evaluated = 0
+        SnapshotServiceGrailsPlugin.redefineRepository = false
+        file.delete()
+    }
+
+    void testSaveAndRestore() {
+        def app = application
+        saveSnapshot {
+            snapshotService(SnapshotService) {
+                name = "service"
+                repository = ref("snapshotRepository")
+                grailsApplication = app
+                sizes = [1, 2]
+            }
+            snapshotRepository(SnapshotRepository, "jdbc:h2:mem:snapshot")
+        }
+        assertTrue file.exists()
+
+        def springConfig = new DefaultRuntimeSpringConfiguration()
+        assertTrue newSnapshot().restore(springConfig)
+        def ctx = springConfig.applicationContext
+
+        def service = ctx.getBean("snapshotService")
+        assertEquals "service", service.name
+        assertSame ctx.getBean("snapshotRepository"), service.repository
+        assertSame application, service.grailsApplication
+        assertEquals([1, 2], service.sizes)
+        assertEquals "jdbc:h2:mem:snapshot", service.repository.url
+    }
+
+    void testConfiguredBeansOverrideRestoredBeans() {
+        saveSnapshot {
+            snapshotRepository(SnapshotRepository, "jdbc:h2:mem:plugin")
+        }
+
+        def springConfig = new DefaultRuntimeSpringConfiguration()
+        assertTrue newSnapshot().restore(springConfig)
+        springConfig.addSingletonBean("snapshotRepository", SnapshotRepository, ["jdbc:h2:mem:resources"])
+
+        assertEquals "jdbc:h2:mem:resources", springConfig.applicationContext.getBean("snapshotRepository").url
+    }
+
+    void testAliasesAreRestored() {
+        saveSnapshot {
+            snapshotRepository(SnapshotRepository, "jdbc:h2:mem:snapshot")
+            springConfig.addAlias("repositoryAlias", "snapshotRepository")
+        }
+
+        def springConfig = new DefaultRuntimeSpringConfiguration()
+        assertTrue newSnapshot().restore(springConfig)
+        def ctx = springConfig.applicationContext
+
+        assertSame ctx.getBean("snapshotRepository"), ctx.getBean("repositoryAlias")
+    }
+
+    void testExcludedPluginsAreEvaluatedOnEveryStart() {
+        System.setProperty(BeanDefinitionSnapshot.EXCLUDE_PROPERTY, "snapshotService")
+        loadSnapshotPlugins()
+
+        newSnapshot().doRuntimeConfiguration(new DefaultRuntimeSpringConfiguration())
+        assertTrue file.exists()
+
+        def springConfig = new DefaultRuntimeSpringConfiguration()
+        newSnapshot().doRuntimeConfiguration(springConfig)
+        def ctx = springConfig.applicationContext
+
+        assertEquals 1, SnapshotBeansGrailsPlugin.evaluated
+        assertEquals 2, SnapshotServiceGrailsPlugin.evaluated
+        assertEquals "jdbc:h2:mem:plugin", ctx.getBean("snapshotRepository").url
+        assertSame ctx.getBean("snapshotRepository"), ctx.getBean("snapshotService").repository
+    }
+
+    void testSavedAndRestoredWithCorePlugin() {
+        loadSnapshotPlugins([CoreGrailsPlugin, SnapshotBeansGrailsPlugin])
+
+        newSnapshot().doRuntimeConfiguration(new DefaultRuntimeSpringConfiguration())
+        assertTrue file.exists()
+
+        def springConfig = new DefaultRuntimeSpringConfiguration()
+        newSnapshot().doRuntimeConfiguration(springConfig)
+        def postProcessors = springConfig.unrefreshedApplicationContext.beanFactoryPostProcessors
+        def ctx = springConfig.applicationContext
+
+        assertEquals 1, SnapshotBeansGrailsPlugin.evaluated
+        assertEquals([MapBasedSmartPropertyOverrideConfigurer, GrailsPlaceholderConfigurer], postProcessors*.getClass())
+        assertSame application, postProcessors[0].application
+        assertTrue ctx.containsBean("proxyHandler")
+        assertTrue ctx.containsBean("customEditors")
+        assertEquals "jdbc:h2:mem:plugin", ctx.getBean("snapshotRepository").url
+    }
+
+    void testNotSavedWhenExcludedBeanIsRedefined() {
+        System.setProperty(BeanDefinitionSnapshot.EXCLUDE_PROPERTY, "snapshotBeans")
+        SnapshotServiceGrailsPlugin.redefineRepository = true
+        loadSnapshotPlugins()
+
+        newSnapshot().doRuntimeConfiguration(new DefaultRuntimeSpringConfiguration())
+
+        assertFalse file.exists()
+    }
+
+    void testNotRestoredWhenConfigChanges() {
+        saveSnapshot {
+            snapshotRepository(SnapshotRepository, "jdbc:h2:mem:snapshot")
+        }
+
+        ConfigurationHolder.config = new ConfigSlurper().parse("snapshot.changed = true")
+
+        assertFalse newSnapshot().restore(new DefaultRuntimeSpringConfiguration())
+    }
+
+    void testNotSavedWhenValuesCannotBeSerialized() {
+        saveSnapshot {
+            snapshotService(SnapshotService) {
+                name = new Object()
+            }
+        }
+
+        assertFalse file.exists()
+        assertFalse newSnapshot().restore(new DefaultRuntimeSpringConfiguration())
+    }
+
+    private void loadSnapshotPlugins(List pluginClasses = [SnapshotBeansGrailsPlugin, SnapshotServiceGrailsPlugin]) {
+        pluginManager = new DefaultGrailsPluginManager(pluginClasses as Class[], application)
+        pluginManager.loadCorePlugins = false
+        pluginManager.loadPlugins()
+    }
+
+    private newSnapshot() {
+        new BeanDefinitionSnapshot(application, pluginManager, null, file)
+    }
+
+    private void saveSnapshot(Closure beans) {
+        def springConfig = new DefaultRuntimeSpringConfiguration()
+        def snapshot = newSnapshot()
+        snapshot.beforeRuntimeConfiguration(springConfig)
+        new BeanBuilder(null, springConfig, getClass().classLoader).beans(beans)
+        snapshot.save(springConfig)
+    }
+}
+
+class SnapshotBeansGrailsPlugin {
+    static int evaluated
+    def version = 0.1
+    def doWithSpring = {
+        SnapshotBeansGrailsPlugin.evaluated++
+        snapshotRepository(SnapshotRepository, "jdbc:h2:mem:plugin")
+    }
+}
+
+class SnapshotServiceGrailsPlugin {
+    static int evaluated
+    static boolean redefineRepository
+    def version = 0.1
+    def loadAfter = ['snapshotBeans']
+    def doWithSpring = {
+        SnapshotServiceGrailsPlugin.evaluated++
+        snapshotService(SnapshotService) {
+            repository = ref("snapshotRepository")
+        }
+        if (SnapshotServiceGrailsPlugin.redefineRepository) {
+            snapshotRepository(SnapshotRepository, "jdbc:h2:mem:redefined")
+        }
+    }
+}
+
+class SnapshotService {
+    def name
+    def repository
+    def grailsApplication
+    List sizes
+}
+
+class SnapshotRepository {
+    String url
+
+    SnapshotRepository(String url) {
+        this.url = url
+    }
+}
@@ -0,0 +1,151 @@
+package org.codehaus.groovy.grails.compiler.injection
+
+import org.codehaus.groovy.grails.commons.DefaultGrailsApplication
+import org.codehaus.groovy.grails.commons.GrailsApplication
+import org.codehaus.groovy.grails.plugins.web.ControllersGrailsPlugin
+import org.codehaus.groovy.grails.plugins.web.api.ControllersApi
+import org.codehaus.groovy.grails.web.mapping.DefaultUrlMappingsHolder
+import org.codehaus.groovy.grails.web.mapping.UrlMappingsHolder
+import org.codehaus.groovy.runtime.metaclass.ReflectionMetaMethod
+import org.springframework.context.support.StaticApplicationContext
+
+/**
+ * @since 1.4
+ */
+class AbstractGrailsArtefactTransformerTests extends GroovyTestCase {
+
+    void testWeavesApiMethods() {
+        def cls = compile("/app/grails-app/services/WovenService.groovy", '''
+class WovenService {
+    def hello() { greet("world") }
+}''')
+
+        assertNotNull cls.getDeclaredMethod("greet", String)
+        assertNotNull cls.getDeclaredMethod("getGreeting")
+        shouldFail(IllegalStateException) { cls.newInstance().hello() }
+
+        assertTrue AbstractGrailsArtefactTransformer.setApiInstance(cls, new GreetingApi())
+        assertEquals "Hello world from WovenService", cls.newInstance().hello()
+        assertEquals "Hello", cls.newInstance().greeting
+    }
+
+    void testDeclaredMethodsAndPropertiesAreNotWoven() {
+        def cls = compile("/app/grails-app/services/DeclaringService.groovy", '''
+class DeclaringService {
+    String greeting = "Hi"
+    String greet(String name) { "$greeting $name" }
+}''')
+
+        assertTrue AbstractGrailsArtefactTransformer.setApiInstance(cls, new GreetingApi())
+        assertEquals "Hi world", cls.newInstance().greet("world")
+        assertEquals "Hi", cls.newInstance().greeting
+    }
+
+    void testClassesOutsideArtefactDirectoryAreNotWoven() {
+        def cls = compile("/app/src/groovy/PlainService.groovy", '''
+class PlainService {
+}''')
+
+        assertFalse cls.declaredMethods.any { it.name == "greet" }
+        assertFalse AbstractGrailsArtefactTransformer.setApiInstance(cls, new GreetingApi())
+    }
+
+    void testControllersAreWovenByGlobalTransform() {
+        def gcl = new GroovyClassLoader(getClass().classLoader)
+        def cls = gcl.parseClass(new GroovyCodeSource('''
+class WovenController {
+    def show() { render "shown" }
+    def go() { redirect(action: "show") }
+}''', "/app/grails-app/controllers/WovenController.groovy", "/groovy/script"))
+
+        assertNotNull cls.getDeclaredMethod("render", String)
+        assertNotNull cls.getDeclaredMethod("redirect", Map)
+
+        def api = new RecordingControllersApi(createApplicationContext(new DefaultGrailsApplication([cls] as Class[], gcl)))
+        assertTrue AbstractGrailsArtefactTransformer.setApiInstance(cls, api)
+
+        def controller = cls.newInstance()
+        controller.show()
+        controller.go()
+        assertEquals([[controller, "shown"], [controller, [action: "show"]]], api.calls)
+    }
+
+    void testControllersPluginDoesNotEnhanceWovenControllers() {
+        def gcl = new GroovyClassLoader(getClass().classLoader)
+        def woven = gcl.parseClass(new GroovyCodeSource('''
+class EnhancedWovenController {
+    def show() { render "shown" }
+}''', "/app/grails-app/controllers/EnhancedWovenController.groovy", "/groovy/script"))
+        def plain = gcl.parseClass(new GroovyCodeSource('''
+class EnhancedPlainController {
+    def show() { render "shown" }
+}''', "/app/src/groovy/EnhancedPlainController.groovy", "/groovy/script"))
+
+        def application = new DefaultGrailsApplication([woven, plain] as Class[], gcl)
+        application.initialise()
+        def ctx = createApplicationContext(application)
+        try {
+            def doWithDynamicMethods = new ControllersGrailsPlugin().doWithDynamicMethods.clone()
+            doWithDynamicMethods.delegate = new Expando(application: application, getManager: { -> null })
+            doWithDynamicMethods.call(ctx)
+
+            def field = woven.getDeclaredField("instanceControllersApi")
+            field.accessible = true
+            assertTrue field.get(null) instanceof ControllersApi
+
+            def render = woven.metaClass.pickMethod("render", [String] as Class[])
+            assertFalse "woven controllers should not get the API methods on their MetaClass", render instanceof ReflectionMetaMethod
+            assertEquals woven, render.declaringClass.theClass
+
+            assertTrue plain.metaClass.pickMethod("render", [String] as Class[]) instanceof ReflectionMetaMethod
+        }
+        finally {
+            GroovySystem.metaClassRegistry.removeMetaClass(woven)
+            GroovySystem.metaClassRegistry.removeMetaClass(plain)
+        }
+    }
+
+    private createApplicationContext(GrailsApplication application) {
+        def ctx = new StaticApplicationContext()
+        ctx.beanFactory.registerSingleton(GrailsApplication.APPLICATION_ID, application)
+        ctx.beanFactory.registerSingleton(UrlMappingsHolder.BEAN_ID, new DefaultUrlMappingsHolder([]))
+        ctx.refresh()
+        ctx
+    }
+
+    private Class compile(String path, String source) {
+        def gcl = new GrailsAwareClassLoader()
+        gcl.classInjectors = [new GreetingApiTransformer()] as ClassInjector[]
+        gcl.parseClass(new GroovyCodeSource(source, path, "/groovy/script"))
+    }
+}
+
+class GreetingApi {
+    String greet(Object instance, String name) { "Hello $name from ${instance.getClass().name}" }
+    String getGreeting(Object instance) { "Hello" }
+}
+
+class RecordingControllersApi extends ControllersApi {
+    List calls = []
+
+    RecordingControllersApi(ctx) {
+        super(null, ctx)
+    }
+
+    Object render(Object instance, String txt) {
+        calls << [instance, txt]
+        null
+    }
+
+    Object redirect(Object instance, Map args) {
+        calls << [instance, args]
+        null
+    }
+}
+
+class GreetingApiTransformer extends AbstractGrailsArtefactTransformer {
+    Class getInstanceImplementation() { GreetingApi }
+    protected String getArtefactDirectory() { "services" }
+    protected String getArtefactSuffix() { "Service" }
+    boolean shouldInject(URL url) { true }
+}
@@ -51,4 +51,62 @@ class ThreeGrailsPlugin {
         assertEquals "two", pluginManager.pluginList[3].name
         assertEquals "four", pluginManager.pluginList[4].name
     }
+
+    void testPluginLoadBeforeChain() {
+        def gcl = new GroovyClassLoader()
+
+        gcl.parseClass '''
+class AlphaGrailsPlugin {
+    def version = 0.1
+    def loadBefore = ['gamma']
+}
+class BetaGrailsPlugin {
+    def version = 0.1
+}
+class GammaGrailsPlugin {
+    def version = 0.1
+    def loadBefore = ['delta']
+}
+class DeltaGrailsPlugin {
+    def version = 0.1
+    def loadBefore = ['beta']
+}
+'''
+
+        def pluginManager = new DefaultGrailsPluginManager(
+            ["Alpha", "Beta", "Gamma", "Delta"].collect { gcl.loadClass("${it}GrailsPlugin") } as Class[],
+            new DefaultGrailsApplication())
+
+        pluginManager.loadCorePlugins = false
+        pluginManager.loadPlugins()
+
+        assertEquals(["alpha", "gamma", "delta", "beta"], pluginManager.pluginList*.name)
+    }
+
+    void testCircularLoadOrderKeepsRegistrationOrder() {
+        def gcl = new GroovyClassLoader()
+
+        gcl.parseClass '''
+class EpsilonGrailsPlugin {
+    def version = 0.1
+    def loadBefore = ['zeta']
+}
+class ZetaGrailsPlugin {
+    def version = 0.1
+    def loadBefore = ['epsilon']
+}
+class EtaGrailsPlugin {
+    def version = 0.1
+}
+'''
+
+        def pluginManager = new DefaultGrailsPluginManager(
+            ["Epsilon", "Zeta", "Eta"].collect { gcl.loadClass("${it}GrailsPlugin") } as Class[],
+            new DefaultGrailsApplication())
+
+        pluginManager.loadCorePlugins = false
+        pluginManager.loadPlugins()
+
+        assertEquals(["eta", "epsilon", "zeta"], pluginManager.pluginList*.name)
+    }
 }
@@ -8,8 +8,10 @@ import org.apache.commons.dbcp.BasicDataSource
 import org.codehaus.groovy.grails.commons.ConfigurationHolder
 import org.codehaus.groovy.grails.commons.spring.GrailsRuntimeConfigurator
 import org.codehaus.groovy.grails.commons.test.AbstractGrailsMockTests
+import org.codehaus.groovy.grails.orm.support.ReadWriteRoutingDataSource
 import org.codehaus.groovy.grails.plugins.PluginManagerHolder
 import org.springframework.jdbc.datasource.DriverManagerDataSource
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy
 import org.springframework.jdbc.datasource.TransactionAwareDataSourceProxy
 import org.springframework.jndi.JndiObjectFactoryBean
 
@@ -272,6 +274,137 @@ class DataSourceGrailsPluginTests extends AbstractGrailsMockTests {
         assertEquals "jdbc:h2:mem:testDb", beanDef.propertyValues.getPropertyValue('url').value
     }
 
+    void testDataSourceWithReplicas() {
+        def config = new ConfigSlurper("test").parse('''
+                dataSource {
+                    pooled = true
+                    driverClassName = "org.h2.Driver"
+                    url = "jdbc:h2:mem:primaryDb"
+                    username = "sa"
+                    password = ""
+                    replicaRouting = "leastConnections"
+                    replicas = [[url: "jdbc:h2:mem:replicaDb1"],
+                                [url: "jdbc:h2:mem:replicaDb2", username: "reader", password: "secret"]]
+                }
+        ''')
+
+        def mock = [application:[config:config]]
+        def plugin = new DataSourceGrailsPlugin()
+
+        def bb = new BeanBuilder()
+        bb.setBinding(new Binding(mock))
+        bb.beans(plugin.doWithSpring)
+
+        assertEquals TransactionAwareDataSourceProxy.name, bb.getBeanDefinition('dataSource').beanClassName
+        assertEquals LazyConnectionDataSourceProxy.name, bb.getBeanDefinition('dataSourceUnproxied').beanClassName
+
+        def beanDef = bb.getBeanDefinition('dataSourcePrimary')
+        assertEquals BasicDataSource.name, beanDef.beanClassName
+        assertEquals "jdbc:h2:mem:primaryDb", beanDef.propertyValues.getPropertyValue('url').value
+
+        beanDef = bb.getBeanDefinition('dataSourceReplica0')
+        assertEquals BasicDataSource.name, beanDef.beanClassName
+        assertEquals "jdbc:h2:mem:replicaDb1", beanDef.propertyValues.getPropertyValue('url').value
+        assertEquals "sa", beanDef.propertyValues.getPropertyValue('username').value
+
+        beanDef = bb.getBeanDefinition('dataSourceReplica1')
+        assertEquals "reader", beanDef.propertyValues.getPropertyValue('username').value
+        assertEquals "secret", beanDef.propertyValues.getPropertyValue('password').value
+
+        beanDef = bb.getBeanDefinition('dataSourceRouting')
+        assertEquals ReadWriteRoutingDataSource.name, beanDef.beanClassName
+        assertEquals "leastConnections", beanDef.propertyValues.getPropertyValue('routing').value
+        assertEquals 2, beanDef.propertyValues.getPropertyValue('replicas').value.size()
+    }
+
+    void testReplicasInheritCustomProperties() {
+        def config = new ConfigSlurper("test").parse('''
+                dataSource {
+                    pooled = true
+                    url = "jdbc:h2:mem:primaryDb"
+                    properties {
+                        maxActive = 20
+                        maxIdle = 5
+                    }
+                    replicas = [[url: "jdbc:h2:mem:replicaDb1", properties: [maxActive: 50]]]
+                }
+        ''')
+
+        def bb = new BeanBuilder()
+        bb.setBinding(new Binding([application:[config:config]]))
+        bb.beans(new DataSourceGrailsPlugin().doWithSpring)
+
+        def beanDef = bb.getBeanDefinition('dataSourcePrimary')
+        assertEquals 20, beanDef.propertyValues.getPropertyValue('maxActive').value
+
+        beanDef = bb.getBeanDefinition('dataSourceReplica0')
+        assertEquals 50, beanDef.propertyValues.getPropertyValue('maxActive').value
+        assertEquals 5, beanDef.propertyValues.getPropertyValue('maxIdle').value
+    }
+
+    void testJndiDataSourceWithReplicas() {
+        def config = new ConfigSlurper("test").parse('''
+                dataSource {
+                    jndiName = "java:comp/env/myDataSource"
+                    replicas = [[jndiName: "java:comp/env/myReplica"], [url: "jdbc:h2:mem:replicaDb1"]]
+                }
+        ''')
+
+        def bb = new BeanBuilder()
+        bb.setBinding(new Binding([application:[config:config]]))
+        bb.beans(new DataSourceGrailsPlugin().doWithSpring)
+
+        assertEquals LazyConnectionDataSourceProxy.name, bb.getBeanDefinition('dataSourceUnproxied').beanClassName
+
+        def beanDef = bb.getBeanDefinition('dataSourcePrimary')
+        assertEquals JndiObjectFactoryBean.name, beanDef.beanClassName
+        assertEquals "java:comp/env/myDataSource", beanDef.propertyValues.getPropertyValue('jndiName').value
+
+        beanDef = bb.getBeanDefinition('dataSourceReplica0')
+        assertEquals JndiObjectFactoryBean.name, beanDef.beanClassName
+        assertEquals "java:comp/env/myReplica", beanDef.propertyValues.getPropertyValue('jndiName').value
+
+        beanDef = bb.getBeanDefinition('dataSourceReplica1')
+        assertEquals "jdbc:h2:mem:replicaDb1", beanDef.propertyValues.getPropertyValue('url').value
+        assertEquals 2, bb.getBeanDefinition('dataSourceRouting').propertyValues.getPropertyValue('replicas').value.size()
+    }
+
+    void testDataSourceWithMetrics() {
+        def config = new ConfigSlurper("test").parse('''
+                dataSource {
+                    pooled = true
+                    driverClassName = "org.h2.Driver"
+                    url = "jdbc:h2:mem:metricsDb"
+                    properties {
+                        maxActive = 5
+                    }
+                }
+                grails.dataSource.metrics {
+                    enabled = true
+                    leakThreshold = 10000
+                }
+        ''')
+
+        def mock = [application:[config:config, metadata:['app.name':'metricsApp']]]
+        def plugin = new DataSourceGrailsPlugin()
+
+        def bb = new BeanBuilder()
+        bb.setBinding(new Binding(mock))
+        bb.beans(plugin.doWithSpring)
+
+        def beanDef = bb.getBeanDefinition('dataSourceUnproxied')
+        assertEquals InstrumentedDataSource.name, beanDef.beanClassName
+        assertEquals 10000, beanDef.propertyValues.getPropertyValue('leakThreshold').value
+
+        beanDef = bb.getBeanDefinition('dataSourcePool')
+        assertEquals BasicDataSource.name, beanDef.beanClassName
+        assertEquals 5, beanDef.propertyValues.getPropertyValue('maxActive').value
+
+        beanDef = bb.getBeanDefinition('dataSourceMetricsExporter')
+        assertEquals(['grails:type=DataSourceMetrics,name=metricsApp'],
+            beanDef.propertyValues.getPropertyValue('beans').value.keySet() as List)
+    }
+
     void testJndiDataSource() {
         def config = new ConfigSlurper().parse ('''
                 dataSource {
@@ -0,0 +1,87 @@
+package org.codehaus.groovy.grails.plugins.datasource
+
+import java.sql.SQLException
+
+import org.apache.commons.dbcp.BasicDataSource
+import org.springframework.mock.web.MockHttpServletRequest
+import org.springframework.web.context.request.RequestContextHolder
+import org.springframework.web.context.request.ServletRequestAttributes
+
+/**
+ * @since 1.4
+ */
+class InstrumentedDataSourceTests extends GroovyTestCase {
+
+    BasicDataSource pool = new BasicDataSource(driverClassName: "org.h2.Driver",
+        url: "jdbc:h2:mem:instrumentedDB", username: "sa", password: "")
+
+    protected void tearDown() {
+        RequestContextHolder.resetRequestAttributes()
+        pool.close()
+    }
+
+    void testBorrowAndHoldTimes() {
+        def dataSource = new InstrumentedDataSource(pool)
+
+        def request = new MockHttpServletRequest()
+        request.setAttribute("org.codehaus.groovy.grails.CONTROLLER_NAME_ATTRIBUTE", "book")
+        request.setAttribute("org.codehaus.groovy.grails.ACTION_NAME_ATTRIBUTE", "list")
+        RequestContextHolder.requestAttributes = new ServletRequestAttributes(request)
+
+        def connection = dataSource.connection
+        assertEquals 1, dataSource.numActive
+        assertEquals 1, dataSource.openConnectionCount
+        connection.close()
+        connection.close()
+        assertEquals 0, dataSource.numActive
+        assertEquals 0, dataSource.openConnectionCount
+
+        RequestContextHolder.resetRequestAttributes()
+        dataSource.connection.close()
+
+        assertEquals 2, dataSource.borrowCount
+        assertEquals 2, dataSource.borrowWaitCounts.sum()
+        assertEquals InstrumentedDataSource.WAIT_BUCKETS.length + 1, dataSource.borrowWaitHistogram.size()
+        assertEquals(["<none>", "book/list"], dataSource.holdTimeSummaries.collect { it.split(':')[0] }.sort())
+        assertTrue dataSource.holdTimeSummaries.find { it.startsWith("book/list") }.contains("connections=1")
+
+        dataSource.reset()
+        assertEquals 0, dataSource.borrowCount
+        assertEquals 0, dataSource.holdTimeSummaries.size()
+    }
+
+    void testLongHeldConnections() {
+        def dataSource = new InstrumentedDataSource(pool)
+        dataSource.leakThreshold = 50
+
+        def connection = dataSource.connection
+        assertEquals 0, dataSource.longHeldConnections.size()
+        Thread.sleep 100
+
+        def held = dataSource.longHeldConnections
+        assertEquals 1, held.size()
+        assertTrue held[0].contains("Connection borrowed here")
+        assertTrue held[0].contains(InstrumentedDataSourceTests.name)
+
+        connection.close()
+        assertEquals 0, dataSource.longHeldConnections.size()
+    }
+
+    void testLeaksReportedWhenPoolIsExhausted() {
+        pool.maxActive = 1
+        pool.maxWait = 10
+        def dataSource = new InstrumentedDataSource(pool)
+        dataSource.leakThreshold = 50
+
+        def connection = dataSource.connection
+        Thread.sleep 100
+
+        shouldFail(SQLException) {
+            dataSource.connection
+        }
+        assertEquals 1, dataSource.leakCount
+        assertEquals 1, dataSource.borrowCount
+
+        connection.close()
+    }
+}
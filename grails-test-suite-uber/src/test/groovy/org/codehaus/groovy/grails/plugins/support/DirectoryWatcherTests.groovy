@@ -0,0 +1,74 @@
+package org.codehaus.groovy.grails.plugins.support
+
+/**
+ * @since 1.4
+ */
+class DirectoryWatcherTests extends GroovyTestCase {
+
+    File dir
+
+    protected void setUp() {
+        dir = File.createTempFile("watched", "")
+        dir.delete()
+        new File(dir, "grails-app/controllers/test").mkdirs()
+        new File(dir, "grails-app/controllers/test/BookController.groovy").text = "class BookController {}"
+    }
+
+    protected void tearDown() {
+        dir.deleteDir()
+    }
+
+    void testReportsAddedAndModifiedFiles() {
+        def watcher = new DirectoryWatcher()
+        assertTrue watcher.watch(new File(dir, "grails-app/controllers"))
+        assertEquals([], watcher.scan())
+
+        def controller = new File(dir, "grails-app/controllers/test/BookController.groovy")
+        controller.lastModified = controller.lastModified() + 2000
+        def added = new File(dir, "grails-app/controllers/test/AuthorController.groovy")
+        added.text = "class AuthorController {}"
+
+        assertEquals([added.absoluteFile, controller.absoluteFile] as Set, watcher.scan() as Set)
+        assertEquals([], watcher.scan())
+    }
+
+    void testNestedLocationsAreWalkedOnce() {
+        def watcher = new DirectoryWatcher()
+        assertTrue watcher.watch(new File(dir, "grails-app/controllers"))
+        assertTrue watcher.watch(new File(dir, "grails-app"))
+        assertFalse watcher.watch(new File(dir, "grails-app/controllers/test"))
+
+        assertEquals([new File(dir, "grails-app").absoluteFile] as Set, watcher.roots)
+        assertEquals([], watcher.scan())
+    }
+
+    void testMatchesWatchedResourcePatterns() {
+        def pattern = "file:${dir.absolutePath}/grails-app/controllers/**/*Controller.groovy"
+
+        assertEquals new File("${dir.absolutePath}/grails-app/controllers/"), DirectoryWatcher.getBaseLocation(pattern)
+        assertTrue DirectoryWatcher.matches(pattern, new File(dir, "grails-app/controllers/test/BookController.groovy"))
+        assertFalse DirectoryWatcher.matches(pattern, new File(dir, "grails-app/controllers/test/BookService.groovy"))
+        assertFalse DirectoryWatcher.matches(pattern, new File(dir, "grails-app/services/BookController.groovy"))
+
+        def config = "file:${dir.absolutePath}/grails-app/conf/Config.groovy"
+        assertTrue DirectoryWatcher.matches(config, new File(dir, "grails-app/conf/Config.groovy"))
+        assertNull DirectoryWatcher.getBaseLocation("classpath*:**/*Controller.groovy")
+        assertEquals([], DirectoryWatcher.getBaseLocations("classpath*:**/*Controller.groovy"))
+    }
+
+    void testWildcardDirectoriesAreExpanded() {
+        ["one", "two"].each { new File(dir, "plugins/$it/grails-app/taglib").mkdirs() }
+        new File(dir, "plugins/three").mkdirs()
+        new File(dir, "plugins/notes.txt").text = "not a plugin"
+        def pattern = "file:${dir.absolutePath}/plugins/*/grails-app/taglib/**/*TagLib.groovy"
+
+        assertEquals([new File(dir, "plugins/one/grails-app/taglib"), new File(dir, "plugins/two/grails-app/taglib"),
+                      new File(dir, "plugins/three/grails-app/taglib")]*.absolutePath as Set,
+                DirectoryWatcher.getBaseLocations(pattern)*.absolutePath as Set)
+        assertTrue DirectoryWatcher.matches(pattern, new File(dir, "plugins/one/grails-app/taglib/test/FormTagLib.groovy"))
+        assertFalse DirectoryWatcher.matches(pattern, new File(dir, "plugins/one/grails-app/services/FormTagLib.groovy"))
+
+        def controllers = "file:${dir.absolutePath}/grails-app/controllers/**/*Controller.groovy"
+        assertEquals([DirectoryWatcher.getBaseLocation(controllers)], DirectoryWatcher.getBaseLocations(controllers))
+    }
+}
@@ -0,0 +1,75 @@
+package org.codehaus.groovy.grails.support
+
+import org.codehaus.groovy.grails.web.json.JSONObject
+
+/**
+ * @since 1.4
+ */
+class StartupProfilerTests extends GroovyTestCase {
+
+    void testRecordsNestedSteps() {
+        def profiler = new StartupProfiler(true)
+
+        def configure = profiler.start("configure")
+        def doWithSpring = profiler.start("doWithSpring")
+        def plugin = profiler.start("doWithSpring", "core")
+        plugin.stop()
+        doWithSpring.stop()
+        configure.stop()
+        def bootstrap = profiler.start("bootstrap", "BootStrap")
+        bootstrap.stop()
+
+        def steps = profiler.steps
+        assertEquals(["configure", "doWithSpring", "doWithSpring", "bootstrap"], steps*.phase)
+        assertEquals([null, null, "core", "BootStrap"], steps*.name)
+        assertEquals([0, 1, 2, 0], steps*.depth)
+        assertTrue steps.every { it.time >= 0 }
+
+        def summary = profiler.summary
+        assertTrue summary.contains("configure: ")
+        assertTrue summary.contains("doWithSpring [core]: ")
+    }
+
+    void testJSONReport() {
+        def profiler = new StartupProfiler(true)
+        profiler.start("doWithSpring", 'quoted "plugin"').stop()
+
+        def writer = new StringWriter()
+        profiler.writeReport(writer)
+
+        def report = new JSONObject(writer.toString())
+        assertTrue report.totalTime >= 0
+        assertEquals 1, report.steps.length()
+        assertEquals "doWithSpring", report.steps[0].phase
+        assertEquals 'quoted "plugin"', report.steps[0].name
+        assertEquals 0, report.steps[0].depth
+    }
+
+    void testFinishWritesReportAndStopsRecording() {
+        def file = File.createTempFile("startup-profile", ".json")
+        file.deleteOnExit()
+        System.setProperty(StartupProfiler.REPORT_FILE_PROPERTY, file.absolutePath)
+        try {
+            def profiler = new StartupProfiler(true)
+            profiler.start("configure").stop()
+            profiler.finish()
+
+            assertFalse profiler.recording
+            assertEquals 1, new JSONObject(file.text).steps.length()
+
+            profiler.start("bootstrap").stop()
+            assertEquals 1, profiler.steps.size()
+        }
+        finally {
+            System.clearProperty(StartupProfiler.REPORT_FILE_PROPERTY)
+        }
+    }
+
+    void testDisabled() {
+        def profiler = new StartupProfiler(false)
+        profiler.start("configure").stop()
+
+        assertFalse profiler.recording
+        assertTrue profiler.steps.isEmpty()
+    }
+}
@@ -0,0 +1,62 @@
+package org.codehaus.groovy.grails.validation
+
+import java.util.concurrent.CopyOnWriteArraySet
+
+/**
+ * @since 1.4
+ */
+class BulkValidatorTests extends GroovyTestCase {
+
+    def callerThreads = new CopyOnWriteArraySet()
+
+    void testValidateInParallel() {
+        def people = (0..999).collect { new BulkValidatorPerson(name: it % 3 ? "Person $it" : "person $it", age: it % 120) }
+        def constraints = createConstraints()
+        people.each { it.constraints = constraints }
+
+        def errors = new BulkValidator(parallel: true).validate(people)
+
+        assertEquals 1000, errors.size()
+        errors.eachWithIndex { e, i ->
+            assertEquals "instance $i", i % 3 == 0, e.hasErrors()
+            assertSame e, people[i].errors
+        }
+        assertEquals "matches.invalid", errors[0].getFieldError("name").code
+    }
+
+    void testCallerThreadConstraints() {
+        def people = (0..99).collect { new BulkValidatorPerson(name: it % 10 ? "Person $it" : null, age: it) }
+        def constraints = createConstraints()
+        people.each { it.constraints = constraints }
+
+        // custom validators share their closure, they are evaluated on the calling thread by default
+        def errors = new BulkValidator(parallel: true).validate(people)
+
+        assertEquals([Thread.currentThread()] as Set, callerThreads)
+        assertEquals 11, errors.count { it.hasErrors() }
+        assertEquals "nullable", errors[0].getFieldError("name").code
+        assertEquals "validator.invalid", errors[99].getFieldError("name").code
+    }
+
+    private createConstraints() {
+        def name = new ConstrainedProperty(BulkValidatorPerson, "name", String)
+        name.applyConstraint(ConstrainedProperty.NULLABLE_CONSTRAINT, false)
+        name.applyConstraint(ConstrainedProperty.MATCHES_CONSTRAINT, /[A-Z].*/)
+        name.applyConstraint(ConstrainedProperty.VALIDATOR_CONSTRAINT, { val ->
+            callerThreads << Thread.currentThread()
+            val != "Person 99"
+        })
+
+        def age = new ConstrainedProperty(BulkValidatorPerson, "age", Integer)
+        age.applyConstraint(ConstrainedProperty.RANGE_CONSTRAINT, 0..150)
+
+        [name: name, age: age]
+    }
+}
+
+class BulkValidatorPerson {
+    String name
+    Integer age
+    Map constraints
+    def errors
+}
@@ -88,6 +88,46 @@ class GrailsDomainClassValidatorTests extends AbstractGrailsMockTests {
         assert !errors.hasErrors()
     }
 
+    void testValidationPlan() {
+        def publisherClass = ga.getDomainClass("Publisher")
+        def validator = new GrailsDomainClassValidator()
+        validator.domainClass = publisherClass
+        validator.messageSource = createMessageSource()
+
+        def publisherMetaClass = new ExpandoMetaClass(publisherClass.clazz)
+        publisherMetaClass.setErrors = { Object obj -> }
+        publisherMetaClass.initialize()
+
+        def publisher = publisherClass.newInstance()
+        publisher.metaClass = publisherMetaClass
+        publisher.name = "acme"
+        publisher.code = "C"
+
+        def errors = new BindException(publisher, publisher.class.name)
+        validator.validate(publisher, errors)
+        assertEquals "matches.invalid", errors.getFieldError("name").code
+        assertEquals "not.inList", errors.getFieldError("code").code
+
+        publisher.name = "Acme"
+        publisher.code = "A"
+        errors = new BindException(publisher, publisher.class.name)
+        validator.validate(publisher, errors)
+        assertFalse errors.hasErrors()
+
+        // constraints applied after the first validation take part in subsequent ones, vetoing constraints first
+        publisherClass.constrainedProperties.name.applyConstraint("blank", false)
+        publisher.name = ""
+        errors = new BindException(publisher, publisher.class.name)
+        validator.validate(publisher, errors)
+        assertEquals 1, errors.errorCount
+        assertEquals "blank", errors.getFieldError("name").code
+
+        publisherClass.refreshConstraints()
+        errors = new BindException(publisher, publisher.class.name)
+        validator.validate(publisher, errors)
+        assertEquals "matches.invalid", errors.getFieldError("name").code
+    }
+
     protected void onSetUp() {
         PluginManagerHolder.pluginManager = new MockGrailsPluginManager()
         PluginManagerHolder.pluginManager.registerMockPlugin([getName: { -> 'hibernate' }] as GrailsPlugin)
@@ -125,6 +165,17 @@ class Address {
        author(nullable:false)
        location(blank:false)
     }
+}
+class Publisher {
+    Long id
+    Long version
+    String name
+    String code
+    static transients = ['code']
+    static constraints = {
+        name(matches:/[A-Z].*/)
+        code(inList:['A', 'B'])
+    }
 }
         ''')
     }
@@ -0,0 +1,106 @@
+package org.codehaus.groovy.grails.web.binding
+
+/**
+ * @since 1.4
+ */
+class BindingPlanTests extends GroovyTestCase {
+
+    void testPlan() {
+        def gcl = new GroovyClassLoader()
+        gcl.parseClass '''
+class BindingPlanAddress {
+    String city
+}
+class BindingPlanPerson {
+    Long id
+    Long version
+    String name
+    String nickName
+    BindingPlanAddress address
+    static transients = ['nickName']
+    static embedded = ['address']
+}
+'''
+        def personClass = gcl.loadClass("BindingPlanPerson")
+        def addressClass = gcl.loadClass("BindingPlanAddress")
+
+        def plan = BindingPlan.forClass(personClass)
+        assertSame plan, BindingPlan.forClass(personClass)
+        assertSame personClass, plan.type
+        assertTrue plan.domainClass
+        assertTrue plan.isTransient("nickName")
+        assertFalse plan.isTransient("name")
+        assertTrue plan.isEmbedded("address")
+        assertFalse plan.isEmbedded("name")
+
+        assertFalse BindingPlan.isDomainClass(addressClass)
+        assertFalse BindingPlan.isDomainClass(null)
+        assertFalse BindingPlan.forClass(addressClass).isTransient("city")
+    }
+
+    void testPropertyPaths() {
+        def gcl = new GroovyClassLoader()
+        gcl.parseClass '''
+class BindingPlanBook {
+    String title
+    Integer pages
+    List authors
+}
+'''
+        def plan = BindingPlan.forClass(gcl.loadClass("BindingPlanBook"))
+
+        def path = plan.getPath("title")
+        assertSame path, plan.getPath("title")
+        assertEquals String, path.propertyType
+        assertEquals "setTitle", path.writeMethod.name
+        assertEquals Integer, plan.getPath("pages").propertyType
+
+        path = plan.getPath("authors[0].name")
+        assertEquals(["authors[0]", "name"], path.names as List)
+        assertNull path.propertyType
+        assertNull path.writeMethod
+
+        // paths of unknown properties aren't cached
+        assertNotSame plan.getPath("unknown"), plan.getPath("unknown")
+        assertNull plan.getPath("unknown").writeMethod
+    }
+
+    void testCustomStringEditorsStillApplied() {
+        def gcl = new GroovyClassLoader()
+        gcl.parseClass '''
+class BindingPlanTag {
+    String name
+    String description
+}
+'''
+        def tag = gcl.loadClass("BindingPlanTag").newInstance()
+        def binder = GrailsDataBinder.createBinder(tag, "tag")
+        binder.registerCustomEditor(String, "description", new org.springframework.beans.propertyeditors.StringTrimmerEditor(true))
+        binder.bind(new org.springframework.beans.MutablePropertyValues([name: " groovy ", description: "  "]))
+
+        assertEquals " groovy ", tag.name
+        assertNull tag.description
+    }
+
+    void testBindNestedProperties() {
+        def gcl = new GroovyClassLoader()
+        gcl.parseClass '''
+class BindingPlanCity {
+    String name
+    String country
+}
+class BindingPlanVenue {
+    String name
+    BindingPlanCity city = new BindingPlanCity()
+}
+'''
+        def venue = gcl.loadClass("BindingPlanVenue").newInstance()
+        def binder = GrailsDataBinder.createBinder(venue, "venue")
+        binder.bind(new org.springframework.beans.MutablePropertyValues(
+            [name: "Arena", "city.name": "London", "city.country": "UK"]))
+
+        assertEquals "Arena", venue.name
+        assertEquals "London", venue.city.name
+        assertEquals "UK", venue.city.country
+    }
+}
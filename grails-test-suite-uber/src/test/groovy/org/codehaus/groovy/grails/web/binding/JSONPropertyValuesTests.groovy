@@ -0,0 +1,166 @@
+package org.codehaus.groovy.grails.web.binding
+
+import grails.converters.JSON
+
+import javax.servlet.ServletInputStream
+import javax.servlet.http.HttpServletRequestWrapper
+
+import org.codehaus.groovy.grails.commons.ConfigurationHolder
+import org.codehaus.groovy.grails.web.json.JSONArray
+import org.springframework.mock.web.MockHttpServletRequest
+
+/**
+ * @since 1.4
+ */
+class JSONPropertyValuesTests extends GroovyTestCase {
+
+    protected void setUp() {
+        ConfigurationHolder.config = new ConfigSlurper().parse("grails.databinding.json.body = true")
+    }
+
+    protected void tearDown() {
+        ConfigurationHolder.config = null
+    }
+
+    void testFromString() {
+        def mpvs = JSONPropertyValues.fromString('''
+{"class":"Book", "title":"The Stand", "pages":1153, "price":9.99, "inPrint":true, "subtitle":null,
+ "author":{"id":1, "address":{"city":"Bangor"}}, "tags":["horror", "fantasy"]}''')
+
+        assertNull mpvs.getPropertyValue("class")
+        assertEquals "The Stand", mpvs.getPropertyValue("title").value
+        assertEquals 1153, mpvs.getPropertyValue("pages").value
+        assertEquals 9.99d, mpvs.getPropertyValue("price").value
+        assertEquals true, mpvs.getPropertyValue("inPrint").value
+        assertNotNull mpvs.getPropertyValue("subtitle")
+        assertNull mpvs.getPropertyValue("subtitle").value
+        assertEquals 1, mpvs.getPropertyValue("author.id").value
+        assertEquals "Bangor", mpvs.getPropertyValue("author.address.city").value
+        assertNull mpvs.getPropertyValue("author")
+
+        def tags = mpvs.getPropertyValue("tags").value
+        assertTrue tags instanceof JSONArray
+        assertEquals(["horror", "fantasy"], tags as List)
+    }
+
+    void testFromBlankString() {
+        assertTrue JSONPropertyValues.fromString("  ").empty
+    }
+
+    void testInvalidJSON() {
+        shouldFail {
+            JSONPropertyValues.fromString('{"title":"The Stand"')
+        }
+    }
+
+    void testBindJSONRequest() {
+        def request = new MockHttpServletRequest()
+        request.contentType = "application/json"
+        request.content = '{"title":"The Stand", "pages":"1153", "publisher":{"name":"Doubleday"}}'.getBytes("UTF-8")
+        request.addParameter("edition", "2")
+
+        def book = new JSONBindingBook()
+        def binder = GrailsDataBinder.createBinder(book, "book", request)
+        binder.setDisallowedFields(["edition"] as String[])
+        binder.bind(request)
+
+        assertEquals "The Stand", book.title
+        assertEquals 1153, book.pages
+        assertEquals "Doubleday", book.publisher.name
+        assertNull book.edition
+
+        assertEquals "The Stand", JSON.parse(request).title
+    }
+
+    void testBindJSONRequestWithPrefix() {
+        def request = new MockHttpServletRequest()
+        request.contentType = "application/json; charset=UTF-8"
+        request.content = '{"book":{"title":"The Stand"}, "title":"Carrie"}'.getBytes("UTF-8")
+
+        def book = new JSONBindingBook()
+        GrailsDataBinder.createBinder(book, "book", request).bind(request, "book")
+
+        assertEquals "The Stand", book.title
+    }
+
+    void testBodyNotBoundByDefault() {
+        ConfigurationHolder.config = null
+        def request = jsonRequest('{"title":"The Stand"}')
+        request.addParameter("pages", "1153")
+
+        def book = bindRequest(request)
+
+        assertNull book.title
+        assertEquals 1153, book.pages
+    }
+
+    void testParametersTakePrecedence() {
+        def request = jsonRequest('{"title":"The Stand", "pages":"1"}')
+        request.addParameter("pages", "1153")
+
+        def book = bindRequest(request)
+
+        assertEquals "The Stand", book.title
+        assertEquals 1153, book.pages
+    }
+
+    void testMalformedBodyStillBindsParameters() {
+        def request = jsonRequest('{"title":"The Stand"')
+        request.addParameter("pages", "1153")
+
+        def book = bindRequest(request)
+
+        assertNull book.title
+        assertEquals 1153, book.pages
+    }
+
+    void testArrayBodyStillBindsParameters() {
+        def request = jsonRequest('[{"title":"The Stand"}]')
+        request.addParameter("pages", "1153")
+
+        def book = bindRequest(request)
+
+        assertNull book.title
+        assertEquals 1153, book.pages
+    }
+
+    void testConsumedBodyStillBindsParameters() {
+        def request = jsonRequest('{"title":"The Stand"}')
+        request.addParameter("pages", "1153")
+        def consumed = new HttpServletRequestWrapper(request) {
+            ServletInputStream getInputStream() {
+                throw new IllegalStateException("getReader() has already been called for this request")
+            }
+        }
+
+        def book = new JSONBindingBook()
+        GrailsDataBinder.createBinder(book, "book", consumed).bind(consumed)
+
+        assertNull book.title
+        assertEquals 1153, book.pages
+    }
+
+    private jsonRequest(String body) {
+        def request = new MockHttpServletRequest()
+        request.contentType = "application/json"
+        request.content = body.getBytes("UTF-8")
+        request
+    }
+
+    private bindRequest(request) {
+        def book = new JSONBindingBook()
+        GrailsDataBinder.createBinder(book, "book", request).bind(request)
+        book
+    }
+}
+
+class JSONBindingBook {
+    String title
+    Integer pages
+    Integer edition
+    JSONBindingPublisher publisher = new JSONBindingPublisher()
+}
+
+class JSONBindingPublisher {
+    String name
+}
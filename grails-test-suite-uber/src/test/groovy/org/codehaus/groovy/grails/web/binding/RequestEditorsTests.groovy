@@ -0,0 +1,49 @@
+package org.codehaus.groovy.grails.web.binding
+
+import org.springframework.mock.web.MockHttpServletRequest
+import org.springframework.web.servlet.DispatcherServlet
+import org.springframework.web.servlet.i18n.FixedLocaleResolver
+
+/**
+ * @since 1.4
+ */
+class RequestEditorsTests extends GroovyTestCase {
+
+    void testEditorsSharedWithinRequest() {
+        def request = new MockHttpServletRequest()
+        def first = GrailsDataBinder.createBinder(new RequestEditorsBook(), "book", request)
+        def second = GrailsDataBinder.createBinder(new RequestEditorsBook(), "book", request)
+
+        assertNotNull first.findCustomEditor(Date, null)
+        assertSame first.findCustomEditor(Date, null), second.findCustomEditor(Date, null)
+        assertSame first.findCustomEditor(Integer, null), second.findCustomEditor(Integer, null)
+        assertSame first.findCustomEditor(Currency, null), second.findCustomEditor(Currency, null)
+
+        def other = GrailsDataBinder.createBinder(new RequestEditorsBook(), "book", new MockHttpServletRequest())
+        assertNotSame first.findCustomEditor(Date, null), other.findCustomEditor(Date, null)
+    }
+
+    void testEditorsRecreatedWhenLocaleChanges() {
+        def request = new MockHttpServletRequest()
+        def resolver = new FixedLocaleResolver(defaultLocale: Locale.UK)
+        request.setAttribute(DispatcherServlet.LOCALE_RESOLVER_ATTRIBUTE, resolver)
+
+        def book = new RequestEditorsBook()
+        def binder = GrailsDataBinder.createBinder(book, "book", request)
+        binder.bind(new org.springframework.beans.MutablePropertyValues([price: "1,234.5"]))
+        assertEquals 1234.5, book.price
+
+        resolver.defaultLocale = Locale.GERMANY
+        def germanBook = new RequestEditorsBook()
+        def germanBinder = GrailsDataBinder.createBinder(germanBook, "book", request)
+        assertNotSame binder.findCustomEditor(Double, null), germanBinder.findCustomEditor(Double, null)
+        germanBinder.bind(new org.springframework.beans.MutablePropertyValues([price: "1.234,5"]))
+        assertEquals 1234.5, germanBook.price
+    }
+}
+
+class RequestEditorsBook {
+    String title
+    Double price
+    Date published
+}
@@ -194,4 +194,43 @@ class GrailsParameterMapTests extends GroovyTestCase {
             assertEquals("the clone should have the same value for $k as the original", theMap[k], theClone[k])
         }
     }
+
+    void testRequestParametersReadOnFirstAccess() {
+        def parameterMapCalls = []
+        def request = new MockHttpServletRequest() {
+            Map getParameterMap() {
+                parameterMapCalls << 1
+                super.getParameterMap()
+            }
+        }
+        request.addParameter("name", "Dierk Koenig")
+        request.addParameter("address.postCode", "345435")
+        request.addParameter("address.town.name", "Basel")
+
+        theMap = new GrailsParameterMap(request)
+        assertEquals 0, parameterMapCalls.size()
+
+        assertEquals "Dierk Koenig", theMap.name
+        assertEquals 1, parameterMapCalls.size()
+        assertEquals 4, theMap.size()
+        assertEquals 1, parameterMapCalls.size()
+
+        assertEquals(["name", "address.postCode", "address.town.name", "address"] as Set, theMap.keySet())
+        assertEquals "345435", theMap.address.postCode
+        assertEquals "Basel", theMap.address.town.name
+        assertEquals "Basel", theMap.address['town.name']
+        assertEquals 3, theMap.address.size()
+    }
+
+    void testNestedParametersKeepRequestOrder() {
+        mockRequest.addParameter("a.b.c", "cValue")
+        mockRequest.addParameter("a", "aValue")
+        mockRequest.addParameter("d", "dValue")
+        mockRequest.addParameter("d.e", "eValue")
+        theMap = new GrailsParameterMap(mockRequest)
+
+        assertEquals "aValue", theMap.a
+        assertEquals "dValue", theMap.d
+        assertEquals "eValue", theMap['d.e']
+    }
 }
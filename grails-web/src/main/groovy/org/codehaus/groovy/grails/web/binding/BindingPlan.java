@@ -0,0 +1,166 @@
+/* Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.grails.web.binding;
+
+import java.beans.PropertyDescriptor;
+import java.lang.ref.SoftReference;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.codehaus.groovy.grails.commons.AnnotationDomainClassArtefactHandler;
+import org.codehaus.groovy.grails.commons.DomainClassArtefactHandler;
+import org.codehaus.groovy.grails.commons.GrailsClassUtils;
+import org.codehaus.groovy.grails.commons.GrailsDomainClassProperty;
+import org.springframework.beans.BeanUtils;
+
+/**
+ * The class level information data binding needs about a target class, resolved once per class
+ * rather than on every bind: whether it is a domain class, its transient and embedded properties
+ * and, for each property path bound to, the parsed path and the setter of a simple property.
+ *
+ * Plans are held weakly by class, so that reloaded classes and their class loaders can be collected.
+ *
+ * @since 1.4
+ */
+public final class BindingPlan {
+
+    // the paths bound to come from request parameters, so only a bounded number is kept per class
+    private static final int MAX_CACHED_PATHS = 500;
+
+    private static final Map<Class<?>, SoftReference<BindingPlan>> plans = new WeakHashMap<Class<?>, SoftReference<BindingPlan>>();
+
+    private final Class<?> type;
+    private final boolean domainClass;
+    private final List<?> transients;
+    private final List<?> embedded;
+    private final ConcurrentMap<String, PropertyPath> paths = new ConcurrentHashMap<String, PropertyPath>();
+
+    private BindingPlan(Class<?> type) {
+        this.type = type;
+        domainClass = DomainClassArtefactHandler.isDomainClass(type) || AnnotationDomainClassArtefactHandler.isJPADomainClass(type);
+        transients = getStaticList(type, GrailsDomainClassProperty.TRANSIENT);
+        embedded = getStaticList(type, GrailsDomainClassProperty.EMBEDDED);
+    }
+
+    /**
+     * @param type The target class
+     * @return The plan for the given class, created on first use
+     */
+    public static BindingPlan forClass(Class<?> type) {
+        BindingPlan plan;
+        synchronized (plans) {
+            SoftReference<BindingPlan> ref = plans.get(type);
+            plan = ref == null ? null : ref.get();
+        }
+        if (plan == null) {
+            plan = new BindingPlan(type);
+            synchronized (plans) {
+                plans.put(type, new SoftReference<BindingPlan>(plan));
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * @param type The class to check, may be null
+     * @return true if the class is a GORM or JPA domain class
+     */
+    public static boolean isDomainClass(Class<?> type) {
+        return type != null && forClass(type).isDomainClass();
+    }
+
+    private static List<?> getStaticList(Class<?> type, String name) {
+        Object value = GrailsClassUtils.getStaticPropertyValue(type, name);
+        return value instanceof List ? (List<?>)value : Collections.emptyList();
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    public boolean isDomainClass() {
+        return domainClass;
+    }
+
+    public boolean isTransient(String propertyName) {
+        return transients.contains(propertyName);
+    }
+
+    public boolean isEmbedded(String propertyName) {
+        return embedded.contains(propertyName);
+    }
+
+    /**
+     * @param path A property path, for example name, address.city or books[0].title
+     * @return The parsed path, cached if its first property is a property of the class
+     */
+    public PropertyPath getPath(String path) {
+        PropertyPath propertyPath = paths.get(path);
+        if (propertyPath == null) {
+            propertyPath = new PropertyPath(type, path);
+            if (propertyPath.rootDescriptor != null && paths.size() < MAX_CACHED_PATHS) {
+                paths.putIfAbsent(path, propertyPath);
+            }
+        }
+        return propertyPath;
+    }
+
+    /**
+     * A property path split into its property names. For a simple path, a property of the class
+     * itself without an index, the type and setter of the property are resolved too.
+     */
+    public static final class PropertyPath {
+        private final String[] names;
+        private final PropertyDescriptor rootDescriptor;
+        private final boolean simple;
+
+        PropertyPath(Class<?> type, String path) {
+            names = path.split("\\.");
+            String rootName = names.length == 0 ? path : names[0];
+            int index = rootName.indexOf('[');
+            simple = names.length == 1 && index == -1;
+            if (index > -1) {
+                rootName = rootName.substring(0, index);
+            }
+            rootDescriptor = BeanUtils.getPropertyDescriptor(type, rootName);
+        }
+
+        /**
+         * @return The property names of the path, including any index
+         */
+        public String[] getNames() {
+            return names;
+        }
+
+        /**
+         * @return The type of a simple property or null
+         */
+        public Class<?> getPropertyType() {
+            return simple && rootDescriptor != null ? rootDescriptor.getPropertyType() : null;
+        }
+
+        /**
+         * @return The setter of a simple property or null
+         */
+        public Method getWriteMethod() {
+            return simple && rootDescriptor != null ? rootDescriptor.getWriteMethod() : null;
+        }
+    }
+}
@@ -25,6 +25,7 @@ import groovy.lang.MissingMethodException;
 import groovy.lang.MissingPropertyException;
 
 import java.beans.PropertyEditor;
+import java.lang.reflect.Method;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.net.URI;
@@ -35,10 +36,10 @@ import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.Currency;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
@@ -54,8 +55,8 @@ import javax.servlet.http.HttpServletRequest;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import org.codehaus.groovy.grails.commons.AnnotationDomainClassArtefactHandler;
 import org.codehaus.groovy.grails.commons.ApplicationHolder;
+import org.codehaus.groovy.grails.commons.ConfigurationHolder;
 import org.codehaus.groovy.grails.commons.DomainClassArtefactHandler;
 import org.codehaus.groovy.grails.commons.GrailsApplication;
 import org.codehaus.groovy.grails.commons.GrailsClassUtils;
@@ -65,6 +66,7 @@ import org.codehaus.groovy.grails.commons.GrailsDomainConfigurationUtil;
 import org.codehaus.groovy.grails.commons.metaclass.CreateDynamicMethod;
 import org.codehaus.groovy.grails.validation.ConstrainedProperty;
 import org.codehaus.groovy.grails.web.context.ServletContextHolder;
+import org.codehaus.groovy.grails.web.json.JSONException;
 import org.codehaus.groovy.grails.web.json.JSONObject;
 import org.codehaus.groovy.grails.web.servlet.mvc.GrailsParameterMap;
 import org.codehaus.groovy.grails.web.servlet.mvc.GrailsWebRequest;
@@ -83,7 +85,6 @@ import org.springframework.beans.PropertyEditorRegistry;
 import org.springframework.beans.PropertyValue;
 import org.springframework.beans.PropertyValues;
 import org.springframework.beans.TypeMismatchException;
-import org.springframework.beans.propertyeditors.CustomDateEditor;
 import org.springframework.beans.propertyeditors.CustomNumberEditor;
 import org.springframework.beans.propertyeditors.LocaleEditor;
 import org.springframework.context.ApplicationContext;
@@ -131,10 +132,19 @@ public class GrailsDataBinder extends ServletRequestDataBinder {
     private static final String STRUCTURED_PROPERTY_SEPERATOR = "_";
     private static final char PATH_SEPARATOR = '.';
     private static final String IDENTIFIER_SUFFIX = ".id";
-    private List<String> transients = Collections.emptyList();
     public static final String DEFAULT_DATE_FORMAT = "yyyy-MM-dd HH:mm:ss.S";
 
+    /**
+     * The Config.groovy setting that enables binding the body of requests with a JSON content type
+     * together with their parameters. Disabled by default.
+     */
+    public static final String BIND_JSON_BODY = "grails.databinding.json.body";
+    private static final String REQUEST_EDITORS_ATTRIBUTE = "org.codehaus.groovy.grails.BINDING_EDITORS";
+
     private GrailsDomainClass domainClass;
+    private BindingPlan plan;
+    // wrappers of the nested objects bound to, so that each is introspected once per binder
+    private final Map<Object, BeanWrapper> nestedBeans = new IdentityHashMap<Object, BeanWrapper>();
 
     /**
      * Create a new GrailsDataBinder instance.
@@ -142,17 +152,12 @@ public class GrailsDataBinder extends ServletRequestDataBinder {
      * @param target     target object to bind onto
      * @param objectName objectName of the target object
      */
-    @SuppressWarnings("unchecked")
     public GrailsDataBinder(Object target, String objectName) {
         super(target, objectName);
 
         setAutoGrowNestedPaths(false);
         bean = (BeanWrapper)((BeanPropertyBindingResult)super.getBindingResult()).getPropertyAccessor();
-
-        Object tmpTransients = GrailsClassUtils.getStaticPropertyValue(bean.getWrappedClass(), GrailsDomainClassProperty.TRANSIENT);
-        if (tmpTransients instanceof List) {
-            transients = (List)tmpTransients;
-        }
+        plan = BindingPlan.forClass(bean.getWrappedClass());
 
         String[] disallowed = new String[0];
         GrailsApplication grailsApplication = ApplicationHolder.getApplication();
@@ -206,12 +211,28 @@ public class GrailsDataBinder extends ServletRequestDataBinder {
      * @return A GrailsDataBinder instance
      */
     public static GrailsDataBinder createBinder(Object target, String objectName, HttpServletRequest request) {
-        GrailsDataBinder binder = createBinder(target,objectName);
-        Locale locale = RequestContextUtils.getLocale(request);
-        registerCustomEditors(binder, locale);
+        GrailsDataBinder binder = new GrailsDataBinder(target,objectName);
+        getRequestEditors(request).registerCustomEditors(binder);
         return binder;
     }
 
+    /**
+     * Returns the editors for binders created for the given request. The editors are created once per
+     * request and locale and shared by the binders, rather than created for every binder. They are not
+     * shared between requests since property editors aren't thread safe.
+     */
+    private static RequestEditors getRequestEditors(HttpServletRequest request) {
+        Locale locale = RequestContextUtils.getLocale(request);
+        RequestEditors editors = (RequestEditors)request.getAttribute(REQUEST_EDITORS_ATTRIBUTE);
+        if (editors == null || !editors.locale.equals(locale)) {
+            editors = new RequestEditors(locale);
+            registerDefaultEditors(editors);
+            registerCustomEditors(editors, locale);
+            request.setAttribute(REQUEST_EDITORS_ATTRIBUTE, editors);
+        }
+        return editors;
+    }
+
     /**
      * Registers all known
      *
@@ -225,7 +246,6 @@ public class GrailsDataBinder extends ServletRequestDataBinder {
 
         DateFormat dateFormat = new SimpleDateFormat(DEFAULT_DATE_FORMAT, locale);
 
-        registry.registerCustomEditor(Date.class, new CustomDateEditor(dateFormat,true));
         registry.registerCustomEditor(BigDecimal.class, new CustomNumberEditor(BigDecimal.class, floatFormat, true));
         registry.registerCustomEditor(BigInteger.class, new CustomNumberEditor(BigInteger.class, floatFormat, true));
         registry.registerCustomEditor(Double.class, new CustomNumberEditor(Double.class, floatFormat, true));
@@ -253,18 +273,21 @@ public class GrailsDataBinder extends ServletRequestDataBinder {
      */
     public static GrailsDataBinder createBinder(Object target, String objectName) {
         GrailsDataBinder binder = new GrailsDataBinder(target,objectName);
-        binder.registerCustomEditor(byte[].class, new ByteArrayMultipartFileEditor());
-        binder.registerCustomEditor(String.class, new StringMultipartFileEditor());
-        binder.registerCustomEditor(Currency.class, new CurrencyEditor());
-        binder.registerCustomEditor(Locale.class, new LocaleEditor());
-        binder.registerCustomEditor(TimeZone.class, new TimeZoneEditor());
-        binder.registerCustomEditor(URI.class, new UriEditor());
-
+        registerDefaultEditors(binder);
         registerCustomEditors(binder);
 
         return binder;
     }
 
+    private static void registerDefaultEditors(PropertyEditorRegistry registry) {
+        registry.registerCustomEditor(byte[].class, new ByteArrayMultipartFileEditor());
+        registry.registerCustomEditor(String.class, new StringMultipartFileEditor());
+        registry.registerCustomEditor(Currency.class, new CurrencyEditor());
+        registry.registerCustomEditor(Locale.class, new LocaleEditor());
+        registry.registerCustomEditor(TimeZone.class, new TimeZoneEditor());
+        registry.registerCustomEditor(URI.class, new UriEditor());
+    }
+
     @Override
     public void bind(PropertyValues propertyValues) {
         bind(propertyValues, null);
@@ -311,9 +334,44 @@ public class GrailsDataBinder extends ServletRequestDataBinder {
             mpvs = new ServletRequestParameterPropertyValues(request);
         }
 
+        if (request instanceof HttpServletRequest && isJSONBodyBindingEnabled() &&
+                JSONPropertyValues.isJSONRequest((HttpServletRequest)request)) {
+            addJSONBodyPropertyValues((HttpServletRequest)request, prefix, mpvs);
+        }
+
         bindWithRequestAndPropertyValues(request, mpvs);
     }
 
+    private static boolean isJSONBodyBindingEnabled() {
+        return Boolean.TRUE.equals(ConfigurationHolder.getFlatConfig().get(BIND_JSON_BODY));
+    }
+
+    /**
+     * Adds the values of a JSON request body to the property values of the request parameters, which
+     * take precedence. The body is read straight into property values, without building a JSONObject
+     * first. A body that cannot be read only leaves the parameters to bind.
+     */
+    private void addJSONBodyPropertyValues(HttpServletRequest request, String prefix, MutablePropertyValues mpvs) {
+        PropertyValues bodyValues;
+        try {
+            bodyValues = filterPropertyValues(JSONPropertyValues.fromRequest(request), prefix);
+        }
+        catch (JSONException e) {
+            LOG.debug("Not binding the body of the request, it is not a JSON object: " + e.getMessage());
+            return;
+        }
+        catch (IllegalStateException e) {
+            LOG.debug("Not binding the body of the request, it was already read: " + e.getMessage());
+            return;
+        }
+
+        for (PropertyValue propertyValue : bodyValues.getPropertyValues()) {
+            if (!mpvs.contains(propertyValue.getName())) {
+                mpvs.addPropertyValue(propertyValue);
+            }
+        }
+    }
+
     private void bindWithRequestAndPropertyValues(ServletRequest request, MutablePropertyValues mpvs) {
         GrailsWebRequest webRequest = GrailsWebRequest.lookup((HttpServletRequest) request);
         if (webRequest != null) {
@@ -347,6 +405,48 @@ public class GrailsDataBinder extends ServletRequestDataBinder {
         super.doBind(mpvs);
     }
 
+    @Override
+    protected void applyPropertyValues(MutablePropertyValues mpvs) {
+        for (PropertyValue pv : mpvs.getPropertyValues()) {
+            if (setStringPropertyDirectly(pv)) {
+                mpvs.removePropertyValue(pv);
+            }
+        }
+        super.applyPropertyValues(mpvs);
+    }
+
+    /**
+     * Sets a String value on a simple String property with the setter cached in the binding plan. The
+     * BeanWrapper would leave the value unchanged anyway, unless a custom editor is registered for it.
+     *
+     * @return false if the value has to be set by the BeanWrapper
+     */
+    private boolean setStringPropertyDirectly(PropertyValue pv) {
+        if (pv.isConverted() || !(pv.getValue() instanceof String)) {
+            return false;
+        }
+
+        BindingPlan.PropertyPath path = plan.getPath(pv.getName());
+        Method setter = path.getWriteMethod();
+        if (setter == null || path.getPropertyType() != String.class) {
+            return false;
+        }
+
+        PropertyEditor editor = findCustomEditor(String.class, pv.getName());
+        if (editor != null && !(editor instanceof StringMultipartFileEditor)) {
+            return false;
+        }
+
+        try {
+            setter.invoke(getTarget(), pv.getValue());
+            return true;
+        }
+        catch (Exception e) {
+            // leave it to the BeanWrapper, which reports the failure as a binding error
+            return false;
+        }
+    }
+
     private void filterBlankValuesWhenTargetIsNullable(MutablePropertyValues mpvs) {
         Object target = getTarget();
         Map constrainedProperties = resolveConstrainedProperties(target, domainClass);
@@ -368,7 +468,7 @@ public class GrailsDataBinder extends ServletRequestDataBinder {
     private ConstrainedProperty getConstrainedPropertyForPropertyValue(Map constrainedProperties, PropertyValue propertyValue) {
         final String propertyName = propertyValue.getName();
         if (propertyName.indexOf(PATH_SEPARATOR) > -1) {
-            String[] propertyNames = propertyName.split("\\.");
+            String[] propertyNames = plan.getPath(propertyName).getNames();
             Object target = getTarget();
             Object value = getPropertyValueForPath(target, propertyNames);
             if (value != null) {
@@ -424,20 +524,33 @@ public class GrailsDataBinder extends ServletRequestDataBinder {
     }
 
     private Object getPropertyValueForPath(Object target, String[] propertyNames) {
-        BeanWrapper wrapper = new BeanWrapperImpl(target);
+        BeanWrapper wrapper = getBeanWrapper(target);
         Object obj = target;
         for (int i = 0; i < propertyNames.length-1; i++) {
             String propertyName = propertyNames[i];
             if (wrapper.isReadableProperty(propertyName)) {
                 obj = wrapper.getPropertyValue(propertyName);
                 if (obj == null) break;
-                wrapper = new BeanWrapperImpl(obj);
+                wrapper = getBeanWrapper(obj);
             }
         }
 
         return obj;
     }
 
+    private BeanWrapper getBeanWrapper(Object instance) {
+        if (instance == getTarget()) {
+            return bean;
+        }
+
+        BeanWrapper wrapper = nestedBeans.get(instance);
+        if (wrapper == null) {
+            wrapper = new BeanWrapperImpl(instance);
+            nestedBeans.put(instance, wrapper);
+        }
+        return wrapper;
+    }
+
     private boolean shouldNullifyBlankString(PropertyValue propertyValue, ConstrainedProperty cp) {
         return cp != null && cp.isNullable() && BLANK.equals(propertyValue.getValue());
     }
@@ -487,7 +600,7 @@ public class GrailsDataBinder extends ServletRequestDataBinder {
                 for (String name : propertyNames) {
                     Object created = autoCreatePropertyIfPossible(currentBean, name, pv.getValue());
                     if (created != null) {
-                        currentBean = new BeanWrapperImpl(created);
+                        currentBean = getBeanWrapper(created);
                     }
                     else {
                         break;
@@ -609,12 +722,11 @@ public class GrailsDataBinder extends ServletRequestDataBinder {
     }
 
     private boolean isDomainClass(final Class<?> clazz) {
-        return DomainClassArtefactHandler.isDomainClass(clazz) || AnnotationDomainClassArtefactHandler.isJPADomainClass(clazz);
+        return BindingPlan.isDomainClass(clazz);
     }
 
     private boolean isEmbedded(BeanWrapper wrapper, String propertyName) {
-        Object embedded = GrailsClassUtils.getStaticPropertyValue(wrapper.getWrappedClass(), GrailsDomainClassProperty.EMBEDDED);
-        return embedded instanceof List && ((List)embedded).contains(propertyName);
+        return BindingPlan.forClass(wrapper.getWrappedClass()).isEmbedded(propertyName);
     }
 
     private boolean shouldPropertyValueSkipAutoCreate(Object propertyValue) {
@@ -729,7 +841,10 @@ public class GrailsDataBinder extends ServletRequestDataBinder {
     }
 
     private Class<?> getPropertyTypeForPath(String propertyName) {
-        Class<?> type = bean.getPropertyType(propertyName);
+        Class<?> type = plan.getPath(propertyName).getPropertyType();
+        if (type == null) {
+            type = bean.getPropertyType(propertyName);
+        }
         if (type == null) {
             // type not available via BeanWrapper - this happens with e.g. empty list indexes - so
             // find type by examining GrailsDomainClass
@@ -746,10 +861,21 @@ public class GrailsDataBinder extends ServletRequestDataBinder {
     }
 
     private boolean isReadableAndPersistent(String propertyName) {
-        return bean.isReadableProperty(propertyName) && !transients.contains(propertyName);
+        return bean.isReadableProperty(propertyName) && !plan.isTransient(propertyName);
     }
 
     private Object getPersistentInstance(Class<?> type, Object id) {
+        return invokeStaticPersistentMethod(type, "get", id);
+    }
+
+    /**
+     * @return The instances for the given identifiers, or null if the type has no getAll method
+     */
+    private List<?> getPersistentInstances(Class<?> type, List<Object> ids) {
+        return (List<?>)invokeStaticPersistentMethod(type, "getAll", new Object[] { ids });
+    }
+
+    private Object invokeStaticPersistentMethod(Class<?> type, String methodName, Object argument) {
         Object persisted;// In order to load the association instance using InvokerHelper below, we need to
         // temporarily change this thread's ClassLoader to use the Grails ClassLoader.
         // (Otherwise, we'll get a ClassNotFoundException.)
@@ -764,7 +890,7 @@ public class GrailsDataBinder extends ServletRequestDataBinder {
             }
 
             try {
-                persisted = InvokerHelper.invokeStaticMethod(type, "get", id);
+                persisted = InvokerHelper.invokeStaticMethod(type, methodName, argument);
             }
             catch (MissingMethodException e) {
                 return null; // GORM not installed, continue to operate as normal
@@ -793,12 +919,7 @@ public class GrailsDataBinder extends ServletRequestDataBinder {
         if (propertyEditor == null) {
             if (isDomainAssociation(associatedType)) {
                 if (isArray) {
-                    Object[] identifiers = (Object[])v;
-                    for (Object id : identifiers) {
-                        if (id != null) {
-                            associateObjectForId(pv, id,associatedType);
-                        }
-                    }
+                    associateObjectsForIds(pv, (Object[])v, associatedType);
                     mpvs.removePropertyValue(pv);
                 }
                 else if (v!=null && (v instanceof String)) {
@@ -841,6 +962,35 @@ public class GrailsDataBinder extends ServletRequestDataBinder {
         addAssociationToTarget(pv.getName(), target, obj);
     }
 
+    /**
+     * Loads the instances for all of the identifiers with a single getAll call, rather than a get per
+     * identifier, and adds them to the association in the order of the identifiers.
+     */
+    private void associateObjectsForIds(PropertyValue pv, Object[] identifiers, Class<?> associatedType) {
+        List<Object> ids = new ArrayList<Object>(identifiers.length);
+        for (Object id : identifiers) {
+            if (id != null) {
+                ids.add(id);
+            }
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        final Object target = getTarget();
+        List<?> instances = getPersistentInstances(associatedType, ids);
+        if (instances == null) {
+            for (Object id : ids) {
+                associateObjectForId(pv, id, associatedType);
+            }
+            return;
+        }
+
+        for (Object obj : instances) {
+            addAssociationToTarget(pv.getName(), target, obj);
+        }
+    }
+
     private boolean isDomainAssociation(Class<?> associatedType) {
         return associatedType != null && isDomainClass(associatedType);
     }
@@ -1039,4 +1189,52 @@ public class GrailsDataBinder extends ServletRequestDataBinder {
         }
         return StringUtils.join(pathElements, PATH_SEPARATOR);
     }
+
+    /**
+     * Records the editors registered for a request so that they can be registered with each binder.
+     */
+    private static class RequestEditors implements PropertyEditorRegistry {
+        private final Locale locale;
+        private final List<Object[]> editors = new ArrayList<Object[]>();
+
+        RequestEditors(Locale locale) {
+            this.locale = locale;
+        }
+
+        public void registerCustomEditor(Class<?> requiredType, PropertyEditor propertyEditor) {
+            registerCustomEditor(requiredType, null, propertyEditor);
+        }
+
+        public void registerCustomEditor(Class<?> requiredType, String propertyPath, PropertyEditor propertyEditor) {
+            editors.add(new Object[] { requiredType, propertyPath, propertyEditor });
+        }
+
+        public PropertyEditor findCustomEditor(Class<?> requiredType, String propertyPath) {
+            PropertyEditor typeEditor = null;
+            for (int i = editors.size() - 1; i >= 0; i--) {
+                Object[] editor = editors.get(i);
+                if (requiredType == null || requiredType.equals(editor[0])) {
+                    if (propertyPath != null && propertyPath.equals(editor[1])) {
+                        return (PropertyEditor)editor[2];
+                    }
+                    if (editor[1] == null && typeEditor == null && requiredType != null) {
+                        typeEditor = (PropertyEditor)editor[2];
+                    }
+                }
+            }
+            return typeEditor;
+        }
+
+        void registerCustomEditors(PropertyEditorRegistry registry) {
+            // registered in the original order so that later registrations still take precedence
+            for (Object[] editor : editors) {
+                if (editor[1] == null) {
+                    registry.registerCustomEditor((Class<?>)editor[0], (PropertyEditor)editor[2]);
+                }
+                else {
+                    registry.registerCustomEditor((Class<?>)editor[0], (String)editor[1], (PropertyEditor)editor[2]);
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,193 @@
+/* Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.grails.web.binding;
+
+import java.io.IOException;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.apache.commons.io.IOUtils;
+import org.codehaus.groovy.grails.web.json.JSONArray;
+import org.codehaus.groovy.grails.web.json.JSONException;
+import org.codehaus.groovy.grails.web.json.JSONObject;
+import org.codehaus.groovy.grails.web.json.JSONTokener;
+import org.springframework.beans.MutablePropertyValues;
+
+/**
+ * Reads a JSON object straight into the property values used for data binding, without first
+ * building a JSONObject tree. Nested objects become dotted property paths, so that
+ * {"author":{"id":1}} binds like the author.id request parameter, and values keep their JSON
+ * types rather than going through Strings. Arrays are bound as JSONArray instances as before.
+ *
+ * @since 1.4
+ */
+public class JSONPropertyValues {
+
+    /**
+     * The request attribute the JSON converter caches the parsed request body in.
+     */
+    public static final String CACHED_JSON_REQUEST_CONTENT = "org.codehaus.groovy.grails.CACHED_JSON_REQUEST_CONTENT";
+
+    /**
+     * The request attribute the request body is kept in once read for binding, so that it can still be
+     * parsed afterwards.
+     */
+    public static final String JSON_REQUEST_BODY = "org.codehaus.groovy.grails.JSON_REQUEST_BODY";
+
+    private static final String DEFAULT_ENCODING = "UTF-8";
+    private static final String CLASS_PROPERTY = "class";
+
+    /**
+     * @param request The request
+     * @return true if the body of the request is JSON
+     */
+    public static boolean isJSONRequest(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType != null && contentType.toLowerCase().indexOf("json") > -1;
+    }
+
+    /**
+     * Reads the property values from the JSON body of the given request. If the body has already been
+     * parsed by the JSON converter the parsed content is used.
+     *
+     * @param request The request
+     * @return The property values
+     * @throws JSONException If the body is not a JSON object
+     * @throws IllegalStateException If the body was already read through the reader of the request
+     */
+    public static MutablePropertyValues fromRequest(HttpServletRequest request) {
+        Object cached = request.getAttribute(CACHED_JSON_REQUEST_CONTENT);
+        if (cached instanceof JSONObject) {
+            MutablePropertyValues mpvs = new MutablePropertyValues();
+            addPropertyValues((JSONObject)cached, "", mpvs);
+            return mpvs;
+        }
+        if (cached != null) {
+            throw new JSONException("The request body is not a JSON object");
+        }
+
+        String body = (String)request.getAttribute(JSON_REQUEST_BODY);
+        if (body == null) {
+            String encoding = request.getCharacterEncoding();
+            try {
+                body = IOUtils.toString(request.getInputStream(), encoding == null ? DEFAULT_ENCODING : encoding);
+            }
+            catch (IOException e) {
+                throw new JSONException(e);
+            }
+            request.setAttribute(JSON_REQUEST_BODY, body);
+        }
+        return fromString(body);
+    }
+
+    /**
+     * Reads the property values from the given JSON object text.
+     *
+     * @param json The JSON
+     * @return The property values, empty if the text is blank
+     */
+    public static MutablePropertyValues fromString(String json) {
+        MutablePropertyValues mpvs = new MutablePropertyValues();
+        JSONTokener tokener = new JSONTokener(json);
+        if (tokener.nextClean() != 0) {
+            tokener.back();
+            readObject(tokener, "", mpvs);
+        }
+        return mpvs;
+    }
+
+    /*
+     * Follows the grammar accepted by JSONObject(JSONTokener), adding each value as it is read.
+     */
+    private static void readObject(JSONTokener x, String prefix, MutablePropertyValues mpvs) {
+        if (x.nextClean() != '{') {
+            throw x.syntaxError("A JSONObject text must begin with '{'");
+        }
+        for (;;) {
+            String key;
+            char c = x.nextClean();
+            switch (c) {
+                case 0:
+                    throw x.syntaxError("A JSONObject text must end with '}'");
+                case '}':
+                    return;
+                default:
+                    x.back();
+                    key = x.nextValue().toString();
+            }
+
+            c = x.nextClean();
+            if (c == '=') {
+                if (x.next() != '>') {
+                    x.back();
+                }
+            }
+            else if (c != ':') {
+                throw x.syntaxError("Expected a ':' after a key");
+            }
+            readValue(x, prefix, key, mpvs);
+
+            switch (x.nextClean()) {
+                case ';':
+                case ',':
+                    if (x.nextClean() == '}') {
+                        return;
+                    }
+                    x.back();
+                    break;
+                case '}':
+                    return;
+                default:
+                    throw x.syntaxError("Expected a ',' or '}'");
+            }
+        }
+    }
+
+    private static void readValue(JSONTokener x, String prefix, String key, MutablePropertyValues mpvs) {
+        char c = x.nextClean();
+        x.back();
+        if (c == '{') {
+            readObject(x, prefix + key + '.', mpvs);
+        }
+        else if (c == '[') {
+            addPropertyValue(prefix, key, new JSONArray(x), mpvs);
+        }
+        else {
+            addPropertyValue(prefix, key, x.nextValue(), mpvs);
+        }
+    }
+
+    private static void addPropertyValues(JSONObject json, String prefix, MutablePropertyValues mpvs) {
+        for (Object o : json.entrySet()) {
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>)o;
+            String key = String.valueOf(entry.getKey());
+            if (entry.getValue() instanceof JSONObject) {
+                addPropertyValues((JSONObject)entry.getValue(), prefix + key + '.', mpvs);
+            }
+            else {
+                addPropertyValue(prefix, key, entry.getValue(), mpvs);
+            }
+        }
+    }
+
+    private static void addPropertyValue(String prefix, String key, Object value, MutablePropertyValues mpvs) {
+        if (prefix.length() == 0 && CLASS_PROPERTY.equals(key)) {
+            // the type hint of the converter, not a property
+            return;
+        }
+        mpvs.addPropertyValue(prefix + key, JSONObject.NULL.equals(value) ? null : value);
+    }
+}
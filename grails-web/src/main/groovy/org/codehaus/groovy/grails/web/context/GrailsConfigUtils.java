@@ -28,6 +28,7 @@ import org.codehaus.groovy.grails.commons.GrailsClass;
 import org.codehaus.groovy.grails.commons.spring.GrailsRuntimeConfigurator;
 import org.codehaus.groovy.grails.plugins.GrailsPluginManager;
 import org.codehaus.groovy.grails.support.PersistenceContextInterceptor;
+import org.codehaus.groovy.grails.support.StartupProfiler;
 import org.codehaus.groovy.runtime.typehandling.DefaultTypeTransformation;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
@@ -45,7 +46,8 @@ public class GrailsConfigUtils {
     private static final Log LOG = LogFactory.getLog(GrailsConfigUtils.class);
 
     /**
-     * Executes Grails bootstrap classes
+     * Executes Grails bootstrap classes. This is the last step of startup, so the startup profile is
+     * reported once they have run.
      *
      * @param application The Grails ApplicationContext instance
      * @param webContext The WebApplicationContext instance
@@ -64,14 +66,21 @@ public class GrailsConfigUtils {
             interceptor.init();
         }
         // init the Grails application
+        StartupProfiler profiler = StartupProfiler.getInstance();
         try {
             GrailsClass[] bootstraps = application.getArtefacts(BootstrapArtefactHandler.TYPE);
             for (GrailsClass bootstrap : bootstraps) {
                 final GrailsBootstrapClass bootstrapClass = (GrailsBootstrapClass) bootstrap;
-                final Object instance = bootstrapClass.getReferenceInstance();
-                webContext.getAutowireCapableBeanFactory().autowireBeanProperties(
-                        instance, AutowireCapableBeanFactory.AUTOWIRE_BY_NAME, false);
-                bootstrapClass.callInit(servletContext);
+                StartupProfiler.Step step = profiler.start("bootstrap", bootstrapClass.getFullName());
+                try {
+                    final Object instance = bootstrapClass.getReferenceInstance();
+                    webContext.getAutowireCapableBeanFactory().autowireBeanProperties(
+                            instance, AutowireCapableBeanFactory.AUTOWIRE_BY_NAME, false);
+                    bootstrapClass.callInit(servletContext);
+                }
+                finally {
+                    step.stop();
+                }
             }
             if (interceptor != null) {
                 interceptor.flush();
@@ -82,6 +91,7 @@ public class GrailsConfigUtils {
                 interceptor.destroy();
             }
         }
+        profiler.finish();
     }
 
     public static WebApplicationContext configureWebApplicationContext(ServletContext servletContext, WebApplicationContext parent) {
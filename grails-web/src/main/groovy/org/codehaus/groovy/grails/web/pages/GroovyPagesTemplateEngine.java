@@ -37,6 +37,7 @@ import org.codehaus.groovy.control.CompilationFailedException;
 import org.codehaus.groovy.control.CompilerConfiguration;
 import org.codehaus.groovy.grails.commons.GrailsResourceUtils;
 import org.codehaus.groovy.grails.support.ResourceAwareTemplateEngine;
+import org.codehaus.groovy.grails.support.StartupProfiler;
 import org.codehaus.groovy.grails.web.errors.GrailsExceptionResolver;
 import org.codehaus.groovy.grails.web.pages.exceptions.GroovyPagesException;
 import org.codehaus.groovy.grails.web.pages.ext.jsp.TagLibraryResolver;
@@ -322,12 +323,16 @@ public class GroovyPagesTemplateEngine  extends ResourceAwareTemplateEngine impl
         String gspClassName = precompiledGspMap.get(uri);
         if (gspClassName != null) {
             Class<GroovyPage> gspClass = null;
+            StartupProfiler.Step step = StartupProfiler.getInstance().start("precompiledGsp", gspClassName);
             try {
                 gspClass = (Class<GroovyPage>)Class.forName(gspClassName, true, Thread.currentThread().getContextClassLoader());
             }
             catch (ClassNotFoundException e) {
                 LOG.warn("Cannot load class " + gspClassName + ". Resuming on non-precompiled implementation.", e);
             }
+            finally {
+                step.stop();
+            }
             if (gspClass != null) {
                 meta = new GroovyPageMetaInfo(gspClass);
                 meta.setJspTagLibraryResolver(jspTagLibraryResolver);
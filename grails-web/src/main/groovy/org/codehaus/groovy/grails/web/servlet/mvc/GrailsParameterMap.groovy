@@ -42,6 +42,8 @@ import org.codehaus.groovy.grails.web.util.TypeConvertingMap
 class GrailsParameterMap extends TypeConvertingMap {
 
     private HttpServletRequest request
+    private boolean requestParametersPending
+    private List pendingNestedParameters
 
     /**
      * Does not populate the GrailsParameterMap from the request but instead uses the supplied values.
@@ -55,11 +57,40 @@ class GrailsParameterMap extends TypeConvertingMap {
     }
 
     /**
-     * Creates a GrailsParameterMap populating from the given request object
+     * Creates a GrailsParameterMap populating from the given request object. The request parameters
+     * are read on first access of the map, so requests that never use params don't pay for copying them.
+     *
      * @param request The request object
      */
     GrailsParameterMap(HttpServletRequest request) {
         this.request = request
+        requestParametersPending = true
+    }
+
+    Object clone() {
+        new GrailsParameterMap(new HashMap(parameters()), request)
+    }
+
+    /*
+     * Returns the wrapped map, populating it from the request or, for nested maps, from the
+     * parameters collected by the parent map the first time it is called.
+     */
+    private Map parameters() {
+        if (requestParametersPending) {
+            requestParametersPending = false
+            populateFromRequest()
+        }
+        else if (pendingNestedParameters != null) {
+            List pending = pendingNestedParameters
+            pendingNestedParameters = null
+            for (parameter in pending) {
+                putParameter(parameter[0], parameter[1])
+            }
+        }
+        this.@wrappedMap
+    }
+
+    private void populateFromRequest() {
         final Map requestMap = new LinkedHashMap(request.getParameterMap())
         if (request instanceof MultipartHttpServletRequest) {
             def fileMap = request.fileMap
@@ -68,17 +99,10 @@ class GrailsParameterMap extends TypeConvertingMap {
             }
         }
         for (key in requestMap.keySet()) {
-            Object paramValue = getParameterValue(requestMap, key)
-
-            this.@wrappedMap.put(key, paramValue)
-            processNestedKeys(request, requestMap, key, key, this.@wrappedMap)
+            putParameter(key, getParameterValue(requestMap, key))
         }
     }
 
-    Object clone() {
-        new GrailsParameterMap(new HashMap(this.@wrappedMap), request)
-    }
-
     private Object getParameterValue(Map requestMap, String key) {
         Object paramValue = requestMap.get(key)
         if (paramValue instanceof String[]) {
@@ -89,14 +113,19 @@ class GrailsParameterMap extends TypeConvertingMap {
         return paramValue
     }
 
+    private void putParameter(String key, Object value) {
+        this.@wrappedMap.put(key, value)
+        processNestedKey(key, value)
+    }
+
     /*
      * Builds up a multi dimensional hash structure from the parameters so that nested keys such as
      * "book.author.name" can be addressed like params['author'].name
      *
      * This also allows data binding to occur for only a subset of the properties in the parameter map.
+     * The sub-map for a prefix only collects its keys here, it processes them itself when first accessed.
      */
-    private void processNestedKeys(HttpServletRequest request, Map requestMap, String key,
-            String nestedKey, Map nestedLevel) {
+    private void processNestedKey(String nestedKey, Object value) {
         final int nestedIndex = nestedKey.indexOf('.')
         if (nestedIndex > -1) {
             // We have at least one sub-key, so extract the first element
@@ -111,44 +140,47 @@ class GrailsParameterMap extends TypeConvertingMap {
                 nestedPrefix = nestedPrefix[1..-1]
             }
             // Let's see if we already have a value in the current map for the prefix.
-            Object prefixValue = nestedLevel.get(nestedPrefix)
+            Object prefixValue = this.@wrappedMap.get(nestedPrefix)
             if (prefixValue == null) {
                 // No value. So, since there is at least one sub-key,
                 // we create a sub-map for this prefix.
                 prefixValue = new GrailsParameterMap(new HashMap(), request)
-                nestedLevel.put(nestedPrefix, prefixValue)
+                this.@wrappedMap.put(nestedPrefix, prefixValue)
             }
 
             // If the value against the prefix is a map, then we store the sub-keys in that map.
-            if (prefixValue instanceof Map) {
-                Map nestedMap = (Map)prefixValue
+            if (prefixValue instanceof GrailsParameterMap) {
                 if (nestedIndex < nestedKey.length()-1) {
                     String remainderOfKey = nestedKey.substring(nestedIndex + 1, nestedKey.length())
                     // GRAILS-2486 Cascade the '_' prefix in order to bind checkboxes properly
                     if (prefixedByUnderscore) {
                         remainderOfKey = '_' + remainderOfKey
                     }
-                    nestedMap.put(remainderOfKey,getParameterValue(requestMap, key) )
-                    if (remainderOfKey.indexOf('.') >-1) {
-                        processNestedKeys(request, requestMap, key, remainderOfKey, nestedMap)
-                    }
+                    ((GrailsParameterMap)prefixValue).addPendingParameter(remainderOfKey, value)
                 }
             }
         }
     }
 
+    private void addPendingParameter(String key, Object value) {
+        if (pendingNestedParameters == null) {
+            pendingNestedParameters = []
+        }
+        pendingNestedParameters << [key, value]
+    }
+
     /**
      * @return Returns the request.
      */
     HttpServletRequest getRequest() { request }
 
-    int size() { this.@wrappedMap.size() }
+    int size() { parameters().size() }
 
-    boolean isEmpty() { this.@wrappedMap.empty }
+    boolean isEmpty() { parameters().empty }
 
-    boolean containsKey(Object key) { this.@wrappedMap.containsKey(key) }
+    boolean containsKey(Object key) { parameters().containsKey(key) }
 
-    boolean containsValue(Object value) { this.@wrappedMap.containsValue(value)    }
+    boolean containsValue(Object value) { parameters().containsValue(value)    }
 
     private Map nestedDateMap = [:]
 
@@ -157,11 +189,12 @@ class GrailsParameterMap extends TypeConvertingMap {
         // removed test for String key because there
         // should be no limitations on what you shove in or take out
         def returnValue
+        Map parameters = parameters()
         if (nestedDateMap.containsKey(key)) {
             returnValue = nestedDateMap.get(key)
         }
-        else if (this.@wrappedMap.get(key) instanceof String[]) {
-            String[] valueArray = this.@wrappedMap.get(key)
+        else if (parameters.get(key) instanceof String[]) {
+            String[] valueArray = parameters.get(key)
             if (valueArray == null) {
                 return null
             }
@@ -174,7 +207,7 @@ class GrailsParameterMap extends TypeConvertingMap {
             }
         }
         else {
-            returnValue = this.@wrappedMap.get(key)
+            returnValue = parameters.get(key)
         }
 
         if ("date.struct".equals(returnValue)) {
@@ -212,12 +245,12 @@ class GrailsParameterMap extends TypeConvertingMap {
     Object put(Object key, Object value) {
         if (value instanceof CharSequence) value = value.toString()
         if (nestedDateMap.containsKey(key)) nestedDateMap.remove(key)
-        return this.@wrappedMap.put(key, value)
+        return parameters().put(key, value)
     }
 
     Object remove(Object key) {
         nestedDateMap.remove(key)
-        return this.@wrappedMap.remove(key)
+        return parameters().remove(key)
     }
 
     void putAll(Map map) {
@@ -227,14 +260,14 @@ class GrailsParameterMap extends TypeConvertingMap {
     }
 
     void clear() {
-        this.@wrappedMap.clear()
+        parameters().clear()
     }
 
-    Set keySet() { this.@wrappedMap.keySet() }
+    Set keySet() { parameters().keySet() }
 
-    Collection values() { this.@wrappedMap.values() }
+    Collection values() { parameters().values() }
 
-    Set entrySet() { this.@wrappedMap.entrySet() }
+    Set entrySet() { parameters().entrySet() }
 
     /**
      * Converts this parameter map into a query String. Note that this will flatten nested keys separating them with the
@@ -255,7 +288,7 @@ class GrailsParameterMap extends TypeConvertingMap {
     }
 
     String toString() {
-        return DefaultGroovyMethods.inspect(this.@wrappedMap)
+        return DefaultGroovyMethods.inspect(parameters())
     }
 
     /**